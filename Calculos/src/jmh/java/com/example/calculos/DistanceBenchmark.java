@@ -0,0 +1,71 @@
+package com.example.calculos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por comparação de uma coordenada com regiões salvas: a distância de haversine a partir de graus, que
+ * converte e calcula os dois cossenos a cada chamada, e a versão que recebe radianos e cossenos pré-calculados.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DistanceBenchmark {
+    private static final int SIZE = 1024;
+
+    private final double[] latitudes = new double[SIZE];
+    private final double[] longitudes = new double[SIZE];
+    private final double[] latitudesRadians = new double[SIZE];
+    private final double[] longitudesRadians = new double[SIZE];
+    private final double[] cosLatitudes = new double[SIZE];
+    private final GeoCalculator calculator = new GeoCalculator();
+    private double queryLatitude;
+    private double queryLongitude;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        for (int i = 0; i < SIZE; i++) {
+            latitudes[i] = -19.9 + random.nextDouble() * 0.45;
+            longitudes[i] = -43.9 + random.nextDouble() * 0.45;
+            latitudesRadians[i] = Math.toRadians(latitudes[i]);
+            longitudesRadians[i] = Math.toRadians(longitudes[i]);
+            cosLatitudes[i] = Math.cos(latitudesRadians[i]);
+        }
+        queryLatitude = -19.7;
+        queryLongitude = -43.7;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public double degrees() {
+        double sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += calculator.calculateDistance(latitudes[i], longitudes[i], queryLatitude, queryLongitude);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public double precomputed() {
+        double latitudeRadians = Math.toRadians(queryLatitude);
+        double longitudeRadians = Math.toRadians(queryLongitude);
+        double cosLatitude = Math.cos(latitudeRadians);
+        double sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += calculator.calculateDistance(latitudesRadians[i], longitudesRadians[i], cosLatitudes[i],
+                    latitudeRadians, longitudeRadians, cosLatitude);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.calculos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por chamada de cada nível de DistanceStrategy, com pares de pontos a até ~100 m (o caso do laço de
+ * proximidade), a partir de graus e a partir de valores pré-calculados.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DistanceStrategyBenchmark {
+    private static final int SIZE = 1024;
+
+    @Param({"equirectangular", "haversine", "vincenty"})
+    public String strategy;
+
+    private DistanceStrategy distance;
+    private final double[] latitudes = new double[SIZE];
+    private final double[] longitudes = new double[SIZE];
+    private final double[] latitudesRadians = new double[SIZE];
+    private final double[] longitudesRadians = new double[SIZE];
+    private final double[] cosLatitudes = new double[SIZE];
+    private final double queryLatitude = -19.9;
+    private final double queryLongitude = -43.9;
+
+    @Setup
+    public void setUp() {
+        switch (strategy) {
+            case "equirectangular":
+                distance = DistanceStrategy.EQUIRECTANGULAR;
+                break;
+            case "haversine":
+                distance = DistanceStrategy.HAVERSINE;
+                break;
+            default:
+                distance = DistanceStrategy.VINCENTY;
+        }
+        Random random = new Random(1);
+        for (int i = 0; i < SIZE; i++) {
+            latitudes[i] = queryLatitude + (random.nextDouble() - 0.5) * 0.002;
+            longitudes[i] = queryLongitude + (random.nextDouble() - 0.5) * 0.002;
+            latitudesRadians[i] = Math.toRadians(latitudes[i]);
+            longitudesRadians[i] = Math.toRadians(longitudes[i]);
+            cosLatitudes[i] = Math.cos(latitudesRadians[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public double degrees() {
+        double sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += distance.distance(latitudes[i], longitudes[i], queryLatitude, queryLongitude);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public double precomputed() {
+        double latitudeRadians = Math.toRadians(queryLatitude);
+        double longitudeRadians = Math.toRadians(queryLongitude);
+        double cosLatitude = Math.cos(latitudeRadians);
+        double sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += distance.distance(latitudesRadians[i], longitudesRadians[i], cosLatitudes[i],
+                    latitudeRadians, longitudeRadians, cosLatitude);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.calculos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a busca do ponto mais próximo no Gazetteer, lido do mesmo formato binário que o aplicativo mapeia do disco.
+ * Os pontos são sorteados em um quadrado de 40 km, como as ruas de uma cidade grande.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GazetteerBenchmark {
+    private static final double LATITUDE = -19.9191;
+    private static final double LONGITUDE = -43.9386;
+    private static final double SPREAD_METERS = 40000;
+
+    @Param({"10000", "500000"})
+    public int size;
+
+    private Gazetteer gazetteer;
+    private final double[] queryLatitudes = new double[1024];
+    private final double[] queryLongitudes = new double[1024];
+    private int query;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(4);
+        double latitudeSpread = SPREAD_METERS / GeoGrid.METERS_PER_DEGREE;
+        double longitudeSpread = latitudeSpread / Math.cos(Math.toRadians(LATITUDE));
+        GazetteerBuilder builder = new GazetteerBuilder(GazetteerBuilder.DEFAULT_CELL_SIZE);
+        for (int i = 0; i < size; i++) {
+            builder.add("Rua " + i, LATITUDE + (random.nextDouble() - 0.5) * latitudeSpread,
+                    LONGITUDE + (random.nextDouble() - 0.5) * longitudeSpread);
+        }
+        gazetteer = new Gazetteer(builder.toByteBuffer());
+        for (int i = 0; i < queryLatitudes.length; i++) {
+            queryLatitudes[i] = LATITUDE + (random.nextDouble() - 0.5) * latitudeSpread;
+            queryLongitudes[i] = LONGITUDE + (random.nextDouble() - 0.5) * longitudeSpread;
+        }
+    }
+
+    @Benchmark
+    public int nearest() {
+        int q = query++ & (queryLatitudes.length - 1);
+        return gazetteer.nearest(queryLatitudes[q], queryLongitudes[q], 500);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.calculos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a abertura do HilbertPointIndex seguida da primeira consulta de 20 km (partida a frio do índice gravado em
+ * disco) e a mesma consulta com o índice já aberto. Os pontos são sorteados em boa parte do Sudeste e do Sul.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HilbertPointIndexBenchmark {
+    private static final int PAYLOAD = 4;
+    private static final double LATITUDE = -19.92;
+    private static final double LONGITUDE = -43.94;
+    private static final double RADIUS = 20000;
+
+    @Param({"200000", "1000000"})
+    public int size;
+
+    private File file;
+    private HilbertPointIndex open;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(11);
+        List<HilbertPointIndex.Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new HilbertPointIndex.Entry(-33 + random.nextDouble() * 30, -60 + random.nextDouble() * 25,
+                    ByteBuffer.allocate(PAYLOAD).putInt(i).array()));
+        }
+        file = File.createTempFile("pontos", ".idx");
+        if (!file.delete()) {
+            throw new IOException("Não foi possível preparar " + file);
+        }
+        try (HilbertPointIndex index = HilbertPointIndex.open(file, PAYLOAD)) {
+            index.replaceAll(entries);
+        }
+        open = HilbertPointIndex.open(file, PAYLOAD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        open.close();
+        new File(file.getPath() + HilbertPointIndex.DELTA_SUFFIX).delete();
+        file.delete();
+    }
+
+    @Benchmark
+    public int openAndFirstQuery() throws IOException {
+        try (HilbertPointIndex index = HilbertPointIndex.open(file, PAYLOAD)) {
+            return count(index);
+        }
+    }
+
+    @Benchmark
+    public int query() {
+        return count(open);
+    }
+
+    private static int count(HilbertPointIndex index) {
+        final int[] found = new int[1];
+        index.withinRadius(LATITUDE, LONGITUDE, RADIUS, record -> {
+            found[0]++;
+            return true;
+        });
+        return found[0];
+    }
+}
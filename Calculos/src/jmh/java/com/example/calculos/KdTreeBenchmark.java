@@ -0,0 +1,87 @@
+package com.example.calculos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a consulta dos k vizinhos mais próximos na KdTree com a varredura linear usando GeoCalculator.
+ * Os pontos são sorteados em uma área de ~50 km x 50 km, como uma cidade com muitas regiões salvas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KdTreeBenchmark {
+    private static final int K = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private KdTree tree;
+    private final GeoCalculator calculator = new GeoCalculator();
+    private final Random random = new Random(1);
+    private final int[] ids = new int[K];
+    private final double[] distances = new double[K];
+    private final double[] queryLatitudes = new double[1024];
+    private final double[] queryLongitudes = new double[1024];
+    private int query;
+
+    @Setup
+    public void setUp() {
+        latitudes = new double[size];
+        longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = -19.9 + random.nextDouble() * 0.45;
+            longitudes[i] = -43.9 + random.nextDouble() * 0.45;
+        }
+        for (int i = 0; i < queryLatitudes.length; i++) {
+            queryLatitudes[i] = -19.9 + random.nextDouble() * 0.45;
+            queryLongitudes[i] = -43.9 + random.nextDouble() * 0.45;
+        }
+        tree = KdTree.build(latitudes, longitudes);
+    }
+
+    @Benchmark
+    public int kdTree() {
+        int q = query++ & (queryLatitudes.length - 1);
+        return tree.nearest(queryLatitudes[q], queryLongitudes[q], K, ids, distances);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        // Mantém os K menores em ordem crescente por inserção, sem ordenar a lista inteira
+        int q = query++ & (queryLatitudes.length - 1);
+        double queryLatitude = queryLatitudes[q];
+        double queryLongitude = queryLongitudes[q];
+        int found = 0;
+        for (int i = 0; i < size; i++) {
+            double d = calculator.calculateDistance(latitudes[i], longitudes[i], queryLatitude, queryLongitude);
+            if (found < K || d < distances[found - 1]) {
+                int position = found < K ? found++ : found - 1;
+                while (position > 0 && distances[position - 1] > d) {
+                    distances[position] = distances[position - 1];
+                    ids[position] = ids[position - 1];
+                    position--;
+                }
+                distances[position] = d;
+                ids[position] = i;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public KdTree bulkBuild() {
+        return KdTree.build(latitudes, longitudes);
+    }
+}
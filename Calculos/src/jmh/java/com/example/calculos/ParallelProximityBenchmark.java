@@ -0,0 +1,76 @@
+package com.example.calculos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a escalabilidade do ParallelProximityScanner com 1, 2, 4 e 8 threads sobre 1 milhão de pontos: a varredura
+ * linear de uma coordenada sem vizinhos (pior caso, sem parada antecipada) e a contagem de violações de um GridIndex.
+ * A varredura sequencial com GeoCalculator serve de referência para a versão com 1 thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelProximityBenchmark {
+    private static final int SIZE = 1000000;
+    private static final double RADIUS = 30;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private GridIndex index;
+    private ParallelProximityScanner scanner;
+    private final GeoCalculator calculator = new GeoCalculator();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1);
+        latitudes = new double[SIZE];
+        longitudes = new double[SIZE];
+        index = new GridIndex(new GeoGrid(RADIUS), SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            latitudes[i] = -19.9 + random.nextDouble() * 0.45;
+            longitudes[i] = -43.9 + random.nextDouble() * 0.45;
+            index.add(latitudes[i], longitudes[i]);
+        }
+        scanner = new ParallelProximityScanner(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scanner.shutdown();
+    }
+
+    @Benchmark
+    public int parallelScanMiss() {
+        return scanner.findWithin(latitudes, longitudes, SIZE, 0, 0, RADIUS);
+    }
+
+    @Benchmark
+    public int sequentialScanMiss() {
+        for (int i = 0; i < SIZE; i++) {
+            if (calculator.calculateDistance(latitudes[i], longitudes[i], 0, 0) < RADIUS) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public long countViolations() {
+        return scanner.countViolations(index, RADIUS);
+    }
+}
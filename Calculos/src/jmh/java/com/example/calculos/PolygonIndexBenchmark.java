@@ -0,0 +1,77 @@
+package com.example.calculos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a busca do polígono que contém um ponto no PolygonIndex (RTree + teste exato) com a varredura linear.
+ * A área cresce com a quantidade de polígonos, de modo que a densidade fica constante entre os tamanhos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PolygonIndexBenchmark {
+    private static final double LATITUDE = -19.9191;
+    private static final double LONGITUDE = -43.9386;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Polygon> polygons;
+    private PolygonIndex index;
+    private final double[] queryLatitudes = new double[1024];
+    private final double[] queryLongitudes = new double[1024];
+    private int query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        double spread = 20000 * Math.sqrt(size / 100000.0) / GeoGrid.METERS_PER_DEGREE;
+        polygons = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            double latitude = LATITUDE + (random.nextDouble() - 0.5) * spread;
+            double longitude = LONGITUDE + (random.nextDouble() - 0.5) * spread;
+            double half = (10 + random.nextDouble() * 50) / 2 / GeoGrid.METERS_PER_DEGREE;
+            polygons.add(new Polygon(new double[]{latitude - half, latitude - half, latitude + half, latitude + half},
+                    new double[]{longitude - half, longitude + half, longitude + half, longitude - half}));
+        }
+        for (int i = 0; i < queryLatitudes.length; i++) {
+            queryLatitudes[i] = LATITUDE + (random.nextDouble() - 0.5) * spread;
+            queryLongitudes[i] = LONGITUDE + (random.nextDouble() - 0.5) * spread;
+        }
+        index = new PolygonIndex(polygons);
+    }
+
+    @Benchmark
+    public int rTree() {
+        int q = query++ & (queryLatitudes.length - 1);
+        return index.findContaining(queryLatitudes[q], queryLongitudes[q]);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int q = query++ & (queryLatitudes.length - 1);
+        for (int i = 0; i < polygons.size(); i++) {
+            if (polygons.get(i).contains(queryLatitudes[q], queryLongitudes[q])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public PolygonIndex bulkBuild() {
+        return new PolygonIndex(polygons);
+    }
+}
@@ -0,0 +1,297 @@
+/**
+ * Pirâmide de contagens de pontos por célula em vários níveis de zoom, para mapas de calor sem ler os pontos.
+ *
+ * As células seguem os blocos da projeção Web Mercator usados pelos mapas: no nível L há 2^L x 2^L células, e cada
+ * célula do nível L se divide em 4 do nível L + 1. Um bloco de mapa no zoom z é dividido em TILE_BINS x TILE_BINS
+ * faixas, que são as células do nível z + BIN_SHIFT; assim, desenhar um bloco lê no máximo TILE_BINS² contagens,
+ * qualquer que seja a quantidade de pontos. Os níveis vão de 0 a maxZoom + BIN_SHIFT; em zooms acima de maxZoom,
+ * cada faixa recebe a contagem da célula do nível mais fino que a contém.
+ *
+ * Cada nível guarda apenas as células ocupadas, em uma tabela hash de endereçamento aberto com chaves long (como no
+ * GridIndex), sem um objeto por célula. Acrescentar ou retirar um ponto atualiza uma célula por nível: O(níveis).
+ *
+ * Principais funcionalidades:
+ * - Acréscimo e retirada de pontos, um por vez, sem reconstruir a pirâmide.
+ * - Contagens das faixas de um bloco de mapa (tile()) e contagem total de um bloco (count()).
+ * - Maior contagem de uma célula em cada nível, para normalizar as cores do mapa de calor.
+ * - Gravação e leitura em fluxo, célula por célula.
+ *
+ * A classe não é sincronizada; o acesso concorrente deve ser controlado por quem a utiliza.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+public class DensityPyramid {
+    static final int MAGIC = 0x44454E31; // "DEN1"
+    public static final int BIN_SHIFT = 4;
+    public static final int TILE_BINS = 1 << BIN_SHIFT; // Faixas por lado de um bloco de mapa
+    public static final int DEFAULT_MAX_ZOOM = 16;
+    public static final int MAX_ZOOM_LIMIT = 30 - BIN_SHIFT; // Coordenadas de célula cabem em um int
+    private static final double MAX_LATITUDE = 85.05112878; // Limite da projeção Web Mercator
+
+    private final int maxZoom;
+    private final CountTable[] levels;
+    private long total;
+
+    public DensityPyramid() {
+        this(DEFAULT_MAX_ZOOM);
+    }
+
+    public DensityPyramid(int maxZoom) {
+        if (maxZoom < 0 || maxZoom > MAX_ZOOM_LIMIT) {
+            throw new IllegalArgumentException("Zoom máximo inválido: " + maxZoom);
+        }
+        this.maxZoom = maxZoom;
+        this.levels = new CountTable[maxZoom + BIN_SHIFT + 1];
+        for (int level = 0; level < levels.length; level++) {
+            levels[level] = new CountTable();
+        }
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * Quantidade de pontos na pirâmide (acréscimos menos retiradas).
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public void add(double latitude, double longitude) {
+        add(latitude, longitude, 1);
+    }
+
+    public void remove(double latitude, double longitude) {
+        add(latitude, longitude, -1);
+    }
+
+    /**
+     * Soma delta à contagem das células que contêm o ponto, uma por nível.
+     *
+     * @throws IllegalArgumentException Se as coordenadas forem inválidas.
+     */
+    public void add(double latitude, double longitude, int delta) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Coordenadas inválidas: " + latitude + ", " + longitude);
+        }
+        int finest = levels.length - 1;
+        int x = columnOf(longitude, finest);
+        int y = rowOf(latitude, finest);
+        for (int level = finest; level >= 0; level--) {
+            levels[level].add(key(x >> (finest - level), y >> (finest - level)), delta);
+        }
+        total += delta;
+    }
+
+    /**
+     * Contagens das TILE_BINS x TILE_BINS faixas do bloco de mapa (x, y) no zoom informado, linha a linha, de
+     * noroeste a sudeste (a mesma orientação dos blocos de mapa).
+     */
+    public int[] tile(int zoom, int x, int y) {
+        checkTile(zoom, x, y);
+        int[] bins = new int[TILE_BINS * TILE_BINS];
+        int level = zoom + BIN_SHIFT;
+        int finest = levels.length - 1;
+        int shift = Math.max(level - finest, 0); // Acima do nível mais fino, várias faixas caem na mesma célula
+        CountTable table = levels[Math.min(level, finest)];
+        if (table.size == 0) {
+            return bins;
+        }
+        long firstColumn = (long) x << BIN_SHIFT;
+        long firstRow = (long) y << BIN_SHIFT;
+        for (int row = 0; row < TILE_BINS; row++) {
+            for (int column = 0; column < TILE_BINS; column++) {
+                bins[row * TILE_BINS + column] = table.get(
+                        key((int) ((firstColumn + column) >> shift), (int) ((firstRow + row) >> shift)));
+            }
+        }
+        return bins;
+    }
+
+    /**
+     * Quantidade de pontos dentro do bloco de mapa (x, y) no zoom informado, com uma única leitura. Em zooms acima
+     * do nível mais fino (maxZoom + BIN_SHIFT), retorna a contagem da célula que contém o bloco.
+     */
+    public int count(int zoom, int x, int y) {
+        checkTile(zoom, x, y);
+        int finest = levels.length - 1;
+        if (zoom <= finest) {
+            return levels[zoom].get(key(x, y));
+        }
+        int shift = zoom - finest;
+        return levels[finest].get(key(x >> shift, y >> shift));
+    }
+
+    /**
+     * Maior contagem de uma faixa dos blocos no zoom informado, para normalizar as cores do mapa de calor.
+     * Pode superestimar o máximo depois de retiradas, mas nunca o subestima.
+     */
+    public int maxBinCount(int zoom) {
+        return levels[Math.min(zoom + BIN_SHIFT, levels.length - 1)].max;
+    }
+
+    /**
+     * Grava a pirâmide no fluxo informado, sem fechá-lo. Apenas as células com contagem diferente de zero são gravadas.
+     */
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeInt(MAGIC);
+        output.writeInt(maxZoom);
+        output.writeLong(total);
+        for (CountTable table : levels) {
+            int cells = 0;
+            for (int slot = 0; slot < table.keys.length; slot++) {
+                if (table.keys[slot] != CountTable.EMPTY && table.counts[slot] != 0) {
+                    cells++;
+                }
+            }
+            output.writeInt(cells);
+            for (int slot = 0; slot < table.keys.length; slot++) {
+                if (table.keys[slot] != CountTable.EMPTY && table.counts[slot] != 0) {
+                    output.writeLong(table.keys[slot]);
+                    output.writeInt(table.counts[slot]);
+                }
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * Lê uma pirâmide gravada por write(), sem fechar o fluxo.
+     *
+     * @throws IOException Se o fluxo não contiver uma pirâmide válida.
+     */
+    public static DensityPyramid read(InputStream stream) throws IOException {
+        DataInputStream input = new DataInputStream(stream);
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Arquivo de densidade inválido");
+        }
+        int maxZoom = input.readInt();
+        if (maxZoom < 0 || maxZoom > MAX_ZOOM_LIMIT) {
+            throw new IOException("Zoom máximo inválido: " + maxZoom);
+        }
+        DensityPyramid pyramid = new DensityPyramid(maxZoom);
+        pyramid.total = input.readLong();
+        for (CountTable table : pyramid.levels) {
+            int cells = input.readInt();
+            if (cells < 0) {
+                throw new IOException("Quantidade de células inválida: " + cells);
+            }
+            for (int i = 0; i < cells; i++) {
+                long key = input.readLong();
+                table.add(key, input.readInt());
+            }
+        }
+        return pyramid;
+    }
+
+    private void checkTile(int zoom, int x, int y) {
+        if (zoom < 0 || zoom > MAX_ZOOM_LIMIT || x < 0 || y < 0 || x >= 1 << zoom || y >= 1 << zoom) {
+            throw new IllegalArgumentException("Bloco inválido: " + zoom + "/" + x + "/" + y);
+        }
+    }
+
+    // Coluna da célula na projeção Web Mercator, de oeste para leste
+    static int columnOf(double longitude, int level) {
+        long cells = 1L << level;
+        long column = (long) Math.floor((longitude + 180) / 360 * cells);
+        return (int) Math.min(Math.max(column, 0), cells - 1);
+    }
+
+    // Linha da célula na projeção Web Mercator, de norte para sul
+    static int rowOf(double latitude, int level) {
+        long cells = 1L << level;
+        double radians = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        double y = (1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2;
+        long row = (long) Math.floor(y * cells);
+        return (int) Math.min(Math.max(row, 0), cells - 1);
+    }
+
+    static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Contagens das células ocupadas de um nível, em uma tabela hash de endereçamento aberto.
+     */
+    private static class CountTable {
+        static final long EMPTY = -1; // As chaves são sempre não negativas
+
+        long[] keys = newKeys(16);
+        int[] counts = new int[16];
+        int size;
+        int max;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return counts[slot];
+                }
+            }
+            return 0;
+        }
+
+        // Células que voltam a zero continuam na tabela; são descartadas apenas na gravação
+        void add(long key, int delta) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                if ((size + 1) * 2 > keys.length) {
+                    rehash();
+                    add(key, delta);
+                    return;
+                }
+                keys[slot] = key;
+                size++;
+            }
+            counts[slot] += delta;
+            max = Math.max(max, counts[slot]);
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = newKeys(oldKeys.length * 2);
+            counts = new int[oldCounts.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = mix(oldKeys[i]) & mask;
+                    while (keys[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Estratégia de cálculo da distância entre dois pontos, em metros.
+ *
+ * As implementações formam níveis de custo e precisão, e cada chamador escolhe o nível adequado ao seu uso:
+ * - EQUIRECTANGULAR: projeção plana local, a mais barata; para as verificações de curta distância (a regra dos
+ *   30 metros). Cai para a haversine em distâncias longas e perto dos polos, onde a aproximação deixa de valer.
+ * - HAVERSINE: esfera de raio 6371000 m, a mesma do GeoCalculator e da GeoGrid; é a referência do invariante de
+ *   distância entre regiões. Erro de até ~0,5% em relação ao elipsoide.
+ * - VINCENTY: elipsoide WGS84, para auditorias e relatórios; precisão submilimétrica, com custo bem maior.
+ *
+ * Cada estratégia aceita coordenadas em graus ou, nas comparações repetidas contra pontos fixos, coordenadas em
+ * radianos com o cosseno da latitude pré-calculado (ver Region e GridIndex).
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+public interface DistanceStrategy {
+    DistanceStrategy EQUIRECTANGULAR = new EquirectangularDistance();
+    DistanceStrategy HAVERSINE = new HaversineDistance();
+    DistanceStrategy VINCENTY = new VincentyDistance();
+
+    /**
+     * Distância em metros entre dois pontos dados em graus.
+     */
+    double distance(double lat1, double lon1, double lat2, double lon2);
+
+    /**
+     * Distância em metros entre dois pontos dados em radianos, com os cossenos das latitudes pré-calculados.
+     */
+    double distance(double lat1Rad, double lon1Rad, double cosLat1, double lat2Rad, double lon2Rad, double cosLat2);
+}
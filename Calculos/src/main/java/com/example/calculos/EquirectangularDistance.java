@@ -0,0 +1,51 @@
+/**
+ * Distância pela projeção equirretangular local: x = dLon * cos(latitude média), y = dLat, d = R * sqrt(x² + y²).
+ *
+ * Usa uma raiz quadrada e nenhuma função trigonométrica quando os cossenos já estão pré-calculados (a latitude
+ * média é aproximada pela média dos cossenos). A diferença de longitude é normalizada para [-180, 180], então
+ * pares que cruzam o antimeridiano são tratados corretamente.
+ *
+ * Limite de erro em relação à haversine: abaixo de 1e-4 relativo (0,1 mm a cada 1 km) para distâncias de até
+ * MAX_DISTANCE metros e latitudes de até MAX_LATITUDE graus, o que cobre com folga a regra dos 30 metros. Fora
+ * desses limites, em que o erro cresce rapidamente, a distância é calculada pela haversine.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+public class EquirectangularDistance implements DistanceStrategy {
+    public static final double MAX_DISTANCE = 10000;
+    public static final double MAX_LATITUDE = 80;
+
+    private static final double R = GeoGrid.R;
+    private static final double MIN_COS_LATITUDE = Math.cos(Math.toRadians(MAX_LATITUDE));
+
+    private final HaversineDistance fallback = new HaversineDistance();
+
+    @Override
+    public double distance(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        return distance(lat1Rad, Math.toRadians(lon1), Math.cos(lat1Rad), lat2Rad, Math.toRadians(lon2), Math.cos(lat2Rad));
+    }
+
+    @Override
+    public double distance(double lat1Rad, double lon1Rad, double cosLat1, double lat2Rad, double lon2Rad, double cosLat2) {
+        double dLon = lon2Rad - lon1Rad;
+        if (dLon > Math.PI) {
+            dLon -= 2 * Math.PI;
+        } else if (dLon < -Math.PI) {
+            dLon += 2 * Math.PI;
+        }
+        double x = dLon * (cosLat1 + cosLat2) / 2;
+        double y = lat2Rad - lat1Rad;
+        double d = R * Math.sqrt(x * x + y * y);
+        if (d > MAX_DISTANCE || cosLat1 < MIN_COS_LATITUDE || cosLat2 < MIN_COS_LATITUDE) {
+            return fallback.distance(lat1Rad, lon1Rad, cosLat1, lat2Rad, lon2Rad, cosLat2);
+        }
+        return d;
+    }
+}
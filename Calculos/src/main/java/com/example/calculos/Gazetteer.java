@@ -0,0 +1,206 @@
+/**
+ * Gazetteer compacto de pontos nomeados (ruas, praças, lugares) para geocodificação reversa sem rede.
+ *
+ * O arquivo, gerado pelo GazetteerBuilder, é lido diretamente de um ByteBuffer, normalmente mapeado em memória
+ * (open()), sem criar um objeto por ponto: só as páginas das células consultadas são carregadas pelo sistema.
+ * Formato (big-endian):
+ * - Cabeçalho de HEADER_SIZE bytes: número mágico, tamanho das células da GeoGrid em metros (double), quantidade de
+ *   pontos, quantidade de células ocupadas e tamanho da área de nomes.
+ * - Diretório de células: a chave de cada célula ocupada (long) e o índice do seu primeiro ponto (int), em ordem
+ *   crescente de chave, para busca binária.
+ * - Pontos, agrupados por célula: latitude e longitude em ponto fixo E7 (int) e a posição do nome (int).
+ * - Nomes em UTF-8, cada um precedido do seu tamanho em bytes (unsigned short); nomes repetidos são gravados uma vez.
+ *
+ * A busca do ponto mais próximo visita as células que cobrem um raio de uma célula ao redor das coordenadas e dobra
+ * o raio enquanto o ponto mais próximo encontrado estiver fora dele, até o raio máximo informado. As distâncias são
+ * calculadas pela projeção equiretangular (DistanceStrategy.EQUIRECTANGULAR), adequada às distâncias curtas buscadas.
+ *
+ * Principais funcionalidades:
+ * - Abertura de um gazetteer mapeado em memória, com validação do cabeçalho.
+ * - Busca do ponto nomeado mais próximo dentro de um raio máximo.
+ * - Leitura do nome e das coordenadas de um ponto pelo seu índice.
+ *
+ * As consultas usam apenas leituras absolutas do buffer e podem ser feitas por várias threads ao mesmo tempo.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+public class Gazetteer {
+    static final int MAGIC = 0x475A5431; // "GZT1"
+    static final int HEADER_SIZE = 4 + 8 + 4 + 4 + 4;
+    static final int CELL_ENTRY_SIZE = 8 + 4;
+    static final int POINT_SIZE = 4 + 4 + 4;
+    private static final double E7 = 1e7;
+
+    private final ByteBuffer buffer;
+    private final GeoGrid grid;
+    private final int size;
+    private final int cellCount;
+    private final int pointsOffset;
+    private final int namesOffset;
+
+    public Gazetteer(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (this.buffer.capacity() < HEADER_SIZE || this.buffer.getInt(0) != MAGIC) {
+            throw new IOException("Arquivo de gazetteer inválido");
+        }
+        double cellSize = this.buffer.getDouble(4);
+        this.size = this.buffer.getInt(12);
+        this.cellCount = this.buffer.getInt(16);
+        int nameBytes = this.buffer.getInt(20);
+        this.pointsOffset = HEADER_SIZE + cellCount * CELL_ENTRY_SIZE;
+        this.namesOffset = pointsOffset + size * POINT_SIZE;
+        if (size < 0 || cellCount < 0 || nameBytes < 0 || !(cellSize > 0)
+                || (long) namesOffset + nameBytes > this.buffer.capacity()) {
+            throw new IOException("Arquivo de gazetteer truncado ou corrompido");
+        }
+        this.grid = new GeoGrid(cellSize);
+    }
+
+    /**
+     * Mapeia o arquivo em memória, somente para leitura. O mapeamento continua válido depois que o arquivo é fechado.
+     */
+    public static Gazetteer open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            return new Gazetteer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Gazetteer sem pontos, para quando nenhum arquivo estiver disponível.
+     */
+    public static Gazetteer empty() {
+        try {
+            return new Gazetteer(new GazetteerBuilder(GazetteerBuilder.DEFAULT_CELL_SIZE).toByteBuffer());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getCellSizeMeters() {
+        return grid.getCellSizeMeters();
+    }
+
+    /**
+     * Busca o ponto mais próximo das coordenadas a no máximo maxDistanceMeters metros.
+     *
+     * @return O índice do ponto, ou -1 se nenhum ponto estiver a essa distância.
+     */
+    public int nearest(double latitude, double longitude, double maxDistanceMeters) {
+        if (size == 0) {
+            return -1;
+        }
+        Nearest nearest = new Nearest(latitude, longitude);
+        double radius = Math.min(grid.getCellSizeMeters(), maxDistanceMeters);
+        while (true) {
+            grid.cover(latitude, longitude, radius, nearest);
+            if (nearest.index >= 0 && nearest.distance <= radius) {
+                return nearest.index; // Nenhum ponto fora das células visitadas está mais perto
+            }
+            if (radius >= maxDistanceMeters) {
+                return nearest.index >= 0 && nearest.distance <= maxDistanceMeters ? nearest.index : -1;
+            }
+            radius = Math.min(radius * 2, maxDistanceMeters);
+        }
+    }
+
+    /**
+     * Distância em metros entre as coordenadas e o ponto informado, pela mesma estratégia usada em nearest().
+     */
+    public double distance(int index, double latitude, double longitude) {
+        return DistanceStrategy.EQUIRECTANGULAR.distance(latitude, longitude, latitude(index), longitude(index));
+    }
+
+    public double latitude(int index) {
+        return buffer.getInt(pointsOffset + index * POINT_SIZE) / E7;
+    }
+
+    public double longitude(int index) {
+        return buffer.getInt(pointsOffset + index * POINT_SIZE + 4) / E7;
+    }
+
+    public String name(int index) {
+        int offset = namesOffset + buffer.getInt(pointsOffset + index * POINT_SIZE + 8);
+        int length = buffer.getShort(offset) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + 2);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Posição da célula no diretório, ou -1 se ela não tiver pontos
+    private int findCell(long key) {
+        int low = 0;
+        int high = cellCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = buffer.getLong(HEADER_SIZE + mid * CELL_ENTRY_SIZE);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int firstPointOf(int cell) {
+        return cell < cellCount ? buffer.getInt(HEADER_SIZE + cell * CELL_ENTRY_SIZE + 8) : size;
+    }
+
+    /**
+     * Visitante das células que guarda o ponto mais próximo encontrado entre as visitas.
+     */
+    private class Nearest implements GeoGrid.CellVisitor {
+        private final double latitudeRad;
+        private final double longitudeRad;
+        private final double cosLatitude;
+        int index = -1;
+        double distance = Double.POSITIVE_INFINITY;
+
+        Nearest(double latitude, double longitude) {
+            this.latitudeRad = Math.toRadians(latitude);
+            this.longitudeRad = Math.toRadians(longitude);
+            this.cosLatitude = Math.cos(latitudeRad);
+        }
+
+        @Override
+        public boolean visit(int row, int column) {
+            int cell = findCell(GeoGrid.key(row, column));
+            if (cell < 0) {
+                return true;
+            }
+            int end = firstPointOf(cell + 1);
+            for (int i = firstPointOf(cell); i < end; i++) {
+                double pointLatitude = Math.toRadians(latitude(i));
+                double d = DistanceStrategy.EQUIRECTANGULAR.distance(latitudeRad, longitudeRad, cosLatitude,
+                        pointLatitude, Math.toRadians(longitude(i)), Math.cos(pointLatitude));
+                if (d < distance) {
+                    distance = d;
+                    index = i;
+                }
+            }
+            return true;
+        }
+    }
+}
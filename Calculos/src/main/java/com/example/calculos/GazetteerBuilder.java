@@ -0,0 +1,147 @@
+/**
+ * Gera o arquivo binário lido pelo Gazetteer a partir de pontos nomeados.
+ *
+ * Os pontos são acumulados em vetores primitivos e, na gravação, ordenados pela célula da GeoGrid que os contém,
+ * de modo que os pontos de uma célula fiquem contíguos e o diretório de células possa ser gravado em ordem crescente
+ * de chave. Nomes repetidos (vários pontos da mesma rua) são gravados uma única vez.
+ *
+ * Principais funcionalidades:
+ * - Acréscimo de pontos nomeados, com validação das coordenadas e do tamanho do nome.
+ * - Gravação do gazetteer em um fluxo ou em um ByteBuffer.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GazetteerBuilder {
+    public static final double DEFAULT_CELL_SIZE = 250; // Tamanho das células, em metros
+    static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private final GeoGrid grid;
+    private int[] latitudes = new int[1024];
+    private int[] longitudes = new int[1024];
+    private int[] nameIds = new int[1024];
+    private int size;
+    private final Map<String, Integer> nameIdsByName = new HashMap<>();
+    private final List<byte[]> names = new ArrayList<>();
+
+    public GazetteerBuilder(double cellSizeMeters) {
+        this.grid = new GeoGrid(cellSizeMeters);
+    }
+
+    /**
+     * Acrescenta um ponto nomeado.
+     *
+     * @throws IllegalArgumentException Se as coordenadas forem inválidas ou o nome for vazio ou longo demais.
+     */
+    public void add(String name, double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Coordenadas inválidas: " + latitude + ", " + longitude);
+        }
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Nome vazio");
+        }
+        Integer id = nameIdsByName.get(name);
+        if (id == null) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_NAME_BYTES) {
+                throw new IllegalArgumentException("Nome longo demais: " + bytes.length + " bytes");
+            }
+            id = names.size();
+            names.add(bytes);
+            nameIdsByName.put(name, id);
+        }
+        if (size == latitudes.length) {
+            latitudes = Arrays.copyOf(latitudes, size * 2);
+            longitudes = Arrays.copyOf(longitudes, size * 2);
+            nameIds = Arrays.copyOf(nameIds, size * 2);
+        }
+        latitudes[size] = TrajectoryLog.toE7(latitude);
+        longitudes[size] = TrajectoryLog.toE7(longitude);
+        nameIds[size] = id;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Grava o gazetteer no fluxo informado, sem fechá-lo.
+     */
+    public void write(OutputStream stream) throws IOException {
+        // Ordena os pontos pela célula (e, dentro dela, pelas coordenadas, para que o arquivo seja determinístico)
+        final long[] cells = new long[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            cells[i] = grid.cellOf(latitudes[i] / 1e7, longitudes[i] / 1e7);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byCell = Long.compare(cells[a], cells[b]);
+            if (byCell != 0) {
+                return byCell;
+            }
+            int byLatitude = Integer.compare(latitudes[a], latitudes[b]);
+            return byLatitude != 0 ? byLatitude : Integer.compare(longitudes[a], longitudes[b]);
+        });
+
+        int cellCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || cells[order[i]] != cells[order[i - 1]]) {
+                cellCount++;
+            }
+        }
+        int[] nameOffsets = new int[names.size()];
+        int nameBytes = 0;
+        for (int i = 0; i < names.size(); i++) {
+            nameOffsets[i] = nameBytes;
+            nameBytes += 2 + names.get(i).length;
+        }
+
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeInt(Gazetteer.MAGIC);
+        output.writeDouble(grid.getCellSizeMeters());
+        output.writeInt(size);
+        output.writeInt(cellCount);
+        output.writeInt(nameBytes);
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || cells[order[i]] != cells[order[i - 1]]) {
+                output.writeLong(cells[order[i]]);
+                output.writeInt(i);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            int point = order[i];
+            output.writeInt(latitudes[point]);
+            output.writeInt(longitudes[point]);
+            output.writeInt(nameOffsets[nameIds[point]]);
+        }
+        for (byte[] name : names) {
+            output.writeShort(name.length);
+            output.write(name);
+        }
+        output.flush();
+    }
+
+    public ByteBuffer toByteBuffer() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        write(bytes);
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+}
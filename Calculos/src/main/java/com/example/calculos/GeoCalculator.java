@@ -13,5 +13,18 @@ public class GeoCalculator {
         double distance = R * c;
         return distance;
     }
-}
 
+    /**
+     * Mesma distância de haversine, para pontos cujas coordenadas em radianos e cosseno da latitude já foram
+     * calculados (por exemplo, uma vez por região carregada ou por ponto indexado). Evita as duas chamadas de
+     * Math.cos e as conversões para radianos a cada comparação.
+     */
+    public double calculateDistance(double lat1Rad, double lon1Rad, double cosLat1,
+                                    double lat2Rad, double lon2Rad, double cosLat2) {
+        double sinDLat = Math.sin((lat2Rad - lat1Rad) / 2);
+        double sinDLon = Math.sin((lon2Rad - lon1Rad) / 2);
+        double a = sinDLat * sinDLat + cosLat1 * cosLat2 * sinDLon * sinDLon;
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return R * c;
+    }
+}
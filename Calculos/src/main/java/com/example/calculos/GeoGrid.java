@@ -0,0 +1,180 @@
+/**
+ * Grade geográfica de células com tamanho aproximadamente constante em metros.
+ *
+ * A grade divide a esfera em faixas de latitude (linhas) de altura fixa. Cada linha é dividida em colunas
+ * de largura angular própria, escolhida para que a largura em metros fique próxima do tamanho da célula
+ * mesmo em latitudes altas. O número de colunas de cada linha divide 360 graus exatamente, de modo que a
+ * grade "fecha" no antimeridiano sem células parciais.
+ *
+ * Principais funcionalidades:
+ * - Conversão de coordenadas (latitude, longitude) para a chave da célula que as contém.
+ * - Empacotamento e desempacotamento de chaves de célula (linha e coluna) em um long.
+ * - Cobertura de um círculo de raio R por células candidatas, tratando o antimeridiano e os polos.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+public class GeoGrid {
+    static final double R = 6371000; // Raio da Terra em metros (o mesmo usado pelo GeoCalculator)
+    static final double METERS_PER_DEGREE = R * Math.PI / 180;
+
+    private final double cellSizeMeters;
+    private final double latStep; // Altura de uma linha em graus
+    private final int rows;
+
+    public GeoGrid(double cellSizeMeters) {
+        if (!(cellSizeMeters > 0)) {
+            throw new IllegalArgumentException("Tamanho de célula inválido: " + cellSizeMeters);
+        }
+        this.cellSizeMeters = cellSizeMeters;
+        this.rows = Math.max(1, (int) Math.ceil(180 * METERS_PER_DEGREE / cellSizeMeters));
+        this.latStep = 180.0 / rows;
+    }
+
+    public double getCellSizeMeters() {
+        return cellSizeMeters;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Retorna a linha que contém a latitude informada.
+     * Latitudes fora do intervalo [-90, 90] são limitadas à primeira ou à última linha.
+     */
+    public int rowOf(double latitude) {
+        int row = (int) Math.floor((latitude + 90) / latStep);
+        return row < 0 ? 0 : (row >= rows ? rows - 1 : row);
+    }
+
+    /**
+     * Retorna o número de colunas da linha.
+     * A largura é calculada na borda da linha mais próxima do equador, onde a linha é mais larga,
+     * para que nenhuma célula fique mais estreita que o tamanho configurado.
+     */
+    public int columnsInRow(int row) {
+        double south = southOf(row);
+        double north = south + latStep;
+        double equatorMost = (south <= 0 && north >= 0) ? 0 : Math.min(Math.abs(south), Math.abs(north));
+        double widthMeters = 360 * METERS_PER_DEGREE * Math.cos(Math.toRadians(equatorMost));
+        return Math.max(1, (int) Math.floor(widthMeters / cellSizeMeters));
+    }
+
+    /**
+     * Retorna a coluna da linha que contém a longitude informada, normalizando longitudes fora de [-180, 180).
+     */
+    public int columnOf(int row, double longitude) {
+        int columns = columnsInRow(row);
+        return floorMod((long) Math.floor((longitude + 180) * columns / 360), columns);
+    }
+
+    /**
+     * Retorna a chave da célula que contém as coordenadas informadas.
+     */
+    public long cellOf(double latitude, double longitude) {
+        int row = rowOf(latitude);
+        return key(row, columnOf(row, longitude));
+    }
+
+    // Latitude da borda sul da linha, em graus.
+    public double southOf(int row) {
+        return -90 + row * latStep;
+    }
+
+    // Latitude da borda norte da linha, em graus.
+    public double northOf(int row) {
+        return -90 + (row + 1) * latStep;
+    }
+
+    // Longitude da borda oeste da célula, em graus no intervalo [-180, 180).
+    public double westOf(int row, int column) {
+        return -180 + column * 360.0 / columnsInRow(row);
+    }
+
+    // Longitude da borda leste da célula, em graus no intervalo (-180, 180].
+    public double eastOf(int row, int column) {
+        return -180 + (column + 1) * 360.0 / columnsInRow(row);
+    }
+
+    public static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    public static int rowOfKey(long key) {
+        return (int) (key >>> 32);
+    }
+
+    public static int columnOfKey(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Visita as células que podem conter pontos a menos de radiusMeters das coordenadas informadas.
+     * A extensão em longitude usa a largura máxima exata de uma calota esférica; quando a calota contém
+     * um polo, todas as colunas das linhas afetadas são visitadas.
+     * A visita é interrompida assim que o visitante retornar falso.
+     *
+     * @return Falso se a visita foi interrompida pelo visitante, verdadeiro caso contrário.
+     */
+    public boolean cover(double latitude, double longitude, double radiusMeters, CellVisitor visitor) {
+        double dLat = radiusMeters / METERS_PER_DEGREE;
+        int firstRow = rowOf(latitude - dLat);
+        int lastRow = rowOf(latitude + dLat);
+        double dLon = longitudeSpan(latitude, radiusMeters);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            int columns = columnsInRow(row);
+            if (dLon >= 180) {
+                for (int column = 0; column < columns; column++) {
+                    if (!visitor.visit(row, column)) {
+                        return false;
+                    }
+                }
+                continue;
+            }
+            long first = (long) Math.floor((longitude - dLon + 180) * columns / 360);
+            long last = (long) Math.floor((longitude + dLon + 180) * columns / 360);
+            if (last - first + 1 >= columns) {
+                first = 0;
+                last = columns - 1;
+            }
+            for (long c = first; c <= last; c++) {
+                if (!visitor.visit(row, floorMod(c, columns))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Metade da extensão em longitude (em graus) de um círculo de raio radiusMeters centrado na latitude informada.
+     * Retorna 180 quando o círculo contém um polo ou cobre toda a volta da Terra.
+     */
+    static double longitudeSpan(double latitude, double radiusMeters) {
+        double angular = radiusMeters / R;
+        double dLat = Math.toDegrees(angular);
+        if (angular >= Math.PI / 2 || latitude + dLat >= 90 || latitude - dLat <= -90) {
+            return 180;
+        }
+        double ratio = Math.sin(angular) / Math.cos(Math.toRadians(latitude));
+        return ratio >= 1 ? 180 : Math.toDegrees(Math.asin(ratio));
+    }
+
+    private static int floorMod(long value, int modulus) {
+        long mod = value % modulus;
+        return (int) (mod < 0 ? mod + modulus : mod);
+    }
+
+    /**
+     * Visitante de células usado pela cobertura de círculos.
+     */
+    public interface CellVisitor {
+        boolean visit(int row, int column);
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Motor incremental de cercas virtuais (geofences) circulares sobre os pontos de um GridIndex.
+ *
+ * Cada ponto do índice é o centro de uma cerca de raio radiusMeters. A cada nova posição, o motor informa as
+ * entradas e saídas de cercas. Para que o custo por posição não dependa do total de cercas, o motor guarda a
+ * célula atual de uma grade própria e a lista de cercas candidatas dessa célula (as que podem conter algum ponto
+ * da célula); a lista só é recalculada quando a posição muda de célula. Dentro da mesma célula, apenas as
+ * candidatas são comparadas com a posição.
+ *
+ * Para evitar oscilações (entrar e sair repetidamente quando a posição fica perto da borda), a saída só acontece
+ * quando a distância passa de radiusMeters + hysteresisMeters.
+ *
+ * Principais funcionalidades:
+ * - Atualização com uma nova posição, notificando entradas e saídas ao ouvinte.
+ * - Cache da célula atual e das cercas candidatas, recalculadas apenas na troca de célula.
+ * - Invalidação do cache quando novas cercas são adicionadas ao índice.
+ * - Transferência das cercas ocupadas para um novo motor (getInside() e markInside()), quando o índice é trocado.
+ *
+ * A classe não é sincronizada: as atualizações e as inserções no índice devem acontecer na mesma thread.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.util.Arrays;
+
+public class GeofenceEngine {
+    private static final long NO_CELL = Long.MIN_VALUE;
+
+    private final GridIndex index;
+    private final double radiusMeters;
+    private final double hysteresisMeters;
+    private final GeoGrid cells;
+    private final GeoCalculator calculator = new GeoCalculator();
+
+    private long currentCell = NO_CELL;
+    private int[] candidates = new int[16];
+    private int candidateCount;
+    private int[] inside = new int[8];
+    private int insideCount;
+    private long candidateRefreshes;
+
+    /**
+     * @param index            Índice com os centros das cercas.
+     * @param radiusMeters     Raio das cercas; a entrada acontece a menos desta distância do centro.
+     * @param hysteresisMeters Margem adicional para a saída.
+     * @param cellSizeMeters   Tamanho das células do cache de candidatas.
+     */
+    public GeofenceEngine(GridIndex index, double radiusMeters, double hysteresisMeters, double cellSizeMeters) {
+        this.index = index;
+        this.radiusMeters = radiusMeters;
+        this.hysteresisMeters = hysteresisMeters;
+        this.cells = new GeoGrid(cellSizeMeters);
+    }
+
+    /**
+     * Processa uma nova posição e notifica o ouvinte sobre as cercas em que a posição entrou ou das quais saiu.
+     */
+    public void update(double latitude, double longitude, Listener listener) {
+        long cell = cells.cellOf(latitude, longitude);
+        if (cell != currentCell) {
+            refreshCandidates(cell);
+        }
+
+        double latitudeRadians = Math.toRadians(latitude);
+        double longitudeRadians = Math.toRadians(longitude);
+        double cosLatitude = Math.cos(latitudeRadians);
+
+        // Saídas: cercas em que a posição estava e que ficaram além do raio mais a histerese
+        for (int i = insideCount - 1; i >= 0; i--) {
+            int id = inside[i];
+            double distance = index.distanceTo(id, latitudeRadians, longitudeRadians, cosLatitude);
+            if (distance > radiusMeters + hysteresisMeters) {
+                inside[i] = inside[--insideCount];
+                listener.onExit(id, distance);
+            }
+        }
+
+        // Entradas: candidatas a menos do raio que ainda não estavam marcadas como dentro
+        for (int i = 0; i < candidateCount; i++) {
+            int id = candidates[i];
+            double distance = index.distanceTo(id, latitudeRadians, longitudeRadians, cosLatitude);
+            if (distance < radiusMeters && !isInside(id)) {
+                if (insideCount == inside.length) {
+                    inside = Arrays.copyOf(inside, insideCount * 2);
+                }
+                inside[insideCount++] = id;
+                listener.onEnter(id, distance);
+            }
+        }
+    }
+
+    /**
+     * Descarta a célula em cache, forçando o recálculo das candidatas na próxima posição.
+     * Deve ser chamado depois de adicionar cercas ao índice.
+     */
+    public void invalidate() {
+        currentCell = NO_CELL;
+    }
+
+    public boolean isInside(int id) {
+        for (int i = 0; i < insideCount; i++) {
+            if (inside[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retorna os identificadores das cercas em que a posição está.
+     */
+    public int[] getInside() {
+        return Arrays.copyOf(inside, insideCount);
+    }
+
+    /**
+     * Marca a cerca como ocupada sem notificar a entrada. Usado ao trocar o índice por outro, para que as cercas em
+     * que a posição já estava não gerem uma nova entrada; a saída é notificada normalmente.
+     */
+    public void markInside(int id) {
+        if (isInside(id)) {
+            return;
+        }
+        if (insideCount == inside.length) {
+            inside = Arrays.copyOf(inside, insideCount * 2);
+        }
+        inside[insideCount++] = id;
+    }
+
+    public int getInsideCount() {
+        return insideCount;
+    }
+
+    // Quantas vezes a lista de candidatas foi recalculada; usado para medir a eficácia do cache
+    public long getCandidateRefreshes() {
+        return candidateRefreshes;
+    }
+
+    // Recalcula as cercas que podem conter algum ponto da célula: as que estão a menos do raio da meia diagonal da célula
+    private void refreshCandidates(long cell) {
+        int row = GeoGrid.rowOfKey(cell);
+        int column = GeoGrid.columnOfKey(cell);
+        double south = cells.southOf(row);
+        double north = cells.northOf(row);
+        double west = cells.westOf(row, column);
+        double east = cells.eastOf(row, column);
+        double centerLatitude = (south + north) / 2;
+        double centerLongitude = (west + east) / 2;
+        double halfDiagonal = Math.max(
+                calculator.calculateDistance(centerLatitude, centerLongitude, south, west),
+                calculator.calculateDistance(centerLatitude, centerLongitude, north, west));
+
+        candidateCount = 0;
+        index.queryRadius(centerLatitude, centerLongitude, radiusMeters + halfDiagonal, id -> {
+            if (candidateCount == candidates.length) {
+                candidates = Arrays.copyOf(candidates, candidateCount * 2);
+            }
+            candidates[candidateCount++] = id;
+        });
+        currentCell = cell;
+        candidateRefreshes++;
+    }
+
+    /**
+     * Ouvinte dos eventos de entrada e saída de cercas.
+     */
+    public interface Listener {
+        void onEnter(int id, double distanceMeters);
+
+        void onExit(int id, double distanceMeters);
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Codificação geohash de coordenadas geográficas.
+ *
+ * Um geohash de precisão p tem p caracteres na base 32 e identifica uma célula retangular de latitude/longitude
+ * obtida por 5p bisseções sucessivas, alternando longitude e latitude. Geohashes com o mesmo prefixo estão na
+ * mesma célula do tamanho do prefixo, o que permite usar prefixos como chaves de partições geográficas.
+ *
+ * Principais funcionalidades:
+ * - Codificação de coordenadas em um geohash de precisão de 1 a 12.
+ * - Cálculo dos limites (sul, oeste, norte, leste) da célula de um geohash.
+ * - Cobertura de um círculo de raio R pelas células de uma precisão, tratando o antimeridiano e os polos.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public final class Geohash {
+    public static final int MAX_PRECISION = 12;
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            DECODE[BASE32[i]] = i;
+        }
+    }
+
+    private Geohash() {
+    }
+
+    /**
+     * Codifica as coordenadas em um geohash com a precisão (quantidade de caracteres) informada.
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        checkPrecision(precision);
+        double south = -90, north = 90, west = -180, east = 180;
+        char[] hash = new char[precision];
+        boolean lonBit = true;
+        for (int c = 0; c < precision; c++) {
+            int value = 0;
+            for (int b = 0; b < 5; b++) {
+                value <<= 1;
+                if (lonBit) {
+                    double mid = (west + east) / 2;
+                    if (longitude >= mid) {
+                        value |= 1;
+                        west = mid;
+                    } else {
+                        east = mid;
+                    }
+                } else {
+                    double mid = (south + north) / 2;
+                    if (latitude >= mid) {
+                        value |= 1;
+                        south = mid;
+                    } else {
+                        north = mid;
+                    }
+                }
+                lonBit = !lonBit;
+            }
+            hash[c] = BASE32[value];
+        }
+        return new String(hash);
+    }
+
+    /**
+     * Retorna os limites da célula do geohash, no formato {sul, oeste, norte, leste}.
+     */
+    public static double[] bounds(String hash) {
+        double south = -90, north = 90, west = -180, east = 180;
+        boolean lonBit = true;
+        for (int c = 0; c < hash.length(); c++) {
+            char ch = hash.charAt(c);
+            int value = ch < DECODE.length ? DECODE[ch] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Caractere inválido no geohash: " + hash);
+            }
+            for (int b = 4; b >= 0; b--) {
+                boolean bit = ((value >> b) & 1) == 1;
+                if (lonBit) {
+                    double mid = (west + east) / 2;
+                    if (bit) {
+                        west = mid;
+                    } else {
+                        east = mid;
+                    }
+                } else {
+                    double mid = (south + north) / 2;
+                    if (bit) {
+                        south = mid;
+                    } else {
+                        north = mid;
+                    }
+                }
+                lonBit = !lonBit;
+            }
+        }
+        return new double[]{south, west, north, east};
+    }
+
+    /**
+     * Retorna os geohashes da precisão informada cujas células cobrem o círculo de raio radiusMeters ao redor
+     * das coordenadas. A cobertura usa o retângulo que envolve o círculo, então pode incluir algumas células
+     * que não tocam o círculo, mas nunca deixa de fora uma célula que toca.
+     * A quantidade de células cresce com o quadrado de radiusMeters dividido pelo tamanho da célula.
+     */
+    public static List<String> cover(double latitude, double longitude, double radiusMeters, int precision) {
+        checkPrecision(precision);
+        int latBits = precision * 5 / 2;
+        int lonBits = precision * 5 - latBits;
+        long rows = 1L << latBits;
+        long columns = 1L << lonBits;
+        double cellHeight = 180.0 / rows;
+        double cellWidth = 360.0 / columns;
+
+        double dLat = Math.toDegrees(radiusMeters / GeoGrid.R);
+        double south = Math.max(-90, latitude - dLat);
+        double north = Math.min(90, latitude + dLat);
+        double dLon = GeoGrid.longitudeSpan(latitude, radiusMeters);
+
+        long firstRow = clamp((long) Math.floor((south + 90) / cellHeight), rows);
+        long lastRow = clamp((long) Math.floor((north + 90) / cellHeight), rows);
+        long firstColumn;
+        long columnCount;
+        if (dLon >= 180) {
+            firstColumn = 0;
+            columnCount = columns;
+        } else {
+            firstColumn = (long) Math.floor((longitude - dLon + 180) / cellWidth);
+            long lastColumn = (long) Math.floor((longitude + dLon + 180) / cellWidth);
+            columnCount = Math.min(columns, lastColumn - firstColumn + 1);
+        }
+
+        Set<String> hashes = new LinkedHashSet<>();
+        for (long row = firstRow; row <= lastRow; row++) {
+            double centerLatitude = -90 + (row + 0.5) * cellHeight;
+            for (long i = 0; i < columnCount; i++) {
+                long column = Math.floorMod(firstColumn + i, columns); // Volta ao início depois do antimeridiano
+                double centerLongitude = -180 + (column + 0.5) * cellWidth;
+                hashes.add(encode(centerLatitude, centerLongitude, precision));
+            }
+        }
+        return new ArrayList<>(hashes);
+    }
+
+    private static long clamp(long value, long size) {
+        return value < 0 ? 0 : (value >= size ? size - 1 : value);
+    }
+
+    private static void checkPrecision(int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precisão de geohash inválida: " + precision);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/**
+ * Índice espacial de pontos baseado em uma GeoGrid.
+ *
+ * Os pontos são guardados em vetores primitivos (latitude, longitude, cosseno da latitude e o próximo ponto da
+ * mesma célula),
+ * e cada célula ocupada aponta para o primeiro ponto da sua lista encadeada por meio de uma tabela hash
+ * de endereçamento aberto com chaves long. Não há um objeto por ponto, o que mantém o consumo de memória
+ * em algumas dezenas de bytes por ponto mesmo com milhões de registros.
+ *
+ * Principais funcionalidades:
+ * - Inserção de pontos, identificados pela ordem de inserção (0, 1, 2...). O cosseno da latitude é calculado uma
+ *   vez na inserção, e as comparações de distância calculam os valores da coordenada consultada uma vez por consulta.
+ * - Busca do primeiro ponto a menos de um raio das coordenadas informadas, visitando apenas as células candidatas.
+ * - Consulta de todos os pontos a menos de R metros, calculando a distância exata apenas nas células da borda do
+ *   círculo: células com os quatro cantos dentro do círculo são aceitas inteiras.
+ * - Consulta de todos os pontos dentro de um retângulo de latitude/longitude, inclusive retângulos que cruzam o antimeridiano.
+ * - Quando a área consultada cobre mais células do que as ocupadas, as consultas percorrem apenas as células ocupadas.
+ *
+ * As distâncias são calculadas pela DistanceStrategy escolhida na construção; por padrão, a haversine do GeoCalculator.
+ *
+ * A classe não é sincronizada; o acesso concorrente deve ser controlado por quem a utiliza. Consultas simultâneas
+ * sem inserções concorrentes são seguras.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class GridIndex {
+    private static final int EMPTY = -1;
+
+    private final GeoGrid grid;
+    private final DistanceStrategy distance;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] cosLatitudes;
+    private int[] next; // Próximo ponto da mesma célula, ou EMPTY
+    private int size;
+
+    private long[] cellKeys;
+    private int[] cellHeads;
+    private int cellCount;
+
+    public GridIndex(double cellSizeMeters) {
+        this(new GeoGrid(cellSizeMeters), 16);
+    }
+
+    public GridIndex(GeoGrid grid, int expectedSize) {
+        this(grid, expectedSize, DistanceStrategy.HAVERSINE);
+    }
+
+    public GridIndex(GeoGrid grid, int expectedSize, DistanceStrategy distance) {
+        this.grid = grid;
+        this.distance = distance;
+        int capacity = Math.max(16, expectedSize);
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        cosLatitudes = new double[capacity];
+        next = new int[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1) << 1;
+        cellKeys = new long[tableSize];
+        cellHeads = new int[tableSize];
+        Arrays.fill(cellHeads, EMPTY);
+    }
+
+    public GeoGrid getGrid() {
+        return grid;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double latitude(int id) {
+        return latitudes[id];
+    }
+
+    public double longitude(int id) {
+        return longitudes[id];
+    }
+
+    /**
+     * Distância em metros entre o ponto id e uma coordenada já convertida para radianos, com o cosseno da sua
+     * latitude (ver DistanceStrategy).
+     */
+    public double distanceTo(int id, double latitudeRadians, double longitudeRadians, double cosLatitude) {
+        return distance.distance(Math.toRadians(latitudes[id]), Math.toRadians(longitudes[id]), cosLatitudes[id],
+                latitudeRadians, longitudeRadians, cosLatitude);
+    }
+
+    /**
+     * Adiciona um ponto ao índice.
+     *
+     * @return O identificador do ponto, igual à quantidade de pontos inseridos antes dele.
+     */
+    public int add(double latitude, double longitude) {
+        if (size == latitudes.length) {
+            int capacity = size + (size >> 1);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            cosLatitudes = Arrays.copyOf(cosLatitudes, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        int id = size++;
+        latitudes[id] = latitude;
+        longitudes[id] = longitude;
+        cosLatitudes[id] = Math.cos(Math.toRadians(latitude));
+
+        int slot = slotOf(grid.cellOf(latitude, longitude), true);
+        next[id] = cellHeads[slot];
+        cellHeads[slot] = id;
+        return id;
+    }
+
+    /**
+     * Procura um ponto a menos de radiusMeters das coordenadas informadas.
+     * Apenas as células que cobrem o círculo são visitadas, e a busca termina no primeiro ponto encontrado.
+     *
+     * @return O identificador do ponto encontrado, ou -1 se nenhum ponto estiver a menos de radiusMeters.
+     */
+    public int findWithin(double latitude, double longitude, double radiusMeters) {
+        return findWithin(latitude, longitude, radiusMeters, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Procura um ponto inserido antes do ponto beforeId (com identificador menor) a menos de radiusMeters das
+     * coordenadas informadas. Permite validar o índice inteiro depois de construído, com o mesmo resultado da
+     * validação feita a cada inserção, e sem alterar o índice, de modo que várias threads podem validar ao mesmo tempo.
+     *
+     * @return O identificador do ponto encontrado, ou -1 se nenhum ponto anterior estiver a menos de radiusMeters.
+     */
+    public int findWithin(final double latitude, final double longitude, final double radiusMeters, final int beforeId) {
+        final int[] found = {EMPTY};
+        final double latitudeRadians = Math.toRadians(latitude);
+        final double longitudeRadians = Math.toRadians(longitude);
+        final double cosLatitude = Math.cos(latitudeRadians);
+        grid.cover(latitude, longitude, radiusMeters, new GeoGrid.CellVisitor() {
+            @Override
+            public boolean visit(int row, int column) {
+                int slot = slotOf(GeoGrid.key(row, column), false);
+                if (slot < 0) {
+                    return true;
+                }
+                for (int id = cellHeads[slot]; id != EMPTY; id = next[id]) {
+                    if (id < beforeId && distanceTo(id, latitudeRadians, longitudeRadians, cosLatitude) < radiusMeters) {
+                        found[0] = id;
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * Verifica se existe algum ponto a menos de radiusMeters das coordenadas informadas.
+     */
+    public boolean anyWithin(double latitude, double longitude, double radiusMeters) {
+        return findWithin(latitude, longitude, radiusMeters) != EMPTY;
+    }
+
+    /**
+     * Entrega ao consumidor todos os pontos a menos de radiusMeters das coordenadas informadas.
+     * A distância é calculada apenas para os pontos das células que cruzam a borda do círculo; como a distância
+     * máxima de um ponto a uma célula de latitude/longitude é atingida em um dos cantos, as células com os quatro
+     * cantos dentro do círculo têm todos os seus pontos aceitos sem cálculo.
+     *
+     * @return A quantidade de pontos entregues.
+     */
+    public int queryRadius(final double latitude, final double longitude, final double radiusMeters, final IntConsumer consumer) {
+        final int[] count = {0};
+        final double latitudeRadians = Math.toRadians(latitude);
+        final double longitudeRadians = Math.toRadians(longitude);
+        final double cosLatitude = Math.cos(latitudeRadians);
+        CellFilter filter = new CellFilter() {
+            @Override
+            public int classify(int row, int column) {
+                if (grid.columnsInRow(row) < 4) {
+                    return PARTIAL; // Células muito largas perto dos polos: os cantos não limitam a distância
+                }
+                double south = grid.southOf(row);
+                double north = grid.northOf(row);
+                double west = grid.westOf(row, column);
+                double east = grid.eastOf(row, column);
+                boolean inside = distance.distance(south, west, latitude, longitude) < radiusMeters
+                        && distance.distance(south, east, latitude, longitude) < radiusMeters
+                        && distance.distance(north, west, latitude, longitude) < radiusMeters
+                        && distance.distance(north, east, latitude, longitude) < radiusMeters;
+                return inside ? INSIDE : PARTIAL;
+            }
+
+            @Override
+            public boolean accept(int id) {
+                return distanceTo(id, latitudeRadians, longitudeRadians, cosLatitude) < radiusMeters;
+            }
+        };
+
+        double dLon = GeoGrid.longitudeSpan(latitude, radiusMeters);
+        int rows = grid.rowOf(latitude + radiusMeters / GeoGrid.METERS_PER_DEGREE) - grid.rowOf(latitude - radiusMeters / GeoGrid.METERS_PER_DEGREE) + 1;
+        double columns = grid.columnsInRow(grid.rowOf(latitude)) * Math.min(1, dLon / 180) + 1;
+        if (rows * columns > cellCount) {
+            scanOccupiedCells(filter, consumer, count);
+        } else {
+            grid.cover(latitude, longitude, radiusMeters, new GeoGrid.CellVisitor() {
+                @Override
+                public boolean visit(int row, int column) {
+                    visitCell(row, column, filter, consumer, count);
+                    return true;
+                }
+            });
+        }
+        return count[0];
+    }
+
+    /**
+     * Entrega ao consumidor todos os pontos dentro do retângulo informado (bordas incluídas).
+     * Se west for maior que east, o retângulo cruza o antimeridiano e vai de west até 180 e de -180 até east.
+     *
+     * @return A quantidade de pontos entregues.
+     */
+    public int queryBox(final double south, final double west, final double north, final double east, final IntConsumer consumer) {
+        final int[] count = {0};
+        if (south > north) {
+            return 0;
+        }
+        final boolean crossesAntimeridian = west > east;
+        CellFilter filter = new CellFilter() {
+            @Override
+            public int classify(int row, int column) {
+                double cellSouth = grid.southOf(row);
+                double cellNorth = grid.northOf(row);
+                double cellWest = grid.westOf(row, column);
+                double cellEast = grid.eastOf(row, column);
+                if (cellNorth < south || cellSouth > north) {
+                    return OUTSIDE;
+                }
+                boolean latitudeInside = cellSouth >= south && cellNorth <= north;
+                boolean longitudeInside = crossesAntimeridian
+                        ? cellWest >= west || cellEast <= east
+                        : cellWest >= west && cellEast <= east;
+                boolean longitudeOutside = crossesAntimeridian
+                        ? cellEast < west && cellWest > east
+                        : cellEast < west || cellWest > east;
+                if (longitudeOutside) {
+                    return OUTSIDE;
+                }
+                return latitudeInside && longitudeInside ? INSIDE : PARTIAL;
+            }
+
+            @Override
+            public boolean accept(int id) {
+                double lat = latitudes[id];
+                double lon = longitudes[id];
+                boolean longitudeInside = crossesAntimeridian ? lon >= west || lon <= east : lon >= west && lon <= east;
+                return lat >= south && lat <= north && longitudeInside;
+            }
+        };
+
+        int firstRow = grid.rowOf(south);
+        int lastRow = grid.rowOf(north);
+        double width = crossesAntimeridian ? 360 - (west - east) : east - west;
+        double columns = grid.columnsInRow(grid.rowOf((south + north) / 2)) * width / 360 + 1;
+        if ((lastRow - firstRow + 1) * columns > cellCount) {
+            scanOccupiedCells(filter, consumer, count);
+            return count[0];
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            if (crossesAntimeridian) {
+                visitColumns(row, boxColumnOf(row, west), grid.columnsInRow(row) - 1, filter, consumer, count);
+                visitColumns(row, 0, boxColumnOf(row, east), filter, consumer, count);
+            } else {
+                visitColumns(row, boxColumnOf(row, west), boxColumnOf(row, east), filter, consumer, count);
+            }
+        }
+        return count[0];
+    }
+
+    // Coluna de uma borda do retângulo; a longitude 180 é a borda leste da última coluna, não a oeste da primeira
+    private int boxColumnOf(int row, double longitude) {
+        return longitude >= 180 ? grid.columnsInRow(row) - 1 : grid.columnOf(row, longitude);
+    }
+
+    private void visitColumns(int row, int first, int last, CellFilter filter, IntConsumer consumer, int[] count) {
+        for (int column = first; column <= last; column++) {
+            visitCell(row, column, filter, consumer, count);
+        }
+    }
+
+    private void visitCell(int row, int column, CellFilter filter, IntConsumer consumer, int[] count) {
+        int slot = slotOf(GeoGrid.key(row, column), false);
+        if (slot >= 0) {
+            visitSlot(slot, filter.classify(row, column), filter, consumer, count);
+        }
+    }
+
+    private void scanOccupiedCells(CellFilter filter, IntConsumer consumer, int[] count) {
+        for (int slot = 0; slot < cellKeys.length; slot++) {
+            if (cellHeads[slot] != EMPTY) {
+                long key = cellKeys[slot];
+                visitSlot(slot, filter.classify(GeoGrid.rowOfKey(key), GeoGrid.columnOfKey(key)), filter, consumer, count);
+            }
+        }
+    }
+
+    private void visitSlot(int slot, int classification, CellFilter filter, IntConsumer consumer, int[] count) {
+        if (classification == CellFilter.OUTSIDE) {
+            return;
+        }
+        for (int id = cellHeads[slot]; id != EMPTY; id = next[id]) {
+            if (classification == CellFilter.INSIDE || filter.accept(id)) {
+                consumer.accept(id);
+                count[0]++;
+            }
+        }
+    }
+
+    // Localiza a posição da célula na tabela hash, criando-a se necessário. Retorna -1 se a célula não existir.
+    private int slotOf(long cellKey, boolean create) {
+        int mask = cellKeys.length - 1;
+        int slot = mix(cellKey) & mask;
+        while (cellHeads[slot] != EMPTY) {
+            if (cellKeys[slot] == cellKey) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create) {
+            return -1;
+        }
+        if ((cellCount + 1) * 2 > cellKeys.length) {
+            rehash();
+            return slotOf(cellKey, true);
+        }
+        cellKeys[slot] = cellKey;
+        cellCount++;
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = cellKeys;
+        int[] oldHeads = cellHeads;
+        cellKeys = new long[oldKeys.length * 2];
+        cellHeads = new int[oldHeads.length * 2];
+        Arrays.fill(cellHeads, EMPTY);
+        int mask = cellKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] != EMPTY) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (cellHeads[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                cellKeys[slot] = oldKeys[i];
+                cellHeads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Classificação de células e filtro de pontos usados pelas consultas de área
+    private interface CellFilter {
+        int OUTSIDE = 0;
+        int PARTIAL = 1;
+        int INSIDE = 2;
+
+        int classify(int row, int column);
+
+        boolean accept(int id);
+    }
+}
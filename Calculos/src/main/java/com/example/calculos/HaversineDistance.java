@@ -0,0 +1,27 @@
+/**
+ * Distância de haversine sobre a esfera de raio 6371000 m, delegada ao GeoCalculator.
+ *
+ * Limite de erro: exata para a esfera (a menos do arredondamento, ~1e-9 m para distâncias curtas); em relação ao
+ * elipsoide WGS84, o erro relativo chega a ~0,5% conforme a latitude e a direção. Como é a referência do
+ * invariante de 30 metros, as outras estratégias são comparadas com ela nos testes.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+public class HaversineDistance implements DistanceStrategy {
+    private final GeoCalculator calculator = new GeoCalculator();
+
+    @Override
+    public double distance(double lat1, double lon1, double lat2, double lon2) {
+        return calculator.calculateDistance(lat1, lon1, lat2, lon2);
+    }
+
+    @Override
+    public double distance(double lat1Rad, double lon1Rad, double cosLat1, double lat2Rad, double lon2Rad, double cosLat2) {
+        return calculator.calculateDistance(lat1Rad, lon1Rad, cosLat1, lat2Rad, lon2Rad, cosLat2);
+    }
+}
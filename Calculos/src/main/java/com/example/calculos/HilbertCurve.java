@@ -0,0 +1,102 @@
+/**
+ * Curva de Hilbert sobre a grade de 2^ORDER x 2^ORDER células que cobre o globo em latitude e longitude.
+ *
+ * Pontos próximos no plano tendem a ter índices próximos na curva, então ordenar pontos pelo índice os agrupa em
+ * trechos contíguos espacialmente compactos (ver HilbertPointIndex). As células têm 360 / 2^ORDER graus de
+ * longitude por 180 / 2^ORDER graus de latitude (~610 m x 305 m no equador).
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.util.Arrays;
+
+public final class HilbertCurve {
+    public static final int ORDER = 16;
+    static final int SIDE = 1 << ORDER;
+
+    private HilbertCurve() {
+    }
+
+    /**
+     * Índice na curva da célula que contém as coordenadas, entre 0 e 4^ORDER - 1.
+     */
+    public static long index(double latitude, double longitude) {
+        return index(column(longitude), row(latitude));
+    }
+
+    static int column(double longitude) {
+        return clamp((int) Math.floor((longitude + 180) / 360 * SIDE));
+    }
+
+    static int row(double latitude) {
+        return clamp((int) Math.floor((latitude + 90) / 180 * SIDE));
+    }
+
+    // Conversão clássica de (x, y) para a distância ao longo da curva, girando o quadrante a cada nível
+    static long index(int x, int y) {
+        long d = 0;
+        for (int s = SIDE >>> 1; s > 0; s >>>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Intervalos de índices, em pares [início, fim] inclusivos e ordenados, que cobrem todas as células do retângulo.
+     * O retângulo é coberto por no máximo quatro quadrados alinhados da curva com lado igual à menor potência de
+     * dois que alcança a sua maior dimensão, cada um correspondendo a um intervalo contíguo; os intervalos adjacentes
+     * são unidos. A cobertura pode incluir células fora do retângulo, que quem consulta deve descartar.
+     * O retângulo não pode cruzar o antimeridiano (west <= east).
+     */
+    public static long[] cover(double south, double west, double north, double east) {
+        int x0 = column(west);
+        int x1 = column(east);
+        int y0 = row(south);
+        int y1 = row(north);
+        int span = Math.max(x1 - x0, y1 - y0) + 1;
+        int side = Integer.highestOneBit(span);
+        if (side < span) {
+            side <<= 1;
+        }
+        side = Math.min(side, SIDE);
+        long cells = (long) side * side;
+        long[] starts = new long[4];
+        int count = 0;
+        for (int x = x0 / side * side; x <= x1; x += side) {
+            for (int y = y0 / side * side; y <= y1; y += side) {
+                starts[count++] = index(x, y) / cells * cells; // Início do trecho da curva dentro do quadrado
+            }
+        }
+        Arrays.sort(starts, 0, count);
+        long[] ranges = new long[count * 2];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (size > 0 && ranges[size - 1] + 1 >= starts[i]) {
+                ranges[size - 1] = Math.max(ranges[size - 1], starts[i] + cells - 1);
+            } else {
+                ranges[size++] = starts[i];
+                ranges[size++] = starts[i] + cells - 1;
+            }
+        }
+        return Arrays.copyOf(ranges, size);
+    }
+
+    private static int clamp(int cell) {
+        return Math.max(0, Math.min(SIDE - 1, cell));
+    }
+}
@@ -0,0 +1,514 @@
+/**
+ * Índice espacial persistente de pontos, lido diretamente de um arquivo mapeado em memória.
+ *
+ * Abrir o índice apenas mapeia o arquivo e valida o cabeçalho, sem ler os pontos; uma consulta lê só os blocos da
+ * área consultada, então o tempo até a primeira resposta não depende da quantidade de pontos. Cada ponto é um
+ * registro de tamanho fixo com uma carga de payloadSize bytes definida por quem usa o índice, lida no próprio buffer
+ * (Record), sem criar objetos por ponto.
+ *
+ * Formato do arquivo principal (big-endian):
+ * - Cabeçalho de HEADER_SIZE bytes: número mágico, tamanho da carga, quantidade de registros, registros por bloco e
+ *   a geração do índice.
+ * - Diretório esparso: o índice de Hilbert (HilbertCurve) do primeiro registro de cada bloco de BLOCK_RECORDS
+ *   registros, para busca binária.
+ * - Registros, em ordem crescente de índice de Hilbert: o índice (long), latitude e longitude em ponto fixo E7 (int)
+ *   e a carga.
+ *
+ * Os pontos novos são acrescentados (append()) a um arquivo de novidades ao lado do principal (sufixo DELTA_SUFFIX),
+ * no mesmo formato de registro, e também ficam em memória; as consultas percorrem as novidades depois dos blocos.
+ * Quando as novidades passam de mergeThreshold(), são intercaladas com os registros do arquivo principal em um novo
+ * arquivo, que substitui o atual com uma troca de nome atômica. O arquivo de novidades guarda a geração a que
+ * pertence: se uma interrupção acontecer depois da troca e antes de as novidades serem esvaziadas, a geração não
+ * corresponde mais à do arquivo principal e as novidades, que já estão nele, são descartadas na abertura.
+ * replaceAll() substitui todos os pontos da mesma forma, por exemplo para reconstruir o índice a partir do banco.
+ *
+ * Principais funcionalidades:
+ * - Abertura instantânea de um índice existente, ou criação de um índice vazio.
+ * - Acréscimo de pontos e intercalação periódica das novidades no arquivo principal.
+ * - Consulta dos pontos em um retângulo ou a menos de um raio, com parada antecipada.
+ *
+ * As consultas não bloqueiam: cada alteração publica uma View imutável com o mapeamento do arquivo principal e as
+ * novidades até ali, e a consulta percorre a View lida no início, mesmo que um append(), merge() ou replaceAll()
+ * esteja em andamento. O mapeamento de um arquivo principal substituído continua válido enquanto alguma consulta o
+ * usar, e as novidades só crescem depois da quantidade publicada. As alterações são sincronizadas entre si; todos
+ * os usuários do mesmo arquivo devem compartilhar a mesma instância.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+
+public class HilbertPointIndex implements Closeable {
+    static final int MAGIC = 0x48494C31; // "HIL1"
+    static final int DELTA_MAGIC = 0x48494C44; // "HILD"
+    static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8;
+    static final int DELTA_HEADER_SIZE = 4 + 4 + 8;
+    static final int KEY_AND_POSITION_SIZE = 8 + 4 + 4;
+    public static final int BLOCK_RECORDS = 64;
+    public static final String DELTA_SUFFIX = ".novos";
+    static final int MIN_MERGE = 1024;
+    static final int MAX_MERGE = 16384; // Limita a varredura linear das novidades em cada consulta
+    private static final double E7 = 1e7;
+
+    private final File file;
+    private final File deltaFile;
+    private final int payloadSize;
+    private final int recordSize;
+
+    // Estado publicado para as consultas, substituído a cada alteração
+    private volatile View view;
+
+    // Arquivo principal mapeado, acessado pelas alterações
+    private ByteBuffer base;
+    private int baseCount;
+    private int blockCount;
+    private long generation;
+
+    // Novidades ainda não intercaladas, também em memória no formato dos registros
+    private RandomAccessFile delta;
+    private ByteBuffer deltaRecords;
+    private int deltaCount;
+
+    private HilbertPointIndex(File file, int payloadSize) {
+        this.file = file;
+        this.deltaFile = new File(file.getPath() + DELTA_SUFFIX);
+        this.payloadSize = payloadSize;
+        this.recordSize = KEY_AND_POSITION_SIZE + payloadSize;
+    }
+
+    /**
+     * Abre o índice gravado no arquivo, ou cria um índice vazio se o arquivo não existir.
+     *
+     * @throws IOException Se o arquivo estiver corrompido ou tiver sido criado com outro tamanho de carga.
+     */
+    public static HilbertPointIndex open(File file, int payloadSize) throws IOException {
+        if (payloadSize < 0) {
+            throw new IllegalArgumentException("Tamanho de carga inválido: " + payloadSize);
+        }
+        HilbertPointIndex index = new HilbertPointIndex(file, payloadSize);
+        if (!file.exists()) {
+            index.writeBase(null, 0, null, 0, 0);
+        }
+        index.mapBase();
+        index.openDelta();
+        index.publish();
+        return index;
+    }
+
+    // Retrato imutável do índice: os registros de delta além de deltaCount não são lidos, então as novidades
+    // acrescentadas depois da publicação não alteram a View
+    private static final class View {
+        final ByteBuffer base;
+        final int baseCount;
+        final int blockCount;
+        final ByteBuffer delta;
+        final int deltaCount;
+
+        View(ByteBuffer base, int baseCount, int blockCount, ByteBuffer delta, int deltaCount) {
+            this.base = base;
+            this.baseCount = baseCount;
+            this.blockCount = blockCount;
+            this.delta = delta;
+            this.deltaCount = deltaCount;
+        }
+    }
+
+    /**
+     * Registro visitado por uma consulta. A mesma instância é reaproveitada a cada registro da consulta e só é válida
+     * durante a chamada ao visitante; os deslocamentos da carga vão de 0 a payloadSize - 1.
+     */
+    public final class Record {
+        private ByteBuffer buffer;
+        private int offset;
+
+        public double latitude() {
+            return buffer.getInt(offset + 8) / E7;
+        }
+
+        public double longitude() {
+            return buffer.getInt(offset + 12) / E7;
+        }
+
+        public byte getByte(int position) {
+            return buffer.get(offset + KEY_AND_POSITION_SIZE + position);
+        }
+
+        public int getInt(int position) {
+            return buffer.getInt(offset + KEY_AND_POSITION_SIZE + position);
+        }
+
+        public long getLong(int position) {
+            return buffer.getLong(offset + KEY_AND_POSITION_SIZE + position);
+        }
+
+        public void getBytes(int position, byte[] destination, int destinationOffset, int length) {
+            int start = offset + KEY_AND_POSITION_SIZE + position;
+            for (int i = 0; i < length; i++) {
+                destination[destinationOffset + i] = buffer.get(start + i);
+            }
+        }
+    }
+
+    public interface Visitor {
+        /**
+         * @return Falso para interromper a consulta.
+         */
+        boolean visit(Record record);
+    }
+
+    /**
+     * Ponto a gravar por replaceAll(). A carga pode ser menor que payloadSize; o restante é preenchido com zeros.
+     */
+    public static final class Entry {
+        final double latitude;
+        final double longitude;
+        final byte[] payload;
+
+        public Entry(double latitude, double longitude, byte[] payload) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * Acrescenta um ponto ao arquivo de novidades e, se as novidades passarem de mergeThreshold(), intercala-as no
+     * arquivo principal.
+     */
+    public synchronized void append(double latitude, double longitude, byte[] payload) throws IOException {
+        if (deltaRecords.remaining() < recordSize) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(deltaRecords.capacity() * 2, recordSize * 16));
+            deltaRecords.flip();
+            grown.put(deltaRecords);
+            deltaRecords = grown;
+        }
+        int start = deltaRecords.position();
+        putRecord(deltaRecords, latitude, longitude, payload);
+        delta.seek(delta.length());
+        delta.write(deltaRecords.array(), start, recordSize);
+        deltaCount++;
+        publish();
+        if (deltaCount >= mergeThreshold()) {
+            merge();
+        }
+    }
+
+    /**
+     * Intercala as novidades no arquivo principal e esvazia o arquivo de novidades.
+     */
+    public synchronized void merge() throws IOException {
+        if (deltaCount == 0) {
+            return;
+        }
+        writeBase(base, baseCount, deltaRecords, deltaCount, generation + 1);
+        remap();
+        publish();
+    }
+
+    /**
+     * Substitui todos os pontos do índice, incluindo as novidades, pelos informados.
+     */
+    public synchronized void replaceAll(List<Entry> entries) throws IOException {
+        ByteBuffer records = ByteBuffer.allocate(entries.size() * recordSize);
+        for (Entry entry : entries) {
+            putRecord(records, entry.latitude, entry.longitude, entry.payload);
+        }
+        writeBase(null, 0, records, entries.size(), generation + 1);
+        remap();
+        publish();
+    }
+
+    /**
+     * Entrega ao visitante os pontos dentro do retângulo; west > east indica um retângulo que cruza o antimeridiano.
+     *
+     * @return Falso se a consulta foi interrompida pelo visitante, verdadeiro caso contrário.
+     */
+    public boolean withinBox(double south, double west, double north, double east, Visitor visitor) {
+        View current = view;
+        Record record = new Record();
+        if (west > east) {
+            return withinBox(current, record, south, west, north, 180, visitor)
+                    && withinBox(current, record, south, -180, north, east, visitor);
+        }
+        return withinBox(current, record, south, west, north, east, visitor);
+    }
+
+    private boolean withinBox(View current, Record record, double south, double west, double north, double east,
+                              Visitor visitor) {
+        long[] ranges = HilbertCurve.cover(south, west, north, east);
+        for (int r = 0; r < ranges.length; r += 2) {
+            long end = ranges[r + 1];
+            for (int i = firstBlockFor(current, ranges[r]) * BLOCK_RECORDS; i < current.baseCount; i++) {
+                int offset = baseOffset(current.blockCount, i);
+                long key = current.base.getLong(offset);
+                if (key > end) {
+                    break;
+                }
+                if (key >= ranges[r] && !visitIfInside(record, current.base, offset, south, west, north, east, visitor)) {
+                    return false;
+                }
+            }
+        }
+        for (int i = 0; i < current.deltaCount; i++) {
+            if (!visitIfInside(record, current.delta, i * recordSize, south, west, north, east, visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Entrega ao visitante os pontos a no máximo radiusMeters das coordenadas, pela distância equiretangular.
+     *
+     * @return Falso se a consulta foi interrompida pelo visitante, verdadeiro caso contrário.
+     */
+    public boolean withinRadius(final double latitude, final double longitude, final double radiusMeters,
+                                             final Visitor visitor) {
+        double dLat = radiusMeters / GeoGrid.METERS_PER_DEGREE;
+        double south = Math.max(-90, latitude - dLat);
+        double north = Math.min(90, latitude + dLat);
+        double cos = Math.min(Math.cos(Math.toRadians(south)), Math.cos(Math.toRadians(north)));
+        double dLon = cos > 0 ? dLat / cos : 180;
+        double west = -180;
+        double east = 180;
+        if (dLon < 180) {
+            west = normalizeLongitude(longitude - dLon);
+            east = normalizeLongitude(longitude + dLon);
+        }
+        return withinBox(south, west, north, east, candidate -> {
+            double d = DistanceStrategy.EQUIRECTANGULAR.distance(latitude, longitude, candidate.latitude(), candidate.longitude());
+            return d > radiusMeters || visitor.visit(candidate);
+        });
+    }
+
+    public int size() {
+        View current = view;
+        return current.baseCount + current.deltaCount;
+    }
+
+    public int getPendingCount() {
+        return view.deltaCount;
+    }
+
+    public int getPayloadSize() {
+        return payloadSize;
+    }
+
+    /**
+     * Quantidade de novidades a partir da qual elas são intercaladas no arquivo principal: um oitavo dos registros
+     * do arquivo principal, entre MIN_MERGE e MAX_MERGE.
+     */
+    public int mergeThreshold() {
+        return Math.max(MIN_MERGE, Math.min(MAX_MERGE, view.baseCount / 8));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        delta.close();
+    }
+
+    private static boolean visitIfInside(Record record, ByteBuffer buffer, int offset, double south, double west,
+                                         double north, double east, Visitor visitor) {
+        double latitude = buffer.getInt(offset + 8) / E7;
+        double longitude = buffer.getInt(offset + 12) / E7;
+        if (latitude < south || latitude > north || longitude < west || longitude > east) {
+            return true;
+        }
+        record.buffer = buffer;
+        record.offset = offset;
+        return visitor.visit(record);
+    }
+
+    // Último bloco cujo primeiro registro tem índice menor que key (ou o primeiro bloco): como vários pontos podem
+    // cair na mesma célula, o bloco anterior a um que começa com key ainda pode terminar com registros de key
+    private static int firstBlockFor(View current, long key) {
+        int low = 0;
+        int high = current.blockCount - 1;
+        int found = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (current.base.getLong(HEADER_SIZE + mid * 8) < key) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private int baseOffset(int blocks, int index) {
+        return HEADER_SIZE + blocks * 8 + index * recordSize;
+    }
+
+    // Publica o estado atual para as consultas; chamado ao final de cada alteração, com o estado já consistente
+    private void publish() {
+        view = new View(base, baseCount, blockCount, deltaRecords, deltaCount);
+    }
+
+    private void putRecord(ByteBuffer buffer, double latitude, double longitude, byte[] payload) {
+        if (payload.length > payloadSize) {
+            throw new IllegalArgumentException("Carga de " + payload.length + " bytes; o máximo é " + payloadSize);
+        }
+        int latE7 = (int) Math.round(latitude * E7);
+        int lonE7 = (int) Math.round(longitude * E7);
+        buffer.putLong(HilbertCurve.index(latE7 / E7, lonE7 / E7));
+        buffer.putInt(latE7);
+        buffer.putInt(lonE7);
+        buffer.put(payload);
+        for (int i = payload.length; i < payloadSize; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Grava um novo arquivo principal com a intercalação dos registros ordenados de sorted e dos registros de
+     * unsorted (ordenados aqui) e o troca pelo atual; depois recria o arquivo de novidades vazio para a nova geração.
+     */
+    private void writeBase(ByteBuffer sorted, int sortedCount, ByteBuffer unsorted, int unsortedCount, long newGeneration)
+            throws IOException {
+        int sortedOffset = sorted == null ? 0 : HEADER_SIZE + blockCount * 8;
+        long[] order = new long[unsortedCount];
+        for (int i = 0; i < unsortedCount; i++) {
+            order[i] = unsorted.getLong(i * recordSize) << 31 | i; // Índice de Hilbert (32 bits) e posição
+        }
+        Arrays.sort(order);
+
+        int count = sortedCount + unsortedCount;
+        int blocks = (count + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temporary)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(payloadSize);
+            out.writeInt(count);
+            out.writeInt(BLOCK_RECORDS);
+            out.writeLong(newGeneration);
+            // Duas passagens pela intercalação: primeiro o diretório, depois os registros
+            for (int pass = 0; pass < 2; pass++) {
+                int i = 0;
+                int j = 0;
+                for (int n = 0; n < count; n++) {
+                    ByteBuffer source;
+                    int offset;
+                    if (j == unsortedCount || (i < sortedCount
+                            && sorted.getLong(sortedOffset + i * recordSize) <= order[j] >>> 31)) {
+                        source = sorted;
+                        offset = sortedOffset + i++ * recordSize;
+                    } else {
+                        source = unsorted;
+                        offset = (int) (order[j++] & 0x7FFFFFFF) * recordSize;
+                    }
+                    if (pass == 0) {
+                        if (n % BLOCK_RECORDS == 0) {
+                            out.writeLong(source.getLong(offset));
+                        }
+                    } else {
+                        for (int b = 0; b < recordSize; b++) {
+                            out.write(source.get(offset + b));
+                        }
+                    }
+                }
+            }
+            out.flush();
+            stream.getFD().sync();
+            if (blocks * 8L + HEADER_SIZE + (long) count * recordSize != stream.getChannel().size()) {
+                throw new IOException("Gravação incompleta do índice");
+            }
+        }
+        if (!temporary.renameTo(file)) {
+            throw new IOException("Não foi possível substituir " + file);
+        }
+        generation = newGeneration;
+        resetDelta();
+    }
+
+    private void mapBase() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Arquivo de índice inválido");
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException("Arquivo de índice inválido");
+            }
+            if (mapped.getInt(4) != payloadSize) {
+                throw new IOException("Índice criado com carga de " + mapped.getInt(4) + " bytes, esperado " + payloadSize);
+            }
+            int count = mapped.getInt(8);
+            int blocks = (count + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+            if (count < 0 || mapped.getInt(12) != BLOCK_RECORDS
+                    || HEADER_SIZE + blocks * 8L + (long) count * recordSize != mapped.capacity()) {
+                throw new IOException("Arquivo de índice truncado ou corrompido");
+            }
+            base = mapped;
+            baseCount = count;
+            blockCount = blocks;
+            generation = mapped.getLong(16);
+        }
+    }
+
+    private void remap() throws IOException {
+        mapBase();
+    }
+
+    // Carrega as novidades da geração atual; as de outra geração já estão no arquivo principal (ou são inválidas)
+    private void openDelta() throws IOException {
+        if (deltaFile.exists()) {
+            try (RandomAccessFile raf = new RandomAccessFile(deltaFile, "r")) {
+                if (raf.length() >= DELTA_HEADER_SIZE && raf.readInt() == DELTA_MAGIC && raf.readInt() == payloadSize
+                        && raf.readLong() == generation + 1) {
+                    int count = (int) ((raf.length() - DELTA_HEADER_SIZE) / recordSize);
+                    deltaRecords = ByteBuffer.allocate(Math.max(count * 2, 16) * recordSize);
+                    raf.readFully(deltaRecords.array(), 0, count * recordSize);
+                    deltaRecords.position(count * recordSize);
+                    deltaCount = count;
+                    delta = new RandomAccessFile(deltaFile, "rw");
+                    delta.setLength(DELTA_HEADER_SIZE + (long) count * recordSize); // Descarta um registro incompleto
+                    return;
+                }
+            }
+        }
+        resetDelta();
+    }
+
+    private void resetDelta() throws IOException {
+        if (delta != null) {
+            delta.close();
+        }
+        delta = new RandomAccessFile(deltaFile, "rw");
+        delta.setLength(0);
+        delta.writeInt(DELTA_MAGIC);
+        delta.writeInt(payloadSize);
+        delta.writeLong(generation + 1);
+        delta.getFD().sync();
+        deltaRecords = ByteBuffer.allocate(16 * recordSize);
+        deltaCount = 0;
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        if (longitude > 180) {
+            return longitude - 360;
+        }
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        return longitude;
+    }
+}
@@ -0,0 +1,330 @@
+/**
+ * Árvore k-d sobre coordenadas geográficas para consultas dos k vizinhos mais próximos.
+ *
+ * Cada ponto é guardado como um vetor unitário (x, y, z) na esfera. A distância em linha reta (corda) entre dois
+ * vetores unitários cresce junto com a distância sobre a superfície, e a distância de haversine é exatamente
+ * 2 * R * asin(corda / 2); por isso a busca pode podar subárvores com a distância euclidiana em 3D e ainda
+ * devolver os mesmos vizinhos que uma varredura linear com GeoCalculator.calculateDistance.
+ *
+ * Principais funcionalidades:
+ * - Construção em lote balanceada (mediana por seleção no eixo de maior espalhamento) em O(n log n).
+ * - Inserção incremental, com reconstrução completa sempre que o tamanho dobra desde a última construção,
+ *   o que mantém a profundidade esperada em O(log n) com custo amortizado de O(log n) por inserção.
+ * - Consulta dos k vizinhos mais próximos, com distâncias em metros, em tempo esperado O(log n + k log k).
+ *
+ * Os nós ficam em vetores primitivos indexados pelo identificador do ponto (a ordem de inserção), sem um objeto por nó.
+ * A classe não é sincronizada.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.util.Arrays;
+
+public class KdTree {
+    private static final int NONE = -1;
+
+    private double[] xs;
+    private double[] ys;
+    private double[] zs;
+    private int[] left;
+    private int[] right;
+    private byte[] axes;
+    private int size;
+    private int root = NONE;
+    private int sizeAtLastBuild;
+
+    // Pilha reaproveitada pelas consultas (nós e limites inferiores da distância ao quadrado)
+    private int[] stackNodes = new int[64];
+    private double[] stackBounds = new double[64];
+
+    public KdTree() {
+        this(16);
+    }
+
+    public KdTree(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        xs = new double[capacity];
+        ys = new double[capacity];
+        zs = new double[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        axes = new byte[capacity];
+    }
+
+    /**
+     * Constrói uma árvore balanceada em lote. O identificador de cada ponto é a sua posição nos vetores.
+     */
+    public static KdTree build(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Vetores de latitude e longitude com tamanhos diferentes");
+        }
+        KdTree tree = new KdTree(latitudes.length);
+        for (int i = 0; i < latitudes.length; i++) {
+            tree.append(latitudes[i], longitudes[i]);
+        }
+        tree.rebuild();
+        return tree;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double latitude(int id) {
+        return Math.toDegrees(Math.asin(Math.max(-1, Math.min(1, zs[id]))));
+    }
+
+    public double longitude(int id) {
+        return Math.toDegrees(Math.atan2(ys[id], xs[id]));
+    }
+
+    /**
+     * Insere um ponto na árvore.
+     *
+     * @return O identificador do ponto, igual à quantidade de pontos inseridos antes dele.
+     */
+    public int add(double latitude, double longitude) {
+        int id = append(latitude, longitude);
+        if (size > 2 * sizeAtLastBuild) {
+            rebuild();
+            return id;
+        }
+        // Desce pela árvore até a folha onde o ponto deve ficar
+        int node = root;
+        while (true) {
+            boolean goLeft = coordinate(id, axes[node]) < coordinate(node, axes[node]);
+            int child = goLeft ? left[node] : right[node];
+            if (child == NONE) {
+                axes[id] = (byte) ((axes[node] + 1) % 3);
+                if (goLeft) {
+                    left[node] = id;
+                } else {
+                    right[node] = id;
+                }
+                return id;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Procura os k pontos mais próximos das coordenadas informadas.
+     * Os resultados são escritos em ordem crescente de distância nos vetores ids e distancesMeters,
+     * que devem ter pelo menos k posições.
+     *
+     * @return A quantidade de vizinhos encontrados: k, ou o tamanho da árvore se ela tiver menos de k pontos.
+     */
+    public int nearest(double latitude, double longitude, int k, int[] ids, double[] distancesMeters) {
+        if (k <= 0 || root == NONE) {
+            return 0;
+        }
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        double qx = cosLat * Math.cos(lon);
+        double qy = cosLat * Math.sin(lon);
+        double qz = Math.sin(lat);
+
+        // Max-heap dos melhores candidatos, guardado nos próprios vetores de saída (distância ao quadrado da corda)
+        int found = 0;
+        double worst = Double.POSITIVE_INFINITY;
+
+        int top = 0;
+        stackNodes[top] = root;
+        stackBounds[top++] = 0;
+        while (top > 0) {
+            top--;
+            int node = stackNodes[top];
+            double bound = stackBounds[top];
+            if (found == k && bound >= worst) {
+                continue;
+            }
+            double dx = xs[node] - qx;
+            double dy = ys[node] - qy;
+            double dz = zs[node] - qz;
+            double d2 = dx * dx + dy * dy + dz * dz;
+            if (found < k) {
+                siftUp(ids, distancesMeters, found++, node, d2);
+                if (found == k) {
+                    worst = distancesMeters[0];
+                }
+            } else if (d2 < worst) {
+                siftDown(ids, distancesMeters, k, node, d2);
+                worst = distancesMeters[0];
+            }
+
+            int axis = axes[node];
+            double diff = axis == 0 ? qx - xs[node] : (axis == 1 ? qy - ys[node] : qz - zs[node]);
+            int near = diff < 0 ? left[node] : right[node];
+            int far = diff < 0 ? right[node] : left[node];
+            if (top + 2 > stackNodes.length) {
+                stackNodes = Arrays.copyOf(stackNodes, stackNodes.length * 2);
+                stackBounds = Arrays.copyOf(stackBounds, stackBounds.length * 2);
+            }
+            if (far != NONE) {
+                stackNodes[top] = far;
+                stackBounds[top++] = Math.max(bound, diff * diff);
+            }
+            if (near != NONE) {
+                stackNodes[top] = near;
+                stackBounds[top++] = bound;
+            }
+        }
+
+        // Ordena o heap em ordem crescente e converte a corda em distância sobre a superfície
+        for (int end = found - 1; end > 0; end--) {
+            int id = ids[end];
+            double d2 = distancesMeters[end];
+            ids[end] = ids[0];
+            distancesMeters[end] = distancesMeters[0];
+            siftDown(ids, distancesMeters, end, id, d2);
+        }
+        for (int i = 0; i < found; i++) {
+            distancesMeters[i] = chordToMeters(Math.sqrt(distancesMeters[i]));
+        }
+        return found;
+    }
+
+    static double chordToMeters(double chord) {
+        return 2 * GeoGrid.R * Math.asin(Math.min(1, chord / 2));
+    }
+
+    private int append(double latitude, double longitude) {
+        if (size == xs.length) {
+            int capacity = size + (size >> 1);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            zs = Arrays.copyOf(zs, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            axes = Arrays.copyOf(axes, capacity);
+        }
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        int id = size++;
+        xs[id] = cosLat * Math.cos(lon);
+        ys[id] = cosLat * Math.sin(lon);
+        zs[id] = Math.sin(lat);
+        left[id] = NONE;
+        right[id] = NONE;
+        return id;
+    }
+
+    private void rebuild() {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        root = build(order, 0, size);
+        sizeAtLastBuild = size;
+    }
+
+    // Constrói a subárvore com os pontos order[lo..hi) e retorna a sua raiz
+    private int build(int[] order, int lo, int hi) {
+        if (lo >= hi) {
+            return NONE;
+        }
+        int axis = widestAxis(order, lo, hi);
+        int mid = (lo + hi) >>> 1;
+        select(order, lo, hi - 1, mid, axis);
+        int node = order[mid];
+        axes[node] = (byte) axis;
+        left[node] = build(order, lo, mid);
+        right[node] = build(order, mid + 1, hi);
+        return node;
+    }
+
+    private int widestAxis(int[] order, int lo, int hi) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int i = lo; i < hi; i++) {
+            int id = order[i];
+            minX = Math.min(minX, xs[id]);
+            maxX = Math.max(maxX, xs[id]);
+            minY = Math.min(minY, ys[id]);
+            maxY = Math.max(maxY, ys[id]);
+            minZ = Math.min(minZ, zs[id]);
+            maxZ = Math.max(maxZ, zs[id]);
+        }
+        double spreadX = maxX - minX;
+        double spreadY = maxY - minY;
+        double spreadZ = maxZ - minZ;
+        return spreadX >= spreadY ? (spreadX >= spreadZ ? 0 : 2) : (spreadY >= spreadZ ? 1 : 2);
+    }
+
+    // Seleção de Hoare: deixa em order[k] o elemento de ordem k no eixo informado, com menores à esquerda e maiores à direita
+    private void select(int[] order, int lo, int hi, int k, int axis) {
+        while (hi > lo) {
+            double pivot = coordinate(order[(lo + hi) >>> 1], axis);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (coordinate(order[i], axis) < pivot) {
+                    i++;
+                }
+                while (coordinate(order[j], axis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double coordinate(int id, int axis) {
+        return axis == 0 ? xs[id] : (axis == 1 ? ys[id] : zs[id]);
+    }
+
+    private static void siftUp(int[] ids, double[] keys, int position, int id, double key) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[parent] >= key) {
+                break;
+            }
+            ids[position] = ids[parent];
+            keys[position] = keys[parent];
+            position = parent;
+        }
+        ids[position] = id;
+        keys[position] = key;
+    }
+
+    // Substitui a raiz do max-heap de tamanho heapSize pelo elemento informado e restaura a ordem do heap
+    private static void siftDown(int[] ids, double[] keys, int heapSize, int id, double key) {
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && keys[child + 1] > keys[child]) {
+                child++;
+            }
+            if (keys[child] <= key) {
+                break;
+            }
+            ids[position] = ids[child];
+            keys[position] = keys[child];
+            position = child;
+        }
+        ids[position] = id;
+        keys[position] = key;
+    }
+}
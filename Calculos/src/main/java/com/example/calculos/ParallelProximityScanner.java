@@ -0,0 +1,174 @@
+/**
+ * Verificações de proximidade em paralelo com fork/join, para validar conjuntos grandes de regiões.
+ *
+ * O trabalho é dividido recursivamente até blocos de CHUNK_SIZE pontos, de modo que os trechos dos vetores de
+ * coordenadas percorridos por uma tarefa caibam no cache (4096 pontos = 64 KB de latitudes e longitudes). As
+ * buscas que procuram apenas um resultado terminam cedo: a primeira tarefa que encontra um ponto publica o
+ * resultado, e as demais tarefas verificam esse resultado antes de cada bloco e a cada CANCEL_CHECK_INTERVAL pontos,
+ * abandonando o trabalho restante.
+ *
+ * Principais funcionalidades:
+ * - Busca de algum ponto a menos de R metros de uma coordenada em vetores primitivos (varredura linear paralela).
+ * - Busca de alguma violação do invariante de distância em um GridIndex inteiro, com parada no primeiro par.
+ * - Contagem de todas as violações de um GridIndex, para relatórios de validação.
+ * - Número de threads configurável; o pool é próprio e deve ser encerrado com shutdown().
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelProximityScanner {
+    public static final int CHUNK_SIZE = 4096;
+    static final int CANCEL_CHECK_INTERVAL = 256;
+    private static final int NOT_FOUND = -1;
+
+    private final ForkJoinPool pool;
+    private final GeoCalculator calculator = new GeoCalculator();
+
+    public ParallelProximityScanner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelProximityScanner(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Paralelismo inválido: " + parallelism);
+        }
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Procura algum dos count primeiros pontos dos vetores a menos de radiusMeters das coordenadas informadas.
+     * Antes da distância exata, descarta os pontos cuja diferença de latitude já excede o raio.
+     *
+     * @return O índice de um ponto encontrado (não necessariamente o primeiro), ou -1 se não houver nenhum.
+     */
+    public int findWithin(final double[] latitudes, final double[] longitudes, int count,
+                          final double latitude, final double longitude, final double radiusMeters) {
+        final double maxLatDiff = Math.toDegrees(radiusMeters / GeoGrid.R);
+        final AtomicInteger found = new AtomicInteger(NOT_FOUND);
+        pool.invoke(new SearchTask(new Predicate() {
+            @Override
+            public boolean matches(int i) {
+                return Math.abs(latitudes[i] - latitude) <= maxLatDiff
+                        && calculator.calculateDistance(latitudes[i], longitudes[i], latitude, longitude) < radiusMeters;
+            }
+        }, 0, count, found));
+        return found.get();
+    }
+
+    /**
+     * Procura algum ponto do índice que esteja a menos de radiusMeters de um ponto inserido antes dele.
+     * O resultado equivale ao da validação feita a cada inserção, mas as consultas são distribuídas entre as threads.
+     *
+     * @return O identificador de um ponto em violação, ou -1 se o índice respeitar o invariante.
+     */
+    public int findViolation(final GridIndex index, final double radiusMeters) {
+        final AtomicInteger found = new AtomicInteger(NOT_FOUND);
+        pool.invoke(new SearchTask(new Predicate() {
+            @Override
+            public boolean matches(int id) {
+                return index.findWithin(index.latitude(id), index.longitude(id), radiusMeters, id) >= 0;
+            }
+        }, 0, index.size(), found));
+        return found.get();
+    }
+
+    /**
+     * Conta os pontos do índice que estão a menos de radiusMeters de algum ponto inserido antes deles.
+     */
+    public long countViolations(GridIndex index, double radiusMeters) {
+        return pool.invoke(new CountTask(index, radiusMeters, 0, index.size()));
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private interface Predicate {
+        boolean matches(int i);
+    }
+
+    // Busca com parada antecipada: a primeira tarefa que encontra um índice o publica em found
+    private static class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Predicate predicate;
+        private final int from;
+        private final int to;
+        private final AtomicInteger found;
+
+        SearchTask(Predicate predicate, int from, int to, AtomicInteger found) {
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (found.get() != NOT_FOUND) {
+                return;
+            }
+            if (to - from > CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SearchTask(predicate, from, mid, found), new SearchTask(predicate, mid, to, found));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                if ((i - from) % CANCEL_CHECK_INTERVAL == 0 && found.get() != NOT_FOUND) {
+                    return;
+                }
+                if (predicate.matches(i)) {
+                    found.compareAndSet(NOT_FOUND, i);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static class CountTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final GridIndex index;
+        private final double radiusMeters;
+        private final int from;
+        private final int to;
+
+        CountTask(GridIndex index, double radiusMeters, int from, int to) {
+            this.index = index;
+            this.radiusMeters = radiusMeters;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                CountTask left = new CountTask(index, radiusMeters, from, mid);
+                left.fork();
+                long right = new CountTask(index, radiusMeters, mid, to).compute();
+                return left.join() + right;
+            }
+            long violations = 0;
+            for (int id = from; id < to; id++) {
+                if (index.findWithin(index.latitude(id), index.longitude(id), radiusMeters, id) >= 0) {
+                    violations++;
+                }
+            }
+            return violations;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Polígono simples sobre coordenadas geográficas, para regiões com forma (prédios, campi, trechos de rua).
+ *
+ * Os vértices são dados em graus, em qualquer sentido, sem repetir o primeiro no final (um vértice final igual ao
+ * primeiro é descartado). As arestas são segmentos retos no plano latitude/longitude, o que é exato o bastante para
+ * polígonos de até alguns quilômetros; polígonos que cruzam o antimeridiano ou contêm um polo não são suportados.
+ *
+ * As distâncias são calculadas em metros numa projeção plana local (equiretangular) centrada no ponto consultado
+ * ou no próprio polígono, a mesma aproximação da DistanceStrategy.EQUIRECTANGULAR usada nas regras de 30 metros.
+ *
+ * Principais funcionalidades:
+ * - Teste exato de ponto no polígono (regra par-ímpar), depois de um teste rápido no retângulo envolvente.
+ * - Distância de um ponto ao polígono (zero dentro dele) e interseção com um círculo.
+ * - Distância entre dois polígonos (zero quando se sobrepõem).
+ * - Alcance a partir de um ponto (a distância até o vértice mais distante), para dimensionar buscas ao redor dele.
+ * - Conversão de e para um vetor de coordenadas intercaladas (latitude, longitude, latitude, ...).
+ *
+ * Os objetos são imutáveis.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.util.Arrays;
+
+public class Polygon {
+    static final double METERS_PER_DEGREE = GeoGrid.METERS_PER_DEGREE;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double minLatitude;
+    private final double maxLatitude;
+    private final double minLongitude;
+    private final double maxLongitude;
+
+    public Polygon(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Vetores de latitude e longitude com tamanhos diferentes");
+        }
+        int count = latitudes.length;
+        if (count > 1 && latitudes[0] == latitudes[count - 1] && longitudes[0] == longitudes[count - 1]) {
+            count--; // Polígono fechado explicitamente
+        }
+        if (count < 3) {
+            throw new IllegalArgumentException("Um polígono precisa de pelo menos 3 vértices");
+        }
+        this.latitudes = Arrays.copyOf(latitudes, count);
+        this.longitudes = Arrays.copyOf(longitudes, count);
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            if (!(this.latitudes[i] >= -90 && this.latitudes[i] <= 90)
+                    || !(this.longitudes[i] >= -180 && this.longitudes[i] <= 180)) {
+                throw new IllegalArgumentException("Vértice inválido: " + this.latitudes[i] + ", " + this.longitudes[i]);
+            }
+            minLat = Math.min(minLat, this.latitudes[i]);
+            maxLat = Math.max(maxLat, this.latitudes[i]);
+            minLon = Math.min(minLon, this.longitudes[i]);
+            maxLon = Math.max(maxLon, this.longitudes[i]);
+        }
+        this.minLatitude = minLat;
+        this.maxLatitude = maxLat;
+        this.minLongitude = minLon;
+        this.maxLongitude = maxLon;
+    }
+
+    /**
+     * Cria um polígono a partir de coordenadas intercaladas: latitude e longitude de cada vértice, em ordem.
+     */
+    public static Polygon fromCoordinates(double[] coordinates) {
+        if (coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("Quantidade ímpar de coordenadas: " + coordinates.length);
+        }
+        double[] latitudes = new double[coordinates.length / 2];
+        double[] longitudes = new double[coordinates.length / 2];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = coordinates[2 * i];
+            longitudes[i] = coordinates[2 * i + 1];
+        }
+        return new Polygon(latitudes, longitudes);
+    }
+
+    /**
+     * Retorna as coordenadas intercaladas dos vértices, no formato aceito por fromCoordinates().
+     */
+    public double[] toCoordinates() {
+        double[] coordinates = new double[latitudes.length * 2];
+        for (int i = 0; i < latitudes.length; i++) {
+            coordinates[2 * i] = latitudes[i];
+            coordinates[2 * i + 1] = longitudes[i];
+        }
+        return coordinates;
+    }
+
+    public int getVertexCount() {
+        return latitudes.length;
+    }
+
+    public double latitude(int vertex) {
+        return latitudes[vertex];
+    }
+
+    public double longitude(int vertex) {
+        return longitudes[vertex];
+    }
+
+    public double getMinLatitude() {
+        return minLatitude;
+    }
+
+    public double getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    public double getMinLongitude() {
+        return minLongitude;
+    }
+
+    public double getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    /**
+     * Verifica se o ponto está dentro do polígono. Pontos exatamente sobre a borda podem ser considerados dentro ou fora.
+     */
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude || longitude < minLongitude || longitude > maxLongitude) {
+            return false;
+        }
+        boolean inside = false;
+        int n = latitudes.length;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            if ((latitudes[i] > latitude) != (latitudes[j] > latitude)) {
+                double crossing = longitudes[j] + (latitude - latitudes[j]) * (longitudes[i] - longitudes[j])
+                        / (latitudes[i] - latitudes[j]);
+                if (longitude < crossing) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Distância em metros do ponto até o polígono: zero se o ponto estiver dentro, senão a distância até a borda.
+     */
+    public double distanceTo(double latitude, double longitude) {
+        if (contains(latitude, longitude)) {
+            return 0;
+        }
+        double scale = Math.cos(Math.toRadians(latitude)) * METERS_PER_DEGREE;
+        double best = Double.POSITIVE_INFINITY;
+        int n = latitudes.length;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            best = Math.min(best, segmentDistance(0, 0,
+                    (longitudes[j] - longitude) * scale, (latitudes[j] - latitude) * METERS_PER_DEGREE,
+                    (longitudes[i] - longitude) * scale, (latitudes[i] - latitude) * METERS_PER_DEGREE));
+        }
+        return best;
+    }
+
+    /**
+     * Distância em metros do ponto até o vértice mais distante: o raio do menor círculo centrado no ponto que contém
+     * o polígono inteiro.
+     */
+    public double reachFrom(double latitude, double longitude) {
+        double scale = Math.cos(Math.toRadians(latitude)) * METERS_PER_DEGREE;
+        double best = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            double x = (longitudes[i] - longitude) * scale;
+            double y = (latitudes[i] - latitude) * METERS_PER_DEGREE;
+            best = Math.max(best, Math.sqrt(x * x + y * y));
+        }
+        return best;
+    }
+
+    /**
+     * Verifica se o polígono tem algum ponto a até radiusMeters das coordenadas (se o círculo e o polígono se tocam).
+     */
+    public boolean intersectsCircle(double latitude, double longitude, double radiusMeters) {
+        double dLat = radiusMeters / METERS_PER_DEGREE;
+        double dLon = dLat / Math.max(Math.cos(Math.toRadians(latitude)), 1e-9);
+        if (latitude + dLat < minLatitude || latitude - dLat > maxLatitude
+                || longitude + dLon < minLongitude || longitude - dLon > maxLongitude) {
+            return false;
+        }
+        return distanceTo(latitude, longitude) <= radiusMeters;
+    }
+
+    /**
+     * Distância em metros entre os dois polígonos: zero se eles se sobrepõem ou se tocam, senão a menor distância
+     * entre um vértice de um e uma aresta do outro.
+     */
+    public double distanceTo(Polygon other) {
+        if (contains(other.latitudes[0], other.longitudes[0]) || other.contains(latitudes[0], longitudes[0])) {
+            return 0;
+        }
+        // Projeção comum centrada no primeiro vértice deste polígono
+        double originLatitude = latitudes[0];
+        double originLongitude = longitudes[0];
+        double scale = Math.cos(Math.toRadians(originLatitude)) * METERS_PER_DEGREE;
+        double[] xs = project(longitudes, originLongitude, scale);
+        double[] ys = project(latitudes, originLatitude, METERS_PER_DEGREE);
+        double[] otherXs = project(other.longitudes, originLongitude, scale);
+        double[] otherYs = project(other.latitudes, originLatitude, METERS_PER_DEGREE);
+
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            for (int k = 0, l = otherXs.length - 1; k < otherXs.length; l = k++) {
+                if (segmentsIntersect(xs[j], ys[j], xs[i], ys[i], otherXs[l], otherYs[l], otherXs[k], otherYs[k])) {
+                    return 0;
+                }
+                best = Math.min(best, segmentDistance(xs[i], ys[i], otherXs[l], otherYs[l], otherXs[k], otherYs[k]));
+                best = Math.min(best, segmentDistance(otherXs[k], otherYs[k], xs[j], ys[j], xs[i], ys[i]));
+            }
+        }
+        return best;
+    }
+
+    private static double[] project(double[] values, double origin, double scale) {
+        double[] projected = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            projected[i] = (values[i] - origin) * scale;
+        }
+        return projected;
+    }
+
+    // Distância do ponto (px, py) ao segmento (ax, ay)-(bx, by), no plano
+    static double segmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = t < 0 ? 0 : (t > 1 ? 1 : t);
+        double x = ax + t * dx - px;
+        double y = ay + t * dy - py;
+        return Math.sqrt(x * x + y * y);
+    }
+
+    static boolean segmentsIntersect(double ax, double ay, double bx, double by,
+                                     double cx, double cy, double dx, double dy) {
+        double d1 = cross(cx, cy, dx, dy, ax, ay);
+        double d2 = cross(cx, cy, dx, dy, bx, by);
+        double d3 = cross(ax, ay, bx, by, cx, cy);
+        double d4 = cross(ax, ay, bx, by, dx, dy);
+        return ((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0));
+    }
+
+    private static double cross(double ax, double ay, double bx, double by, double px, double py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Índice espacial de polígonos: uma RTree sobre os retângulos envolventes filtra os candidatos, e o teste exato do
+ * Polygon decide.
+ *
+ * Principais funcionalidades:
+ * - Busca dos polígonos que contêm um ponto (por exemplo, em que prédio ou campus está a posição atual).
+ * - Busca de um polígono que toca um círculo, para a regra de distância mínima de uma nova região pontual.
+ * - Busca de um polígono a menos de uma distância de outro polígono, para a admissão de uma nova região com forma.
+ *
+ * Cada polígono é identificado pela sua posição na lista passada ao construtor. O índice é imutável e pode ser
+ * consultado por várias threads ao mesmo tempo.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+public class PolygonIndex {
+    private final List<Polygon> polygons;
+    private final RTree tree;
+
+    public PolygonIndex(List<Polygon> polygons) {
+        this.polygons = new ArrayList<>(polygons);
+        int n = polygons.size();
+        double[] minLat = new double[n];
+        double[] minLon = new double[n];
+        double[] maxLat = new double[n];
+        double[] maxLon = new double[n];
+        for (int i = 0; i < n; i++) {
+            Polygon polygon = polygons.get(i);
+            minLat[i] = polygon.getMinLatitude();
+            minLon[i] = polygon.getMinLongitude();
+            maxLat[i] = polygon.getMaxLatitude();
+            maxLon[i] = polygon.getMaxLongitude();
+        }
+        this.tree = RTree.build(minLat, minLon, maxLat, maxLon);
+    }
+
+    public int size() {
+        return polygons.size();
+    }
+
+    public Polygon get(int index) {
+        return polygons.get(index);
+    }
+
+    RTree getTree() {
+        return tree;
+    }
+
+    /**
+     * Visita os polígonos que contêm o ponto. A visita é interrompida assim que o visitante retornar falso.
+     */
+    public void forEachContaining(final double latitude, final double longitude, final IntPredicate visitor) {
+        tree.search(latitude, longitude, latitude, longitude,
+                index -> !polygons.get(index).contains(latitude, longitude) || visitor.test(index));
+    }
+
+    /**
+     * @return O índice de um polígono que contém o ponto, ou -1 se nenhum o contiver.
+     */
+    public int findContaining(double latitude, double longitude) {
+        final int[] found = {-1};
+        forEachContaining(latitude, longitude, index -> {
+            found[0] = index;
+            return false;
+        });
+        return found[0];
+    }
+
+    /**
+     * @return O índice de um polígono a até radiusMeters do ponto, ou -1 se não houver nenhum.
+     */
+    public int findWithin(final double latitude, final double longitude, final double radiusMeters) {
+        double dLat = radiusMeters / Polygon.METERS_PER_DEGREE;
+        double dLon = dLat / Math.max(Math.cos(Math.toRadians(latitude)), 1e-9);
+        final int[] found = {-1};
+        tree.search(latitude - dLat, longitude - dLon, latitude + dLat, longitude + dLon, index -> {
+            if (polygons.get(index).intersectsCircle(latitude, longitude, radiusMeters)) {
+                found[0] = index;
+                return false;
+            }
+            return true;
+        });
+        return found[0];
+    }
+
+    /**
+     * @return O índice de um polígono a até distanceMeters do polígono informado, ou -1 se não houver nenhum.
+     */
+    public int findWithin(final Polygon polygon, final double distanceMeters) {
+        double dLat = distanceMeters / Polygon.METERS_PER_DEGREE;
+        double maxAbsLatitude = Math.max(Math.abs(polygon.getMinLatitude()), Math.abs(polygon.getMaxLatitude()));
+        double dLon = dLat / Math.max(Math.cos(Math.toRadians(maxAbsLatitude)), 1e-9);
+        final int[] found = {-1};
+        tree.search(polygon.getMinLatitude() - dLat, polygon.getMinLongitude() - dLon,
+                polygon.getMaxLatitude() + dLat, polygon.getMaxLongitude() + dLon, index -> {
+                    if (polygons.get(index).distanceTo(polygon) <= distanceMeters) {
+                        found[0] = index;
+                        return false;
+                    }
+                    return true;
+                });
+        return found[0];
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Árvore R estática sobre retângulos de latitude/longitude, construída em lote pelo método STR (Sort-Tile-Recursive).
+ *
+ * Na construção, os retângulos são ordenados pela longitude do centro, divididos em faixas verticais e, dentro de
+ * cada faixa, ordenados pela latitude do centro e agrupados em folhas de até NODE_CAPACITY retângulos; o mesmo
+ * procedimento agrupa as folhas em nós internos, nível a nível, até restar a raiz. Os nós resultantes têm pouca
+ * sobreposição, e a busca por um retângulo visita O(log n) nós mais os que de fato o intersectam.
+ *
+ * Os nós ficam em vetores primitivos por nível (retângulo, primeiro filho e quantidade de filhos), sem um objeto por
+ * nó; os filhos de um nó são contíguos no nível de baixo. Cada item é identificado pela sua posição nos vetores
+ * passados a build().
+ *
+ * Principais funcionalidades:
+ * - Construção em lote em O(n log n).
+ * - Visita dos itens cujo retângulo intersecta o retângulo consultado, com interrupção pelo visitante.
+ *
+ * A árvore é imutável depois de construída e pode ser consultada por várias threads ao mesmo tempo.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+public class RTree {
+    static final int NODE_CAPACITY = 16;
+
+    // Retângulos dos itens, na ordem de build()
+    private final double[] itemMinLat;
+    private final double[] itemMinLon;
+    private final double[] itemMaxLat;
+    private final double[] itemMaxLon;
+    private final int[] leafItems; // Itens na ordem das folhas; os itens de uma folha são contíguos
+
+    // Níveis de nós, da folha (0) à raiz (último); os filhos de um nó são contíguos no nível de baixo
+    private final List<Level> levels = new ArrayList<>();
+
+    private RTree(double[] minLat, double[] minLon, double[] maxLat, double[] maxLon) {
+        this.itemMinLat = minLat.clone();
+        this.itemMinLon = minLon.clone();
+        this.itemMaxLat = maxLat.clone();
+        this.itemMaxLon = maxLon.clone();
+        this.leafItems = strOrder(itemMinLat, itemMinLon, itemMaxLat, itemMaxLon, identity(minLat.length));
+        if (leafItems.length == 0) {
+            return;
+        }
+        Level level = group(leafItems, itemMinLat, itemMinLon, itemMaxLat, itemMaxLon);
+        levels.add(level);
+        while (level.size() > 1) {
+            // Reordena os nós do nível pelo STR antes de agrupá-los; os filhos de cada nó acompanham o nó
+            int[] order = strOrder(level.minLat, level.minLon, level.maxLat, level.maxLon, identity(level.size()));
+            level.reorder(order);
+            level = group(identity(level.size()), level.minLat, level.minLon, level.maxLat, level.maxLon);
+            levels.add(level);
+        }
+    }
+
+    /**
+     * Constrói a árvore com os retângulos informados, um por item.
+     */
+    public static RTree build(double[] minLatitudes, double[] minLongitudes, double[] maxLatitudes, double[] maxLongitudes) {
+        int n = minLatitudes.length;
+        if (minLongitudes.length != n || maxLatitudes.length != n || maxLongitudes.length != n) {
+            throw new IllegalArgumentException("Vetores de retângulos com tamanhos diferentes");
+        }
+        return new RTree(minLatitudes, minLongitudes, maxLatitudes, maxLongitudes);
+    }
+
+    public int size() {
+        return itemMinLat.length;
+    }
+
+    /**
+     * Altura da árvore: quantidade de níveis de nós, contando as folhas.
+     */
+    public int getHeight() {
+        return levels.size();
+    }
+
+    /**
+     * Visita os itens cujo retângulo intersecta o retângulo informado, em ordem indefinida.
+     * A visita é interrompida assim que o visitante retornar falso.
+     *
+     * @return Falso se a visita foi interrompida pelo visitante, verdadeiro caso contrário.
+     */
+    public boolean search(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                          IntPredicate visitor) {
+        if (levels.isEmpty()) {
+            return true;
+        }
+        int top = levels.size() - 1;
+        int[] stackLevels = new int[top * NODE_CAPACITY + 2];
+        int[] stackNodes = new int[stackLevels.length];
+        int depth = 0;
+        stackLevels[0] = top;
+        stackNodes[0] = 0;
+        depth++;
+        while (depth > 0) {
+            depth--;
+            Level level = levels.get(stackLevels[depth]);
+            int node = stackNodes[depth];
+            if (!level.intersects(node, minLatitude, minLongitude, maxLatitude, maxLongitude)) {
+                continue;
+            }
+            int first = level.firstChild[node];
+            int end = first + level.childCount[node];
+            if (stackLevels[depth] == 0) {
+                for (int i = first; i < end; i++) {
+                    int item = leafItems[i];
+                    if (itemMinLat[item] <= maxLatitude && itemMaxLat[item] >= minLatitude
+                            && itemMinLon[item] <= maxLongitude && itemMaxLon[item] >= minLongitude
+                            && !visitor.test(item)) {
+                        return false;
+                    }
+                }
+            } else {
+                int childLevel = stackLevels[depth] - 1;
+                for (int child = first; child < end; child++) {
+                    stackLevels[depth] = childLevel;
+                    stackNodes[depth] = child;
+                    depth++;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Agrupa as entradas já ordenadas em nós consecutivos de até NODE_CAPACITY entradas
+    private static Level group(int[] entries, double[] minLat, double[] minLon, double[] maxLat, double[] maxLon) {
+        int nodes = (entries.length + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        Level level = new Level(nodes);
+        for (int node = 0; node < nodes; node++) {
+            int first = node * NODE_CAPACITY;
+            int end = Math.min(first + NODE_CAPACITY, entries.length);
+            double lowLat = Double.POSITIVE_INFINITY;
+            double lowLon = Double.POSITIVE_INFINITY;
+            double highLat = Double.NEGATIVE_INFINITY;
+            double highLon = Double.NEGATIVE_INFINITY;
+            for (int i = first; i < end; i++) {
+                int entry = entries[i];
+                lowLat = Math.min(lowLat, minLat[entry]);
+                lowLon = Math.min(lowLon, minLon[entry]);
+                highLat = Math.max(highLat, maxLat[entry]);
+                highLon = Math.max(highLon, maxLon[entry]);
+            }
+            level.minLat[node] = lowLat;
+            level.minLon[node] = lowLon;
+            level.maxLat[node] = highLat;
+            level.maxLon[node] = highLon;
+            level.firstChild[node] = first;
+            level.childCount[node] = end - first;
+        }
+        return level;
+    }
+
+    // Ordem STR das entradas: faixas pela longitude do centro e, dentro de cada faixa, pela latitude do centro
+    private static int[] strOrder(final double[] minLat, final double[] minLon, final double[] maxLat,
+                                  final double[] maxLon, int[] entries) {
+        int n = entries.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = entries[i];
+        }
+        Arrays.sort(order, Comparator.comparingDouble(entry -> minLon[entry] + maxLon[entry]));
+        int leaves = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int slices = (int) Math.ceil(Math.sqrt(leaves));
+        int sliceSize = slices == 0 ? n : slices * NODE_CAPACITY;
+        for (int start = 0; start < n; start += sliceSize) {
+            Arrays.sort(order, start, Math.min(start + sliceSize, n),
+                    Comparator.comparingDouble(entry -> minLat[entry] + maxLat[entry]));
+        }
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = order[i];
+        }
+        return sorted;
+    }
+
+    private static int[] identity(int n) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+
+    /**
+     * Nós de um nível da árvore em vetores primitivos.
+     */
+    private static class Level {
+        double[] minLat;
+        double[] minLon;
+        double[] maxLat;
+        double[] maxLon;
+        int[] firstChild;
+        int[] childCount;
+
+        Level(int size) {
+            minLat = new double[size];
+            minLon = new double[size];
+            maxLat = new double[size];
+            maxLon = new double[size];
+            firstChild = new int[size];
+            childCount = new int[size];
+        }
+
+        int size() {
+            return minLat.length;
+        }
+
+        boolean intersects(int node, double lowLat, double lowLon, double highLat, double highLon) {
+            return minLat[node] <= highLat && maxLat[node] >= lowLat && minLon[node] <= highLon && maxLon[node] >= lowLon;
+        }
+
+        void reorder(int[] order) {
+            Level copy = new Level(order.length);
+            for (int i = 0; i < order.length; i++) {
+                copy.minLat[i] = minLat[order[i]];
+                copy.minLon[i] = minLon[order[i]];
+                copy.maxLat[i] = maxLat[order[i]];
+                copy.maxLon[i] = maxLon[order[i]];
+                copy.firstChild[i] = firstChild[order[i]];
+                copy.childCount[i] = childCount[order[i]];
+            }
+            minLat = copy.minLat;
+            minLon = copy.minLon;
+            maxLat = copy.maxLat;
+            maxLon = copy.maxLon;
+            firstChild = copy.firstChild;
+            childCount = copy.childCount;
+        }
+    }
+}
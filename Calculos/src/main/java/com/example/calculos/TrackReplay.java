@@ -0,0 +1,304 @@
+/**
+ * Trajeto gravado (GPX ou CSV) que pode ser reproduzido como uma sequência de posições, para simular o GPS.
+ *
+ * As posições ficam em vetores paralelos (instante, latitude e longitude), na ordem do arquivo, e são entregues a um
+ * TrajectoryLog.FixVisitor por play(). A velocidade da reprodução é um fator sobre o tempo do trajeto: 1 reproduz em
+ * tempo real, N reproduz N vezes mais rápido e AS_FAST_AS_POSSIBLE entrega as posições sem nenhuma espera. Cada
+ * posição é agendada em relação ao início da reprodução, e não à posição anterior, para que os atrasos de quem a
+ * recebe não se acumulem. As posições e a ordem de entrega são sempre as mesmas, de modo que a mesma reprodução leva
+ * aos mesmos resultados em qualquer execução.
+ *
+ * Formatos aceitos:
+ * - GPX: os pontos "trkpt" e "rtept", com os atributos lat e lon e o elemento "time" opcional.
+ * - CSV: linhas "instante,latitude,longitude"; linhas vazias, comentários (#) e um cabeçalho são ignorados.
+ * Os instantes podem estar em milissegundos desde a época ou em ISO-8601 ("2026-10-19T12:00:00.250Z", com fuso
+ * opcional). Um ponto sem instante fica DEFAULT_INTERVAL_MILLIS depois do anterior. Os instantes não podem voltar
+ * no tempo.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+public final class TrackReplay {
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+
+    private final long[] times;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    public TrackReplay(long[] times, double[] latitudes, double[] longitudes) {
+        if (times.length != latitudes.length || times.length != longitudes.length) {
+            throw new IllegalArgumentException("Vetores de tamanhos diferentes");
+        }
+        for (int i = 1; i < times.length; i++) {
+            if (times[i] < times[i - 1]) {
+                throw new IllegalArgumentException("Instante fora de ordem na posição " + i);
+            }
+        }
+        this.times = times.clone();
+        this.latitudes = latitudes.clone();
+        this.longitudes = longitudes.clone();
+    }
+
+    /**
+     * Lê o trajeto de um arquivo GPX (extensão .gpx) ou CSV (qualquer outra extensão).
+     */
+    public static TrackReplay read(File file) throws IOException {
+        try (InputStream input = new FileInputStream(file)) {
+            if (file.getName().toLowerCase(Locale.ROOT).endsWith(".gpx")) {
+                return readGpx(input);
+            }
+            return readCsv(new InputStreamReader(input, StandardCharsets.UTF_8));
+        }
+    }
+
+    public static TrackReplay readGpx(InputStream input) throws IOException {
+        final Builder builder = new Builder();
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.newSAXParser().parse(input, new DefaultHandler() {
+                private final StringBuilder text = new StringBuilder();
+                private double latitude;
+                private double longitude;
+                private String time;
+                private boolean inPoint;
+
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+                    String name = localName.isEmpty() ? qName : localName;
+                    if (name.equals("trkpt") || name.equals("rtept")) {
+                        try {
+                            latitude = Double.parseDouble(attributes.getValue("lat"));
+                            longitude = Double.parseDouble(attributes.getValue("lon"));
+                        } catch (NullPointerException | NumberFormatException e) {
+                            throw new SAXException("Ponto sem coordenadas válidas");
+                        }
+                        time = null;
+                        inPoint = true;
+                    }
+                    text.setLength(0);
+                }
+
+                @Override
+                public void characters(char[] ch, int start, int length) {
+                    text.append(ch, start, length);
+                }
+
+                @Override
+                public void endElement(String uri, String localName, String qName) throws SAXException {
+                    String name = localName.isEmpty() ? qName : localName;
+                    if (inPoint && name.equals("time")) {
+                        time = text.toString().trim();
+                    } else if (name.equals("trkpt") || name.equals("rtept")) {
+                        try {
+                            builder.add(time, latitude, longitude);
+                        } catch (IOException e) {
+                            throw new SAXException(e.getMessage());
+                        }
+                        inPoint = false;
+                    }
+                }
+            });
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("GPX inválido: " + e.getMessage(), e);
+        }
+        return builder.build();
+    }
+
+    public static TrackReplay readCsv(Reader reader) throws IOException {
+        Builder builder = new Builder();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("[,;]");
+            if (fields.length < 3) {
+                throw new IOException("Linha " + number + ": esperado instante,latitude,longitude");
+            }
+            double latitude;
+            double longitude;
+            try {
+                latitude = Double.parseDouble(fields[1].trim());
+                longitude = Double.parseDouble(fields[2].trim());
+            } catch (NumberFormatException e) {
+                if (builder.size == 0) {
+                    continue; // Cabeçalho
+                }
+                throw new IOException("Linha " + number + ": coordenadas inválidas");
+            }
+            builder.add(fields[0].trim(), latitude, longitude);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converte um instante em milissegundos desde a época ou em ISO-8601 para milissegundos desde a época.
+     */
+    static long parseTime(String value) throws IOException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ignored) {
+            // Não é um número: tenta ISO-8601
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        format.setLenient(false);
+        ParsePosition position = new ParsePosition(0);
+        Date date = format.parse(value, position);
+        if (date == null) {
+            throw new IOException("Instante inválido: " + value);
+        }
+        long millis = date.getTime();
+        int i = position.getIndex();
+        if (i < value.length() && value.charAt(i) == '.') {
+            int digits = 0;
+            long fraction = 0;
+            for (i++; i < value.length() && Character.isDigit(value.charAt(i)); i++, digits++) {
+                if (digits < 3) {
+                    fraction = fraction * 10 + (value.charAt(i) - '0');
+                }
+            }
+            for (int d = digits; d < 3; d++) {
+                fraction *= 10;
+            }
+            millis += fraction;
+        }
+        if (i == value.length() || value.substring(i).equals("Z")) {
+            return millis;
+        }
+        String offset = value.substring(i);
+        if (offset.length() == 6 && (offset.charAt(0) == '+' || offset.charAt(0) == '-') && offset.charAt(3) == ':') {
+            try {
+                int minutes = Integer.parseInt(offset.substring(1, 3)) * 60 + Integer.parseInt(offset.substring(4, 6));
+                return millis - (offset.charAt(0) == '+' ? 1 : -1) * TimeUnit.MINUTES.toMillis(minutes);
+            } catch (NumberFormatException ignored) {
+                // Cai na exceção abaixo
+            }
+        }
+        throw new IOException("Fuso inválido: " + value);
+    }
+
+    /**
+     * Entrega as posições ao visitante, na ordem do trajeto, esperando entre elas o intervalo do trajeto dividido
+     * por speed (sem espera com AS_FAST_AS_POSSIBLE). Executa na thread chamadora.
+     *
+     * @return Falso se a reprodução foi interrompida pelo visitante, verdadeiro caso contrário.
+     */
+    public boolean play(double speed, TrajectoryLog.FixVisitor visitor) throws InterruptedException {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Velocidade inválida: " + speed);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < times.length; i++) {
+            if (speed != AS_FAST_AS_POSSIBLE) {
+                long wait = dueNanos(start, i, speed) - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+            } else if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (!visitor.visit(times[i], latitudes[i], longitudes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Instante (em System.nanoTime()) em que a posição index deve ser entregue por uma reprodução iniciada em
+     * startNanos; com AS_FAST_AS_POSSIBLE, o próprio início.
+     */
+    public long dueNanos(long startNanos, int index, double speed) {
+        if (speed == AS_FAST_AS_POSSIBLE) {
+            return startNanos;
+        }
+        return startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(times[index] - times[0]) / speed);
+    }
+
+    public int size() {
+        return times.length;
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    public long getDurationMillis() {
+        return times.length == 0 ? 0 : times[times.length - 1] - times[0];
+    }
+
+    // Acumula as posições lidas, completando os instantes ausentes
+    private static class Builder {
+        long[] times = new long[64];
+        double[] latitudes = new double[64];
+        double[] longitudes = new double[64];
+        int size;
+
+        void add(String time, double latitude, double longitude) throws IOException {
+            long millis;
+            if (time == null || time.isEmpty()) {
+                millis = size == 0 ? 0 : times[size - 1] + DEFAULT_INTERVAL_MILLIS;
+            } else {
+                millis = parseTime(time);
+            }
+            if (size > 0 && millis < times[size - 1]) {
+                throw new IOException("Instante fora de ordem no ponto " + (size + 1));
+            }
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            times[size] = millis;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        TrackReplay build() {
+            return new TrackReplay(Arrays.copyOf(times, size), Arrays.copyOf(latitudes, size), Arrays.copyOf(longitudes, size));
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/**
+ * Registro compacto, somente de acréscimo, da trajetória do dispositivo em um arquivo.
+ *
+ * Cada posição é guardada como instante em milissegundos e coordenadas em ponto fixo E7 (graus × 10^7, resolução
+ * de ~1 cm). O arquivo é dividido em blocos de BLOCK_SIZE bytes; cada bloco começa com um cabeçalho (quantidade de
+ * posições, bytes usados, primeiro e último instante e as coordenadas da primeira posição) e continua com as
+ * diferenças de cada posição para a anterior (instante, latitude e longitude), codificadas em zigzag e varint.
+ * Posições a 2 s umas das outras ocupam de 5 a 9 bytes, de modo que uma semana delas (~300 mil) cabe em poucos MB.
+ *
+ * O índice dos blocos (primeiro e último instante de cada um) fica em memória e é reconstruído na abertura a partir
+ * dos cabeçalhos; a leitura de um intervalo de tempo localiza o primeiro bloco por busca binária e decodifica os
+ * blocos em sequência, um de cada vez, entregando as posições a um visitante. Cada acréscimo grava os bytes da
+ * posição antes do cabeçalho do bloco, então um acréscimo interrompido não corrompe o arquivo: o cabeçalho antigo
+ * simplesmente não inclui os bytes novos.
+ *
+ * Os instantes devem ser crescentes (ou iguais); posições mais antigas que a última são ignoradas.
+ *
+ * Principais funcionalidades:
+ * - Acréscimo de posições com codificação delta + zigzag + varint em blocos de tamanho fixo.
+ * - Leitura em fluxo das posições de um intervalo de tempo, com busca binária no índice de blocos.
+ * - Reabertura de um registro existente, reconstruindo o índice a partir dos cabeçalhos.
+ *
+ * Os métodos são sincronizados; todos os usuários do mesmo arquivo devem compartilhar a mesma instância.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+public class TrajectoryLog implements Closeable {
+    public static final int BLOCK_SIZE = 4096;
+    static final int HEADER_SIZE = 32; // Quantidade, bytes usados, primeiro e último instante, latitude e longitude
+    static final int MAX_RECORD_SIZE = 10 + 5 + 5; // Varints de um long e de dois ints
+    private static final double E7 = 1e7;
+
+    private final RandomAccessFile file;
+    private long[] firstTimes = new long[16];
+    private long[] lastTimes = new long[16];
+    private int blocks;
+
+    // Estado do último bloco, o único que ainda recebe posições
+    private final byte[] tail = new byte[BLOCK_SIZE];
+    private int tailCount;
+    private int tailUsed;
+    private long lastTime;
+    private int lastLatitude;
+    private int lastLongitude;
+
+    private final byte[] readBuffer = new byte[BLOCK_SIZE];
+
+    public TrajectoryLog(File path) throws IOException {
+        this.file = new RandomAccessFile(path, "rw");
+        open();
+    }
+
+    /**
+     * Visitante das posições entregues pela leitura de um intervalo.
+     */
+    public interface FixVisitor {
+        /**
+         * @return Falso para interromper a leitura.
+         */
+        boolean visit(long timeMillis, double latitude, double longitude);
+    }
+
+    /**
+     * Acrescenta uma posição ao registro.
+     *
+     * @return Falso se a posição for mais antiga que a última registrada e tiver sido ignorada.
+     */
+    public synchronized boolean append(long timeMillis, double latitude, double longitude) throws IOException {
+        int latE7 = toE7(latitude);
+        int lonE7 = toE7(longitude);
+        if (blocks > 0 && timeMillis < lastTime) {
+            return false;
+        }
+        if (blocks == 0 || tailUsed + MAX_RECORD_SIZE > BLOCK_SIZE) {
+            startBlock(timeMillis, latE7, lonE7);
+        } else {
+            int start = tailUsed;
+            tailUsed = writeVarLong(tail, tailUsed, zigzag(timeMillis - lastTime));
+            tailUsed = writeVarLong(tail, tailUsed, zigzag((long) latE7 - lastLatitude));
+            tailUsed = writeVarLong(tail, tailUsed, zigzag((long) lonE7 - lastLongitude));
+            tailCount++;
+            // Primeiro os bytes da posição, depois o cabeçalho que passa a incluí-los
+            file.seek(offsetOf(blocks - 1) + start);
+            file.write(tail, start, tailUsed - start);
+        }
+        lastTime = timeMillis;
+        lastLatitude = latE7;
+        lastLongitude = lonE7;
+        lastTimes[blocks - 1] = timeMillis;
+        writeHeader();
+        return true;
+    }
+
+    /**
+     * Entrega ao visitante, em ordem, as posições com instante entre fromMillis e toMillis (inclusive).
+     *
+     * @return Falso se a leitura foi interrompida pelo visitante, verdadeiro caso contrário.
+     */
+    public synchronized boolean read(long fromMillis, long toMillis, FixVisitor visitor) throws IOException {
+        long[] value = new long[1];
+        for (int block = firstBlockEndingAtOrAfter(fromMillis); block < blocks && firstTimes[block] <= toMillis; block++) {
+            byte[] data = block == blocks - 1 ? tail : load(block);
+            int count = readInt(data, 0);
+            long time = readLong(data, 8);
+            int latE7 = readInt(data, 24);
+            int lonE7 = readInt(data, 28);
+            int position = HEADER_SIZE;
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    position = readVarLong(data, position, value);
+                    time += unzigzag(value[0]);
+                    position = readVarLong(data, position, value);
+                    latE7 += (int) unzigzag(value[0]);
+                    position = readVarLong(data, position, value);
+                    lonE7 += (int) unzigzag(value[0]);
+                }
+                if (time > toMillis) {
+                    return true;
+                }
+                if (time >= fromMillis && !visitor.visit(time, latE7 / E7, lonE7 / E7)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public synchronized int getBlockCount() {
+        return blocks;
+    }
+
+    public synchronized long size() throws IOException {
+        return file.length();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+
+    // Reconstrói o índice a partir dos cabeçalhos e carrega o último bloco
+    private void open() throws IOException {
+        int count = (int) (file.length() / BLOCK_SIZE);
+        byte[] header = new byte[HEADER_SIZE];
+        for (int block = 0; block < count; block++) {
+            file.seek(offsetOf(block));
+            file.readFully(header);
+            if (readInt(header, 0) == 0) {
+                break; // Bloco criado mas sem nenhuma posição confirmada
+            }
+            ensureCapacity(block + 1);
+            firstTimes[block] = readLong(header, 8);
+            lastTimes[block] = readLong(header, 16);
+            blocks = block + 1;
+        }
+        file.setLength((long) blocks * BLOCK_SIZE);
+        if (blocks > 0) {
+            System.arraycopy(load(blocks - 1), 0, tail, 0, BLOCK_SIZE);
+            tailCount = readInt(tail, 0);
+            tailUsed = readInt(tail, 4);
+            // As coordenadas da última posição são as da primeira somadas a todas as diferenças do bloco
+            final long[] last = new long[3];
+            int block = blocks - 1;
+            long from = firstTimes[block];
+            long to = lastTimes[block];
+            read(from, to, new FixVisitor() {
+                @Override
+                public boolean visit(long timeMillis, double latitude, double longitude) {
+                    last[0] = timeMillis;
+                    last[1] = toE7(latitude);
+                    last[2] = toE7(longitude);
+                    return true;
+                }
+            });
+            lastTime = last[0];
+            lastLatitude = (int) last[1];
+            lastLongitude = (int) last[2];
+        }
+    }
+
+    private void startBlock(long timeMillis, int latE7, int lonE7) throws IOException {
+        ensureCapacity(blocks + 1);
+        Arrays.fill(tail, (byte) 0);
+        tailCount = 1;
+        tailUsed = HEADER_SIZE;
+        firstTimes[blocks] = timeMillis;
+        writeInt(tail, 24, latE7);
+        writeInt(tail, 28, lonE7);
+        blocks++;
+        file.setLength((long) blocks * BLOCK_SIZE);
+    }
+
+    private void writeHeader() throws IOException {
+        writeInt(tail, 0, tailCount);
+        writeInt(tail, 4, tailUsed);
+        writeLong(tail, 8, firstTimes[blocks - 1]);
+        writeLong(tail, 16, lastTimes[blocks - 1]);
+        file.seek(offsetOf(blocks - 1));
+        file.write(tail, 0, HEADER_SIZE);
+    }
+
+    private byte[] load(int block) throws IOException {
+        file.seek(offsetOf(block));
+        file.readFully(readBuffer);
+        return readBuffer;
+    }
+
+    // Primeiro bloco cujo último instante não é anterior a timeMillis (busca binária no índice)
+    private int firstBlockEndingAtOrAfter(long timeMillis) {
+        int low = 0;
+        int high = blocks;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lastTimes[mid] < timeMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > firstTimes.length) {
+            int length = Math.max(capacity, firstTimes.length * 2);
+            firstTimes = Arrays.copyOf(firstTimes, length);
+            lastTimes = Arrays.copyOf(lastTimes, length);
+        }
+    }
+
+    private static long offsetOf(int block) {
+        return (long) block * BLOCK_SIZE;
+    }
+
+    static int toE7(double degrees) {
+        return (int) Math.round(degrees * E7);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Grava o valor em grupos de 7 bits, do menos significativo para o mais, com o bit alto indicando continuação
+    static int writeVarLong(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    static int readVarLong(byte[] buffer, int position, long[] value) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer[position++];
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        value[0] = result;
+        return position;
+    }
+
+    private static void writeInt(byte[] buffer, int position, int value) {
+        buffer[position] = (byte) (value >>> 24);
+        buffer[position + 1] = (byte) (value >>> 16);
+        buffer[position + 2] = (byte) (value >>> 8);
+        buffer[position + 3] = (byte) value;
+    }
+
+    private static void writeLong(byte[] buffer, int position, long value) {
+        writeInt(buffer, position, (int) (value >>> 32));
+        writeInt(buffer, position + 4, (int) value);
+    }
+
+    private static int readInt(byte[] buffer, int position) {
+        return ((buffer[position] & 0xFF) << 24) | ((buffer[position + 1] & 0xFF) << 16)
+                | ((buffer[position + 2] & 0xFF) << 8) | (buffer[position + 3] & 0xFF);
+    }
+
+    private static long readLong(byte[] buffer, int position) {
+        return ((long) readInt(buffer, position) << 32) | (readInt(buffer, position + 4) & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Distância geodésica sobre o elipsoide WGS84 pela fórmula inversa de Vincenty.
+ *
+ * Limite de erro: a iteração para quando a variação da longitude auxiliar fica abaixo de 1e-12 rad, o que dá
+ * precisão melhor que 1 mm em relação à geodésica do elipsoide. Para pontos quase antípodas a iteração pode não
+ * convergir em MAX_ITERATIONS passos; nesse caso a distância é calculada pela haversine, com o erro esférico de até
+ * ~0,5%. O custo é de dezenas de funções trigonométricas por chamada, então o uso é indicado para auditorias, não
+ * para laços de proximidade.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.calculos;
+
+public class VincentyDistance implements DistanceStrategy {
+    private static final double A = 6378137.0; // Semieixo maior do WGS84, em metros
+    private static final double F = 1 / 298.257223563; // Achatamento do WGS84
+    private static final double B = A * (1 - F);
+    private static final int MAX_ITERATIONS = 200;
+    private static final double TOLERANCE = 1e-12;
+
+    private final HaversineDistance fallback = new HaversineDistance();
+
+    @Override
+    public double distance(double lat1, double lon1, double lat2, double lon2) {
+        return inverse(Math.toRadians(lat1), Math.toRadians(lon1), Math.toRadians(lat2), Math.toRadians(lon2));
+    }
+
+    // Os cossenos esféricos não servem ao elipsoide, que usa as latitudes reduzidas
+    @Override
+    public double distance(double lat1Rad, double lon1Rad, double cosLat1, double lat2Rad, double lon2Rad, double cosLat2) {
+        return inverse(lat1Rad, lon1Rad, lat2Rad, lon2Rad);
+    }
+
+    private double inverse(double lat1, double lon1, double lat2, double lon2) {
+        double l = lon2 - lon1;
+        double u1 = Math.atan((1 - F) * Math.tan(lat1));
+        double u2 = Math.atan((1 - F) * Math.tan(lat2));
+        double sinU1 = Math.sin(u1);
+        double cosU1 = Math.cos(u1);
+        double sinU2 = Math.sin(u2);
+        double cosU2 = Math.cos(u2);
+
+        double lambda = l;
+        double sinSigma;
+        double cosSigma;
+        double sigma;
+        double cosSqAlpha;
+        double cos2SigmaM;
+        int iteration = 0;
+        double previous;
+        do {
+            double sinLambda = Math.sin(lambda);
+            double cosLambda = Math.cos(lambda);
+            double t1 = cosU2 * sinLambda;
+            double t2 = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+            sinSigma = Math.sqrt(t1 * t1 + t2 * t2);
+            if (sinSigma == 0) {
+                return 0; // Pontos coincidentes
+            }
+            cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+            sigma = Math.atan2(sinSigma, cosSigma);
+            double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+            cosSqAlpha = 1 - sinAlpha * sinAlpha;
+            cos2SigmaM = cosSqAlpha == 0 ? 0 : cosSigma - 2 * sinU1 * sinU2 / cosSqAlpha; // Linha equatorial
+            double c = F / 16 * cosSqAlpha * (4 + F * (4 - 3 * cosSqAlpha));
+            previous = lambda;
+            lambda = l + (1 - c) * F * sinAlpha
+                    * (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+        } while (Math.abs(lambda - previous) > TOLERANCE && ++iteration < MAX_ITERATIONS);
+
+        if (iteration >= MAX_ITERATIONS) {
+            return fallback.distance(Math.toDegrees(lat1), Math.toDegrees(lon1), Math.toDegrees(lat2), Math.toDegrees(lon2));
+        }
+
+        double uSq = cosSqAlpha * (A * A - B * B) / (B * B);
+        double bigA = 1 + uSq / 16384 * (4096 + uSq * (-768 + uSq * (320 - 175 * uSq)));
+        double bigB = uSq / 1024 * (256 + uSq * (-128 + uSq * (74 - 47 * uSq)));
+        double deltaSigma = bigB * sinSigma * (cos2SigmaM + bigB / 4 * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)
+                - bigB / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+        return B * bigA * (sigma - deltaSigma);
+    }
+}
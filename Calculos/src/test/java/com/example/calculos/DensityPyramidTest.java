@@ -0,0 +1,118 @@
+package com.example.calculos;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DensityPyramidTest {
+    private static final double LATITUDE = -19.9191;
+    private static final double LONGITUDE = -43.9386;
+
+    @Test
+    public void tiles_matchBruteForceCountsAtEveryZoom() {
+        DensityPyramid pyramid = new DensityPyramid(12);
+        double[][] points = randomPoints(5000, 1);
+        for (double[] point : points) {
+            pyramid.add(point[0], point[1]);
+        }
+        assertEquals(points.length, pyramid.getTotal());
+
+        for (int zoom = 0; zoom <= 18; zoom++) {
+            int x = DensityPyramid.columnOf(LONGITUDE, zoom);
+            int y = DensityPyramid.rowOf(LATITUDE, zoom);
+            int[] bins = pyramid.tile(zoom, x, y);
+            int[] expected = new int[bins.length];
+            int inTile = 0;
+            for (double[] point : points) {
+                // Acima do zoom máximo, as faixas repetem a contagem da célula mais fina que as contém
+                int level = Math.min(zoom + DensityPyramid.BIN_SHIFT, 12 + DensityPyramid.BIN_SHIFT);
+                int column = DensityPyramid.columnOf(point[1], level);
+                int row = DensityPyramid.rowOf(point[0], level);
+                int shift = zoom + DensityPyramid.BIN_SHIFT - level;
+                if (DensityPyramid.columnOf(point[1], zoom) == x && DensityPyramid.rowOf(point[0], zoom) == y) {
+                    inTile++;
+                }
+                for (int bin = 0; bin < bins.length; bin++) {
+                    long binColumn = ((long) x << DensityPyramid.BIN_SHIFT) + bin % DensityPyramid.TILE_BINS;
+                    long binRow = ((long) y << DensityPyramid.BIN_SHIFT) + bin / DensityPyramid.TILE_BINS;
+                    if (binColumn >> shift == column && binRow >> shift == row) {
+                        expected[bin]++;
+                    }
+                }
+            }
+            assertArrayEquals("zoom " + zoom, expected, bins);
+            if (zoom <= 12 + DensityPyramid.BIN_SHIFT) {
+                assertEquals("zoom " + zoom, inTile, pyramid.count(zoom, x, y));
+            }
+            int max = 0;
+            for (int count : bins) {
+                max = Math.max(max, count);
+            }
+            assertTrue(pyramid.maxBinCount(zoom) >= max);
+        }
+        assertEquals(points.length, pyramid.count(0, 0, 0));
+    }
+
+    @Test
+    public void remove_undoesAdd() {
+        DensityPyramid pyramid = new DensityPyramid();
+        pyramid.add(LATITUDE, LONGITUDE);
+        pyramid.add(LATITUDE, LONGITUDE);
+        pyramid.remove(LATITUDE, LONGITUDE);
+        assertEquals(1, pyramid.getTotal());
+        assertEquals(1, pyramid.count(15, DensityPyramid.columnOf(LONGITUDE, 15), DensityPyramid.rowOf(LATITUDE, 15)));
+        pyramid.remove(LATITUDE, LONGITUDE);
+        assertEquals(0, pyramid.count(0, 0, 0));
+    }
+
+    @Test
+    public void writeAndRead_roundTrip() throws IOException {
+        DensityPyramid pyramid = new DensityPyramid(10);
+        for (double[] point : randomPoints(2000, 2)) {
+            pyramid.add(point[0], point[1]);
+        }
+        pyramid.add(LATITUDE, LONGITUDE);
+        pyramid.remove(LATITUDE, LONGITUDE); // Células zeradas não são gravadas
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        pyramid.write(bytes);
+
+        DensityPyramid copy = DensityPyramid.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(10, copy.getMaxZoom());
+        assertEquals(pyramid.getTotal(), copy.getTotal());
+        for (int zoom = 0; zoom <= 12; zoom++) {
+            int x = DensityPyramid.columnOf(LONGITUDE, zoom);
+            int y = DensityPyramid.rowOf(LATITUDE, zoom);
+            assertArrayEquals(pyramid.tile(zoom, x, y), copy.tile(zoom, x, y));
+        }
+        try {
+            DensityPyramid.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4}));
+            fail();
+        } catch (IOException expected) {
+            // Cabeçalho inválido
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tile_rejectsCoordinatesOutsideTheZoom() {
+        new DensityPyramid().tile(3, 8, 0);
+    }
+
+    // Pontos concentrados em um raio de ~20 km ao redor do centro, com alguns pelo mundo
+    private static double[][] randomPoints(int count, long seed) {
+        Random random = new Random(seed);
+        double[][] points = new double[count][];
+        for (int i = 0; i < count; i++) {
+            if (i % 10 == 0) {
+                points[i] = new double[]{random.nextDouble() * 170 - 85, random.nextDouble() * 360 - 180};
+            } else {
+                points[i] = new double[]{LATITUDE + random.nextGaussian() * 0.1, LONGITUDE + random.nextGaussian() * 0.1};
+            }
+        }
+        return points;
+    }
+}
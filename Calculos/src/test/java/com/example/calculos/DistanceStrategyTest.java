@@ -0,0 +1,77 @@
+package com.example.calculos;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DistanceStrategyTest {
+    private final GeoCalculator calculator = new GeoCalculator();
+
+    private static double dms(int degrees, int minutes, double seconds) {
+        double value = Math.abs(degrees) + minutes / 60.0 + seconds / 3600.0;
+        return degrees < 0 ? -value : value;
+    }
+
+    @Test
+    public void vincenty_matchesFlindersPeakToBuninyong() {
+        double lat1 = dms(-37, 57, 3.72030);
+        double lon1 = dms(144, 25, 29.52440);
+        double lat2 = dms(-37, 39, 10.15610);
+        double lon2 = dms(143, 55, 35.38390);
+        assertEquals(54972.271, DistanceStrategy.VINCENTY.distance(lat1, lon1, lat2, lon2), 1e-3);
+        assertEquals(0, DistanceStrategy.VINCENTY.distance(lat1, lon1, lat1, lon1), 0);
+    }
+
+    @Test
+    public void vincenty_nearAntipodalFallsBackToSphere() {
+        double d = DistanceStrategy.VINCENTY.distance(0, 0, 0.5, 179.7);
+        assertEquals(calculator.calculateDistance(0, 0, 0.5, 179.7), d, d * 0.006);
+    }
+
+    @Test
+    public void haversine_matchesGeoCalculator() {
+        assertEquals(calculator.calculateDistance(-19.9, -43.9, -23.55, -46.63),
+                DistanceStrategy.HAVERSINE.distance(-19.9, -43.9, -23.55, -46.63), 0);
+    }
+
+    @Test
+    public void equirectangular_agreesWithHaversineAtShortRange() {
+        Random random = new Random(11);
+        for (int i = 0; i < 10000; i++) {
+            double lat = random.nextDouble() * 160 - 80;
+            double lon = random.nextDouble() * 360 - 180;
+            double lat2 = lat + (random.nextDouble() - 0.5) * 0.001;
+            double lon2 = lon + (random.nextDouble() - 0.5) * 0.001;
+            double expected = DistanceStrategy.HAVERSINE.distance(lat, lon, lat2, lon2);
+            assertEquals(expected, DistanceStrategy.EQUIRECTANGULAR.distance(lat, lon, lat2, lon2), expected * 1e-4 + 1e-9);
+        }
+        // Através do antimeridiano
+        assertEquals(DistanceStrategy.HAVERSINE.distance(10, 179.9999, 10, -179.9999),
+                DistanceStrategy.EQUIRECTANGULAR.distance(10, 179.9999, 10, -179.9999), 1e-6);
+    }
+
+    @Test
+    public void equirectangular_fallsBackBeyondItsBounds() {
+        assertEquals(DistanceStrategy.HAVERSINE.distance(-19.9, -43.9, -23.55, -46.63),
+                DistanceStrategy.EQUIRECTANGULAR.distance(-19.9, -43.9, -23.55, -46.63), 1e-6);
+        assertEquals(DistanceStrategy.HAVERSINE.distance(89.9, 0, 89.9, 90),
+                DistanceStrategy.EQUIRECTANGULAR.distance(89.9, 0, 89.9, 90), 1e-6);
+    }
+
+    @Test
+    public void allStrategies_agreeOnThirtyMeterRule() {
+        Random random = new Random(5);
+        for (int i = 0; i < 10000; i++) {
+            double lat = random.nextDouble() * 170 - 85;
+            double lon = random.nextDouble() * 360 - 180;
+            double lat2 = lat + (random.nextDouble() - 0.5) * 0.0006;
+            double lon2 = lon + (random.nextDouble() - 0.5) * 0.0006;
+            double haversine = DistanceStrategy.HAVERSINE.distance(lat, lon, lat2, lon2);
+            if (Math.abs(haversine - 30) > 1e-3) {
+                assertEquals(haversine < 30, DistanceStrategy.EQUIRECTANGULAR.distance(lat, lon, lat2, lon2) < 30);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.calculos;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GazetteerTest {
+    private static final double LATITUDE = -19.9191;
+    private static final double LONGITUDE = -43.9386;
+    private static final double METERS_PER_DEGREE = 111195;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void nearest_matchesBruteForce() throws IOException {
+        double[][] points = randomPoints(20000, 10000, 1);
+        Gazetteer gazetteer = build(points, GazetteerBuilder.DEFAULT_CELL_SIZE);
+        assertEquals(points.length, gazetteer.size());
+
+        Random random = new Random(2);
+        for (int q = 0; q < 2000; q++) {
+            double latitude = LATITUDE + (random.nextDouble() - 0.5) * 12000 / METERS_PER_DEGREE;
+            double longitude = LONGITUDE + (random.nextDouble() - 0.5) * 12000 / METERS_PER_DEGREE;
+            double expected = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < gazetteer.size(); i++) {
+                expected = Math.min(expected, gazetteer.distance(i, latitude, longitude));
+            }
+            int found = gazetteer.nearest(latitude, longitude, 2000);
+            if (expected <= 2000) {
+                assertTrue(found >= 0);
+                assertEquals(expected, gazetteer.distance(found, latitude, longitude), 1e-6);
+            } else {
+                assertEquals(-1, found);
+            }
+        }
+    }
+
+    @Test
+    public void nearest_respectsMaxDistanceAndReadsNames() throws IOException {
+        GazetteerBuilder builder = new GazetteerBuilder(100);
+        builder.add("Praça da Liberdade", LATITUDE, LONGITUDE);
+        builder.add("Rua da Bahia", north(LATITUDE, 400), LONGITUDE);
+        builder.add("Rua da Bahia", north(LATITUDE, 420), LONGITUDE);
+        Gazetteer gazetteer = new Gazetteer(builder.toByteBuffer());
+
+        int found = gazetteer.nearest(north(LATITUDE, 30), LONGITUDE, 50);
+        assertEquals("Praça da Liberdade", gazetteer.name(found));
+        assertEquals(LATITUDE, gazetteer.latitude(found), 1e-7);
+        assertEquals("Rua da Bahia", gazetteer.name(gazetteer.nearest(north(LATITUDE, 430), LONGITUDE, 50)));
+        assertEquals(-1, gazetteer.nearest(north(LATITUDE, 200), LONGITUDE, 150));
+        assertEquals(-1, Gazetteer.empty().nearest(LATITUDE, LONGITUDE, 1000));
+    }
+
+    @Test
+    public void open_mapsWrittenFileAndRejectsInvalidOne() throws IOException {
+        double[][] points = randomPoints(1000, 2000, 3);
+        GazetteerBuilder builder = new GazetteerBuilder(GazetteerBuilder.DEFAULT_CELL_SIZE);
+        for (int i = 0; i < points.length; i++) {
+            builder.add("Lugar " + (i % 50), points[i][0], points[i][1]);
+        }
+        File file = folder.newFile("lugares.bin");
+        try (OutputStream output = new FileOutputStream(file)) {
+            builder.write(output);
+        }
+        Gazetteer gazetteer = Gazetteer.open(file);
+        assertEquals(1000, gazetteer.size());
+        int found = gazetteer.nearest(points[10][0], points[10][1], 100);
+        assertEquals(0, gazetteer.distance(found, points[10][0], points[10][1]), 0.02);
+        assertTrue(gazetteer.name(found).startsWith("Lugar "));
+
+        try {
+            new Gazetteer(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}));
+            fail();
+        } catch (IOException expected) {
+            // Arquivo inválido
+        }
+        ByteBuffer truncated = builder.toByteBuffer();
+        truncated.limit(truncated.limit() - 10);
+        try {
+            new Gazetteer(truncated.slice());
+            fail();
+        } catch (IOException expected) {
+            // Arquivo truncado
+        }
+    }
+
+    @Test
+    public void nearest_inLargeCity_findsAlmostEveryQuery() throws IOException {
+        // Uma cidade grande: 500 mil pontos de ruas em um quadrado de 40 km; o tempo por consulta fica no GazetteerBenchmark
+        Gazetteer gazetteer = build(randomPoints(500000, 40000, 4), GazetteerBuilder.DEFAULT_CELL_SIZE);
+        Random random = new Random(5);
+        int queries = 20000;
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            double latitude = LATITUDE + (random.nextDouble() - 0.5) * 40000 / METERS_PER_DEGREE;
+            double longitude = LONGITUDE + (random.nextDouble() - 0.5) * 40000 / METERS_PER_DEGREE;
+            if (gazetteer.nearest(latitude, longitude, 500) >= 0) {
+                found++;
+            }
+        }
+        assertTrue(found > queries * 0.99);
+    }
+
+    private static Gazetteer build(double[][] points, double cellSize) throws IOException {
+        GazetteerBuilder builder = new GazetteerBuilder(cellSize);
+        for (int i = 0; i < points.length; i++) {
+            builder.add("Rua " + i, points[i][0], points[i][1]);
+        }
+        return new Gazetteer(builder.toByteBuffer());
+    }
+
+    // Pontos sorteados em um quadrado de spreadMeters de lado ao redor do centro
+    private static double[][] randomPoints(int count, double spreadMeters, long seed) {
+        Random random = new Random(seed);
+        double cos = Math.cos(Math.toRadians(LATITUDE));
+        double[][] points = new double[count][];
+        for (int i = 0; i < count; i++) {
+            points[i] = new double[]{
+                    LATITUDE + (random.nextDouble() - 0.5) * spreadMeters / METERS_PER_DEGREE,
+                    LONGITUDE + (random.nextDouble() - 0.5) * spreadMeters / (METERS_PER_DEGREE * cos)};
+        }
+        return points;
+    }
+
+    private static double north(double latitude, double meters) {
+        return latitude + meters / METERS_PER_DEGREE;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.calculos;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GeofenceEngineTest {
+    private static final double METERS_PER_DEGREE = 6371000 * Math.PI / 180;
+
+    private final List<String> events = new ArrayList<>();
+    private final GeofenceEngine.Listener listener = new GeofenceEngine.Listener() {
+        @Override
+        public void onEnter(int id, double distanceMeters) {
+            events.add("entrou " + id);
+        }
+
+        @Override
+        public void onExit(int id, double distanceMeters) {
+            events.add("saiu " + id);
+        }
+    };
+
+    @Test
+    public void update_reportsEnterAndExitAlongPath() {
+        GridIndex index = new GridIndex(30);
+        int first = index.add(0, 0);
+        int second = index.add(0, 0.002); // ~222 m a leste
+        GeofenceEngine engine = new GeofenceEngine(index, 30, 10, 100);
+
+        for (double lon = -0.001; lon <= 0.003; lon += 0.00005) {
+            engine.update(0, lon, listener);
+        }
+        assertEquals(java.util.Arrays.asList("entrou " + first, "saiu " + first, "entrou " + second, "saiu " + second), events);
+        assertEquals(0, engine.getInsideCount());
+    }
+
+    @Test
+    public void markInside_carriesStateToNewEngineWithoutNewEnter() {
+        GridIndex index = new GridIndex(30);
+        int id = index.add(0, 0);
+        GeofenceEngine engine = new GeofenceEngine(index, 30, 10, 100);
+        engine.update(0, 0, listener);
+        assertArrayEquals(new int[]{id}, engine.getInside());
+
+        // Um novo índice com a mesma cerca em outra posição, como depois de recarregar as regiões
+        GridIndex reloaded = new GridIndex(30);
+        reloaded.add(0, 0.01);
+        int same = reloaded.add(0, 0);
+        GeofenceEngine next = new GeofenceEngine(reloaded, 30, 10, 100);
+        next.markInside(same);
+        next.update(0, 0, listener);
+        next.update(45 / METERS_PER_DEGREE, 0, listener);
+        assertEquals(java.util.Arrays.asList("entrou " + id, "saiu " + same), events);
+    }
+
+    @Test
+    public void update_hysteresisPreventsFlapping() {
+        GridIndex index = new GridIndex(30);
+        index.add(0, 0);
+        GeofenceEngine engine = new GeofenceEngine(index, 30, 10, 100);
+
+        // Oscila entre 27 m e 36 m do centro: entra uma vez e não sai, pois nunca passa de 40 m
+        for (int i = 0; i < 100; i++) {
+            double meters = i % 2 == 0 ? 27 : 36;
+            engine.update(meters / METERS_PER_DEGREE, 0, listener);
+        }
+        assertEquals(1, events.size());
+        engine.update(45 / METERS_PER_DEGREE, 0, listener);
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    public void update_matchesBruteForceAndRefreshesOnlyOnCellChange() {
+        Random random = new Random(9);
+        GridIndex index = new GridIndex(30);
+        for (int i = 0; i < 100000; i++) {
+            index.add(-19.9 + random.nextDouble() * 0.1, -43.9 + random.nextDouble() * 0.1);
+        }
+        GeofenceEngine engine = new GeofenceEngine(index, 30, 0, 200);
+        GeoCalculator calculator = new GeoCalculator();
+
+        double lat = -19.85;
+        double lon = -43.85;
+        int fixes = 2000;
+        for (int i = 0; i < fixes; i++) {
+            lat += 0.00002; // ~2 m por posição
+            lon += 0.00001;
+            engine.update(lat, lon, listener);
+            if (i % 50 != 0) {
+                continue;
+            }
+            int expected = 0;
+            for (int id = 0; id < index.size(); id++) {
+                boolean in = calculator.calculateDistance(index.latitude(id), index.longitude(id), lat, lon) < 30;
+                assertEquals(in, engine.isInside(id));
+                expected += in ? 1 : 0;
+            }
+            assertEquals(expected, engine.getInsideCount());
+        }
+        // Com células de 200 m e passos de ~2,4 m, a lista de candidatas é recalculada raramente
+        assertTrue(engine.getCandidateRefreshes() < fixes / 20);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.calculos;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class GeohashTest {
+    @Test
+    public void encode_matchesReferenceValues() {
+        assertEquals("ezs42", Geohash.encode(42.6, -5.6, 5));
+        assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+    }
+
+    @Test
+    public void bounds_containsEncodedPoint() {
+        Random random = new Random(3);
+        for (int i = 0; i < 1000; i++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lon = random.nextDouble() * 360 - 180;
+            double[] b = Geohash.bounds(Geohash.encode(lat, lon, 7));
+            assertTrue(lat >= b[0] && lat <= b[2]);
+            assertTrue(lon >= b[1] && lon <= b[3]);
+        }
+    }
+
+    @Test
+    public void cover_containsCellOfEveryPointInsideCircle() {
+        Random random = new Random(5);
+        GeoCalculator calculator = new GeoCalculator();
+        double[][] centers = {{-19.92, -43.94}, {0, 179.9999}, {89.9, 10}, {-45, -180}};
+        for (double[] center : centers) {
+            for (int precision = 4; precision <= 6; precision++) {
+                Set<String> cells = new HashSet<>(Geohash.cover(center[0], center[1], 2000, precision));
+                for (int i = 0; i < 2000; i++) {
+                    double lat = center[0] + (random.nextDouble() - 0.5) * 0.05;
+                    double lon = center[1] + (random.nextDouble() - 0.5) * 0.05 / Math.max(0.01, Math.cos(Math.toRadians(center[0])));
+                    lat = Math.max(-90, Math.min(90, lat));
+                    lon = lon >= 180 ? lon - 360 : (lon < -180 ? lon + 360 : lon);
+                    if (calculator.calculateDistance(center[0], center[1], lat, lon) <= 2000) {
+                        assertTrue(cells.contains(Geohash.encode(lat, lon, precision)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void cover_smallCircleNeedsFewCells() {
+        List<String> cells = Geohash.cover(-19.9191, -43.9386, 30, 5);
+        assertTrue(cells.size() >= 1 && cells.size() <= 4);
+        assertTrue(cells.contains(Geohash.encode(-19.9191, -43.9386, 5)));
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.calculos;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GridIndexTest {
+    private final GeoCalculator calculator = new GeoCalculator();
+
+    @Test
+    public void findWithin_matchesLinearScan() {
+        Random random = new Random(42);
+        GridIndex index = new GridIndex(30);
+        int n = 5000;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = -23.55 + random.nextDouble() * 0.02;
+            lon[i] = -46.63 + random.nextDouble() * 0.02;
+            index.add(lat[i], lon[i]);
+        }
+        for (int q = 0; q < 2000; q++) {
+            double qLat = -23.55 + random.nextDouble() * 0.02;
+            double qLon = -46.63 + random.nextDouble() * 0.02;
+            boolean expected = false;
+            for (int i = 0; i < n && !expected; i++) {
+                expected = calculator.calculateDistance(lat[i], lon[i], qLat, qLon) < 30;
+            }
+            assertEquals(expected, index.anyWithin(qLat, qLon, 30));
+        }
+    }
+
+    @Test
+    public void distanceTo_matchesDistanceFromDegrees() {
+        Random random = new Random(7);
+        GridIndex index = new GridIndex(30);
+        for (int i = 0; i < 1000; i++) {
+            double lat = random.nextDouble() * 178 - 89;
+            double lon = random.nextDouble() * 360 - 180;
+            int id = index.add(lat, lon);
+            double qLat = random.nextDouble() * 178 - 89;
+            double qLon = random.nextDouble() * 360 - 180;
+            double expected = calculator.calculateDistance(lat, lon, qLat, qLon);
+            double actual = index.distanceTo(id, Math.toRadians(qLat), Math.toRadians(qLon), Math.cos(Math.toRadians(qLat)));
+            assertEquals(expected, actual, 1e-6);
+        }
+    }
+
+    @Test
+    public void findWithin_acrossAntimeridian() {
+        GridIndex index = new GridIndex(30);
+        index.add(0.0, 179.99990);
+        assertTrue(index.anyWithin(0.0, -179.99995, 30)); // ~16 m do outro lado do antimeridiano
+        assertFalse(index.anyWithin(0.0, -179.99950, 30));
+    }
+
+    @Test
+    public void findWithin_nearPole() {
+        GridIndex index = new GridIndex(30);
+        index.add(89.99990, 0);
+        assertTrue(index.anyWithin(89.99990, 120, 30));
+        assertFalse(index.anyWithin(89.9990, 0, 30));
+    }
+
+    @Test
+    public void findWithin_growsPastInitialCapacity() {
+        GridIndex index = new GridIndex(new GeoGrid(30), 1);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, index.add(i * 0.001, i * 0.001));
+        }
+        assertEquals(1000, index.size());
+        assertEquals(500, index.findWithin(0.5, 0.5, 1));
+    }
+
+    @Test
+    public void queryRadius_matchesLinearScan() {
+        Random random = new Random(3);
+        GridIndex index = new GridIndex(30);
+        int n = 20000;
+        for (int i = 0; i < n; i++) {
+            index.add(-19.95 + random.nextDouble() * 0.05, -43.95 + random.nextDouble() * 0.05);
+        }
+        double[] radii = {10, 30, 250, 1000, 20000};
+        for (double radius : radii) {
+            for (int q = 0; q < 20; q++) {
+                double qLat = -19.95 + random.nextDouble() * 0.05;
+                double qLon = -43.95 + random.nextDouble() * 0.05;
+                List<Integer> expected = new ArrayList<>();
+                for (int id = 0; id < n; id++) {
+                    if (calculator.calculateDistance(index.latitude(id), index.longitude(id), qLat, qLon) < radius) {
+                        expected.add(id);
+                    }
+                }
+                List<Integer> actual = new ArrayList<>();
+                assertEquals(expected.size(), index.queryRadius(qLat, qLon, radius, actual::add));
+                Collections.sort(actual);
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void queryBox_handlesAntimeridian() {
+        GridIndex index = new GridIndex(1000);
+        int west = index.add(10, 179.5);
+        int east = index.add(10, -179.5);
+        index.add(10, 0);
+        index.add(30, 179.5);
+
+        List<Integer> actual = new ArrayList<>();
+        assertEquals(2, index.queryBox(9, 179, 11, -179, actual::add));
+        Collections.sort(actual);
+        assertEquals(java.util.Arrays.asList(west, east), actual);
+
+        actual.clear();
+        assertEquals(1, index.queryBox(9, -1, 11, 1, actual::add));
+        assertEquals(0, index.queryBox(11, -180, 29, 180, actual::add));
+        assertEquals(4, index.queryBox(-90, -180, 90, 180, id -> { }));
+    }
+
+    @Test
+    public void queryBox_eastEdgeAtAntimeridian_includesLastColumn() {
+        GridIndex index = new GridIndex(1000);
+        int point = index.add(0.5, 179.8);
+        // Células ocupadas longe do retângulo, para que a consulta percorra as colunas em vez das células ocupadas
+        for (int i = 0; i < 5000; i++) {
+            index.add(-30 + (i / 100) * 0.02, -50 + (i % 100) * 0.02);
+        }
+
+        List<Integer> actual = new ArrayList<>();
+        assertEquals(1, index.queryBox(0.4, 179.5, 0.6, 179.9, id -> { }));
+        assertEquals(1, index.queryBox(0.4, 179.5, 0.6, 180, actual::add));
+        assertEquals(java.util.Arrays.asList(point), actual);
+    }
+
+    @Test
+    public void queryBox_matchesLinearScan() {
+        Random random = new Random(5);
+        GridIndex index = new GridIndex(50);
+        int n = 10000;
+        for (int i = 0; i < n; i++) {
+            index.add(-20 + random.nextDouble() * 0.1, -44 + random.nextDouble() * 0.1);
+        }
+        for (int q = 0; q < 50; q++) {
+            double south = -20 + random.nextDouble() * 0.1;
+            double north = south + random.nextDouble() * 0.03;
+            double west = -44 + random.nextDouble() * 0.1;
+            double east = west + random.nextDouble() * 0.03;
+            int expected = 0;
+            for (int id = 0; id < n; id++) {
+                double lat = index.latitude(id);
+                double lon = index.longitude(id);
+                if (lat >= south && lat <= north && lon >= west && lon <= east) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, index.queryBox(south, west, north, east, id -> { }));
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.calculos;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class HilbertPointIndexTest {
+    private static final int PAYLOAD = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] id(int id) {
+        return ByteBuffer.allocate(PAYLOAD).putInt(id).array();
+    }
+
+    private static Set<Integer> withinRadius(HilbertPointIndex index, double latitude, double longitude, double radius) {
+        final Set<Integer> found = new HashSet<>();
+        index.withinRadius(latitude, longitude, radius, record -> {
+            assertTrue(found.add(record.getInt(0)));
+            return true;
+        });
+        return found;
+    }
+
+    private static Set<Integer> bruteForce(double[] latitudes, double[] longitudes, int count,
+                                           double latitude, double longitude, double radius) {
+        Set<Integer> found = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            // Mesma precisão E7 gravada no índice
+            double lat = Math.round(latitudes[i] * 1e7) / 1e7;
+            double lon = Math.round(longitudes[i] * 1e7) / 1e7;
+            if (DistanceStrategy.EQUIRECTANGULAR.distance(latitude, longitude, lat, lon) <= radius) {
+                found.add(i);
+            }
+        }
+        return found;
+    }
+
+    @Test
+    public void cover_containsEveryCellOfTheBox() {
+        Random random = new Random(3);
+        for (int n = 0; n < 200; n++) {
+            double south = -80 + random.nextDouble() * 160;
+            double west = -170 + random.nextDouble() * 340;
+            double north = south + random.nextDouble() * 0.1;
+            double east = west + random.nextDouble() * 0.1;
+            long[] ranges = HilbertCurve.cover(south, west, north, east);
+            assertTrue(ranges.length <= 8);
+            for (int i = 0; i < 50; i++) {
+                long key = HilbertCurve.index(south + random.nextDouble() * (north - south),
+                        west + random.nextDouble() * (east - west));
+                boolean covered = false;
+                for (int r = 0; r < ranges.length; r += 2) {
+                    covered |= key >= ranges[r] && key <= ranges[r + 1];
+                }
+                assertTrue(covered);
+            }
+        }
+    }
+
+    @Test
+    public void queries_matchBruteForceBeforeAndAfterMerge() throws IOException {
+        Random random = new Random(7);
+        int count = 5600;
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        List<HilbertPointIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = -19.95 + random.nextDouble() * 0.1;
+            longitudes[i] = -43.98 + random.nextDouble() * 0.1;
+            if (i < 4000) {
+                entries.add(new HilbertPointIndex.Entry(latitudes[i], longitudes[i], id(i)));
+            }
+        }
+
+        try (HilbertPointIndex index = HilbertPointIndex.open(folder.newFolder().toPath().resolve("pontos.idx").toFile(), PAYLOAD)) {
+            index.replaceAll(entries);
+            for (int i = 4000; i < 4500; i++) {
+                index.append(latitudes[i], longitudes[i], id(i));
+            }
+            assertEquals(500, index.getPendingCount());
+            for (int q = 0; q < 50; q++) {
+                double lat = -19.95 + random.nextDouble() * 0.1;
+                double lon = -43.98 + random.nextDouble() * 0.1;
+                assertEquals(bruteForce(latitudes, longitudes, 4500, lat, lon, 300), withinRadius(index, lat, lon, 300));
+            }
+
+            for (int i = 4500; i < count; i++) {
+                index.append(latitudes[i], longitudes[i], id(i));
+            }
+            assertEquals(count - 4000 - HilbertPointIndex.MIN_MERGE, index.getPendingCount()); // Intercalou ao chegar a MIN_MERGE
+            assertEquals(count, index.size());
+            for (int q = 0; q < 50; q++) {
+                double lat = -19.95 + random.nextDouble() * 0.1;
+                double lon = -43.98 + random.nextDouble() * 0.1;
+                assertEquals(bruteForce(latitudes, longitudes, count, lat, lon, 500), withinRadius(index, lat, lon, 500));
+            }
+        }
+    }
+
+    @Test
+    public void withinBox_crossingTheAntimeridian_findsBothSides() throws IOException {
+        try (HilbertPointIndex index = HilbertPointIndex.open(new File(folder.getRoot(), "pontos.idx"), PAYLOAD)) {
+            index.append(-17.0, 179.99, id(1));
+            index.append(-17.0, -179.99, id(2));
+            index.append(-17.0, 178.0, id(3));
+            Set<Integer> found = withinRadius(index, -17.0, 180.0, 5000);
+            assertEquals(2, found.size());
+            assertTrue(found.contains(1) && found.contains(2));
+        }
+    }
+
+    @Test
+    public void reopen_keepsMergedAndPendingPoints() throws IOException {
+        File file = new File(folder.getRoot(), "pontos.idx");
+        try (HilbertPointIndex index = HilbertPointIndex.open(file, PAYLOAD)) {
+            index.append(-19.92, -43.94, id(1));
+            index.merge();
+            index.append(-19.921, -43.941, id(2));
+        }
+        try (HilbertPointIndex index = HilbertPointIndex.open(file, PAYLOAD)) {
+            assertEquals(2, index.size());
+            assertEquals(1, index.getPendingCount());
+            Set<Integer> found = withinRadius(index, -19.92, -43.94, 500);
+            assertTrue(found.contains(1) && found.contains(2));
+        }
+    }
+
+    @Test
+    public void open_discardsPartialRecordAndStaleDelta() throws IOException {
+        File file = new File(folder.getRoot(), "pontos.idx");
+        File delta = new File(file.getPath() + HilbertPointIndex.DELTA_SUFFIX);
+        try (HilbertPointIndex index = HilbertPointIndex.open(file, PAYLOAD)) {
+            index.append(-19.92, -43.94, id(1));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(delta, "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[5]); // Gravação interrompida no meio de um registro
+        }
+        try (HilbertPointIndex index = HilbertPointIndex.open(file, PAYLOAD)) {
+            assertEquals(1, index.size());
+            index.merge();
+        }
+
+        // Novidades de uma geração anterior, como após uma interrupção entre a troca do arquivo e o esvaziamento
+        byte[] stale = new byte[HilbertPointIndex.DELTA_HEADER_SIZE + 16 + PAYLOAD];
+        ByteBuffer.wrap(stale).putInt(HilbertPointIndex.DELTA_MAGIC).putInt(PAYLOAD).putLong(1)
+                .putLong(HilbertCurve.index(-19.92, -43.94)).putInt(-199200000).putInt(-439400000).putInt(1);
+        try (RandomAccessFile raf = new RandomAccessFile(delta, "rw")) {
+            raf.setLength(0);
+            raf.write(stale);
+        }
+        try (HilbertPointIndex index = HilbertPointIndex.open(file, PAYLOAD)) {
+            assertEquals(1, index.size());
+            assertEquals(0, index.getPendingCount());
+        }
+    }
+
+    @Test
+    public void queries_doNotWaitForWriters_andSeeWholeGenerations() throws Exception {
+        try (final HilbertPointIndex index = HilbertPointIndex.open(new File(folder.getRoot(), "pontos.idx"), PAYLOAD)) {
+            final List<HilbertPointIndex.Entry> small = new ArrayList<>();
+            final List<HilbertPointIndex.Entry> large = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                HilbertPointIndex.Entry entry = new HilbertPointIndex.Entry(-19.92 + i * 1e-5, -43.94, id(i));
+                large.add(entry);
+                if (i < 1000) {
+                    small.add(entry);
+                }
+            }
+            index.replaceAll(small);
+
+            // Uma consulta termina mesmo com o monitor das alterações ocupado
+            Thread reader = new Thread(() -> withinRadius(index, -19.92, -43.94, 500));
+            synchronized (index) {
+                reader.start();
+                reader.join(10000);
+                assertFalse(reader.isAlive());
+            }
+
+            // Com as substituições acontecendo ao mesmo tempo, cada consulta vê um dos conjuntos inteiro
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int n = 0; n < 50; n++) {
+                        index.replaceAll(n % 2 == 0 ? large : small);
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+            writer.start();
+            while (writer.isAlive()) {
+                int found = withinRadius(index, -19.92, -43.94, 50000).size();
+                assertTrue("Consulta viu " + found + " pontos", found == small.size() || found == large.size());
+            }
+            writer.join();
+            assertNull(failure.get());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void open_withAnotherPayloadSize_fails() throws IOException {
+        File file = new File(folder.getRoot(), "pontos.idx");
+        HilbertPointIndex.open(file, PAYLOAD).close();
+        HilbertPointIndex.open(file, PAYLOAD + 1);
+    }
+
+    @Test
+    public void reopen_firstQueryMatchesBruteForce() throws IOException {
+        // O tempo da abertura e da primeira consulta fica no HilbertPointIndexBenchmark
+        Random random = new Random(11);
+        int count = 200000;
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        List<HilbertPointIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = -33 + random.nextDouble() * 30;
+            longitudes[i] = -60 + random.nextDouble() * 25;
+            entries.add(new HilbertPointIndex.Entry(latitudes[i], longitudes[i], id(i)));
+        }
+        File file = new File(folder.getRoot(), "pontos.idx");
+        try (HilbertPointIndex index = HilbertPointIndex.open(file, PAYLOAD)) {
+            index.replaceAll(entries);
+        }
+
+        try (HilbertPointIndex index = HilbertPointIndex.open(file, PAYLOAD)) {
+            assertEquals(bruteForce(latitudes, longitudes, count, -19.92, -43.94, 20000),
+                    withinRadius(index, -19.92, -43.94, 20000));
+            assertEquals(count, index.size());
+        }
+    }
+}
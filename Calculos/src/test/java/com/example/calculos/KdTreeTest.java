@@ -0,0 +1,79 @@
+package com.example.calculos;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class KdTreeTest {
+    private final GeoCalculator calculator = new GeoCalculator();
+
+    @Test
+    public void nearest_bulkBuild_matchesLinearScan() {
+        Random random = new Random(7);
+        int n = 20000;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = -90 + random.nextDouble() * 180;
+            lon[i] = -180 + random.nextDouble() * 360;
+        }
+        KdTree tree = KdTree.build(lat, lon);
+        for (int q = 0; q < 200; q++) {
+            assertMatchesLinearScan(tree, lat, lon, n, -90 + random.nextDouble() * 180, -180 + random.nextDouble() * 360, 10);
+        }
+    }
+
+    @Test
+    public void nearest_incrementalInsertion_matchesLinearScan() {
+        Random random = new Random(11);
+        int n = 5000;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        KdTree tree = new KdTree();
+        for (int i = 0; i < n; i++) {
+            // Pontos inseridos em ordem crescente de latitude, o pior caso para uma árvore sem reconstrução
+            lat[i] = -19.95 + i * 0.00001;
+            lon[i] = -43.95 + random.nextDouble() * 0.05;
+            assertEquals(i, tree.add(lat[i], lon[i]));
+            if (i % 500 == 0) {
+                assertMatchesLinearScan(tree, lat, lon, i + 1, lat[i / 2], lon[i / 2] + 0.001, 5);
+            }
+        }
+        for (int q = 0; q < 200; q++) {
+            assertMatchesLinearScan(tree, lat, lon, n, -19.95 + random.nextDouble() * 0.05, -43.95 + random.nextDouble() * 0.05, 7);
+        }
+    }
+
+    @Test
+    public void nearest_withFewerPointsThanK() {
+        KdTree tree = new KdTree();
+        assertEquals(0, tree.nearest(0, 0, 3, new int[3], new double[3]));
+        tree.add(0, 179.9999);
+        tree.add(0, -179.9999);
+        int[] ids = new int[3];
+        double[] distances = new double[3];
+        assertEquals(2, tree.nearest(0, 180, 3, ids, distances));
+        assertEquals(calculator.calculateDistance(0, 179.9999, 0, 180), distances[0], 1e-6);
+        assertEquals(distances[0], distances[1], 1e-6);
+    }
+
+    private void assertMatchesLinearScan(KdTree tree, double[] lat, double[] lon, int n, double qLat, double qLon, int k) {
+        double[] expected = new double[n];
+        for (int i = 0; i < n; i++) {
+            expected[i] = calculator.calculateDistance(lat[i], lon[i], qLat, qLon);
+        }
+        Arrays.sort(expected);
+
+        int[] ids = new int[k];
+        double[] distances = new double[k];
+        int found = tree.nearest(qLat, qLon, k, ids, distances);
+        assertEquals(Math.min(k, n), found);
+        for (int i = 0; i < found; i++) {
+            assertEquals(expected[i], distances[i], 1e-6 * Math.max(1, expected[i]));
+            assertEquals(distances[i], calculator.calculateDistance(lat[ids[i]], lon[ids[i]], qLat, qLon), 1e-6 * Math.max(1, expected[i]));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.calculos;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ParallelProximityScannerTest {
+    private final ParallelProximityScanner scanner = new ParallelProximityScanner(4);
+    private final GeoCalculator calculator = new GeoCalculator();
+
+    @After
+    public void tearDown() {
+        scanner.shutdown();
+    }
+
+    @Test
+    public void findWithin_agreesWithSequentialScan() {
+        Random random = new Random(17);
+        int count = 100000;
+        double[] lats = new double[count];
+        double[] lons = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = -20 + random.nextDouble();
+            lons[i] = -44 + random.nextDouble();
+        }
+        for (int q = 0; q < 50; q++) {
+            double lat = -20 + random.nextDouble();
+            double lon = -44 + random.nextDouble();
+            boolean expected = false;
+            for (int i = 0; i < count && !expected; i++) {
+                expected = calculator.calculateDistance(lats[i], lons[i], lat, lon) < 100;
+            }
+            int found = scanner.findWithin(lats, lons, count, lat, lon, 100);
+            assertEquals(expected, found >= 0);
+            if (found >= 0) {
+                assertTrue(calculator.calculateDistance(lats[found], lons[found], lat, lon) < 100);
+            }
+        }
+        assertEquals(-1, scanner.findWithin(lats, lons, 0, -19.5, -43.5, 1e6));
+    }
+
+    @Test
+    public void violations_matchValidationAtInsertion() {
+        Random random = new Random(23);
+        GridIndex index = new GridIndex(30);
+        long expected = 0;
+        for (int i = 0; i < 50000; i++) {
+            double lat = -19.9 + random.nextDouble() * 0.2;
+            double lon = -43.9 + random.nextDouble() * 0.2;
+            if (index.anyWithin(lat, lon, 30)) {
+                expected++;
+            }
+            index.add(lat, lon);
+        }
+        assertTrue(expected > 0);
+        assertEquals(expected, scanner.countViolations(index, 30));
+
+        int violation = scanner.findViolation(index, 30);
+        assertTrue(violation >= 0);
+        assertTrue(index.findWithin(index.latitude(violation), index.longitude(violation), 30, violation) >= 0);
+    }
+
+    @Test
+    public void findViolation_returnsMinusOneWhenInvariantHolds() {
+        GridIndex index = new GridIndex(30);
+        for (int i = 0; i < 20000; i++) {
+            index.add(-19.9 + (i / 200) * 0.001, -43.9 + (i % 200) * 0.001); // Grade de ~100 m
+        }
+        assertEquals(-1, scanner.findViolation(index, 30));
+        assertEquals(0, scanner.countViolations(index, 30));
+    }
+}
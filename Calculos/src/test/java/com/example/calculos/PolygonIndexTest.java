@@ -0,0 +1,88 @@
+package com.example.calculos;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PolygonIndexTest {
+    private static final double LATITUDE = -19.9191;
+    private static final double LONGITUDE = -43.9386;
+    private static final double METERS_PER_DEGREE = GeoGrid.METERS_PER_DEGREE;
+
+    @Test
+    public void queries_matchBruteForce() {
+        List<Polygon> polygons = randomPolygons(3000, 5000, 1);
+        PolygonIndex index = new PolygonIndex(polygons);
+        Random random = new Random(2);
+        for (int q = 0; q < 1000; q++) {
+            double latitude = LATITUDE + (random.nextDouble() - 0.5) * 5000 / METERS_PER_DEGREE;
+            double longitude = LONGITUDE + (random.nextDouble() - 0.5) * 5000 / METERS_PER_DEGREE;
+
+            Set<Integer> expected = new HashSet<>();
+            boolean anyWithin = false;
+            for (int i = 0; i < polygons.size(); i++) {
+                if (polygons.get(i).contains(latitude, longitude)) {
+                    expected.add(i);
+                }
+                anyWithin |= polygons.get(i).intersectsCircle(latitude, longitude, 30);
+            }
+            final Set<Integer> found = new HashSet<>();
+            index.forEachContaining(latitude, longitude, i -> found.add(i));
+            assertEquals(expected, found);
+            assertEquals(anyWithin, index.findWithin(latitude, longitude, 30) >= 0);
+        }
+
+        for (Polygon candidate : randomPolygons(300, 5000, 3)) {
+            boolean expected = false;
+            for (Polygon polygon : polygons) {
+                expected |= polygon.distanceTo(candidate) <= 30;
+            }
+            assertEquals(expected, index.findWithin(candidate, 30) >= 0);
+        }
+    }
+
+    @Test
+    public void emptyIndex_findsNothing() {
+        PolygonIndex index = new PolygonIndex(new ArrayList<Polygon>());
+        assertEquals(-1, index.findContaining(LATITUDE, LONGITUDE));
+        assertEquals(-1, index.findWithin(LATITUDE, LONGITUDE, 100));
+        assertEquals(0, index.getTree().getHeight());
+    }
+
+    @Test
+    public void treeHeight_growsLogarithmically() {
+        // Área proporcional à quantidade de polígonos, como no PolygonIndexBenchmark, que mede o tempo das consultas
+        for (int size : new int[]{1000, 10000, 100000}) {
+            double spread = 20000 * Math.sqrt(size / 100000.0);
+            PolygonIndex index = new PolygonIndex(randomPolygons(size, spread, 4));
+            assertTrue(index.getTree().getHeight() <= 1 + (int) Math.ceil(Math.log(size) / Math.log(RTree.NODE_CAPACITY)));
+        }
+    }
+
+    // Quadriláteros irregulares de 10 a 60 m, espalhados em um quadrado de spreadMeters de lado
+    static List<Polygon> randomPolygons(int count, double spreadMeters, long seed) {
+        Random random = new Random(seed);
+        double cos = Math.cos(Math.toRadians(LATITUDE));
+        List<Polygon> polygons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double north = (random.nextDouble() - 0.5) * spreadMeters;
+            double east = (random.nextDouble() - 0.5) * spreadMeters;
+            double size = 10 + random.nextDouble() * 50;
+            double[] latitudes = new double[4];
+            double[] longitudes = new double[4];
+            for (int v = 0; v < 4; v++) {
+                double angle = v * Math.PI / 2 + random.nextDouble() * 0.6;
+                latitudes[v] = LATITUDE + (north + Math.sin(angle) * size / 2) / METERS_PER_DEGREE;
+                longitudes[v] = LONGITUDE + (east + Math.cos(angle) * size / 2) / (METERS_PER_DEGREE * cos);
+            }
+            polygons.add(new Polygon(latitudes, longitudes));
+        }
+        return polygons;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.calculos;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PolygonTest {
+    private static final double LATITUDE = -19.9191;
+    private static final double LONGITUDE = -43.9386;
+    private static final double METERS_PER_DEGREE = GeoGrid.METERS_PER_DEGREE;
+    private static final double COS = Math.cos(Math.toRadians(LATITUDE));
+
+    // Polígono em "L" de 100 m x 100 m, sem o quadrante nordeste de 50 m x 50 m
+    private static final Polygon L_SHAPE = polygon(new double[][]{{0, 0}, {100, 0}, {100, 50}, {50, 50}, {50, 100}, {0, 100}});
+
+    @Test
+    public void contains_handlesConcavePolygon() {
+        assertTrue(L_SHAPE.contains(lat(25), lon(25)));
+        assertTrue(L_SHAPE.contains(lat(75), lon(25)));
+        assertTrue(L_SHAPE.contains(lat(25), lon(75)));
+        assertFalse(L_SHAPE.contains(lat(75), lon(75))); // Quadrante recortado
+        assertFalse(L_SHAPE.contains(lat(-10), lon(50)));
+    }
+
+    @Test
+    public void distanceTo_pointMeasuresToNearestEdge() {
+        assertEquals(0, L_SHAPE.distanceTo(lat(25), lon(25)), 0);
+        assertEquals(20, L_SHAPE.distanceTo(lat(-20), lon(50)), 0.05);
+        assertEquals(25, L_SHAPE.distanceTo(lat(75), lon(75)), 0.05); // Dentro do recorte, a 25 m das duas arestas
+        assertEquals(Math.hypot(80, 30), L_SHAPE.distanceTo(lat(130), lon(130)), 0.5); // Até o vértice (50, 100)
+
+        assertTrue(L_SHAPE.intersectsCircle(lat(-20), lon(50), 30));
+        assertFalse(L_SHAPE.intersectsCircle(lat(-20), lon(50), 15));
+    }
+
+    @Test
+    public void distanceTo_polygonDetectsOverlapAndGap() {
+        Polygon overlapping = polygon(new double[][]{{90, 10}, {150, 10}, {150, 40}, {90, 40}});
+        Polygon inside = polygon(new double[][]{{10, 10}, {20, 10}, {20, 20}});
+        Polygon east = polygon(new double[][]{{0, 130}, {40, 130}, {40, 160}, {0, 160}});
+        Polygon inNotch = polygon(new double[][]{{60, 60}, {90, 60}, {90, 90}, {60, 90}});
+
+        assertEquals(0, L_SHAPE.distanceTo(overlapping), 0);
+        assertEquals(0, L_SHAPE.distanceTo(inside), 0);
+        assertEquals(0, inside.distanceTo(L_SHAPE), 0);
+        assertEquals(30, L_SHAPE.distanceTo(east), 0.05);
+        assertEquals(30, east.distanceTo(L_SHAPE), 0.05);
+        assertEquals(10, L_SHAPE.distanceTo(inNotch), 0.05);
+    }
+
+    @Test
+    public void reachFrom_measuresToFarthestVertex() {
+        assertEquals(Math.hypot(100, 50), L_SHAPE.reachFrom(lat(0), lon(0)), 0.05);
+        assertEquals(Math.hypot(50, 50), L_SHAPE.reachFrom(lat(50), lon(50)), 0.05);
+    }
+
+    @Test
+    public void coordinates_roundTripAndDropClosingVertex() {
+        double[] coordinates = {1, 2, 3, 4, 5, 6, 1, 2};
+        Polygon polygon = Polygon.fromCoordinates(coordinates);
+        assertEquals(3, polygon.getVertexCount());
+        assertArrayEquals(new double[]{1, 2, 3, 4, 5, 6}, polygon.toCoordinates(), 0);
+        try {
+            Polygon.fromCoordinates(new double[]{1, 2, 3, 4});
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // Menos de 3 vértices
+        }
+    }
+
+    // Vértices em metros (norte, leste) a partir do centro
+    static Polygon polygon(double[][] meters) {
+        double[] latitudes = new double[meters.length];
+        double[] longitudes = new double[meters.length];
+        for (int i = 0; i < meters.length; i++) {
+            latitudes[i] = lat(meters[i][0]);
+            longitudes[i] = lon(meters[i][1]);
+        }
+        return new Polygon(latitudes, longitudes);
+    }
+
+    private static double lat(double northMeters) {
+        return LATITUDE + northMeters / METERS_PER_DEGREE;
+    }
+
+    private static double lon(double eastMeters) {
+        return LONGITUDE + eastMeters / (METERS_PER_DEGREE * COS);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.calculos;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TrackReplayTest {
+    private static final long T0 = 1792411200000L; // 19/10/2026 12:00:00 UTC
+
+    @Test
+    public void readGpx_readsTrackPointsAndFillsMissingTimes() throws IOException {
+        String gpx = "<?xml version=\"1.0\"?>"
+                + "<gpx xmlns=\"http://www.topografix.com/GPX/1/1\" version=\"1.1\"><trk><trkseg>"
+                + "<trkpt lat=\"-19.9191\" lon=\"-43.9386\"><ele>850</ele><time>2026-10-19T12:00:00Z</time></trkpt>"
+                + "<trkpt lat=\"-19.9192\" lon=\"-43.9387\"><time>2026-10-19T09:00:02.5-03:00</time></trkpt>"
+                + "<trkpt lat=\"-19.9193\" lon=\"-43.9388\"/>"
+                + "</trkseg></trk></gpx>";
+        TrackReplay track = TrackReplay.readGpx(new ByteArrayInputStream(gpx.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, track.size());
+        assertEquals(T0, track.getTime(0));
+        assertEquals(T0 + 2500, track.getTime(1));
+        assertEquals(T0 + 2500 + TrackReplay.DEFAULT_INTERVAL_MILLIS, track.getTime(2));
+        assertEquals(-19.9192, track.getLatitude(1), 0);
+        assertEquals(-43.9388, track.getLongitude(2), 0);
+        assertEquals(3500, track.getDurationMillis());
+    }
+
+    @Test
+    public void readCsv_skipsHeaderAndCommentsAndAcceptsBothTimeFormats() throws IOException {
+        String csv = "instante,latitude,longitude\n"
+                + "# trajeto de teste\n"
+                + T0 + ",-19.9191,-43.9386\n"
+                + "\n"
+                + "2026-10-19T12:00:01.250Z;-19.9192;-43.9387\n";
+        TrackReplay track = TrackReplay.readCsv(new StringReader(csv));
+
+        assertEquals(2, track.size());
+        assertEquals(T0 + 1250, track.getTime(1));
+        assertEquals(-43.9387, track.getLongitude(1), 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void readCsv_rejectsTimesGoingBackwards() throws IOException {
+        TrackReplay.readCsv(new StringReader("2000,0,0\n1000,0,0\n"));
+    }
+
+    @Test
+    public void play_asFastAsPossible_deliversEveryFixInOrderAndStopsOnRequest() throws InterruptedException {
+        TrackReplay track = new TrackReplay(new long[]{0, 1000, 60000, 60000}, new double[]{1, 2, 3, 4}, new double[]{5, 6, 7, 8});
+        final List<Double> latitudes = new ArrayList<>();
+        long start = System.nanoTime();
+        assertTrue(track.play(TrackReplay.AS_FAST_AS_POSSIBLE, (time, latitude, longitude) -> latitudes.add(latitude)));
+        assertTrue(System.nanoTime() - start < 1_000_000_000L); // Sem esperar o minuto do trajeto
+        assertEquals(4, latitudes.size());
+        assertEquals(Double.valueOf(3), latitudes.get(2));
+
+        latitudes.clear();
+        assertFalse(track.play(TrackReplay.AS_FAST_AS_POSSIBLE, (time, latitude, longitude) -> {
+            latitudes.add(latitude);
+            return latitudes.size() < 2;
+        }));
+        assertEquals(2, latitudes.size());
+    }
+
+    @Test
+    public void play_scaledSpeed_waitsTrackIntervalDividedBySpeed() throws InterruptedException {
+        TrackReplay track = new TrackReplay(new long[]{0, 500, 1000}, new double[3], new double[3]);
+        final long[] delivered = new long[3];
+        final int[] count = new int[1];
+        long start = System.nanoTime();
+        track.play(10, (time, latitude, longitude) -> {
+            delivered[count[0]++] = System.nanoTime() - start;
+            return true;
+        });
+
+        assertEquals(3, count[0]);
+        assertTrue(delivered[1] >= 50_000_000L); // 500 ms do trajeto a 10×
+        assertTrue(delivered[2] >= 100_000_000L);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.calculos;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TrajectoryLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void read_returnsAppendedFixesInRangeAcrossBlocks() throws IOException {
+        TrajectoryLog log = new TrajectoryLog(folder.newFile());
+        List<double[]> fixes = walk(20000, 3);
+        for (double[] fix : fixes) {
+            assertTrue(log.append((long) fix[0], fix[1], fix[2]));
+        }
+        assertTrue(log.getBlockCount() > 10);
+
+        List<double[]> all = readAll(log, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(fixes.size(), all.size());
+        for (int i = 0; i < fixes.size(); i++) {
+            assertEquals(fixes.get(i)[0], all.get(i)[0], 0);
+            assertEquals(fixes.get(i)[1], all.get(i)[1], 1e-7);
+            assertEquals(fixes.get(i)[2], all.get(i)[2], 1e-7);
+        }
+
+        long from = (long) fixes.get(7000)[0];
+        long to = (long) fixes.get(7500)[0];
+        List<double[]> range = readAll(log, from, to);
+        assertEquals(501, range.size());
+        assertEquals(from, (long) range.get(0)[0]);
+        assertEquals(to, (long) range.get(range.size() - 1)[0]);
+        log.close();
+    }
+
+    @Test
+    public void reopen_rebuildsIndexAndContinuesAppending() throws IOException {
+        File file = folder.newFile();
+        List<double[]> fixes = walk(5000, 5);
+        TrajectoryLog log = new TrajectoryLog(file);
+        for (double[] fix : fixes.subList(0, 3000)) {
+            log.append((long) fix[0], fix[1], fix[2]);
+        }
+        log.close();
+
+        log = new TrajectoryLog(file);
+        assertFalse(log.append(0, 0, 0)); // Mais antiga que a última: ignorada
+        for (double[] fix : fixes.subList(3000, fixes.size())) {
+            log.append((long) fix[0], fix[1], fix[2]);
+        }
+        List<double[]> all = readAll(log, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(fixes.size(), all.size());
+        assertEquals(fixes.get(4999)[1], all.get(4999)[1], 1e-7);
+        log.close();
+    }
+
+    @Test
+    public void reopen_ignoresBytesNotCoveredByHeader() throws IOException {
+        File file = folder.newFile();
+        TrajectoryLog log = new TrajectoryLog(file);
+        log.append(1000, -19.9, -43.9);
+        log.append(3000, -19.9001, -43.9001);
+        log.close();
+        // Bytes de um acréscimo interrompido antes da atualização do cabeçalho
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(TrajectoryLog.HEADER_SIZE + 10);
+            raw.write(new byte[]{(byte) 0xFF, (byte) 0xFF, 0x01});
+        }
+
+        log = new TrajectoryLog(file);
+        assertEquals(2, readAll(log, Long.MIN_VALUE, Long.MAX_VALUE).size());
+        log.append(5000, -19.9002, -43.9002);
+        List<double[]> all = readAll(log, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(3, all.size());
+        assertEquals(-19.9002, all.get(2)[1], 1e-7);
+        log.close();
+    }
+
+    @Test
+    public void weekOfFixesEveryTwoSeconds_fitsInFewMegabytes() throws IOException {
+        TrajectoryLog log = new TrajectoryLog(folder.newFile());
+        int fixes = 7 * 24 * 3600 / 2;
+        for (double[] fix : walk(fixes, 2)) {
+            log.append((long) fix[0], fix[1], fix[2]);
+        }
+        assertTrue("Tamanho: " + log.size(), log.size() < 4 * 1024 * 1024);
+        log.close();
+    }
+
+    @Test
+    public void zigzagVarint_roundTripsExtremes() {
+        long[] values = {0, 1, -1, 63, -64, 64, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        byte[] buffer = new byte[TrajectoryLog.MAX_RECORD_SIZE];
+        long[] decoded = new long[1];
+        for (long value : values) {
+            int written = TrajectoryLog.writeVarLong(buffer, 0, TrajectoryLog.zigzag(value));
+            assertEquals(written, TrajectoryLog.readVarLong(buffer, 0, decoded));
+            assertEquals(value, TrajectoryLog.unzigzag(decoded[0]));
+        }
+    }
+
+    // Caminhada aleatória a pé (até ~2 m/s) com uma posição a cada intervalo de segundos
+    private static List<double[]> walk(int count, int seconds) {
+        Random random = new Random(3);
+        List<double[]> fixes = new ArrayList<>(count);
+        long time = 1_700_000_000_000L;
+        double latitude = -19.9191;
+        double longitude = -43.9386;
+        for (int i = 0; i < count; i++) {
+            fixes.add(new double[]{time, latitude, longitude});
+            time += seconds * 1000L + random.nextInt(50);
+            latitude += (random.nextDouble() - 0.5) * 4e-5 * seconds / 2;
+            longitude += (random.nextDouble() - 0.5) * 4e-5 * seconds / 2;
+        }
+        return fixes;
+    }
+
+    private static List<double[]> readAll(TrajectoryLog log, long from, long to) throws IOException {
+        final List<double[]> fixes = new ArrayList<>();
+        log.read(from, to, (time, latitude, longitude) -> fixes.add(new double[]{time, latitude, longitude}));
+        return fixes;
+    }
+}
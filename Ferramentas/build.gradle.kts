@@ -0,0 +1,19 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+application {
+    mainClass.set("com.example.ferramentas.RegionTool")
+    applicationName = "regioes"
+}
+
+dependencies {
+    implementation(project(":Calculos"))
+    implementation(libs.gson)
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,42 @@
+package com.example.ferramentas;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Lê em fluxo os arquivos binários gerados pelo BinaryRegionWriter.
+ */
+public class BinaryRegionReader implements RegionReader {
+    private final DataInputStream input;
+
+    public BinaryRegionReader(InputStream input) throws IOException {
+        this.input = new DataInputStream(input);
+        if (this.input.readInt() != BinaryRegionWriter.MAGIC) {
+            throw new IOException("Arquivo binário de regiões inválido");
+        }
+    }
+
+    @Override
+    public RegionRecord next() throws IOException {
+        String key;
+        try {
+            key = input.readUTF();
+        } catch (EOFException e) {
+            return null; // Fim do arquivo entre dois registros
+        }
+        String name = input.readBoolean() ? input.readUTF() : null;
+        double latitude = input.readDouble();
+        double longitude = input.readDouble();
+        long timestamp = input.readLong();
+        int user = input.readInt();
+        return new RegionRecord(key, name, latitude, longitude,
+                timestamp == BinaryRegionWriter.NO_TIMESTAMP ? null : timestamp, user);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
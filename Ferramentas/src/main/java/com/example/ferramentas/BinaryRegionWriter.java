@@ -0,0 +1,42 @@
+package com.example.ferramentas;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Escreve regiões em um formato binário compacto, lido de volta pelo BinaryRegionReader.
+ *
+ * O arquivo começa com o número mágico MAGIC seguido dos registros, sem contagem prévia, para que possa ser
+ * escrito em fluxo. Cada registro contém: chave (UTF), indicador e nome (UTF), latitude e longitude (double),
+ * timestamp (long, NO_TIMESTAMP quando ausente) e usuário (int).
+ */
+public class BinaryRegionWriter implements RegionWriter {
+    static final int MAGIC = 0x52474E31; // "RGN1"
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final DataOutputStream output;
+
+    public BinaryRegionWriter(OutputStream output) throws IOException {
+        this.output = new DataOutputStream(output);
+        this.output.writeInt(MAGIC);
+    }
+
+    @Override
+    public void write(RegionRecord region) throws IOException {
+        output.writeUTF(region.getKey());
+        output.writeBoolean(region.getName() != null);
+        if (region.getName() != null) {
+            output.writeUTF(region.getName());
+        }
+        output.writeDouble(region.getLatitude());
+        output.writeDouble(region.getLongitude());
+        output.writeLong(region.getTimestamp() == null ? NO_TIMESTAMP : region.getTimestamp());
+        output.writeInt(region.getUser());
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.ferramentas;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escreve regiões em CSV, uma por linha, no formato key,name,latitude,longitude,timestamp,user.
+ * Campos com vírgula, aspas ou quebra de linha são escritos entre aspas.
+ */
+public class CsvRegionWriter implements RegionWriter {
+    private final Writer writer;
+
+    public CsvRegionWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write("key,name,latitude,longitude,timestamp,user\n");
+    }
+
+    @Override
+    public void write(RegionRecord region) throws IOException {
+        writer.write(quote(region.getKey()));
+        writer.write(',');
+        writer.write(quote(region.getName()));
+        writer.write(',');
+        writer.write(Double.toString(region.getLatitude()));
+        writer.write(',');
+        writer.write(Double.toString(region.getLongitude()));
+        writer.write(',');
+        writer.write(region.getTimestamp() == null ? "" : region.getTimestamp().toString());
+        writer.write(',');
+        writer.write(Integer.toString(region.getUser()));
+        writer.write('\n');
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.ferramentas;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escreve regiões como uma FeatureCollection GeoJSON de pontos, em fluxo.
+ * As coordenadas seguem a ordem do GeoJSON (longitude, latitude) e os demais campos vão em "properties".
+ */
+public class GeoJsonRegionWriter implements RegionWriter {
+    private final JsonWriter writer;
+
+    public GeoJsonRegionWriter(Writer output) throws IOException {
+        writer = new JsonWriter(output);
+        writer.beginObject();
+        writer.name("type").value("FeatureCollection");
+        writer.name("features").beginArray();
+    }
+
+    @Override
+    public void write(RegionRecord region) throws IOException {
+        writer.beginObject();
+        writer.name("type").value("Feature");
+        writer.name("id").value(region.getKey());
+        writer.name("geometry").beginObject();
+        writer.name("type").value("Point");
+        writer.name("coordinates").beginArray().value(region.getLongitude()).value(region.getLatitude()).endArray();
+        writer.endObject();
+        writer.name("properties").beginObject();
+        writer.name("name").value(region.getName());
+        writer.name("timestamp").value(region.getTimestamp());
+        writer.name("user").value(region.getUser());
+        writer.endObject();
+        writer.endObject();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.endArray();
+        writer.endObject();
+        writer.close();
+    }
+}
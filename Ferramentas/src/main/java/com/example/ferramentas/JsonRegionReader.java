@@ -0,0 +1,172 @@
+/**
+ * Leitor em fluxo (streaming) de exportações JSON do nó "regioes" do Firebase Realtime Database.
+ *
+ * Lê uma região por vez com o JsonReader do Gson, sem montar a árvore do documento, de modo que a memória
+ * usada não depende do tamanho do arquivo.
+ *
+ * Formatos aceitos:
+ * - Objeto com uma região por chave: {"0": {...}, "1": {...}} (exportação do próprio nó "regioes").
+ * - Vetor de regiões, possivelmente com posições nulas: [{...}, null, {...}] (chaves numéricas exportadas como vetor).
+ * - Exportação do banco inteiro, informando o nó a ser lido: {"regioes": {...}, ...}.
+ * - Nó particionado por fragmento geográfico: {"7h2y8": {"-Nx...": {...}}, ...}; os dois formatos podem aparecer juntos
+ *   durante a migração para os fragmentos.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.ferramentas;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public class JsonRegionReader implements RegionReader {
+    private final JsonReader reader;
+    private final String node;
+    private boolean started = false;
+    private boolean finished = false;
+    private boolean array;
+    private boolean inShard = false; // Lendo as regiões de dentro de um nó de fragmento
+    private int index = 0;
+
+    /**
+     * @param input A entrada JSON.
+     * @param node  O nó de primeiro nível que contém as regiões, ou null se a entrada já for o nó "regioes".
+     */
+    public JsonRegionReader(Reader input, String node) {
+        this.reader = new JsonReader(input);
+        this.node = node;
+    }
+
+    @Override
+    public RegionRecord next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!started) {
+            start();
+            started = true;
+        }
+        while (true) {
+            if (inShard) {
+                if (reader.hasNext()) {
+                    String key = reader.nextName();
+                    if (reader.peek() == JsonToken.NULL) {
+                        reader.nextNull();
+                        continue;
+                    }
+                    reader.beginObject();
+                    return readFields(key, null);
+                }
+                reader.endObject();
+                inShard = false;
+                continue;
+            }
+            if (!reader.hasNext()) {
+                break;
+            }
+            String key = array ? String.valueOf(index++) : reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            reader.beginObject();
+            if (!reader.hasNext()) {
+                reader.endObject();
+                throw new IOException("Região " + key + " sem latitude ou longitude (" + reader.getPath() + ")");
+            }
+            String field = reader.nextName();
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                // Os filhos são objetos: o nó é um fragmento e o primeiro filho já é uma região
+                inShard = true;
+                reader.beginObject();
+                return readFields(field, null);
+            }
+            return readFields(key, field);
+        }
+        finished = true;
+        return null;
+    }
+
+    // Posiciona o leitor no início do contêiner de regiões.
+    private void start() throws IOException {
+        if (node != null) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals(node)) {
+                    beginContainer();
+                    return;
+                }
+                reader.skipValue();
+            }
+            throw new IOException("Nó \"" + node + "\" não encontrado na entrada");
+        }
+        beginContainer();
+    }
+
+    private void beginContainer() throws IOException {
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            array = true;
+        } else {
+            reader.beginObject();
+            array = false;
+        }
+    }
+
+    // Lê os campos de uma região cujo objeto já foi aberto; firstField é o nome do primeiro campo, se já tiver sido lido
+    private RegionRecord readFields(String key, String firstField) throws IOException {
+        String name = null;
+        Double latitude = null;
+        Double longitude = null;
+        Long timestamp = null;
+        int user = 0;
+
+        String field = firstField;
+        while (field != null || reader.hasNext()) {
+            if (field == null) {
+                field = reader.nextName();
+            }
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                field = null;
+                continue;
+            }
+            switch (field) {
+                case "name":
+                    name = reader.nextString();
+                    break;
+                case "latitude":
+                    latitude = reader.nextDouble();
+                    break;
+                case "longitude":
+                    longitude = reader.nextDouble();
+                    break;
+                case "timestamp":
+                    timestamp = reader.nextLong();
+                    break;
+                case "user":
+                    user = (int) reader.nextLong();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+            field = null;
+        }
+        reader.endObject();
+
+        if (latitude == null || longitude == null) {
+            throw new IOException("Região " + key + " sem latitude ou longitude (" + reader.getPath() + ")");
+        }
+        return new RegionRecord(key, name, latitude, longitude, timestamp, user);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
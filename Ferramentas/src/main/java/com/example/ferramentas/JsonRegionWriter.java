@@ -0,0 +1,36 @@
+package com.example.ferramentas;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escreve regiões no mesmo formato do nó "regioes" do Firebase ({"chave": {name, latitude, ...}}), em fluxo,
+ * para que o arquivo possa ser importado de volta pelo console do Firebase.
+ */
+public class JsonRegionWriter implements RegionWriter {
+    private final JsonWriter writer;
+
+    public JsonRegionWriter(Writer output) throws IOException {
+        writer = new JsonWriter(output);
+        writer.beginObject();
+    }
+
+    @Override
+    public void write(RegionRecord region) throws IOException {
+        writer.name(region.getKey()).beginObject();
+        writer.name("name").value(region.getName());
+        writer.name("latitude").value(region.getLatitude());
+        writer.name("longitude").value(region.getLongitude());
+        writer.name("timestamp").value(region.getTimestamp());
+        writer.name("user").value(region.getUser());
+        writer.endObject();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.endObject();
+        writer.close();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ferramentas;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface RegionReader extends Closeable {
+    /**
+     * Lê a próxima região da entrada.
+     *
+     * @return A próxima região, ou null quando a entrada terminar.
+     */
+    RegionRecord next() throws IOException;
+}
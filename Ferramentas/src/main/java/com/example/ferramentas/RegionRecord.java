@@ -0,0 +1,54 @@
+/**
+ * Registro imutável de uma região lida ou escrita pelas ferramentas de linha de comando.
+ *
+ * Espelha os campos gravados pelo aplicativo no nó "regioes" (nome, latitude, longitude, timestamp e usuário),
+ * acrescentando a chave do nó filho no banco de dados.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.ferramentas;
+
+public final class RegionRecord {
+    private final String key;
+    private final String name;
+    private final double latitude;
+    private final double longitude;
+    private final Long timestamp;
+    private final int user;
+
+    public RegionRecord(String key, String name, double latitude, double longitude, Long timestamp, int user) {
+        this.key = key;
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timestamp = timestamp;
+        this.user = user;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getUser() {
+        return user;
+    }
+}
@@ -0,0 +1,420 @@
+/**
+ * Ferramenta de linha de comando para importar, validar e exportar o conjunto de regiões fora do aplicativo.
+ *
+ * Todas as leituras e escritas são feitas em fluxo, uma região por vez. Durante a importação, o invariante de
+ * 30 metros entre regiões é validado com um GridIndex, que guarda apenas as coordenadas já lidas em vetores
+ * primitivos; a validação pode ser desligada com --sem-validacao para uso de memória constante.
+ *
+ * O comando validar carrega um arquivo inteiro em um GridIndex e conta as violações do invariante em paralelo
+ * (ParallelProximityScanner), com o número de threads escolhido em --threads; a contagem é a mesma da importação,
+ * em que cada região é comparada apenas com as lidas antes dela.
+ *
+ * O comando lugares gera o gazetteer usado pelo aplicativo na geocodificação reversa sem rede (Gazetteer) a partir
+ * de um CSV de pontos nomeados. Sem cabeçalho, as colunas são nome,latitude,longitude; com um cabeçalho que contenha
+ * as colunas name (ou nome), latitude e longitude, elas são localizadas pelo nome, o que permite usar o CSV gerado
+ * pelo comando exportar. Linhas inválidas são contadas e ignoradas.
+ *
+ * O comando densidade reconstrói em fluxo, a partir de uma exportação (binária ou JSON), a pirâmide de contagens do
+ * mapa de calor (DensityPyramid) com o zoom máximo escolhido em --zoom. O arquivo gerado pode substituir o mantido
+ * pelo aplicativo, para reparo.
+ *
+ * Uso:
+ *   regioes importar <entrada.json> <saida> [--formato csv|geojson|bin|json] [--no regioes] [--raio 30] [--sem-validacao]
+ *   regioes exportar <entrada.bin> <saida> [--formato csv|geojson|bin|json]
+ *   regioes validar <entrada.bin|entrada.json> [--no regioes] [--raio 30] [--threads N]
+ *   regioes lugares <entrada.csv> <saida.bin> [--celula 250]
+ *   regioes densidade <entrada.bin|entrada.json> <saida.bin> [--no regioes] [--zoom 16]
+ *
+ * Quando --formato não é informado, o formato é deduzido da extensão do arquivo de saída.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.ferramentas;
+
+import com.example.calculos.DensityPyramid;
+import com.example.calculos.GazetteerBuilder;
+import com.example.calculos.GridIndex;
+import com.example.calculos.ParallelProximityScanner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class RegionTool {
+    private static final double DEFAULT_RADIUS = 30; // Distância mínima entre regiões, em metros
+    private static final int MAX_REPORTED_VIOLATIONS = 20;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    public RegionTool(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(new RegionTool(System.out, System.err).run(args));
+    }
+
+    /**
+     * Executa o comando informado nos argumentos.
+     *
+     * @return O código de saída: 0 em caso de sucesso, 1 se houver violações do invariante e 2 para erros de uso ou de E/S.
+     */
+    public int run(String[] args) {
+        if (args.length < 2 || (args.length < 3 && !args[0].equals("validar"))) {
+            usage();
+            return 2;
+        }
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            usage();
+            return 2;
+        }
+
+        try {
+            switch (args[0]) {
+                case "importar":
+                    return importRegions(options);
+                case "exportar":
+                    return exportRegions(options);
+                case "validar":
+                    return validateRegions(options);
+                case "lugares":
+                    return buildGazetteer(options);
+                case "densidade":
+                    return buildDensity(options);
+                default:
+                    usage();
+                    return 2;
+            }
+        } catch (IOException e) {
+            err.println("Erro de E/S: " + e.getMessage());
+            return 2;
+        }
+    }
+
+    /**
+     * Lê uma exportação JSON em fluxo, valida o invariante de distância e grava as regiões no formato escolhido.
+     */
+    private int importRegions(Options options) throws IOException {
+        long start = System.nanoTime();
+        long count = 0;
+        long violations = 0;
+        GridIndex index = options.validate ? new GridIndex(options.radius) : null;
+
+        try (RegionReader reader = new JsonRegionReader(new BufferedReader(new InputStreamReader(
+                new FileInputStream(options.input), StandardCharsets.UTF_8), BUFFER_SIZE), options.node);
+             RegionWriter writer = openWriter(options.output, options.format)) {
+            RegionRecord region;
+            while ((region = reader.next()) != null) {
+                if (index != null) {
+                    int conflict = index.findWithin(region.getLatitude(), region.getLongitude(), options.radius);
+                    if (conflict >= 0) {
+                        violations++;
+                        if (violations <= MAX_REPORTED_VIOLATIONS) {
+                            err.println(String.format(Locale.ROOT,
+                                    "Região %s (%.7f, %.7f) a menos de %.0f m da região em (%.7f, %.7f)",
+                                    region.getKey(), region.getLatitude(), region.getLongitude(), options.radius,
+                                    index.latitude(conflict), index.longitude(conflict)));
+                        }
+                    }
+                    index.add(region.getLatitude(), region.getLongitude());
+                }
+                writer.write(region);
+                count++;
+            }
+        }
+
+        report("Importadas", count, start);
+        if (index != null) {
+            out.println("Violações do invariante de " + (int) options.radius + " m: " + violations);
+        }
+        return violations > 0 ? 1 : 0;
+    }
+
+    /**
+     * Lê um arquivo binário em fluxo e o converte para o formato escolhido.
+     */
+    private int exportRegions(Options options) throws IOException {
+        long start = System.nanoTime();
+        long count = 0;
+        try (RegionReader reader = new BinaryRegionReader(new BufferedInputStream(new FileInputStream(options.input), BUFFER_SIZE));
+             RegionWriter writer = openWriter(options.output, options.format)) {
+            RegionRecord region;
+            while ((region = reader.next()) != null) {
+                writer.write(region);
+                count++;
+            }
+        }
+        report("Exportadas", count, start);
+        return 0;
+    }
+
+    /**
+     * Carrega as coordenadas do arquivo em um GridIndex e conta as violações do invariante de distância em paralelo.
+     */
+    private int validateRegions(Options options) throws IOException {
+        long start = System.nanoTime();
+        GridIndex index = new GridIndex(options.radius);
+        try (RegionReader reader = openReader(options.input, options.node)) {
+            RegionRecord region;
+            while ((region = reader.next()) != null) {
+                index.add(region.getLatitude(), region.getLongitude());
+            }
+        }
+        report("Carregadas", index.size(), start);
+
+        ParallelProximityScanner scanner = new ParallelProximityScanner(options.threads);
+        try {
+            long scanStart = System.nanoTime();
+            long violations = scanner.countViolations(index, options.radius);
+            out.println(String.format(Locale.ROOT, "Violações do invariante de %d m: %d (%.2f s com %d threads)",
+                    (int) options.radius, violations, (System.nanoTime() - scanStart) / 1e9, scanner.getParallelism()));
+            return violations > 0 ? 1 : 0;
+        } finally {
+            scanner.shutdown();
+        }
+    }
+
+    /**
+     * Lê um CSV de pontos nomeados e grava o gazetteer binário, com os pontos ordenados por célula.
+     */
+    private int buildGazetteer(Options options) throws IOException {
+        long start = System.nanoTime();
+        GazetteerBuilder builder = new GazetteerBuilder(options.cellSize);
+        long invalid = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(options.input), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            int nameColumn = 0;
+            int latitudeColumn = 1;
+            int longitudeColumn = 2;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                List<String> fields = splitCsv(line);
+                if (lineNumber == 1 && fields.contains("latitude") && fields.contains("longitude")) {
+                    nameColumn = fields.contains("name") ? fields.indexOf("name") : fields.indexOf("nome");
+                    latitudeColumn = fields.indexOf("latitude");
+                    longitudeColumn = fields.indexOf("longitude");
+                    if (nameColumn < 0) {
+                        err.println("Coluna name (ou nome) ausente no cabeçalho");
+                        return 2;
+                    }
+                    continue;
+                }
+                try {
+                    builder.add(fields.get(nameColumn), Double.parseDouble(fields.get(latitudeColumn)),
+                            Double.parseDouble(fields.get(longitudeColumn)));
+                } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+                    invalid++;
+                    if (invalid <= MAX_REPORTED_VIOLATIONS) {
+                        err.println("Linha " + lineNumber + " ignorada: " + line);
+                    }
+                }
+            }
+        }
+        try (BufferedOutputStream output = new BufferedOutputStream(new FileOutputStream(options.output), BUFFER_SIZE)) {
+            builder.write(output);
+        }
+        out.println(String.format(Locale.ROOT, "Gravados %d lugares em %.2f s (%d linhas inválidas)",
+                builder.size(), (System.nanoTime() - start) / 1e9, invalid));
+        return 0;
+    }
+
+    /**
+     * Lê as regiões em fluxo e grava a pirâmide de contagens do mapa de calor.
+     */
+    private int buildDensity(Options options) throws IOException {
+        long start = System.nanoTime();
+        DensityPyramid pyramid = new DensityPyramid(options.maxZoom);
+        try (RegionReader reader = openReader(options.input, options.node)) {
+            RegionRecord region;
+            while ((region = reader.next()) != null) {
+                pyramid.add(region.getLatitude(), region.getLongitude());
+            }
+        }
+        try (BufferedOutputStream output = new BufferedOutputStream(new FileOutputStream(options.output), BUFFER_SIZE)) {
+            pyramid.write(output);
+        }
+        report("Agregadas", pyramid.getTotal(), start);
+        return 0;
+    }
+
+    // Separa os campos de uma linha CSV; campos entre aspas podem conter vírgulas e aspas duplicadas
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static RegionReader openReader(String path, String node) throws IOException {
+        if (path.toLowerCase(Locale.ROOT).endsWith(".bin")) {
+            return new BinaryRegionReader(new BufferedInputStream(new FileInputStream(path), BUFFER_SIZE));
+        }
+        return new JsonRegionReader(new BufferedReader(new InputStreamReader(
+                new FileInputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE), node);
+    }
+
+    static RegionWriter openWriter(String path, String format) throws IOException {
+        if (format.equals("bin")) {
+            return new BinaryRegionWriter(new BufferedOutputStream(new FileOutputStream(path), BUFFER_SIZE));
+        }
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8), BUFFER_SIZE);
+        switch (format) {
+            case "csv":
+                return new CsvRegionWriter(writer);
+            case "geojson":
+                return new GeoJsonRegionWriter(writer);
+            case "json":
+                return new JsonRegionWriter(writer);
+            default:
+                writer.close();
+                throw new IOException("Formato desconhecido: " + format);
+        }
+    }
+
+    private void report(String action, long count, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        out.println(String.format(Locale.ROOT, "%s %d regiões em %.2f s (%.0f regiões/s)",
+                action, count, seconds, seconds > 0 ? count / seconds : 0));
+    }
+
+    private void usage() {
+        err.println("Uso:");
+        err.println("  regioes importar <entrada.json> <saida> [--formato csv|geojson|bin|json] [--no regioes] [--raio 30] [--sem-validacao]");
+        err.println("  regioes exportar <entrada.bin> <saida> [--formato csv|geojson|bin|json]");
+        err.println("  regioes validar <entrada.bin|entrada.json> [--no regioes] [--raio 30] [--threads N]");
+        err.println("  regioes lugares <entrada.csv> <saida.bin> [--celula 250]");
+        err.println("  regioes densidade <entrada.bin|entrada.json> <saida.bin> [--no regioes] [--zoom 16]");
+    }
+
+    /**
+     * Opções de linha de comando comuns aos comandos da ferramenta.
+     */
+    static class Options {
+        String input;
+        String output;
+        String format;
+        String node;
+        double radius = DEFAULT_RADIUS;
+        double cellSize = GazetteerBuilder.DEFAULT_CELL_SIZE;
+        int maxZoom = DensityPyramid.DEFAULT_MAX_ZOOM;
+        boolean validate = true;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            options.input = args[1];
+            boolean hasOutput = !args[0].equals("validar"); // O comando validar não grava arquivo de saída
+            if (hasOutput) {
+                options.output = args[2];
+            }
+            for (int i = hasOutput ? 3 : 2; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--formato":
+                        options.format = value(args, ++i);
+                        break;
+                    case "--no":
+                        options.node = value(args, ++i);
+                        break;
+                    case "--raio":
+                        options.radius = Double.parseDouble(value(args, ++i));
+                        break;
+                    case "--celula":
+                        options.cellSize = Double.parseDouble(value(args, ++i));
+                        if (!(options.cellSize > 0)) {
+                            throw new IllegalArgumentException("Tamanho de célula inválido: " + options.cellSize);
+                        }
+                        break;
+                    case "--zoom":
+                        options.maxZoom = Integer.parseInt(value(args, ++i));
+                        if (options.maxZoom < 0 || options.maxZoom > DensityPyramid.MAX_ZOOM_LIMIT) {
+                            throw new IllegalArgumentException("Zoom máximo inválido: " + options.maxZoom);
+                        }
+                        break;
+                    case "--sem-validacao":
+                        options.validate = false;
+                        break;
+                    case "--threads":
+                        options.threads = Integer.parseInt(value(args, ++i));
+                        if (options.threads < 1) {
+                            throw new IllegalArgumentException("Número de threads inválido: " + options.threads);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+                }
+            }
+            if (options.format == null && hasOutput && !args[0].equals("lugares") && !args[0].equals("densidade")) {
+                options.format = formatFromExtension(options.output);
+            }
+            return options;
+        }
+
+        private static String value(String[] args, int i) {
+            if (i >= args.length) {
+                throw new IllegalArgumentException("Valor ausente para " + args[i - 1]);
+            }
+            return args[i];
+        }
+
+        private static String formatFromExtension(String path) {
+            int dot = path.lastIndexOf('.');
+            String extension = dot < 0 ? "" : path.substring(dot + 1).toLowerCase(Locale.ROOT);
+            switch (extension) {
+                case "csv":
+                case "geojson":
+                case "json":
+                case "bin":
+                    return extension;
+                default:
+                    throw new IllegalArgumentException("Não foi possível deduzir o formato de " + path + "; use --formato");
+            }
+        }
+    }
+}
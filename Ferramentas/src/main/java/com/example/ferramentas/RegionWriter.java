@@ -0,0 +1,8 @@
+package com.example.ferramentas;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface RegionWriter extends Closeable {
+    void write(RegionRecord region) throws IOException;
+}
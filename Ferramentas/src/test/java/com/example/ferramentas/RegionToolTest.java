@@ -0,0 +1,164 @@
+package com.example.ferramentas;
+
+import com.example.calculos.DensityPyramid;
+import com.example.calculos.Gazetteer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class RegionToolTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String EXPORT = "{\"regioes\": {"
+            + "\"0\": {\"name\": \"Rua A, 10\", \"latitude\": -23.55, \"longitude\": -46.63, \"timestamp\": 1712000000000, \"user\": 7},"
+            + "\"1\": {\"name\": \"Rua B\", \"latitude\": -23.5501, \"longitude\": -46.63, \"timestamp\": null, \"user\": 8},"
+            + "\"2\": {\"name\": \"Rua C\", \"latitude\": -23.56, \"longitude\": -46.64, \"extra\": [1, 2], \"user\": 9}"
+            + "}, \"outro\": {}}";
+
+    @Test
+    public void jsonReader_readsObjectAndArrayForms() throws IOException {
+        JsonRegionReader reader = new JsonRegionReader(new StringReader(EXPORT), "regioes");
+        assertEquals("0", reader.next().getKey());
+        RegionRecord second = reader.next();
+        assertEquals("Rua B", second.getName());
+        assertNull(second.getTimestamp());
+        assertEquals(9, reader.next().getUser());
+        assertNull(reader.next());
+
+        reader = new JsonRegionReader(new StringReader("[null, {\"latitude\": 1, \"longitude\": 2}]"), null);
+        RegionRecord region = reader.next();
+        assertEquals("1", region.getKey());
+        assertEquals(2.0, region.getLongitude(), 0);
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void jsonReader_readsShardedAndMixedLayouts() throws IOException {
+        String sharded = "{\"7h2y8\": {\"-Na\": {\"latitude\": -19.9, \"longitude\": -43.9}, \"-Nb\": null,"
+                + " \"-Nc\": {\"name\": \"C\", \"latitude\": -19.91, \"longitude\": -43.91}},"
+                + " \"5\": {\"name\": \"Antiga\", \"latitude\": 1, \"longitude\": 2},"
+                + " \"7h2y9\": {\"-Nd\": {\"latitude\": -19.8, \"longitude\": -43.8}}}";
+        JsonRegionReader reader = new JsonRegionReader(new StringReader(sharded), null);
+        assertEquals("-Na", reader.next().getKey());
+        assertEquals("C", reader.next().getName());
+        assertEquals("Antiga", reader.next().getName());
+        assertEquals("-Nd", reader.next().getKey());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void importAndExport_roundTripThroughBinary() throws IOException {
+        File input = folder.newFile("regioes.json");
+        Files.write(input.toPath(), EXPORT.getBytes(StandardCharsets.UTF_8));
+        File binary = new File(folder.getRoot(), "regioes.bin");
+        File json = new File(folder.getRoot(), "copia.json");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RegionTool tool = new RegionTool(new PrintStream(out, true, "UTF-8"), new PrintStream(new ByteArrayOutputStream()));
+        // As regiões 0 e 1 estão a ~11 m uma da outra
+        assertEquals(1, tool.run(new String[]{"importar", input.getPath(), binary.getPath(), "--no", "regioes"}));
+        assertTrue(out.toString("UTF-8").contains("Violações do invariante de 30 m: 1"));
+
+        assertEquals(0, tool.run(new String[]{"exportar", binary.getPath(), json.getPath()}));
+        try (JsonRegionReader reader = new JsonRegionReader(new FileReader(json), null)) {
+            RegionRecord first = reader.next();
+            assertEquals("Rua A, 10", first.getName());
+            assertEquals(Long.valueOf(1712000000000L), first.getTimestamp());
+            assertEquals(7, first.getUser());
+            assertNull(reader.next().getTimestamp());
+            assertEquals(-46.64, reader.next().getLongitude(), 0);
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void import_withoutValidationWritesCsv() throws IOException {
+        File input = folder.newFile("regioes.json");
+        Files.write(input.toPath(), EXPORT.getBytes(StandardCharsets.UTF_8));
+        File csv = new File(folder.getRoot(), "regioes.csv");
+
+        RegionTool tool = new RegionTool(new PrintStream(new ByteArrayOutputStream()), new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(0, tool.run(new String[]{"importar", input.getPath(), csv.getPath(), "--no", "regioes", "--sem-validacao"}));
+        String content = new String(Files.readAllBytes(csv.toPath()), StandardCharsets.UTF_8);
+        assertTrue(content.startsWith("key,name,latitude,longitude,timestamp,user\n"));
+        assertTrue(content.contains("0,\"Rua A, 10\",-23.55,-46.63,1712000000000,7\n"));
+        assertTrue(content.contains("1,Rua B,-23.5501,-46.63,,8\n"));
+    }
+
+    @Test
+    public void validate_countsViolationsInParallel() throws IOException {
+        File input = folder.newFile("regioes.json");
+        Files.write(input.toPath(), EXPORT.getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RegionTool tool = new RegionTool(new PrintStream(out, true, "UTF-8"), new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(1, tool.run(new String[]{"validar", input.getPath(), "--no", "regioes", "--threads", "2"}));
+        assertTrue(out.toString("UTF-8").contains("Violações do invariante de 30 m: 1 "));
+        assertEquals(0, tool.run(new String[]{"validar", input.getPath(), "--no", "regioes", "--raio", "5"}));
+        assertEquals(2, tool.run(new String[]{"validar", input.getPath(), "--threads", "0"}));
+    }
+
+    @Test
+    public void places_buildsGazetteerFromExportedCsv() throws IOException {
+        File input = folder.newFile("regioes.json");
+        Files.write(input.toPath(), EXPORT.getBytes(StandardCharsets.UTF_8));
+        File csv = new File(folder.getRoot(), "regioes.csv");
+        File places = new File(folder.getRoot(), "lugares.bin");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RegionTool tool = new RegionTool(new PrintStream(out, true, "UTF-8"), new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(0, tool.run(new String[]{"importar", input.getPath(), csv.getPath(), "--no", "regioes", "--sem-validacao"}));
+        Files.write(csv.toPath(), "x,,nao-numero,1,,0\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertEquals(0, tool.run(new String[]{"lugares", csv.getPath(), places.getPath(), "--celula", "100"}));
+        assertTrue(out.toString("UTF-8").contains("Gravados 3 lugares"));
+        assertTrue(out.toString("UTF-8").contains("(1 linhas inválidas)"));
+
+        Gazetteer gazetteer = Gazetteer.open(places);
+        assertEquals("Rua A, 10", gazetteer.name(gazetteer.nearest(-23.55002, -46.63, 50)));
+        assertEquals("Rua C", gazetteer.name(gazetteer.nearest(-23.56, -46.6401, 50)));
+        assertEquals(-1, gazetteer.nearest(-23.58, -46.63, 50));
+    }
+
+    @Test
+    public void density_rebuildsPyramidFromExport() throws IOException {
+        File input = folder.newFile("regioes.json");
+        Files.write(input.toPath(), EXPORT.getBytes(StandardCharsets.UTF_8));
+        File density = new File(folder.getRoot(), "densidade.bin");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RegionTool tool = new RegionTool(new PrintStream(out, true, "UTF-8"), new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(0, tool.run(new String[]{"densidade", input.getPath(), density.getPath(), "--no", "regioes", "--zoom", "12"}));
+        assertTrue(out.toString("UTF-8").contains("Agregadas 3 regiões"));
+        assertEquals(2, tool.run(new String[]{"densidade", input.getPath(), density.getPath(), "--zoom", "99"}));
+
+        DensityPyramid pyramid;
+        try (FileInputStream stream = new FileInputStream(density)) {
+            pyramid = DensityPyramid.read(stream);
+        }
+        assertEquals(12, pyramid.getMaxZoom());
+        assertEquals(3, pyramid.count(0, 0, 0));
+        assertEquals(3, pyramid.count(10, 379, 580)); // Bloco que contém as três ruas de São Paulo
+    }
+
+    @Test
+    public void splitCsv_handlesQuotedFields() {
+        assertEquals(Arrays.asList("Rua \"A\", 10", "-1.5", "2"), RegionTool.splitCsv("\"Rua \"\"A\"\", 10\",-1.5,2"));
+        assertEquals(Arrays.asList("", "b", ""), RegionTool.splitCsv(",b,"));
+    }
+}
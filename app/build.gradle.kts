@@ -30,6 +30,19 @@ android {
     buildFeatures {
         viewBinding = true
     }
+    sourceSets {
+        // Testes de contrato do RegionRepository, executados na JVM (em memória) e no dispositivo (emuladores do Firebase)
+        getByName("test").java.srcDir("src/sharedTest/java")
+        getByName("androidTest").java.srcDir("src/sharedTest/java")
+    }
+    androidResources {
+        // O gazetteer (assets/lugares.bin) é mapeado em memória direto do APK, o que exige o asset sem compressão
+        noCompress.add("bin")
+    }
+    testOptions {
+        // android.util.Log e afins retornam valores padrão nos testes na JVM em vez de lançar exceção
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -49,8 +62,10 @@ dependencies {
     implementation ("com.google.firebase:firebase-database")
     implementation("com.google.firebase:firebase-analytics")
     implementation("com.google.firebase:firebase-firestore")
+    implementation(libs.work.runtime)
     implementation (project(":Calculos"))
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    androidTestImplementation(libs.work.testing)
 }
@@ -0,0 +1,53 @@
+package com.example.avancada20.data;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executa o contrato do RegionRepository contra o emulador do Firestore, que deve estar em execução na máquina
+ * de desenvolvimento (firebase emulators:start --only firestore). O endereço 10.0.2.2 é o host visto pelo emulador Android.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FirestoreRegionRepositoryTest extends RegionRepositoryContract {
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+    private static FirebaseFirestore firestore;
+
+    @Override
+    protected RegionRepository createRepository() throws Exception {
+        clear(firestore());
+        return new FirestoreRegionRepository(firestore(), 100); // Páginas pequenas para exercitar os cursores
+    }
+
+    private static synchronized FirebaseFirestore firestore() {
+        if (firestore == null) {
+            firestore = FirebaseFirestore.getInstance();
+            firestore.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+            firestore.setFirestoreSettings(new FirebaseFirestoreSettings.Builder().setPersistenceEnabled(false).build());
+        }
+        return firestore;
+    }
+
+    // Remove todos os documentos das coleções "regioes", inclusive as dos baldes de arquivo
+    private static void clear(FirebaseFirestore firestore) throws Exception {
+        List<DocumentSnapshot> documents = Tasks.await(firestore.collectionGroup(FirestoreRegionRepository.REGIONS_COLLECTION).get(),
+                30, TimeUnit.SECONDS).getDocuments();
+        for (int start = 0; start < documents.size(); start += FirestoreRegionRepository.MAX_BATCH_OPERATIONS) {
+            WriteBatch batch = firestore.batch();
+            for (DocumentSnapshot document : documents.subList(start, Math.min(documents.size(), start + FirestoreRegionRepository.MAX_BATCH_OPERATIONS))) {
+                batch.delete(document.getReference());
+            }
+            Tasks.await(batch.commit(), 30, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.avancada20.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.work.Configuration;
+import androidx.work.ListenableWorker;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.WorkerFactory;
+import androidx.work.WorkerParameters;
+import androidx.work.testing.SynchronousExecutor;
+import androidx.work.testing.TestDriver;
+import androidx.work.testing.TestListenableWorkerBuilder;
+import androidx.work.testing.WorkManagerTestInitHelper;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Executa o RegionUploadWorker e o agendamento do RegionUploadScheduler com os utilitários de teste do WorkManager,
+ * sem rede: o repositório é o InMemoryRegionRepository, entregue ao trabalho por uma WorkerFactory.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RegionUploadWorkerTest {
+    private Context context;
+    private InMemoryRegionRepository repository;
+    private PendingRegionStore store;
+
+    private final WorkerFactory factory = new WorkerFactory() {
+        @Override
+        public ListenableWorker createWorker(@NonNull Context appContext, @NonNull String workerClassName,
+                                             @NonNull WorkerParameters params) {
+            return new RegionUploadWorker(appContext, params, repository, store);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        repository = new InMemoryRegionRepository();
+        File file = new File(context.getCacheDir(), "teste-pendentes.bin");
+        file.delete();
+        store = new PendingRegionStore(file);
+    }
+
+    @After
+    public void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    public void doWork_uploadsAllPendingRegionsInBatches() throws Exception {
+        store.append(regions(RegionUploadWorker.BATCH_SIZE + 20));
+
+        RegionUploadWorker worker = TestListenableWorkerBuilder.from(context, RegionUploadWorker.class)
+                .setWorkerFactory(factory).build();
+        ListenableWorker.Result result = worker.doWork();
+
+        assertTrue(result instanceof ListenableWorker.Result.Success);
+        assertEquals(RegionUploadWorker.BATCH_SIZE + 20, result.getOutputData().getInt(RegionUploadWorker.KEY_UPLOADED, -1));
+        assertEquals(0, store.size());
+        assertEquals(RegionUploadWorker.BATCH_SIZE + 20, loadAll().size());
+    }
+
+    @Test
+    public void doWork_retriesAndKeepsRegionsOnFailure() throws Exception {
+        store.append(regions(10));
+        repository.setFailureRates(0, 1);
+
+        RegionUploadWorker worker = TestListenableWorkerBuilder.from(context, RegionUploadWorker.class)
+                .setWorkerFactory(factory).build();
+        assertTrue(worker.doWork() instanceof ListenableWorker.Result.Retry);
+        assertEquals(10, store.size());
+
+        RegionUploadWorker lastAttempt = TestListenableWorkerBuilder.from(context, RegionUploadWorker.class)
+                .setWorkerFactory(factory).setRunAttemptCount(RegionUploadWorker.MAX_ATTEMPTS - 1).build();
+        assertTrue(lastAttempt.doWork() instanceof ListenableWorker.Result.Failure);
+        assertEquals(10, store.size());
+    }
+
+    @Test
+    public void doWork_confirmsReservationsOfUploadedRegions() throws Exception {
+        Region region = new Region("Praça", -19.9191, -43.9386, System.currentTimeMillis(), 0);
+        region.setKey(repository.newKey());
+        RegionClaims claims = new RegionClaims(repository);
+        final CountDownLatch reserved = new CountDownLatch(1);
+        claims.reserve(region, new RegionClaims.Callback() {
+            @Override
+            public void onAccepted(Region claimed) {
+                reserved.countDown();
+            }
+
+            @Override
+            public void onRejected(RegionAdmission.Result result) {
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+            }
+        });
+        assertTrue(reserved.await(10, TimeUnit.SECONDS));
+        store.append(Collections.singletonList(region));
+
+        RegionUploadWorker worker = TestListenableWorkerBuilder.from(context, RegionUploadWorker.class)
+                .setWorkerFactory(factory).build();
+        assertTrue(worker.doWork() instanceof ListenableWorker.Result.Success);
+        for (String cell : claims.cellsOf(region.getLatitude(), region.getLongitude())) {
+            assertNull(repository.cellsSnapshot().get(cell).get(region.getKey()).getExpiresAt());
+        }
+    }
+
+    @Test
+    public void schedule_coalescesRequestsIntoOneUniqueWork() throws Exception {
+        WorkManagerTestInitHelper.initializeTestWorkManager(context, new Configuration.Builder()
+                .setExecutor(new SynchronousExecutor())
+                .setWorkerFactory(factory)
+                .build());
+        WorkManager workManager = WorkManager.getInstance(context);
+        TestDriver driver = WorkManagerTestInitHelper.getTestDriver(context);
+
+        store.append(regions(3));
+        RegionUploadScheduler.schedule(context);
+        store.append(regions(2));
+        RegionUploadScheduler.schedule(context); // Ignorado: o trabalho da janela ainda está esperando
+
+        List<WorkInfo> infos = workManager.getWorkInfosForUniqueWork(RegionUploadScheduler.WORK_NAME).get();
+        assertEquals(1, infos.size());
+        assertEquals(WorkInfo.State.ENQUEUED, infos.get(0).getState());
+
+        driver.setAllConstraintsMet(infos.get(0).getId());
+        driver.setInitialDelayMet(infos.get(0).getId());
+        WorkInfo info = workManager.getWorkInfoById(infos.get(0).getId()).get();
+        assertEquals(WorkInfo.State.SUCCEEDED, info.getState());
+        assertEquals(5, info.getOutputData().getInt(RegionUploadWorker.KEY_UPLOADED, -1));
+    }
+
+    private static List<Region> regions(int count) {
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            regions.add(new Region("Região " + i, -19.9 + i * 0.001, -43.9, System.currentTimeMillis(), i));
+        }
+        return regions;
+    }
+
+    private List<Region> loadAll() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<List<Region>> result = new AtomicReference<>();
+        repository.loadAll(new ConsultaCallback() {
+            @Override
+            public void onRegionsLoaded(List<Region> regions) {
+                result.set(regions);
+                done.countDown();
+            }
+
+            @Override
+            public void onCancelled() {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return result.get();
+    }
+}
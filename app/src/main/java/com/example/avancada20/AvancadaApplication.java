@@ -0,0 +1,31 @@
+/**
+ * Classe de aplicação, criada antes de qualquer tela.
+ *
+ * Cria os serviços compartilhados (AppServices) e inicia as fases de inicialização em segundo plano, para que a
+ * primeira tela seja desenhada sem esperar pelos SDKs do Firebase e do Google Places.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20;
+
+import android.app.Application;
+
+import com.example.avancada20.startup.AppServices;
+
+public class AvancadaApplication extends Application {
+    private AppServices services;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        services = new AppServices(this);
+        services.start();
+    }
+
+    public AppServices getServices() {
+        return services;
+    }
+}
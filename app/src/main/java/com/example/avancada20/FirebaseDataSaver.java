@@ -2,31 +2,29 @@ package com.example.avancada20;
 import android.content.Context;
 import android.util.Log;
 
+import com.example.avancada20.data.RegionClaims;
+import com.example.avancada20.data.RegionRepository;
+import com.example.avancada20.data.RegionStore;
+import com.example.avancada20.data.RegionUploadScheduler;
+import com.example.avancada20.data.WriteCallback;
 import com.example.avancada20.ui.home.Region;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Semaphore;
 
 public class FirebaseDataSaver implements Runnable {
     private static final String TAG = "FirebaseDataSaver";
-    private DatabaseReference referencia = FirebaseDatabase.getInstance().getReference();
+    private RegionRepository repository;
     private Context context;
-    private List<Region> regions;
-    private Semaphore semaphore;
-    private int i = 0;
-    private ExecutorService executorService;
+    private RegionStore regions;
     private volatile boolean running = true; // Flag para controlar a execução do loop
     private volatile boolean threadStarted = false; // Flag para indicar se a thread foi iniciada
 
 
-    public FirebaseDataSaver(Context context, List<Region> regions, Semaphore semaphore) {
+    public FirebaseDataSaver(Context context, RegionStore regions, RegionRepository repository) {
         this.context = context;
         this.regions = regions;
-        this.semaphore = semaphore;
-        this.executorService = executorService;
+        this.repository = repository;
     }
 
     @Override
@@ -34,29 +32,23 @@ public class FirebaseDataSaver implements Runnable {
      * Executa a lógica principal da thread.
      * Define a flag threadStarted como true para indicar que a thread foi iniciada.
      * Executa um loop enquanto a flag running for true.
-     * Dentro do loop, adquire o semáforo antes de salvar os dados.
-     * Se a lista de regiões estiver vazia, libera o semáforo, aguarda até que a lista não esteja mais vazia e retoma a execução.
-     * Se a lista não estiver vazia, salva os dados e, em seguida, libera o semáforo.
+     * Dentro do loop, aguarda, no monitor da lista de regiões, até que a lista não esteja vazia e a thread seja notificada.
+     * Em seguida, retira as regiões da lista e salva os dados; a lista é segura para acesso concorrente, então as
+     * threads de admissão continuam adicionando regiões enquanto os dados são salvos.
      * Registra mensagens de log para indicar ações realizadas ou exceções capturadas.
      */
     public void run() {
         threadStarted = true; // Define a flag threadStarted como true para indicar que a thread foi iniciada
         while (running) { // Executar o loop enquanto a flag running for true
             try {
-                semaphore.acquire(); // Acquire semaphore before saving
-
-                if (regions.isEmpty()) {
-                    semaphore.release(); // Release semaphore after saving
-                    synchronized (regions) {
+                synchronized (regions) {
+                    while (running && regions.isEmpty()) {
                         regions.wait(); // Aguardar até que a lista não esteja mais vazia
                     }
-                } else {
+                }
+                if (running) {
                     saveData();
-
-                    semaphore.release(); // Release semaphore after saving
-                    Log.d(TAG, "Semaphore released.");
                 }
-
             } catch (InterruptedException e) {
                 // Lidar com a exceção de interrupção
                 Log.e(TAG, "InterruptedException: " + e.getMessage());
@@ -72,27 +64,42 @@ public class FirebaseDataSaver implements Runnable {
      */
     public void stopThread() {
         running = false; // Método para parar o loop
+        synchronized (regions) {
+            regions.notifyAll(); // Acorda a thread se ela estiver aguardando
+        }
     }
 
 
     /**
-     * Salva os dados das regiões no Firebase Realtime Database.
-     * Obtém uma referência para o nó "regioes" no banco de dados.
-     * Percorre a lista de regiões e salva cada região como um nó filho sob o nó "regioes".
-     * Limpa a lista de regiões após salvar com sucesso os dados.
-     * Registra uma mensagem de log para indicar que os dados foram salvos com sucesso.
+     * Retira as regiões da lista e as entrega à fila persistente do RegionUploadScheduler, que agenda o envio em
+     * segundo plano pelo WorkManager, em lotes e conforme as restrições de rede e bateria configuradas.
+     * Se a fila não puder ser gravada, grava as regiões diretamente pelo repositório.
      */
     private void saveData() {
-        DatabaseReference regiao = referencia.child("regioes"); // Obtém uma referência para o nó "regioes" no banco de dados
-
-        for (Region region : regions) {
-            // Salva cada região como um nó filho sob o nó "regioes"
-            regiao.child(String.valueOf(i)).setValue(region);
-            i++;
+        List<Region> pending = regions.drain();
+        try {
+            RegionUploadScheduler.enqueue(context, repository, pending);
+            Log.d(TAG, "Regiões entregues ao envio em segundo plano: " + pending.size());
+        } catch (IOException e) {
+            Log.e(TAG, "Falha na fila de envio, gravando diretamente: " + e.getMessage());
+            saveDirectly(pending);
         }
+    }
 
-        regions.clear(); // Limpa a lista de regiões após salvar com sucesso os dados
-        Log.d(TAG, "Data saved successfully!"); // Registra uma mensagem de log para indicar que os dados foram salvos com sucesso
+    // Grava as regiões em um único lote pelo repositório, sem passar pela fila, e confirma as suas reservas
+    private void saveDirectly(final List<Region> pending) {
+        repository.saveAll(pending, new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                Log.d(TAG, "Data saved successfully!"); // Registra uma mensagem de log para indicar que os dados foram salvos com sucesso
+                new RegionClaims(repository).backfill(pending, null);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Failed to save data: " + e.getMessage());
+            }
+        });
     }
 
     /**
@@ -2,6 +2,9 @@ package com.example.avancada20;
 
 import android.os.Bundle;
 
+import com.example.avancada20.data.RegionClaims;
+import com.example.avancada20.data.RegionStore;
+import com.example.avancada20.startup.AppServices;
 import com.example.avancada20.ui.home.Region;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
@@ -13,13 +16,12 @@ import androidx.navigation.ui.NavigationUI;
 
 import com.example.avancada20.databinding.ActivityMainBinding;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class MainActivity extends AppCompatActivity {
 
     private ActivityMainBinding binding;
-    private List<Region> regions = new ArrayList<>();
+    private final RegionStore regions = new RegionStore(); // Lista de regiões segura para acesso concorrente
 
 
     @Override
@@ -38,22 +40,27 @@ public class MainActivity extends AppCompatActivity {
         NavController navController = Navigation.findNavController(this, R.id.nav_host_fragment_activity_main);
         NavigationUI.setupActionBarWithNavController(this, navController, appBarConfiguration);
         NavigationUI.setupWithNavController(binding.navView, navController);
+
+        // A migração, a compactação e o envio pendente rodam na fase de manutenção do AppServices, em segundo plano.
+        // A mensagem postada na view raiz é executada depois da primeira passagem de desenho: marca o primeiro quadro.
+        binding.getRoot().post(() -> AppServices.from(this).getStartup().markFirstFrame());
     }
+
     @Override
     public void onBackPressed() {
         super.onBackPressed();
 
-        // Limpar os dados da lista de regiões
-        regions.clear();
+        // Descartar as regiões da lista que ainda não foram entregues ao envio e liberar as suas reservas no banco,
+        // para que não bloqueiem a vizinhança e o nome até expirarem
+        List<Region> discarded = regions.drain();
+        if (!discarded.isEmpty()) {
+            new RegionClaims(AppServices.from(this).getRegionRepository()).release(discarded, null);
+        }
     }
 
-    // Métodos getter e setter para a lista de regiões
-    public List<Region> getRegions() {
+    // Método getter para a lista de regiões
+    public RegionStore getRegions() {
         return regions;
     }
 
-    public void setRegions(List<Region> regions) {
-        this.regions = regions;
-    }
-
 }
\ No newline at end of file
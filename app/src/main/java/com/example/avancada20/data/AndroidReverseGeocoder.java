@@ -0,0 +1,46 @@
+/**
+ * Implementação do ReverseGeocoder sobre o Geocoder do Android.
+ *
+ * Consulta o primeiro endereço das coordenadas e junta as suas linhas, separadas por vírgula, como o nome do lugar.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+public class AndroidReverseGeocoder implements ReverseGeocoder {
+    private final Geocoder geocoder;
+
+    public AndroidReverseGeocoder(Context context) {
+        this.geocoder = new Geocoder(context.getApplicationContext(), Locale.getDefault());
+    }
+
+    @Override
+    public String reverseGeocode(double latitude, double longitude) throws IOException {
+        List<Address> addresses = geocoder.getFromLocation(latitude, longitude, 1);
+        if (addresses == null || addresses.isEmpty()) {
+            return null;
+        }
+        Address address = addresses.get(0);
+        StringBuilder stringBuilder = new StringBuilder();
+        // Construir o endereço completo a partir das linhas do endereço, separadas por vírgula
+        for (int i = 0; i <= address.getMaxAddressLineIndex(); i++) {
+            stringBuilder.append(address.getAddressLine(i));
+            if (i < address.getMaxAddressLineIndex()) {
+                stringBuilder.append(", ");
+            }
+        }
+        String name = stringBuilder.toString().trim();
+        return name.isEmpty() ? null : name;
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Recuo exponencial com variação aleatória ("full jitter") entre as tentativas de uma chamada.
+ *
+ * A espera antes da tentativa n + 1 é sorteada entre zero e min(maxMillis, baseMillis * 2^n). O sorteio espalha as
+ * repetições dos vários dispositivos e threads que falharam juntos, em vez de repeti-las todas no mesmo instante.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import java.util.Random;
+
+public class Backoff {
+    private final long baseMillis;
+    private final long maxMillis;
+    private final Random random;
+
+    public Backoff(long baseMillis, long maxMillis) {
+        this(baseMillis, maxMillis, new Random());
+    }
+
+    public Backoff(long baseMillis, long maxMillis, Random random) {
+        if (baseMillis < 0 || maxMillis < baseMillis) {
+            throw new IllegalArgumentException("Recuo inválido: " + baseMillis + ".." + maxMillis);
+        }
+        this.baseMillis = baseMillis;
+        this.maxMillis = maxMillis;
+        this.random = random;
+    }
+
+    /**
+     * Espera antes da próxima tentativa, depois de attempt tentativas que falharam (a partir de 0).
+     */
+    public long delayMillis(int attempt) {
+        return (long) (random.nextDouble() * ceilingMillis(attempt));
+    }
+
+    // Limite da espera, sem estouro para muitas tentativas
+    long ceilingMillis(int attempt) {
+        if (attempt >= 62 || baseMillis << attempt >>> attempt != baseMillis) {
+            return maxMillis;
+        }
+        return Math.min(maxMillis, baseMillis << attempt);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.avancada20.data;
+
+// Reivindicação de uma região no nó de uma célula: os dados usados pela admissão (nome e coordenadas) e, numa
+// reserva ainda não confirmada, o instante em que ela expira (null numa reivindicação permanente)
+public class CellClaim {
+    private String name;
+    private double latitude;
+    private double longitude;
+    private Long expiresAt;
+
+    public CellClaim() {
+    }
+
+    public CellClaim(String name, double latitude, double longitude) {
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public CellClaim(String name, double latitude, double longitude, Long expiresAt) {
+        this(name, latitude, longitude);
+        this.expiresAt = expiresAt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    // Verdadeiro se a reivindicação for uma reserva expirada no instante informado
+    boolean isExpired(long now) {
+        return expiresAt != null && expiresAt <= now;
+    }
+}
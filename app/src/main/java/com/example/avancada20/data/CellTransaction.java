@@ -0,0 +1,20 @@
+package com.example.avancada20.data;
+
+import java.util.Map;
+
+public interface CellTransaction {
+    /**
+     * Recebe as reivindicações atuais da célula, indexadas pelo identificador, e devolve as novas reivindicações,
+     * ou null para abortar a transação. Pode ser chamado mais de uma vez se outra gravação concorrer com a transação,
+     * então não deve ter efeitos colaterais.
+     */
+    Map<String, CellClaim> apply(Map<String, CellClaim> claims);
+
+    // As novas reivindicações foram gravadas
+    void onCommitted();
+
+    // apply() devolveu null
+    void onAborted();
+
+    void onFailure(Exception e);
+}
@@ -0,0 +1,102 @@
+/**
+ * Disjuntor de uma dependência remota (geocodificador, leituras ou gravações do banco).
+ *
+ * Fechado, deixa passar todas as chamadas e conta as falhas consecutivas; ao chegar a failureThreshold falhas, abre e
+ * passa a recusar as chamadas na hora, sem ocupar threads nem insistir contra uma dependência fora do ar. Depois de
+ * openMillis, fica meio aberto: deixa passar uma única chamada de teste, que fecha o disjuntor se der certo ou o
+ * abre de novo se falhar. Quem chama deve informar o resultado de toda chamada permitida (onSuccess() ou onFailure()).
+ *
+ * Principais funcionalidades:
+ * - Contagem das falhas consecutivas e abertura ao atingir o limite.
+ * - Recusa imediata das chamadas enquanto aberto, com relógio substituível nos testes.
+ * - Chamada de teste única depois do tempo de abertura.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import java.util.function.LongSupplier;
+
+public class CircuitBreaker {
+    private static final String TAG = "CircuitBreaker";
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    // Protegidos pelo monitor do objeto
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing; // Chamada de teste em andamento, no estado meio aberto
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this(name, failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis, LongSupplier clock) {
+        if (failureThreshold < 1 || openMillis < 0) {
+            throw new IllegalArgumentException("Parâmetros inválidos do disjuntor " + name);
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Verifica se uma chamada pode ser feita agora. Se puder, o resultado da chamada deve ser informado.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                return false;
+            }
+            probing = true;
+        }
+        return state != State.OPEN;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            Log.i(TAG, name + ": dependência de volta, disjuntor fechado");
+        }
+        state = State.CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    public synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            Log.w(TAG, name + ": " + failures + " falhas seguidas, disjuntor aberto por " + openMillis + " ms");
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            probing = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
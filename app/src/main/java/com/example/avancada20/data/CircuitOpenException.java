@@ -0,0 +1,14 @@
+package com.example.avancada20.data;
+
+import java.io.IOException;
+
+/**
+ * A chamada foi recusada sem ser feita porque o disjuntor da dependência está aberto (CircuitBreaker).
+ */
+public class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String dependency) {
+        super("Dependência indisponível, disjuntor aberto: " + dependency);
+    }
+}
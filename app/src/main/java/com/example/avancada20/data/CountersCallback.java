@@ -0,0 +1,10 @@
+package com.example.avancada20.data;
+
+import java.util.Map;
+
+public interface CountersCallback {
+    // Contadores da dimensão consultada, indexados pela chave; vazio se a dimensão ainda não tiver contadores
+    void onCountersLoaded(Map<String, Long> counters);
+
+    void onCancelled();
+}
@@ -0,0 +1,103 @@
+/**
+ * Mapa de calor das regiões enviadas, mantido no dispositivo como uma DensityPyramid persistente.
+ *
+ * A pirâmide é atualizada a cada lote confirmado pelo banco (record()), em O(níveis) por região, e regravada em um
+ * arquivo temporário que substitui o atual, de modo que o arquivo nunca fica pela metade. Desenhar o mapa de calor
+ * lê apenas as contagens agregadas (tile()), nunca as regiões. Para reparo, o arquivo pode ser substituído por um
+ * gerado em fluxo a partir de uma exportação pelo comando densidade da ferramenta regioes.
+ *
+ * Principais funcionalidades:
+ * - Abertura do arquivo da pirâmide, ou de uma pirâmide vazia se o arquivo não existir ou estiver corrompido.
+ * - Registro de um lote de regiões enviadas, com gravação atômica do arquivo.
+ * - Leitura das contagens de um bloco do mapa e da maior contagem do zoom, para a escala de cores.
+ *
+ * Os métodos são sincronizados; todos os usuários do mesmo arquivo devem compartilhar a mesma instância.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.DensityPyramid;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+public class DensityStore {
+    private static final String TAG = "DensityStore";
+
+    private final File file;
+    private final DensityPyramid pyramid;
+
+    private DensityStore(File file, DensityPyramid pyramid) {
+        this.file = file;
+        this.pyramid = pyramid;
+    }
+
+    /**
+     * Abre a pirâmide gravada no arquivo. Se o arquivo não existir ou não puder ser lido, começa com uma pirâmide
+     * vazia, que passa a receber as próximas regiões enviadas.
+     */
+    public static DensityStore open(File file) {
+        if (file.exists()) {
+            try (BufferedInputStream input = new BufferedInputStream(new FileInputStream(file))) {
+                return new DensityStore(file, DensityPyramid.read(input));
+            } catch (IOException e) {
+                Log.e(TAG, "Arquivo de densidade ilegível; recomeçando do zero: " + e.getMessage());
+            }
+        }
+        return new DensityStore(file, new DensityPyramid());
+    }
+
+    /**
+     * Acrescenta as regiões à pirâmide e grava o arquivo.
+     */
+    public synchronized void record(List<Region> regions) throws IOException {
+        if (regions.isEmpty()) {
+            return;
+        }
+        for (Region region : regions) {
+            pyramid.add(region.getLatitude(), region.getLongitude());
+        }
+        save();
+    }
+
+    /**
+     * Contagens das faixas do bloco de mapa (x, y) no zoom informado (DensityPyramid.tile()).
+     */
+    public synchronized int[] tile(int zoom, int x, int y) {
+        return pyramid.tile(zoom, x, y);
+    }
+
+    public synchronized int maxBinCount(int zoom) {
+        return pyramid.maxBinCount(zoom);
+    }
+
+    public synchronized long getTotal() {
+        return pyramid.getTotal();
+    }
+
+    // Grava em um arquivo temporário e o troca pelo atual; a troca de nome é atômica no mesmo sistema de arquivos
+    private void save() throws IOException {
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temporary)) {
+            BufferedOutputStream out = new BufferedOutputStream(stream);
+            pyramid.write(out);
+            out.flush();
+            stream.getFD().sync();
+        }
+        if (!temporary.renameTo(file)) {
+            throw new IOException("Não foi possível substituir " + file);
+        }
+    }
+}
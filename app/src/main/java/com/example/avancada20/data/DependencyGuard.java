@@ -0,0 +1,185 @@
+/**
+ * Política de falhas de uma dependência remota: novas tentativas com recuo exponencial e variação aleatória
+ * (Backoff), limitadas por um orçamento (RetryBudget) e por um disjuntor (CircuitBreaker).
+ *
+ * Cada chamada passa primeiro pelo disjuntor: com ele aberto, a chamada é recusada na hora com uma
+ * CircuitOpenException. Cada tentativa que falha é contada pelo disjuntor e repetida depois da espera sorteada, até
+ * maxAttempts tentativas, enquanto houver orçamento e o disjuntor continuar permitindo; senão, a última falha é
+ * entregue a quem chamou. As esperas das chamadas assíncronas (execute()) são agendadas em um executor, sem bloquear
+ * threads; as chamadas bloqueantes (call()) esperam na própria thread.
+ *
+ * Principais funcionalidades:
+ * - Execução de uma operação assíncrona com novas tentativas agendadas.
+ * - Execução de uma chamada bloqueante com novas tentativas na thread chamadora.
+ * - Recusa imediata enquanto a dependência estiver fora do ar.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DependencyGuard {
+    private static final String TAG = "DependencyGuard";
+
+    /**
+     * Operação assíncrona protegida por execute().
+     */
+    public interface Operation {
+        /**
+         * Faz uma tentativa e informa o resultado, uma única vez, a attempt. Pode ser chamado mais de uma vez.
+         */
+        void attempt(Attempt attempt);
+
+        /**
+         * A operação não teve sucesso: as tentativas ou o orçamento acabaram, ou o disjuntor está aberto.
+         */
+        void onGaveUp(Exception e);
+    }
+
+    public interface BlockingCall<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * Resultado de uma tentativa; apenas o primeiro resultado informado é considerado.
+     */
+    public final class Attempt {
+        private final Operation operation;
+        private final int number;
+        private final AtomicBoolean reported = new AtomicBoolean();
+
+        private Attempt(Operation operation, int number) {
+            this.operation = operation;
+            this.number = number;
+        }
+
+        public void succeeded() {
+            if (reported.compareAndSet(false, true)) {
+                breaker.onSuccess();
+            }
+        }
+
+        public void failed(Exception e) {
+            if (reported.compareAndSet(false, true)) {
+                breaker.onFailure();
+                retryOrGiveUp(operation, number, e);
+            }
+        }
+    }
+
+    private final int maxAttempts;
+    private final Backoff backoff;
+    private final RetryBudget budget;
+    private final CircuitBreaker breaker;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * @param executor Agenda as novas tentativas de execute(); pode ser null se apenas call() for usado.
+     */
+    public DependencyGuard(int maxAttempts, Backoff backoff, RetryBudget budget, CircuitBreaker breaker,
+                           ScheduledExecutorService executor) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Quantidade de tentativas inválida: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.budget = budget;
+        this.breaker = breaker;
+        this.executor = executor;
+    }
+
+    /**
+     * Executa a operação, repetindo as tentativas que falharem depois de esperas agendadas no executor.
+     * Com o disjuntor aberto, onGaveUp() é chamado na thread chamadora, sem nenhuma tentativa.
+     */
+    public void execute(Operation operation) {
+        if (!breaker.allowRequest()) {
+            operation.onGaveUp(new CircuitOpenException(breaker.getName()));
+            return;
+        }
+        budget.onRequest();
+        run(operation, 0);
+    }
+
+    /**
+     * Faz a chamada na thread chamadora, esperando nela entre as tentativas.
+     *
+     * @throws CircuitOpenException Se o disjuntor estiver aberto.
+     * @throws IOException          A falha da última tentativa.
+     */
+    public <T> T call(BlockingCall<T> call) throws IOException {
+        if (!breaker.allowRequest()) {
+            throw new CircuitOpenException(breaker.getName());
+        }
+        budget.onRequest();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                T result = call.call();
+                breaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                breaker.onFailure(); // Sem isso, uma chamada de teste deixaria o disjuntor meio aberto para sempre
+                throw e;
+            } catch (IOException e) {
+                breaker.onFailure();
+                if (attempt + 1 >= maxAttempts || !budget.tryRetry()) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(backoff.delayMillis(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrompido entre as tentativas: " + breaker.getName());
+                }
+                if (!breaker.allowRequest()) {
+                    throw new CircuitOpenException(breaker.getName());
+                }
+            }
+        }
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    private void run(Operation operation, int number) {
+        Attempt attempt = new Attempt(operation, number);
+        try {
+            operation.attempt(attempt);
+        } catch (RuntimeException e) {
+            Log.e(TAG, breaker.getName() + ": tentativa interrompida por exceção", e);
+            attempt.failed(e);
+        }
+    }
+
+    private void retryOrGiveUp(final Operation operation, final int number, final Exception failure) {
+        if (number + 1 >= maxAttempts || !budget.tryRetry()) {
+            operation.onGaveUp(failure);
+            return;
+        }
+        long delay = backoff.delayMillis(number);
+        Log.d(TAG, breaker.getName() + ": tentativa " + (number + 1) + " falhou, repetindo em " + delay + " ms");
+        try {
+            executor.schedule(() -> {
+                if (breaker.allowRequest()) {
+                    run(operation, number + 1);
+                } else {
+                    operation.onGaveUp(new CircuitOpenException(breaker.getName()));
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            operation.onGaveUp(failure);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+/**
+ * Implementação do RegionRepository sobre o Firebase Realtime Database.
+ *
+ * As regiões ficam particionadas por prefixo de geohash em "regioes/{fragmento}/{chave}" (ver RegionShards), e
+ * cada fragmento em uso é registrado em "fragmentos/{fragmento}". As novas chaves são geradas com push(), que
+ * produz chaves únicas mesmo entre dispositivos diferentes, e todas as gravações são atualizações de múltiplos
+ * caminhos a partir da raiz (updateChildren), que o Firebase aplica de forma atômica. As consultas por área
+ * leem apenas os fragmentos que cobrem a área, em paralelo.
+ *
+ * As regiões arquivadas pela compactação ficam em "arquivo/{balde}/{chave}". A consulta das regiões antigas ordena
+ * cada fragmento pelo filho "timestamp", que deve estar declarado em ".indexOn" (em "regioes/$fragmento") nas
+ * regras do banco de dados para que a filtragem aconteça no servidor.
+ *
+ * Enquanto a RegionShardMigration não termina, ainda pode haver regiões no formato antigo, filhas diretas de
+ * "regioes": loadAll() as reconhece pelo filho "latitude", que os nós de fragmento não têm, e as lê como regiões.
+ * A migração consulta "regioes" ordenado por "latitude", que deve estar declarado em ".indexOn" (em "regioes"), e
+ * marca o fim da migração em "migracoes/fragmentos".
+ * Os nós sem latitude ou longitude são ignorados.
+ *
+ * Os contadores agregados ficam em "contadores/{dimensão}/{chave}" (ver RegionCounters) e entram na mesma
+ * atualização de múltiplos caminhos das regiões como incrementos do servidor (ServerValue.increment), que somam
+ * corretamente mesmo com vários dispositivos gravando ao mesmo tempo.
+ *
+ * Principais funcionalidades:
+ * - Leitura de todas as regiões, ou apenas dos fragmentos que cobrem um círculo, extraindo nome, latitude,
+ *   longitude, timestamp, usuário e forma.
+ * - Gravação de uma região ou de um lote de regiões no fragmento de cada uma, notificando o callback sobre o sucesso ou a falha.
+ * - Leitura paginada das regiões mais antigas e movimentação atômica delas para os baldes de arquivo.
+ * - Transações sobre as reivindicações das células em "celulas/{célula}/{identificador}" (runTransaction).
+ * - Leitura dos contadores de uma dimensão e substituição de todos os contadores, para reparo.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.GenericTypeIndicator;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FirebaseRegionRepository implements RegionRepository {
+    private static final String TAG = "FirebaseRegionRepo";
+    static final String REGIONS_NODE = "regioes";
+    static final String SHARDS_NODE = "fragmentos";
+    static final String ARCHIVE_NODE = "arquivo";
+
+    private final DatabaseReference root;
+    private final DatabaseReference regioes;
+    private final RegionShards shards;
+
+    public FirebaseRegionRepository(FirebaseDatabase database) {
+        this(database, new RegionShards());
+    }
+
+    public FirebaseRegionRepository(FirebaseDatabase database, RegionShards shards) {
+        this.root = database.getReference();
+        this.regioes = root.child(REGIONS_NODE);
+        this.shards = shards;
+    }
+
+    /**
+     * Consulta todas as regiões do nó "regioes", percorrendo todos os fragmentos, com um ouvinte de evento de valor único.
+     * As regiões no formato antigo que ainda não foram migradas para os fragmentos também são lidas.
+     * Em caso de erro na leitura do banco de dados, registra uma mensagem de log e notifica o callback sobre o cancelamento.
+     */
+    @Override
+    public void loadAll(final ConsultaCallback callback) {
+        regioes.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                List<Region> lista = new ArrayList<>();
+                for (DataSnapshot shardSnapshot : snapshot.getChildren()) {
+                    if (shardSnapshot.hasChild("latitude")) {
+                        addRegion(lista, shardSnapshot); // Região no formato antigo, ainda não migrada
+                        continue;
+                    }
+                    for (DataSnapshot childSnapshot : shardSnapshot.getChildren()) {
+                        addRegion(lista, childSnapshot);
+                    }
+                }
+                callback.onRegionsLoaded(lista);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.i(TAG, "Erro na leitura do Banco de Dados" + error);
+                callback.onCancelled();
+            }
+        });
+    }
+
+    /**
+     * Consulta apenas os fragmentos que cobrem o círculo, em paralelo, e entrega ao callback as regiões de todos eles.
+     */
+    @Override
+    public void loadNear(double latitude, double longitude, double radiusMeters, ConsultaCallback callback) {
+        List<Query> queries = new ArrayList<>();
+        for (String shard : shards.cover(latitude, longitude, radiusMeters)) {
+            queries.add(regioes.child(shard));
+        }
+        fanOut(queries, callback);
+    }
+
+    /**
+     * Consulta as regiões mais antigas: lê o registro de fragmentos e consulta cada fragmento ordenado pelo timestamp,
+     * limitado ao tamanho do lote; depois junta os resultados e mantém as limit regiões mais antigas.
+     * O Realtime Database ordena os valores nulos primeiro, então as regiões sem timestamp vêm no início.
+     */
+    @Override
+    public void loadOlderThan(final long cutoff, final int limit, final ConsultaCallback callback) {
+        root.child(SHARDS_NODE).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                List<Query> queries = new ArrayList<>();
+                for (DataSnapshot shardSnapshot : snapshot.getChildren()) {
+                    queries.add(regioes.child(shardSnapshot.getKey()).orderByChild("timestamp").endAt(cutoff - 1).limitToFirst(limit));
+                }
+                fanOut(queries, new ConsultaCallback() {
+                    @Override
+                    public void onRegionsLoaded(List<Region> regions) {
+                        Collections.sort(regions, Comparator.comparing(Region::getTimestamp, Comparator.nullsFirst(Comparator.<Long>naturalOrder())));
+                        callback.onRegionsLoaded(new ArrayList<>(regions.subList(0, Math.min(limit, regions.size()))));
+                    }
+
+                    @Override
+                    public void onCancelled() {
+                        callback.onCancelled();
+                    }
+                });
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.i(TAG, "Erro na leitura dos fragmentos" + error);
+                callback.onCancelled();
+            }
+        });
+    }
+
+    /**
+     * Move as regiões para o arquivo com uma única atualização de múltiplos caminhos a partir da raiz:
+     * as remoções ("regioes/{fragmento}/{chave}" = null), as gravações ("arquivo/{balde}/{chave}") e os decrementos
+     * dos contadores são aplicados juntos ou não são aplicados.
+     */
+    @Override
+    public void archive(Map<String, List<Region>> archived, List<Region> removed, WriteCallback callback) {
+        Map<String, Object> updates = new HashMap<>();
+        for (Region region : removed) {
+            updates.put(pathOf(region), null);
+        }
+        for (Map.Entry<String, List<Region>> bucket : archived.entrySet()) {
+            for (Region region : bucket.getValue()) {
+                updates.put(ARCHIVE_NODE + "/" + bucket.getKey() + "/" + region.getKey(), region);
+            }
+        }
+        putCounters(updates, RegionCounters.deltas(removed, -1));
+        observe(root.updateChildren(updates), callback);
+    }
+
+    /**
+     * Executa a transação com runTransaction no nó da célula. O Firebase chama doTransaction primeiro com os dados do
+     * cache local (vazio, se o nó nunca foi lido) e, se o servidor tiver outro valor, de novo com o valor do servidor,
+     * até gravar sem concorrência; por isso a função da transação pode ser chamada mais de uma vez.
+     */
+    @Override
+    public void transactCell(final String cellKey, final CellTransaction transaction) {
+        root.child(RegionClaims.CELLS_NODE).child(cellKey).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                Map<String, CellClaim> claims = new HashMap<>();
+                for (MutableData child : currentData.getChildren()) {
+                    CellClaim claim = child.getValue(CellClaim.class);
+                    if (claim != null) {
+                        claims.put(child.getKey(), claim);
+                    }
+                }
+                Map<String, CellClaim> updated = transaction.apply(claims);
+                if (updated == null) {
+                    return Transaction.abort();
+                }
+                currentData.setValue(updated.isEmpty() ? null : updated);
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    Log.e(TAG, "Falha na transação da célula " + cellKey + ": " + error.getMessage());
+                    transaction.onFailure(error.toException());
+                } else if (committed) {
+                    transaction.onCommitted();
+                } else {
+                    transaction.onAborted();
+                }
+            }
+        });
+    }
+
+    @Override
+    public String newKey() {
+        return regioes.push().getKey(); // Gerada no cliente, sem acesso à rede
+    }
+
+    @Override
+    public void save(Region region, WriteCallback callback) {
+        List<Region> lote = new ArrayList<>(1);
+        lote.add(region);
+        saveAll(lote, callback);
+    }
+
+    /**
+     * Grava o lote com uma única atualização: cada região vai para o seu fragmento, que também é registrado em
+     * "fragmentos", e os contadores agregados das regiões novas são incrementados. As regiões sem chave recebem uma
+     * nova chave de push() e são novas; as demais são gravadas na própria chave, e antes da gravação cada uma é lida
+     * para que uma região já gravada (o reenvio de um lote cuja confirmação se perdeu) não seja contada de novo. A
+     * leitura vê as gravações ainda pendentes deste cliente, então um reenvio feito antes de a gravação anterior
+     * chegar ao servidor também não conta as regiões duas vezes.
+     */
+    @Override
+    public void saveAll(final List<Region> regions, final WriteCallback callback) {
+        final List<Region> keyed = new ArrayList<>();
+        for (Region region : regions) {
+            if (region.getKey() == null) {
+                region.setKey(newKey());
+            } else {
+                keyed.add(region);
+            }
+        }
+        if (keyed.isEmpty()) {
+            write(regions, regions, callback);
+            return;
+        }
+        final Map<String, Boolean> stored = Collections.synchronizedMap(new HashMap<>());
+        final AtomicInteger remaining = new AtomicInteger(keyed.size());
+        final AtomicBoolean failed = new AtomicBoolean();
+        for (final Region region : keyed) {
+            root.child(pathOf(region)).addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    stored.put(region.getKey(), snapshot.exists());
+                    if (remaining.decrementAndGet() == 0 && !failed.get()) {
+                        List<Region> added = new ArrayList<>(regions.size());
+                        for (Region candidate : regions) {
+                            if (!Boolean.TRUE.equals(stored.get(candidate.getKey()))) {
+                                added.add(candidate);
+                            }
+                        }
+                        write(regions, added, callback);
+                    }
+                }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    if (failed.compareAndSet(false, true)) {
+                        Log.e(TAG, "Falha na leitura das regiões do lote: " + error.getMessage());
+                        callback.onFailure(error.toException());
+                    }
+                }
+            });
+        }
+    }
+
+    // Grava as regiões e incrementa os contadores apenas das regiões de added
+    private void write(List<Region> regions, List<Region> added, WriteCallback callback) {
+        Map<String, Object> updates = new HashMap<>();
+        for (Region region : regions) {
+            putRegion(updates, region);
+        }
+        putCounters(updates, RegionCounters.deltas(added, 1));
+        observe(root.updateChildren(updates), callback);
+    }
+
+    @Override
+    public void loadCounters(String dimension, final CountersCallback callback) {
+        root.child(RegionCounters.NODE).child(dimension).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Map<String, Long> counters = new HashMap<>();
+                for (DataSnapshot counter : snapshot.getChildren()) {
+                    Long value = counter.getValue(Long.class);
+                    if (value != null && value != 0) {
+                        counters.put(counter.getKey(), value);
+                    }
+                }
+                callback.onCountersLoaded(counters);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.i(TAG, "Erro na leitura dos contadores" + error);
+                callback.onCancelled();
+            }
+        });
+    }
+
+    /**
+     * Regrava o nó "contadores" inteiro com setValue, descartando as chaves que não estiverem em counters.
+     */
+    @Override
+    public void replaceCounters(Map<String, Map<String, Long>> counters, WriteCallback callback) {
+        observe(root.child(RegionCounters.NODE).setValue(counters.isEmpty() ? null : counters), callback);
+    }
+
+    public RegionShards getShards() {
+        return shards;
+    }
+
+    // Caminho da região a partir da raiz: "regioes/{fragmento}/{chave}"
+    String pathOf(Region region) {
+        return REGIONS_NODE + "/" + shards.shardOf(region) + "/" + region.getKey();
+    }
+
+    // Acrescenta à atualização de múltiplos caminhos a gravação da região e o registro do seu fragmento
+    void putRegion(Map<String, Object> updates, Region region) {
+        updates.put(pathOf(region), region);
+        updates.put(SHARDS_NODE + "/" + shards.shardOf(region), true);
+    }
+
+    // Acrescenta à atualização de múltiplos caminhos os incrementos do servidor em "contadores/{dimensão}/{chave}"
+    static void putCounters(Map<String, Object> updates, Map<String, Map<String, Long>> deltas) {
+        for (Map.Entry<String, Map<String, Long>> dimension : deltas.entrySet()) {
+            for (Map.Entry<String, Long> counter : dimension.getValue().entrySet()) {
+                updates.put(RegionCounters.NODE + "/" + dimension.getKey() + "/" + counter.getKey(),
+                        ServerValue.increment(counter.getValue()));
+            }
+        }
+    }
+
+    DatabaseReference getRoot() {
+        return root;
+    }
+
+    /**
+     * Extrai os dados (nome, latitude, longitude, timestamp, usuário e forma) de um nó de região e cria o objeto Region correspondente.
+     *
+     * @return A região, ou null se o nó não tiver latitude ou longitude.
+     */
+    static Region toRegion(DataSnapshot childSnapshot) {
+        String name = childSnapshot.child("name").getValue(String.class);
+        Double latitude = childSnapshot.child("latitude").getValue(Double.class);
+        Double longitude = childSnapshot.child("longitude").getValue(Double.class);
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        Long timestamp = childSnapshot.child("timestamp").getValue(Long.class);
+        Long user = childSnapshot.child("user").getValue(Long.class);
+
+        Region region = new Region(name, latitude, longitude, timestamp, user == null ? 0 : Math.toIntExact(user));
+        region.setPolygon(childSnapshot.child("polygon").getValue(new GenericTypeIndicator<List<Double>>() {}));
+        region.setKey(childSnapshot.getKey());
+        return region;
+    }
+
+    // Acrescenta a região do nó à lista, ignorando os nós que não são regiões
+    static void addRegion(List<Region> lista, DataSnapshot childSnapshot) {
+        Region region = toRegion(childSnapshot);
+        if (region == null) {
+            Log.w(TAG, "Nó sem coordenadas ignorado: " + childSnapshot.getKey());
+            return;
+        }
+        lista.add(region);
+    }
+
+    // Executa as consultas em paralelo e entrega ao callback a união dos resultados, ou o cancelamento se alguma falhar
+    private static void fanOut(List<Query> queries, final ConsultaCallback callback) {
+        if (queries.isEmpty()) {
+            callback.onRegionsLoaded(new ArrayList<Region>());
+            return;
+        }
+        final List<Region> lista = Collections.synchronizedList(new ArrayList<Region>());
+        final AtomicInteger pending = new AtomicInteger(queries.size());
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        for (Query query : queries) {
+            query.addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    for (DataSnapshot childSnapshot : snapshot.getChildren()) {
+                        addRegion(lista, childSnapshot);
+                    }
+                    if (pending.decrementAndGet() == 0 && !cancelled.get()) {
+                        callback.onRegionsLoaded(new ArrayList<>(lista));
+                    }
+                }
+
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    Log.i(TAG, "Erro na leitura de um fragmento" + error);
+                    if (cancelled.compareAndSet(false, true)) {
+                        callback.onCancelled();
+                    }
+                }
+            });
+        }
+    }
+
+    private static void observe(Task<Void> task, final WriteCallback callback) {
+        task.addOnSuccessListener(unused -> callback.onSuccess())
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Falha na gravação das regiões: " + e.getMessage());
+                    callback.onFailure(e);
+                });
+    }
+}
@@ -0,0 +1,466 @@
+/**
+ * Implementação do RegionRepository sobre o Cloud Firestore, alternativa ao Realtime Database.
+ *
+ * Cada região é um documento da coleção "regioes" com os campos da região (a forma, se houver, no campo "polygon")
+ * e o geohash das suas coordenadas (precisão 9, células de ~5 m). As consultas por área são consultas de intervalo sobre o campo "geohash"
+ * (startAt no prefixo e endAt no prefixo seguido de um caractere alto do Unicode), uma por prefixo da cobertura
+ * do círculo, com a precisão escolhida para que a cobertura tenha no máximo MAX_RANGES prefixos.
+ * Todas as leituras são paginadas por cursor (startAfter no último documento da página), com páginas de tamanho
+ * limitado, e as gravações usam lotes (WriteBatch) de no máximo 500 operações, o limite do Firestore.
+ *
+ * Atomicidade: cada lote de 500 operações é atômico. Um saveAll de até MAX_ATOMIC_REGIONS regiões cabe em um único
+ * lote e é atômico; um maior que isso é gravado em vários lotes, que podem ser confirmados uns sem os outros. Por
+ * isso o envio em segundo plano (RegionUploadWorker) nunca entrega lotes maiores que MAX_ATOMIC_REGIONS. Uma região
+ * que já tem chave é gravada no documento com essa chave, então repetir uma gravação sobrescreve os mesmos
+ * documentos em vez de duplicá-los, e os contadores só são incrementados para os documentos que ainda não
+ * existiam. No arquivamento, a remoção de cada região e a sua gravação no arquivo ficam sempre no mesmo lote, de
+ * modo que nenhuma região fica duplicada ou perdida mesmo que um lote falhe.
+ *
+ * Os contadores agregados (RegionCounters) ficam no mapa "valores" dos documentos "contadores/{dimensão}". Cada
+ * lote reserva COUNTER_OPERATIONS operações para incrementar (FieldValue.increment) os contadores das suas próprias
+ * regiões novas, de modo que os contadores acompanham exatamente os lotes confirmados, mesmo quando outro lote falha.
+ *
+ * Principais funcionalidades:
+ * - Leitura paginada de todas as regiões e das regiões próximas de um ponto.
+ * - Leitura das regiões mais antigas, primeiro as sem timestamp e depois em ordem de timestamp.
+ * - Gravação e arquivamento em lotes de até 500 operações, com arquivo em "arquivo/{balde}/regioes/{chave}".
+ * - Transações sobre as reivindicações de uma célula, guardadas no campo "reivindicacoes" do documento "celulas/{célula}".
+ * - Leitura dos contadores de uma dimensão e substituição de todos os contadores, para reparo.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.Geohash;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FirestoreRegionRepository implements RegionRepository {
+    private static final String TAG = "FirestoreRegionRepo";
+    static final String REGIONS_COLLECTION = "regioes";
+    static final String ARCHIVE_COLLECTION = "arquivo";
+    static final String CLAIMS_FIELD = "reivindicacoes";
+    static final String COUNTERS_FIELD = "valores";
+    static final int GEOHASH_PRECISION = 9;
+    static final int MAX_BATCH_OPERATIONS = 500; // Limite de operações de um WriteBatch do Firestore
+    static final int COUNTER_OPERATIONS = RegionCounters.DIMENSIONS.length; // Um documento de contadores por dimensão
+    public static final int MAX_ATOMIC_REGIONS = MAX_BATCH_OPERATIONS - COUNTER_OPERATIONS; // Regiões de um saveAll atômico
+    static final int MAX_RANGES = 9; // Máximo de consultas de intervalo de geohash por consulta de área
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    private final FirebaseFirestore firestore;
+    private final CollectionReference regioes;
+    private final int pageSize;
+
+    public FirestoreRegionRepository(FirebaseFirestore firestore) {
+        this(firestore, DEFAULT_PAGE_SIZE);
+    }
+
+    public FirestoreRegionRepository(FirebaseFirestore firestore, int pageSize) {
+        this.firestore = firestore;
+        this.regioes = firestore.collection(REGIONS_COLLECTION);
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void loadAll(ConsultaCallback callback) {
+        List<Query> queries = new ArrayList<>();
+        queries.add(regioes.orderBy(FieldPath.documentId()));
+        fanOut(queries, Integer.MAX_VALUE, callback);
+    }
+
+    /**
+     * Consulta os intervalos de geohash que cobrem o círculo, em paralelo, cada um paginado.
+     */
+    @Override
+    public void loadNear(double latitude, double longitude, double radiusMeters, ConsultaCallback callback) {
+        List<Query> queries = new ArrayList<>();
+        for (String prefix : rangesFor(latitude, longitude, radiusMeters)) {
+            queries.add(regioes.orderBy("geohash").startAt(prefix).endAt(prefix + "\uf8ff"));
+        }
+        fanOut(queries, Integer.MAX_VALUE, callback);
+    }
+
+    /**
+     * Consulta primeiro as regiões sem timestamp (que as consultas de desigualdade do Firestore não incluem) e,
+     * se o lote não se completar, as regiões com timestamp anterior ao corte, em ordem crescente.
+     */
+    @Override
+    public void loadOlderThan(final long cutoff, final int limit, final ConsultaCallback callback) {
+        List<Query> undated = new ArrayList<>();
+        undated.add(regioes.whereEqualTo("timestamp", null).orderBy(FieldPath.documentId()));
+        fanOut(undated, limit, new ConsultaCallback() {
+            @Override
+            public void onRegionsLoaded(final List<Region> withoutTimestamp) {
+                if (withoutTimestamp.size() >= limit) {
+                    callback.onRegionsLoaded(withoutTimestamp);
+                    return;
+                }
+                List<Query> dated = new ArrayList<>();
+                dated.add(regioes.whereLessThan("timestamp", cutoff).orderBy("timestamp"));
+                fanOut(dated, limit - withoutTimestamp.size(), new ConsultaCallback() {
+                    @Override
+                    public void onRegionsLoaded(List<Region> regions) {
+                        List<Region> lista = new ArrayList<>(withoutTimestamp);
+                        lista.addAll(regions);
+                        callback.onRegionsLoaded(lista);
+                    }
+
+                    @Override
+                    public void onCancelled() {
+                        callback.onCancelled();
+                    }
+                });
+            }
+
+            @Override
+            public void onCancelled() {
+                callback.onCancelled();
+            }
+        });
+    }
+
+    /**
+     * Executa a transação com runTransaction sobre o documento da célula. O Firestore repete a função se o documento
+     * for alterado por outra gravação antes da confirmação; a transação devolve se houve gravação, em vez de lançar
+     * uma exceção, para que o aborto não seja confundido com uma falha.
+     */
+    @Override
+    public void transactCell(final String cellKey, final CellTransaction transaction) {
+        final DocumentReference document = firestore.collection(RegionClaims.CELLS_NODE).document(cellKey);
+        firestore.runTransaction(tx -> {
+            Map<String, CellClaim> updated = transaction.apply(toClaims(tx.get(document)));
+            if (updated == null) {
+                return false;
+            }
+            if (updated.isEmpty()) {
+                tx.delete(document);
+            } else {
+                tx.set(document, Collections.singletonMap(CLAIMS_FIELD, toClaimDocuments(updated)));
+            }
+            return true;
+        }).addOnSuccessListener(committed -> {
+            if (committed) {
+                transaction.onCommitted();
+            } else {
+                transaction.onAborted();
+            }
+        }).addOnFailureListener(e -> {
+            Log.e(TAG, "Falha na transação da célula " + cellKey + ": " + e.getMessage());
+            transaction.onFailure(e);
+        });
+    }
+
+    @Override
+    public String newKey() {
+        return regioes.document().getId(); // Gerado no cliente, sem acesso à rede
+    }
+
+    @Override
+    public void save(Region region, WriteCallback callback) {
+        List<Region> lote = new ArrayList<>(1);
+        lote.add(region);
+        saveAll(lote, callback);
+    }
+
+    /**
+     * Grava em lotes de até 500 operações; cada lote incrementa os contadores das regiões novas que grava.
+     * As regiões sem chave recebem o identificador de um novo documento e são novas; as demais são gravadas na
+     * própria chave, e antes da gravação os seus documentos são lidos para que uma região já gravada (o reenvio de
+     * um lote cuja confirmação se perdeu) não seja contada de novo. A leitura inclui as gravações ainda pendentes
+     * deste cliente.
+     */
+    @Override
+    public void saveAll(final List<Region> regions, final WriteCallback callback) {
+        List<Task<DocumentSnapshot>> reads = new ArrayList<>();
+        for (Region region : regions) {
+            if (region.getKey() == null) {
+                region.setKey(regioes.document().getId());
+            } else {
+                reads.add(regioes.document(region.getKey()).get());
+            }
+        }
+        Tasks.whenAllSuccess(reads).addOnSuccessListener(documents -> {
+            Map<String, Boolean> stored = new HashMap<>();
+            for (Object document : documents) {
+                stored.put(((DocumentSnapshot) document).getId(), ((DocumentSnapshot) document).exists());
+            }
+            List<WriteBatch> batches = new ArrayList<>();
+            for (int from = 0; from < regions.size(); from += MAX_ATOMIC_REGIONS) {
+                List<Region> chunk = regions.subList(from, Math.min(regions.size(), from + MAX_ATOMIC_REGIONS));
+                List<Region> added = new ArrayList<>(chunk.size());
+                WriteBatch batch = firestore.batch();
+                for (Region region : chunk) {
+                    batch.set(regioes.document(region.getKey()), toDocument(region));
+                    if (!Boolean.TRUE.equals(stored.get(region.getKey()))) {
+                        added.add(region);
+                    }
+                }
+                putCounters(batch, RegionCounters.deltas(added, 1));
+                batches.add(batch);
+            }
+            commit(batches, callback);
+        }).addOnFailureListener(e -> {
+            Log.e(TAG, "Falha na leitura das regiões do lote: " + e.getMessage());
+            callback.onFailure(e);
+        });
+    }
+
+    @Override
+    public void loadCounters(String dimension, final CountersCallback callback) {
+        firestore.collection(RegionCounters.NODE).document(dimension).get()
+                .addOnSuccessListener(document -> callback.onCountersLoaded(toCounters(document)))
+                .addOnFailureListener(e -> {
+                    Log.i(TAG, "Erro na leitura dos contadores: " + e.getMessage());
+                    callback.onCancelled();
+                });
+    }
+
+    /**
+     * Regrava o mapa "valores" de todos os documentos de contadores em um único lote; as dimensões ausentes de
+     * counters ficam vazias.
+     */
+    @Override
+    public void replaceCounters(Map<String, Map<String, Long>> counters, WriteCallback callback) {
+        WriteBatch batch = firestore.batch();
+        for (String dimension : RegionCounters.DIMENSIONS) {
+            Map<String, Long> values = counters.get(dimension);
+            batch.set(firestore.collection(RegionCounters.NODE).document(dimension), Collections.singletonMap(
+                    COUNTERS_FIELD, values == null ? Collections.<String, Long>emptyMap() : values));
+        }
+        commit(Collections.singletonList(batch), callback);
+    }
+
+    /**
+     * Arquiva em lotes de até 500 operações, mantendo a remoção e a gravação de cada região no mesmo lote, junto
+     * com o decremento dos contadores das regiões removidas pelo lote.
+     */
+    @Override
+    public void archive(Map<String, List<Region>> archived, List<Region> removed, WriteCallback callback) {
+        Map<String, String> bucketOfKey = new HashMap<>();
+        Map<String, Region> archivedByKey = new HashMap<>();
+        for (Map.Entry<String, List<Region>> bucket : archived.entrySet()) {
+            for (Region region : bucket.getValue()) {
+                bucketOfKey.put(region.getKey(), bucket.getKey());
+                archivedByKey.put(region.getKey(), region);
+            }
+        }
+
+        List<WriteBatch> batches = new ArrayList<>();
+        List<List<Region>> removedByBatch = new ArrayList<>();
+        WriteBatch batch = null;
+        int operations = 0;
+        for (Region region : removed) {
+            String bucket = bucketOfKey.get(region.getKey());
+            int needed = bucket == null ? 1 : 2;
+            if (batch == null || operations + needed > MAX_BATCH_OPERATIONS - COUNTER_OPERATIONS) {
+                batch = firestore.batch();
+                batches.add(batch);
+                removedByBatch.add(new ArrayList<Region>());
+                operations = 0;
+            }
+            removedByBatch.get(removedByBatch.size() - 1).add(region);
+            batch.delete(regioes.document(region.getKey()));
+            if (bucket != null) {
+                DocumentReference target = firestore.collection(ARCHIVE_COLLECTION).document(bucket)
+                        .collection(REGIONS_COLLECTION).document(region.getKey());
+                batch.set(target, toDocument(archivedByKey.get(region.getKey())));
+            }
+            operations += needed;
+        }
+        for (int i = 0; i < batches.size(); i++) {
+            putCounters(batches.get(i), RegionCounters.deltas(removedByBatch.get(i), -1));
+        }
+        commit(batches, callback);
+    }
+
+    // Escolhe a maior precisão de geohash cuja cobertura do círculo não passa de MAX_RANGES prefixos
+    static List<String> rangesFor(double latitude, double longitude, double radiusMeters) {
+        List<String> ranges = Collections.singletonList(""); // Sem prefixo: a coleção inteira
+        for (int precision = 1; precision <= GEOHASH_PRECISION; precision++) {
+            List<String> cover = Geohash.cover(latitude, longitude, radiusMeters, precision);
+            if (cover.size() > MAX_RANGES) {
+                break;
+            }
+            ranges = cover;
+        }
+        return ranges;
+    }
+
+    // Uma gravação com mesclagem por dimensão, incrementando apenas as chaves do lote no mapa "valores"
+    private void putCounters(WriteBatch batch, Map<String, Map<String, Long>> deltas) {
+        for (Map.Entry<String, Map<String, Long>> dimension : deltas.entrySet()) {
+            Map<String, Object> increments = new HashMap<>();
+            for (Map.Entry<String, Long> counter : dimension.getValue().entrySet()) {
+                increments.put(counter.getKey(), FieldValue.increment(counter.getValue()));
+            }
+            batch.set(firestore.collection(RegionCounters.NODE).document(dimension.getKey()),
+                    Collections.singletonMap(COUNTERS_FIELD, increments), SetOptions.merge());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Long> toCounters(DocumentSnapshot document) {
+        Map<String, Long> counters = new HashMap<>();
+        Object field = document.get(COUNTERS_FIELD);
+        if (field instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) field).entrySet()) {
+                long value = ((Number) entry.getValue()).longValue();
+                if (value != 0) {
+                    counters.put(entry.getKey(), value);
+                }
+            }
+        }
+        return counters;
+    }
+
+    static Map<String, Object> toDocument(Region region) {
+        Map<String, Object> document = new HashMap<>();
+        document.put("name", region.getName());
+        document.put("latitude", region.getLatitude());
+        document.put("longitude", region.getLongitude());
+        document.put("timestamp", region.getTimestamp());
+        document.put("user", region.getuser());
+        document.put("geohash", Geohash.encode(region.getLatitude(), region.getLongitude(), GEOHASH_PRECISION));
+        if (region.getPolygon() != null) {
+            document.put("polygon", region.getPolygon());
+        }
+        return document;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, CellClaim> toClaims(DocumentSnapshot document) {
+        Map<String, CellClaim> claims = new HashMap<>();
+        Object field = document.get(CLAIMS_FIELD);
+        if (field instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) field).entrySet()) {
+                Map<String, Object> claim = (Map<String, Object>) entry.getValue();
+                Number expiresAt = (Number) claim.get("expiresAt");
+                claims.put(entry.getKey(), new CellClaim((String) claim.get("name"),
+                        ((Number) claim.get("latitude")).doubleValue(), ((Number) claim.get("longitude")).doubleValue(),
+                        expiresAt == null ? null : expiresAt.longValue()));
+            }
+        }
+        return claims;
+    }
+
+    static Map<String, Object> toClaimDocuments(Map<String, CellClaim> claims) {
+        Map<String, Object> documents = new HashMap<>();
+        for (Map.Entry<String, CellClaim> entry : claims.entrySet()) {
+            Map<String, Object> claim = new HashMap<>();
+            claim.put("name", entry.getValue().getName());
+            claim.put("latitude", entry.getValue().getLatitude());
+            claim.put("longitude", entry.getValue().getLongitude());
+            if (entry.getValue().getExpiresAt() != null) {
+                claim.put("expiresAt", entry.getValue().getExpiresAt());
+            }
+            documents.put(entry.getKey(), claim);
+        }
+        return documents;
+    }
+
+    static Region toRegion(DocumentSnapshot document) {
+        Double latitude = document.getDouble("latitude");
+        Double longitude = document.getDouble("longitude");
+        Long user = document.getLong("user");
+        Region region = new Region(document.getString("name"), latitude == null ? 0 : latitude, longitude == null ? 0 : longitude,
+                document.getLong("timestamp"), user == null ? 0 : Math.toIntExact(user));
+        Object polygon = document.get("polygon");
+        if (polygon instanceof List) {
+            List<Double> coordinates = new ArrayList<>();
+            for (Object coordinate : (List<?>) polygon) {
+                coordinates.add(((Number) coordinate).doubleValue());
+            }
+            region.setPolygon(coordinates);
+        }
+        region.setKey(document.getId());
+        return region;
+    }
+
+    // Executa as consultas em paralelo, cada uma paginada até o fim ou até limit documentos, e entrega a união ao callback
+    private void fanOut(final List<Query> queries, int limit, final ConsultaCallback callback) {
+        final long start = System.nanoTime();
+        final List<Region> lista = Collections.synchronizedList(new ArrayList<Region>());
+        final AtomicInteger pending = new AtomicInteger(queries.size());
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        for (Query query : queries) {
+            fetchPage(query, null, limit, lista, new Runnable() {
+                @Override
+                public void run() {
+                    if (pending.decrementAndGet() == 0 && !cancelled.get()) {
+                        // Documentos lidos (o custo cobrado pelo Firestore) e latência total, para comparar com o Realtime Database
+                        Log.d(TAG, "Consulta: " + lista.size() + " documentos em " + queries.size() + " intervalos, "
+                                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                        callback.onRegionsLoaded(new ArrayList<>(lista));
+                    }
+                }
+            }, new Runnable() {
+                @Override
+                public void run() {
+                    if (cancelled.compareAndSet(false, true)) {
+                        callback.onCancelled();
+                    }
+                }
+            });
+        }
+    }
+
+    // Lê uma página a partir do cursor e agenda a próxima, até uma página incompleta ou até completar remaining documentos
+    private void fetchPage(final Query query, DocumentSnapshot cursor, final int remaining, final List<Region> lista,
+                           final Runnable onDone, final Runnable onError) {
+        final int size = Math.min(pageSize, remaining);
+        Query page = cursor == null ? query.limit(size) : query.startAfter(cursor).limit(size);
+        page.get().addOnSuccessListener(snapshot -> {
+            List<DocumentSnapshot> documents = snapshot.getDocuments();
+            for (DocumentSnapshot document : documents) {
+                lista.add(toRegion(document));
+            }
+            if (documents.size() < size || documents.size() == remaining) {
+                onDone.run();
+            } else {
+                fetchPage(query, documents.get(documents.size() - 1), remaining - documents.size(), lista, onDone, onError);
+            }
+        }).addOnFailureListener(e -> {
+            Log.i(TAG, "Erro na leitura das regiões: " + e.getMessage());
+            onError.run();
+        });
+    }
+
+    private static void commit(List<WriteBatch> batches, final WriteCallback callback) {
+        List<Task<Void>> tasks = new ArrayList<>(batches.size());
+        for (WriteBatch batch : batches) {
+            tasks.add(batch.commit());
+        }
+        Tasks.whenAll(tasks)
+                .addOnSuccessListener(unused -> callback.onSuccess())
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Falha na gravação das regiões: " + e.getMessage());
+                    callback.onFailure(e);
+                });
+    }
+}
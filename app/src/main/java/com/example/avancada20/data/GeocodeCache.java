@@ -0,0 +1,72 @@
+/**
+ * Cache dos nomes obtidos por geocodificação reversa, indexado pela célula da grade das coordenadas.
+ *
+ * Todas as coordenadas de uma célula de CELL_SIZE metros compartilham o nome resolvido para um ponto da célula, de
+ * modo que um nome buscado antecipadamente serve para qualquer posição próxima. Quando o cache atinge a capacidade,
+ * a célula usada há mais tempo é descartada (LRU).
+ *
+ * Os métodos são sincronizados.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import com.example.calculos.GeoGrid;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class GeocodeCache {
+    public static final double CELL_SIZE = 50; // Tamanho das células, em metros
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private final GeoGrid grid = new GeoGrid(CELL_SIZE);
+    private final Map<Long, String> names;
+
+    public GeocodeCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public GeocodeCache(final int capacity) {
+        names = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public long cellOf(double latitude, double longitude) {
+        return grid.cellOf(latitude, longitude);
+    }
+
+    /**
+     * @return O nome da célula das coordenadas, ou null se ainda não foi resolvido.
+     */
+    public String get(double latitude, double longitude) {
+        return get(cellOf(latitude, longitude));
+    }
+
+    public synchronized String get(long cell) {
+        return names.get(cell);
+    }
+
+    public synchronized boolean contains(long cell) {
+        return names.containsKey(cell);
+    }
+
+    public synchronized void put(long cell, String name) {
+        names.put(cell, name);
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+
+    public synchronized void clear() {
+        names.clear();
+    }
+}
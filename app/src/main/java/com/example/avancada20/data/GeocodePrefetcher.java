@@ -0,0 +1,238 @@
+/**
+ * Busca antecipada, em segundo plano, dos nomes das células ao redor da posição atual e à frente do deslocamento.
+ *
+ * A cada posição recebida (onLocation(), na thread das atualizações de localização), o prefetcher calcula os alvos: a
+ * célula do GeocodeCache que contém a posição e as LOOKAHEAD_CELLS células seguintes na direção do deslocamento,
+ * estimada a partir da última posição distante pelo menos MIN_HEADING_DISTANCE metros. Os alvos ainda não resolvidos
+ * substituem a fila anterior, de modo que as buscas pendentes de células que o dispositivo já deixou para trás são
+ * canceladas. Uma thread de baixa prioridade consome a fila com no máximo uma consulta ao geocodificador a cada
+ * intervalMillis, contando também as consultas feitas por resolve().
+ *
+ * Ao salvar uma região, resolve() devolve o nome do cache quando a célula já foi resolvida e só consulta o
+ * geocodificador, na thread chamadora, quando não foi. As quantidades de acertos e falhas do cache ficam registradas.
+ *
+ * Principais funcionalidades:
+ * - Cálculo das células-alvo a partir da posição e da direção do deslocamento.
+ * - Fila de buscas substituída a cada posição, com cancelamento das buscas que deixaram de ser alvos.
+ * - Limite de taxa das consultas ao geocodificador, com relógio substituível nos testes.
+ * - Resolução de um nome pelo cache, com consulta direta quando necessário.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import com.example.calculos.GeoCalculator;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+public class GeocodePrefetcher {
+    private static final String TAG = "GeocodePrefetcher";
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000; // No máximo uma consulta por segundo
+    static final int LOOKAHEAD_CELLS = 3;
+    static final double MIN_HEADING_DISTANCE = 5; // Deslocamento mínimo para estimar a direção, em metros
+    private static final double METERS_PER_DEGREE = 111195;
+
+    private final ReverseGeocoder geocoder;
+    private final GeocodeCache cache;
+    private final ScheduledExecutorService executor;
+    private final long intervalMillis;
+    private final LongSupplier clock;
+    private final GeoCalculator calculator = new GeoCalculator();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger prefetched = new AtomicInteger();
+
+    // Protegidos pelo monitor do objeto
+    private final LinkedHashMap<Long, double[]> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+    private long inFlight = Long.MIN_VALUE; // Célula sendo consultada pela thread de busca
+    private long lastRequestMillis;
+    private boolean requested;
+    private double[] anchor; // Última posição usada para estimar a direção
+    private double heading = Double.NaN; // Direção do deslocamento, em radianos a partir do norte
+
+    public GeocodePrefetcher(ReverseGeocoder geocoder) {
+        this(geocoder, new GeocodeCache(), Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, TAG);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setDaemon(true);
+            return thread;
+        }), DEFAULT_INTERVAL_MILLIS, System::currentTimeMillis);
+    }
+
+    public GeocodePrefetcher(ReverseGeocoder geocoder, GeocodeCache cache, ScheduledExecutorService executor,
+                             long intervalMillis, LongSupplier clock) {
+        this.geocoder = geocoder;
+        this.cache = cache;
+        this.executor = executor;
+        this.intervalMillis = intervalMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Recebe uma nova posição e substitui a fila de buscas pelas células-alvo ainda não resolvidas.
+     */
+    public void onLocation(double latitude, double longitude) {
+        synchronized (this) {
+            updateHeading(latitude, longitude);
+            pending.clear(); // Cancela as buscas das células que deixaram de ser alvos
+            addTarget(latitude, longitude);
+            if (!Double.isNaN(heading)) {
+                for (int k = 1; k <= LOOKAHEAD_CELLS; k++) {
+                    double distance = k * GeocodeCache.CELL_SIZE;
+                    double targetLatitude = latitude + distance * Math.cos(heading) / METERS_PER_DEGREE;
+                    double targetLongitude = longitude + distance * Math.sin(heading)
+                            / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+                    addTarget(targetLatitude, targetLongitude);
+                }
+            }
+            if (pending.isEmpty() || scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        executor.execute(this::pump);
+    }
+
+    /**
+     * Obtém o nome do lugar nas coordenadas: do cache, se a célula já foi resolvida, ou do geocodificador, na thread
+     * chamadora. Bloqueia a thread chamadora no segundo caso.
+     *
+     * @return O nome do lugar, ou null se não puder ser obtido.
+     */
+    public String resolve(double latitude, double longitude) {
+        long cell = cache.cellOf(latitude, longitude);
+        String name = cache.get(cell);
+        if (name != null) {
+            hits.incrementAndGet();
+            return name;
+        }
+        misses.incrementAndGet();
+        synchronized (this) {
+            markRequest();
+        }
+        try {
+            name = geocoder.reverseGeocode(latitude, longitude);
+            if (name != null) {
+                cache.put(cell, name);
+            }
+            return name;
+        } catch (IOException e) {
+            Log.e(TAG, "Erro ao obter o endereço a partir das coordenadas: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Cancela as buscas pendentes e esquece a direção do deslocamento (por exemplo, quando as atualizações param).
+     */
+    public synchronized void cancel() {
+        pending.clear();
+        anchor = null;
+        heading = Double.NaN;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public GeocodeCache getCache() {
+        return cache;
+    }
+
+    public int getHitCount() {
+        return hits.get();
+    }
+
+    public int getMissCount() {
+        return misses.get();
+    }
+
+    public int getPrefetchedCount() {
+        return prefetched.get();
+    }
+
+    // Consome a fila, uma célula por vez, respeitando o intervalo mínimo entre as consultas
+    private void pump() {
+        long cell;
+        double[] point;
+        synchronized (this) {
+            Map.Entry<Long, double[]> next = null;
+            for (Iterator<Map.Entry<Long, double[]>> it = pending.entrySet().iterator(); it.hasNext() && next == null; ) {
+                Map.Entry<Long, double[]> entry = it.next();
+                if (cache.contains(entry.getKey())) {
+                    it.remove(); // Resolvida por resolve() enquanto esperava
+                } else {
+                    next = entry;
+                }
+            }
+            if (next == null) {
+                scheduled = false;
+                return;
+            }
+            long wait = requested ? lastRequestMillis + intervalMillis - clock.getAsLong() : 0;
+            if (wait > 0) {
+                executor.schedule(this::pump, wait, TimeUnit.MILLISECONDS);
+                return;
+            }
+            pending.remove(next.getKey());
+            cell = next.getKey();
+            point = next.getValue();
+            inFlight = cell;
+            markRequest();
+        }
+        try {
+            String name = geocoder.reverseGeocode(point[0], point[1]);
+            if (name != null) {
+                cache.put(cell, name);
+                prefetched.incrementAndGet();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Falha na busca antecipada do endereço: " + e.getMessage());
+        }
+        synchronized (this) {
+            inFlight = Long.MIN_VALUE;
+        }
+        executor.execute(this::pump);
+    }
+
+    private void markRequest() {
+        lastRequestMillis = clock.getAsLong();
+        requested = true;
+    }
+
+    private void addTarget(double latitude, double longitude) {
+        long cell = cache.cellOf(latitude, longitude);
+        if (cell != inFlight && !pending.containsKey(cell) && !cache.contains(cell)) {
+            pending.put(cell, new double[]{latitude, longitude});
+        }
+    }
+
+    // Atualiza a direção quando a posição se afasta o suficiente da âncora, para que o ruído do GPS parado não a altere
+    private void updateHeading(double latitude, double longitude) {
+        if (anchor == null) {
+            anchor = new double[]{latitude, longitude};
+            return;
+        }
+        if (calculator.calculateDistance(anchor[0], anchor[1], latitude, longitude) < MIN_HEADING_DISTANCE) {
+            return;
+        }
+        double dNorth = (latitude - anchor[0]) * METERS_PER_DEGREE;
+        double dEast = (longitude - anchor[1]) * METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        heading = Math.atan2(dEast, dNorth);
+        anchor = new double[]{latitude, longitude};
+    }
+}
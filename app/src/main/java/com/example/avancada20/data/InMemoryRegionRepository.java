@@ -0,0 +1,364 @@
+/**
+ * Implementação do RegionRepository em memória, usada nos testes e na bancada de carga.
+ *
+ * Simula o comportamento assíncrono do Firebase: os callbacks são executados em um pool de threads próprio,
+ * após uma latência sorteada em um intervalo configurável, e cada operação pode falhar com uma probabilidade
+ * configurável. As regiões entregues e gravadas são cópias, como aconteceria com um backend remoto.
+ *
+ * Principais funcionalidades:
+ * - Armazenamento das regiões em um mapa concorrente ordenado pela chave.
+ * - Geração de chaves numéricas crescentes, com zeros à esquerda para manter a ordem lexicográfica.
+ * - Injeção de latência e de falhas nas leituras e gravações.
+ * - Consulta por área com a mesma semântica dos fragmentos do Firebase (todas as regiões dos fragmentos que cobrem a área).
+ * - Consulta das regiões mais antigas e arquivamento em baldes, também em memória.
+ * - Transações sobre as reivindicações das células, serializadas por um bloqueio único.
+ * - Contadores agregados atualizados com o mesmo bloqueio das gravações e dos arquivamentos, que os tornam atômicos.
+ * - Acesso síncrono ao conteúdo armazenado (snapshot() e archiveSnapshot()) para verificações.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InMemoryRegionRepository implements RegionRepository {
+    private final ConcurrentSkipListMap<String, Region> regions = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Map<String, Region>> archive = new ConcurrentSkipListMap<>();
+    private final Map<String, Map<String, CellClaim>> cells = new HashMap<>();
+    private final Map<String, Map<String, Long>> counters = new HashMap<>();
+    private final AtomicLong nextKey = new AtomicLong();
+    private final ScheduledExecutorService executor;
+    private final RegionShards shards = new RegionShards();
+
+    private volatile long minLatencyMicros = 0;
+    private volatile long maxLatencyMicros = 0;
+    private volatile double readFailureRate = 0;
+    private volatile double writeFailureRate = 0;
+
+    public InMemoryRegionRepository() {
+        this(4);
+    }
+
+    public InMemoryRegionRepository(int threads) {
+        executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "InMemoryRegionRepository");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Define o intervalo da latência simulada de cada operação.
+     */
+    public void setLatency(long min, long max, TimeUnit unit) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Intervalo de latência inválido: " + min + ".." + max);
+        }
+        minLatencyMicros = unit.toMicros(min);
+        maxLatencyMicros = unit.toMicros(max);
+    }
+
+    /**
+     * Define a probabilidade (entre 0 e 1) de uma leitura ser cancelada e de uma gravação falhar.
+     */
+    public void setFailureRates(double readFailureRate, double writeFailureRate) {
+        this.readFailureRate = readFailureRate;
+        this.writeFailureRate = writeFailureRate;
+    }
+
+    @Override
+    public void loadAll(final ConsultaCallback callback) {
+        schedule(() -> {
+            if (fails(readFailureRate)) {
+                callback.onCancelled();
+                return;
+            }
+            List<Region> lista = new ArrayList<>(regions.size());
+            for (Map.Entry<String, Region> entry : regions.entrySet()) {
+                lista.add(copyOf(entry.getKey(), entry.getValue()));
+            }
+            callback.onRegionsLoaded(lista);
+        });
+    }
+
+    @Override
+    public void loadNear(double latitude, double longitude, double radiusMeters, final ConsultaCallback callback) {
+        final Set<String> cover = new HashSet<>(shards.cover(latitude, longitude, radiusMeters));
+        schedule(() -> {
+            if (fails(readFailureRate)) {
+                callback.onCancelled();
+                return;
+            }
+            List<Region> lista = new ArrayList<>();
+            for (Map.Entry<String, Region> entry : regions.entrySet()) {
+                if (cover.contains(shards.shardOf(entry.getValue()))) {
+                    lista.add(copyOf(entry.getKey(), entry.getValue()));
+                }
+            }
+            callback.onRegionsLoaded(lista);
+        });
+    }
+
+    @Override
+    public void save(Region region, WriteCallback callback) {
+        List<Region> lote = new ArrayList<>(1);
+        lote.add(region);
+        saveAll(lote, callback);
+    }
+
+    @Override
+    public void saveAll(List<Region> lote, final WriteCallback callback) {
+        // As chaves que faltam são atribuídas imediatamente, como o push() do Firebase, e os dados são copiados no momento da chamada
+        final Map<String, Region> updates = new LinkedHashMap<>();
+        for (Region region : lote) {
+            String key = region.getKey() != null ? region.getKey() : newKey();
+            region.setKey(key);
+            updates.put(key, copyOf(key, region));
+        }
+        schedule(() -> {
+            if (fails(writeFailureRate)) {
+                callback.onFailure(new IOException("Falha de gravação simulada"));
+                return;
+            }
+            synchronized (counters) {
+                // Só as chaves novas entram nos contadores: o reenvio de um lote já gravado não os incrementa de novo
+                List<Region> added = new ArrayList<>(updates.size());
+                for (Map.Entry<String, Region> update : updates.entrySet()) {
+                    if (!regions.containsKey(update.getKey())) {
+                        added.add(update.getValue());
+                    }
+                }
+                regions.putAll(updates);
+                RegionCounters.apply(counters, RegionCounters.deltas(added, 1));
+            }
+            callback.onSuccess();
+        });
+    }
+
+    @Override
+    public void loadOlderThan(final long cutoff, final int limit, final ConsultaCallback callback) {
+        schedule(() -> {
+            if (fails(readFailureRate)) {
+                callback.onCancelled();
+                return;
+            }
+            // Mesma ordem da consulta ordenada do Firebase: sem timestamp primeiro, depois por timestamp e pela chave
+            List<Region> lista = new ArrayList<>();
+            for (Map.Entry<String, Region> entry : regions.entrySet()) {
+                Long timestamp = entry.getValue().getTimestamp();
+                if (timestamp == null || timestamp < cutoff) {
+                    lista.add(copyOf(entry.getKey(), entry.getValue()));
+                }
+            }
+            Collections.sort(lista, Comparator.comparing(Region::getTimestamp, Comparator.nullsFirst(Comparator.<Long>naturalOrder())));
+            callback.onRegionsLoaded(new ArrayList<>(lista.subList(0, Math.min(limit, lista.size()))));
+        });
+    }
+
+    @Override
+    public void archive(Map<String, List<Region>> archived, List<Region> removed, final WriteCallback callback) {
+        final List<String> removedKeys = new ArrayList<>(removed.size());
+        for (Region region : removed) {
+            removedKeys.add(region.getKey());
+        }
+        final Map<String, Map<String, Region>> updates = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Region>> bucket : archived.entrySet()) {
+            Map<String, Region> entries = new LinkedHashMap<>();
+            for (Region region : bucket.getValue()) {
+                entries.put(region.getKey(), copyOf(region.getKey(), region));
+            }
+            updates.put(bucket.getKey(), entries);
+        }
+        final Map<String, Map<String, Long>> deltas = RegionCounters.deltas(removed, -1);
+        schedule(() -> {
+            if (fails(writeFailureRate)) {
+                callback.onFailure(new IOException("Falha de gravação simulada"));
+                return;
+            }
+            synchronized (archive) {
+                for (Map.Entry<String, Map<String, Region>> bucket : updates.entrySet()) {
+                    Map<String, Region> entries = archive.get(bucket.getKey());
+                    if (entries == null) {
+                        entries = new ConcurrentSkipListMap<>();
+                        archive.put(bucket.getKey(), entries);
+                    }
+                    entries.putAll(bucket.getValue());
+                }
+                synchronized (counters) {
+                    for (String key : removedKeys) {
+                        regions.remove(key);
+                    }
+                    RegionCounters.apply(counters, deltas);
+                }
+            }
+            callback.onSuccess();
+        });
+    }
+
+    /**
+     * Aplica a transação às reivindicações da célula com o bloqueio das células, de modo que as transações nunca
+     * se intercalam e a função é chamada uma única vez. A transação pode falhar com a probabilidade de falha das gravações.
+     */
+    @Override
+    public void transactCell(final String cellKey, final CellTransaction transaction) {
+        schedule(() -> {
+            if (fails(writeFailureRate)) {
+                transaction.onFailure(new IOException("Falha de gravação simulada"));
+                return;
+            }
+            boolean committed;
+            synchronized (cells) {
+                Map<String, CellClaim> updated = transaction.apply(copyOf(cells.get(cellKey)));
+                committed = updated != null;
+                if (committed) {
+                    if (updated.isEmpty()) {
+                        cells.remove(cellKey);
+                    } else {
+                        cells.put(cellKey, copyOf(updated));
+                    }
+                }
+            }
+            if (committed) {
+                transaction.onCommitted();
+            } else {
+                transaction.onAborted();
+            }
+        });
+    }
+
+    @Override
+    public void loadCounters(final String dimension, final CountersCallback callback) {
+        schedule(() -> {
+            if (fails(readFailureRate)) {
+                callback.onCancelled();
+                return;
+            }
+            Map<String, Long> copy = new HashMap<>();
+            synchronized (counters) {
+                Map<String, Long> values = counters.get(dimension);
+                if (values != null) {
+                    copy.putAll(values);
+                }
+            }
+            callback.onCountersLoaded(copy);
+        });
+    }
+
+    @Override
+    public void replaceCounters(Map<String, Map<String, Long>> replacement, final WriteCallback callback) {
+        final Map<String, Map<String, Long>> copy = new HashMap<>();
+        RegionCounters.apply(copy, replacement);
+        schedule(() -> {
+            if (fails(writeFailureRate)) {
+                callback.onFailure(new IOException("Falha de gravação simulada"));
+                return;
+            }
+            synchronized (counters) {
+                counters.clear();
+                counters.putAll(copy);
+            }
+            callback.onSuccess();
+        });
+    }
+
+    /**
+     * Retorna uma cópia síncrona das reivindicações de cada célula, indexadas pelo identificador.
+     */
+    public Map<String, Map<String, CellClaim>> cellsSnapshot() {
+        Map<String, Map<String, CellClaim>> copy = new LinkedHashMap<>();
+        synchronized (cells) {
+            for (Map.Entry<String, Map<String, CellClaim>> cell : cells.entrySet()) {
+                copy.put(cell.getKey(), copyOf(cell.getValue()));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Retorna uma cópia síncrona das regiões armazenadas, indexadas pela chave.
+     */
+    public Map<String, Region> snapshot() {
+        Map<String, Region> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, Region> entry : regions.entrySet()) {
+            copy.put(entry.getKey(), copyOf(entry.getKey(), entry.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * Retorna uma cópia síncrona dos baldes de arquivo, com as regiões de cada balde indexadas pela chave.
+     */
+    public Map<String, Map<String, Region>> archiveSnapshot() {
+        Map<String, Map<String, Region>> copy = new LinkedHashMap<>();
+        synchronized (archive) {
+            for (Map.Entry<String, Map<String, Region>> bucket : archive.entrySet()) {
+                Map<String, Region> entries = new LinkedHashMap<>();
+                for (Map.Entry<String, Region> entry : bucket.getValue().entrySet()) {
+                    entries.put(entry.getKey(), copyOf(entry.getKey(), entry.getValue()));
+                }
+                copy.put(bucket.getKey(), entries);
+            }
+        }
+        return copy;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String newKey() {
+        return String.format("%012d", nextKey.getAndIncrement());
+    }
+
+    private void schedule(Runnable operation) {
+        long latency = maxLatencyMicros > minLatencyMicros
+                ? ThreadLocalRandom.current().nextLong(minLatencyMicros, maxLatencyMicros + 1)
+                : minLatencyMicros;
+        executor.schedule(operation, latency, TimeUnit.MICROSECONDS);
+    }
+
+    private static boolean fails(double rate) {
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private static Map<String, CellClaim> copyOf(Map<String, CellClaim> claims) {
+        Map<String, CellClaim> copy = new HashMap<>();
+        if (claims != null) {
+            for (Map.Entry<String, CellClaim> entry : claims.entrySet()) {
+                CellClaim claim = entry.getValue();
+                copy.put(entry.getKey(), new CellClaim(claim.getName(), claim.getLatitude(), claim.getLongitude(),
+                        claim.getExpiresAt()));
+            }
+        }
+        return copy;
+    }
+
+    static Region copyOf(String key, Region region) {
+        Region copy = new Region(region.getName(), region.getLatitude(), region.getLongitude(), region.getTimestamp(), region.getuser());
+        copy.setPolygon(region.getPolygon() == null ? null : new ArrayList<>(region.getPolygon()));
+        copy.setKey(key);
+        return copy;
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Índice local das regiões do banco, persistido no dispositivo como um HilbertPointIndex mapeado em memória.
+ *
+ * Serve para responder à verificação de proximidade de uma nova região logo na abertura do aplicativo, antes de
+ * qualquer leitura do banco: abrir o índice só mapeia o arquivo, e a consulta lê apenas os registros ao redor do
+ * ponto. Cada registro guarda as coordenadas e o nome da região (até NAME_BYTES bytes em UTF-8).
+ *
+ * O índice é uma cópia das regiões pontuais conhecidas pelo dispositivo: recebe as regiões aceitas (add()) e, a cada
+ * carregamento das regiões, só as que ainda não tem (addMissing()), acrescentadas ao arquivo de novidades do
+ * HilbertPointIndex, que as intercala no arquivo principal de tempos em tempos. Reescrever o índice inteiro a cada
+ * carregamento (replaceAll()) fica para uma reconstrução explícita.
+ * Regiões com forma não são indexadas, porque a proximidade delas é medida pela borda do polígono. Por ser uma cópia
+ * possivelmente desatualizada, o índice só serve para recusar uma região sem ir ao banco (check()); a aceitação
+ * continua sendo decidida pelo banco (RegionClaims).
+ *
+ * Principais funcionalidades:
+ * - Abertura do arquivo do índice, ou de um índice vazio se o arquivo não existir ou estiver corrompido.
+ * - Inclusão de uma região, das regiões que faltam e substituição de todas as regiões.
+ * - Verificação local de nome repetido e de proximidade com as regiões indexadas.
+ *
+ * Os métodos podem ser chamados de qualquer thread, e check() não espera pelas inclusões nem pelas intercalações em
+ * andamento; todos os usuários do mesmo arquivo devem compartilhar a mesma instância.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.HilbertPointIndex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LocalRegionIndex {
+    private static final String TAG = "LocalRegionIndex";
+    static final int NAME_BYTES = 63;
+    static final int PAYLOAD_SIZE = 1 + NAME_BYTES; // Tamanho do nome e o nome
+    private static final int TRUNCATED = 0xFF; // Nome maior que NAME_BYTES: não é comparado
+    static final double SAME_POSITION = 0.5; // Distância, em metros, abaixo da qual um registro é a mesma região
+
+    private final HilbertPointIndex index;
+
+    private LocalRegionIndex(HilbertPointIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Abre o índice gravado no arquivo. Se o arquivo não existir ou não puder ser lido, começa com um índice vazio,
+     * preenchido no próximo carregamento das regiões.
+     */
+    public static LocalRegionIndex open(File file) throws IOException {
+        try {
+            return new LocalRegionIndex(HilbertPointIndex.open(file, PAYLOAD_SIZE));
+        } catch (IOException e) {
+            Log.e(TAG, "Índice local ilegível; recomeçando do zero: " + e.getMessage());
+            File delta = new File(file.getPath() + HilbertPointIndex.DELTA_SUFFIX);
+            if ((file.exists() && !file.delete()) || (delta.exists() && !delta.delete())) {
+                throw new IOException("Não foi possível apagar o índice local " + file);
+            }
+            return new LocalRegionIndex(HilbertPointIndex.open(file, PAYLOAD_SIZE));
+        }
+    }
+
+    /**
+     * Inclui uma região aceita pelo banco; regiões com forma são ignoradas.
+     */
+    public void add(Region region) {
+        if (region.getShape() != null) {
+            return;
+        }
+        try {
+            index.append(region.getLatitude(), region.getLongitude(), encodeName(region.getName()));
+        } catch (IOException e) {
+            Log.e(TAG, "Falha ao incluir a região no índice local: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Inclui as regiões pontuais da lista que o índice ainda não tem, com o mesmo nome a menos de SAME_POSITION
+     * metros; as já indexadas não são gravadas de novo.
+     *
+     * @return A quantidade de regiões incluídas.
+     */
+    public int addMissing(List<Region> regions) {
+        int added = 0;
+        for (Region region : regions) {
+            if (region.getShape() == null && !contains(region)) {
+                add(region);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Substitui o conteúdo do índice pelas regiões pontuais da lista, em um único arquivo ordenado.
+     */
+    public void replaceAll(List<Region> regions) {
+        List<HilbertPointIndex.Entry> entries = new ArrayList<>(regions.size());
+        for (Region region : regions) {
+            if (region.getShape() == null) {
+                entries.add(new HilbertPointIndex.Entry(region.getLatitude(), region.getLongitude(), encodeName(region.getName())));
+            }
+        }
+        try {
+            index.replaceAll(entries);
+            Log.d(TAG, "Índice local reconstruído: " + entries.size() + " regiões");
+        } catch (IOException e) {
+            Log.e(TAG, "Falha ao reconstruir o índice local: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Verifica a nova região contra as regiões indexadas a menos de MIN_DISTANCE metros, com as mesmas regras de
+     * RegionAdmission. ACCEPTED só significa que o índice não tem motivo para recusar a região.
+     */
+    public RegionAdmission.Result check(String name, double latitude, double longitude) {
+        final byte[] encoded = encodeName(name);
+        final RegionAdmission.Result[] result = {RegionAdmission.Result.ACCEPTED};
+        final byte[] stored = new byte[PAYLOAD_SIZE];
+        index.withinRadius(latitude, longitude, RegionAdmission.MIN_DISTANCE, record -> {
+            record.getBytes(0, stored, 0, PAYLOAD_SIZE);
+            if (name != null && (stored[0] & 0xFF) != TRUNCATED && Arrays.equals(stored, encoded)) {
+                result[0] = RegionAdmission.Result.DUPLICATE_NAME;
+                return false;
+            }
+            result[0] = RegionAdmission.Result.TOO_CLOSE; // Continua procurando um nome repetido, que tem precedência
+            return true;
+        });
+        return result[0];
+    }
+
+    // Verdadeiro se o índice tiver um registro com o nome da região na mesma posição, a menos do arredondamento
+    private boolean contains(Region region) {
+        final byte[] encoded = encodeName(region.getName());
+        final byte[] stored = new byte[PAYLOAD_SIZE];
+        return !index.withinRadius(region.getLatitude(), region.getLongitude(), SAME_POSITION, record -> {
+            record.getBytes(0, stored, 0, PAYLOAD_SIZE);
+            return !Arrays.equals(stored, encoded);
+        });
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // Nome em UTF-8 precedido do tamanho e completado com zeros; um nome vazio ou nulo tem tamanho zero
+    static byte[] encodeName(String name) {
+        byte[] payload = new byte[PAYLOAD_SIZE];
+        if (name == null) {
+            return payload;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > NAME_BYTES) {
+            payload[0] = (byte) TRUNCATED;
+            System.arraycopy(bytes, 0, payload, 1, NAME_BYTES);
+        } else {
+            payload[0] = (byte) bytes.length;
+            System.arraycopy(bytes, 0, payload, 1, bytes.length);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Geocodificação reversa que consulta primeiro o gazetteer local e usa o geocodificador remoto apenas como refinamento.
+ *
+ * O ponto nomeado mais próximo do gazetteer é respondido na hora quando está a até PRECISE_DISTANCE metros das
+ * coordenadas. Mais longe que isso, o geocodificador remoto (o Geocoder do Android, que precisa de rede) é consultado;
+ * se ele falhar ou não encontrar endereço, o ponto do gazetteer a até MAX_DISTANCE metros é usado. Sem rede, portanto,
+ * o nome continua disponível sempre que houver um ponto do gazetteer por perto.
+ *
+ * Principais funcionalidades:
+ * - Resposta local, sem rede, para as coordenadas próximas de um ponto do gazetteer.
+ * - Consulta ao geocodificador remoto para as coordenadas longe dos pontos locais, com o gazetteer como alternativa.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import com.example.calculos.Gazetteer;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+public class OfflineFirstReverseGeocoder implements ReverseGeocoder {
+    private static final String TAG = "OfflineFirstGeocoder";
+    static final double PRECISE_DISTANCE = 25; // Até essa distância, o ponto local basta, em metros
+    static final double MAX_DISTANCE = 150; // Distância máxima para usar um ponto local, em metros
+
+    private final Supplier<Gazetteer> gazetteer;
+    private final ReverseGeocoder remote;
+
+    /**
+     * @param gazetteer Fornece o gazetteer local; pode abrir o arquivo no primeiro acesso.
+     * @param remote    O geocodificador remoto, ou null se não houver um disponível no dispositivo.
+     */
+    public OfflineFirstReverseGeocoder(Supplier<Gazetteer> gazetteer, ReverseGeocoder remote) {
+        this.gazetteer = gazetteer;
+        this.remote = remote;
+    }
+
+    @Override
+    public String reverseGeocode(double latitude, double longitude) throws IOException {
+        Gazetteer places = gazetteer.get();
+        int nearest = places.nearest(latitude, longitude, MAX_DISTANCE);
+        if (nearest >= 0 && places.distance(nearest, latitude, longitude) <= PRECISE_DISTANCE) {
+            return places.name(nearest);
+        }
+        if (remote != null) {
+            try {
+                String name = remote.reverseGeocode(latitude, longitude);
+                if (name != null) {
+                    return name;
+                }
+            } catch (IOException e) {
+                if (nearest < 0) {
+                    throw e;
+                }
+                Log.w(TAG, "Geocodificador remoto indisponível, usando o gazetteer: " + e.getMessage());
+            }
+        }
+        return nearest >= 0 ? places.name(nearest) : null;
+    }
+}
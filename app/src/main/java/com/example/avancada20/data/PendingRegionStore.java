@@ -0,0 +1,187 @@
+/**
+ * Fila persistente das regiões que ainda não foram enviadas ao banco de dados.
+ *
+ * As regiões ficam em um arquivo binário, uma após a outra (nome, latitude, longitude, timestamp, usuário, forma e
+ * chave), e cada lote acrescentado é sincronizado com o disco antes de append() retornar, de modo que as regiões
+ * entregues à fila sobrevivem ao encerramento do processo. Quem envia lê as primeiras regiões com peek() e só as
+ * retira com remove() depois da confirmação do banco; se o processo morrer no meio do envio, as regiões continuam na
+ * fila e são enviadas de novo (entrega pelo menos uma vez). A chave de cada região é atribuída antes de ela entrar na
+ * fila (RegionUploadScheduler.enqueue()) e guardada com ela, então um reenvio grava sobre a mesma chave em vez de
+ * criar outra região. Um registro incompleto no fim do arquivo, deixado por uma gravação interrompida, é descartado
+ * na primeira leitura.
+ *
+ * Cada registro começa com o byte TAGGED_RECORD, seguido dos campos fixos e dos campos opcionais, cada um com a sua
+ * etiqueta, até a etiqueta END. Os registros gravados antes dos campos opcionais começam direto pelo booleano do
+ * nome (0 ou 1) e continuam sendo lidos.
+ *
+ * Principais funcionalidades:
+ * - Acréscimo de um lote de regiões ao fim da fila.
+ * - Leitura das primeiras regiões da fila sem retirá-las, e remoção delas depois do envio.
+ * - Contagem das regiões pendentes.
+ *
+ * Os métodos são sincronizados; todos os usuários do mesmo arquivo devem compartilhar a mesma instância.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PendingRegionStore {
+    private static final int TAGGED_RECORD = 2; // Diferente dos valores 0 e 1 do booleano que abria os registros antigos
+    private static final int END = 0;
+    private static final int POLYGON = 1;
+    private static final int KEY = 2;
+
+    private final File file;
+
+    public PendingRegionStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Acrescenta as regiões ao fim da fila e sincroniza o arquivo com o disco.
+     */
+    public synchronized void append(List<Region> regions) throws IOException {
+        if (regions.isEmpty()) {
+            return;
+        }
+        readAll(); // Descarta um registro incompleto antes de acrescentar
+        try (FileOutputStream stream = new FileOutputStream(file, true)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            for (Region region : regions) {
+                write(out, region);
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+    }
+
+    /**
+     * Retorna até max regiões do início da fila, sem retirá-las.
+     */
+    public synchronized List<Region> peek(int max) throws IOException {
+        List<Region> all = readAll();
+        return new ArrayList<>(all.subList(0, Math.min(max, all.size())));
+    }
+
+    /**
+     * Retira as count primeiras regiões da fila, regravando as restantes em um arquivo temporário que substitui o atual.
+     */
+    public synchronized void remove(int count) throws IOException {
+        List<Region> all = readAll();
+        List<Region> remaining = all.subList(Math.min(count, all.size()), all.size());
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temporary)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            for (Region region : remaining) {
+                write(out, region);
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+        if (!temporary.renameTo(file)) { // A troca de nome é atômica no mesmo sistema de arquivos
+            throw new IOException("Não foi possível substituir " + file);
+        }
+    }
+
+    public synchronized int size() throws IOException {
+        return readAll().size();
+    }
+
+    // Lê todas as regiões do arquivo; se o último registro estiver incompleto, trunca o arquivo no último registro válido
+    private List<Region> readAll() throws IOException {
+        List<Region> regions = new ArrayList<>();
+        if (!file.exists()) {
+            return regions;
+        }
+        byte[] bytes;
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            bytes = new byte[(int) input.length()];
+            input.readFully(bytes);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        int valid = 0;
+        try {
+            while (in.available() > 0) {
+                regions.add(read(in));
+                valid = bytes.length - in.available();
+            }
+        } catch (EOFException e) {
+            try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+                truncated.setLength(valid);
+            }
+        }
+        return regions;
+    }
+
+    private static void write(DataOutputStream out, Region region) throws IOException {
+        out.writeByte(TAGGED_RECORD);
+        out.writeBoolean(region.getName() != null);
+        if (region.getName() != null) {
+            out.writeUTF(region.getName());
+        }
+        out.writeDouble(region.getLatitude());
+        out.writeDouble(region.getLongitude());
+        out.writeBoolean(region.getTimestamp() != null);
+        if (region.getTimestamp() != null) {
+            out.writeLong(region.getTimestamp());
+        }
+        out.writeInt(region.getuser());
+        List<Double> polygon = region.getPolygon();
+        if (polygon != null) {
+            out.writeByte(POLYGON);
+            out.writeInt(polygon.size());
+            for (double coordinate : polygon) {
+                out.writeDouble(coordinate);
+            }
+        }
+        if (region.getKey() != null) {
+            out.writeByte(KEY);
+            out.writeUTF(region.getKey());
+        }
+        out.writeByte(END);
+    }
+
+    private static Region read(DataInputStream in) throws IOException {
+        int first = in.readUnsignedByte();
+        boolean tagged = first == TAGGED_RECORD;
+        boolean hasName = tagged ? in.readBoolean() : first != 0;
+        String name = hasName ? in.readUTF() : null;
+        double latitude = in.readDouble();
+        double longitude = in.readDouble();
+        Long timestamp = in.readBoolean() ? in.readLong() : null;
+        int user = in.readInt();
+        Region region = new Region(name, latitude, longitude, timestamp, user);
+        for (int tag = tagged ? in.readUnsignedByte() : END; tag != END; tag = in.readUnsignedByte()) {
+            if (tag == POLYGON) {
+                int count = in.readInt();
+                List<Double> polygon = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    polygon.add(in.readDouble());
+                }
+                region.setPolygon(polygon);
+            } else if (tag == KEY) {
+                region.setKey(in.readUTF());
+            } else {
+                throw new IOException("Campo desconhecido na fila de regiões: " + tag);
+            }
+        }
+        return region;
+    }
+}
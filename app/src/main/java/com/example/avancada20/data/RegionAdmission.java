@@ -0,0 +1,129 @@
+/**
+ * Regras de admissão de uma nova região, compartilhadas pela consulta ao banco e pela lista local.
+ *
+ * Uma nova região é recusada se já existir uma região com o mesmo nome ou se ela estiver a menos de
+ * MIN_DISTANCE metros de alguma região existente. A proximidade é verificada com a estratégia de distância mais
+ * barata que ainda é exata nessa escala (DistanceStrategy.EQUIRECTANGULAR).
+ *
+ * Regiões com forma (Region.getShape()) são medidas pela borda do polígono: uma região pontual é recusada se o
+ * círculo de MIN_DISTANCE metros ao redor dela tocar o polígono, e duas regiões com forma são recusadas se os
+ * polígonos estiverem a menos de MIN_DISTANCE metros um do outro (ou se sobrepuserem).
+ *
+ * As verificações percorrem a lista recebida, que quem chama já restringe à vizinhança da nova região (as células
+ * do RegionStore ou as células reivindicadas da RegionClaims). O PolygonIndex do módulo Calculos não é usado aqui:
+ * a árvore é construída de uma vez a partir de uma lista fixa, e construí-la a cada admissão custaria mais do que
+ * percorrer uma vizinhança pequena.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.DistanceStrategy;
+import com.example.calculos.Polygon;
+
+import java.util.List;
+
+public final class RegionAdmission {
+    public static final double MIN_DISTANCE = 30; // Distância mínima entre regiões, em metros
+
+    public enum Result {
+        ACCEPTED,
+        DUPLICATE_NAME,
+        TOO_CLOSE
+    }
+
+    private RegionAdmission() {
+    }
+
+    /**
+     * Verifica se a nova região, pontual ou com forma, pode ser adicionada às regiões existentes.
+     */
+    public static Result check(Region region, List<Region> regions) {
+        for (Region existing : regions) {
+            if (existing.getName() != null && existing.getName().equals(region.getName())) {
+                return Result.DUPLICATE_NAME;
+            }
+        }
+        return checkRegionProximity(region, regions) ? Result.TOO_CLOSE : Result.ACCEPTED;
+    }
+
+    /**
+     * Verifica se a nova região pode ser adicionada às regiões existentes.
+     * Primeiro verifica se já existe uma região com o mesmo nome; depois, se a nova região está muito próxima de outra.
+     */
+    public static Result check(String name, double latitude, double longitude, List<Region> regions) {
+        for (Region region : regions) {
+            if (region.getName() != null && region.getName().equals(name)) {
+                return Result.DUPLICATE_NAME;
+            }
+        }
+        return checkRegionProximity(latitude, longitude, regions) ? Result.TOO_CLOSE : Result.ACCEPTED;
+    }
+
+    /**
+     * Verifica se a nova região está a menos de MIN_DISTANCE metros de alguma região da lista.
+     *
+     * @return True se a nova região estiver muito próxima de outras regiões na lista, false caso contrário.
+     */
+    public static boolean checkRegionProximity(double latitude, double longitude, List<Region> regions) {
+        DistanceStrategy strategy = DistanceStrategy.EQUIRECTANGULAR;
+        // Os valores da nova região são calculados uma vez; os das regiões existentes já vêm pré-calculados
+        double latitudeRadians = Math.toRadians(latitude);
+        double longitudeRadians = Math.toRadians(longitude);
+        double cosLatitude = Math.cos(latitudeRadians);
+        for (Region region : regions) {
+            Polygon shape = region.getShape();
+            if (shape != null) {
+                if (shape.intersectsCircle(latitude, longitude, MIN_DISTANCE)) {
+                    return true;
+                }
+                continue;
+            }
+            double distance = strategy.distance(region.getLatitudeRadians(), region.getLongitudeRadians(), region.getCosLatitude(),
+                    latitudeRadians, longitudeRadians, cosLatitude);
+            if (distance < MIN_DISTANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifica se a nova região, pontual ou com forma, está a menos de MIN_DISTANCE metros de alguma região da lista.
+     */
+    public static boolean checkRegionProximity(Region region, List<Region> regions) {
+        Polygon shape = region.getShape();
+        return shape == null
+                ? checkRegionProximity(region.getLatitude(), region.getLongitude(), regions)
+                : checkShapeProximity(shape, regions);
+    }
+
+    /**
+     * Verifica se o polígono de uma nova região está a menos de MIN_DISTANCE metros de alguma região da lista.
+     */
+    public static boolean checkShapeProximity(Polygon polygon, List<Region> regions) {
+        for (Region region : regions) {
+            Polygon shape = region.getShape();
+            double distance = shape != null
+                    ? shape.distanceTo(polygon)
+                    : polygon.distanceTo(region.getLatitude(), region.getLongitude());
+            if (distance < MIN_DISTANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Distância em metros do ponto de referência da região até o ponto mais distante da sua forma (zero para uma
+     * região pontual). Quem agrupa regiões por célula usa esse alcance para ampliar a vizinhança verificada.
+     */
+    public static double reachOf(Region region) {
+        Polygon shape = region.getShape();
+        return shape == null ? 0 : shape.reachFrom(region.getLatitude(), region.getLongitude());
+    }
+}
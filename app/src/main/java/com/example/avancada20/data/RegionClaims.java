@@ -0,0 +1,453 @@
+/**
+ * Admissão atômica de novas regiões por reivindicação de células, no lugar da consulta seguida de gravação.
+ *
+ * As reivindicações ficam em nós por célula de geohash de precisão CELL_PRECISION (~150 m), em
+ * "celulas/{geohash}/{identificador}". Para admitir uma região, a RegionClaims executa uma transação do repositório
+ * (transactCell) em cada célula que o círculo de MIN_DISTANCE metros ao redor da região toca: a transação verifica
+ * as reivindicações da célula com a RegionAdmission e só acrescenta a nova reivindicação se não houver conflito.
+ * Com células de ~150 m e um círculo de 60 m de diâmetro, a maior parte das regiões toca de 2 a 4 células; somado
+ * ao nó do nome, uma admissão executa de 2 a 5 transações. Elas são executadas ao mesmo tempo, e a admissão leva
+ * o tempo da transação mais lenta, em vez da soma de todas.
+ *
+ * Correção sob concorrência: se duas regiões A e B estão a menos de MIN_DISTANCE uma da outra, a célula que contém
+ * B também é tocada pelo círculo de A, então as duas admissões executam uma transação nessa célula. O banco serializa
+ * as transações de um mesmo nó, e a segunda delas vê a reivindicação da primeira e é abortada. Depois que todas
+ * as transações de uma admissão terminam, se alguma abortou ou falhou, as reivindicações confirmadas são desfeitas.
+ * Enquanto isso não acontece, uma admissão concorrente pode ser recusada por uma reivindicação que será desfeita,
+ * e duas admissões em conflito podem ser ambas recusadas, cada uma por um nó diferente; isso é conservador: nunca
+ * duas regiões próximas são aceitas.
+ *
+ * As células só garantem nomes únicos dentro da vizinhança. Para que o nome seja único em todas as regiões, ele
+ * também é reservado, junto com as células, em um nó próprio, "celulas/nome_{hash do nome}" (nameKeyOf()), com a mesma
+ * transação: a reserva é recusada se o nó já tiver uma reivindicação com o mesmo nome. O hash evita os caracteres
+ * proibidos nas chaves do banco; nomes diferentes com o mesmo hash convivem no mesmo nó. Como a letra "o" não faz
+ * parte do alfabeto do geohash, esses nós não se confundem com as células.
+ *
+ * Reservas: uma região admitida pelo aplicativo fica primeiro só no dispositivo e é enviada ao banco mais tarde,
+ * pela fila de envio. Para que a sua reivindicação não bloqueie a vizinhança e o nome para sempre se a região nunca
+ * chegar ao banco (a lista local é descartada, o processo morre), ela é feita como reserva (reserve()), que expira
+ * em RESERVATION_TTL_MILLIS. As reivindicações usam a chave da região como identificador, e o envio confirma as
+ * reservas das regiões gravadas (backfill()), que passam a ser permanentes. Reservas expiradas são ignoradas pelas
+ * admissões e removidas pela próxima transação que alterar o nó.
+ *
+ * Principais funcionalidades:
+ * - Reivindicação das células e reserva do nome de uma nova região, com recusa por nome repetido ou proximidade.
+ * - Admissão completa: reivindicação seguida da gravação da região, desfazendo a reivindicação se a gravação falhar.
+ * - Reserva, que expira se não for confirmada, para regiões gravadas mais tarde.
+ * - Liberação das reivindicações de regiões removidas (por exemplo, pela compactação).
+ * - Confirmação das reservas e criação das reivindicações que faltam para regiões já gravadas, inclusive as gravadas
+ *   antes das reivindicações (RegionClaimsBackfillJob).
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import com.example.avancada20.ui.home.Region;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+public class RegionClaims {
+    private static final String TAG = "RegionClaims";
+    public static final String CELLS_NODE = "celulas";
+    public static final int CELL_PRECISION = 7; // Células de ~150 m x 150 m
+    static final String NAME_PREFIX = "nome_";
+    // Prazo para a região reservada chegar ao banco; cobre vários dias sem rede antes de a fila de envio rodar
+    public static final long RESERVATION_TTL_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private final RegionRepository repository;
+    private final RegionShards cells = new RegionShards(CELL_PRECISION);
+    private final LongSupplier clock;
+
+    public RegionClaims(RegionRepository repository) {
+        this(repository, System::currentTimeMillis);
+    }
+
+    public RegionClaims(RegionRepository repository, LongSupplier clock) {
+        this.repository = repository;
+        this.clock = clock;
+    }
+
+    /**
+     * Resultado de uma reivindicação ou de uma admissão.
+     */
+    public interface Callback {
+        void onAccepted(Region region);
+
+        void onRejected(RegionAdmission.Result result);
+
+        void onFailure(Exception e);
+    }
+
+    /**
+     * Retorna as células em que as reivindicações de uma região nas coordenadas informadas são gravadas, em ordem.
+     */
+    public List<String> cellsOf(double latitude, double longitude) {
+        List<String> cover = cells.cover(latitude, longitude, RegionAdmission.MIN_DISTANCE);
+        Collections.sort(cover);
+        return cover;
+    }
+
+    /**
+     * Retorna o nó em que o nome é reservado.
+     */
+    public static String nameKeyOf(String name) {
+        return NAME_PREFIX + Integer.toHexString(name.hashCode());
+    }
+
+    // Nós reivindicados por uma região: as células, em ordem, e o nó do nome, se houver
+    private List<String> keysOf(Region region) {
+        List<String> keys = cellsOf(region.getLatitude(), region.getLongitude());
+        if (region.getName() != null) {
+            keys.add(nameKeyOf(region.getName()));
+        }
+        return keys;
+    }
+
+    /**
+     * Reivindica as células e reserva o nome da região, de forma permanente. O callback recebe a própria região se
+     * todos os nós forem reivindicados, ou o motivo da recusa se algum tiver uma reivindicação em conflito.
+     * A chave da região, se houver, é o identificador das reivindicações.
+     */
+    public void claim(final Region region, final Callback callback) {
+        claim(region, null, callback);
+    }
+
+    /**
+     * Como claim(), mas as reivindicações expiram em RESERVATION_TTL_MILLIS, a menos que backfill() as confirme
+     * depois da gravação da região. A região deve ter a chave com que será gravada.
+     */
+    public void reserve(final Region region, final Callback callback) {
+        claim(region, clock.getAsLong() + RESERVATION_TTL_MILLIS, callback);
+    }
+
+    private void claim(final Region region, final Long expiresAt, final Callback callback) {
+        final String claimId = region.getKey() != null ? region.getKey() : UUID.randomUUID().toString();
+        final List<String> keys = keysOf(region);
+        final List<String> committed = Collections.synchronizedList(new ArrayList<>());
+        final AtomicReference<RegionAdmission.Result> rejection = new AtomicReference<>();
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final AtomicInteger pending = new AtomicInteger(keys.size());
+        Runnable done = () -> {
+            if (pending.decrementAndGet() > 0) {
+                return;
+            }
+            if (failure.get() == null && rejection.get() == null) {
+                callback.onAccepted(region);
+                return;
+            }
+            // O callback só é notificado depois de desfeitas as reivindicações, para que uma nova tentativa não
+            // seja recusada por elas
+            undo(committed, claimId, () -> {
+                if (failure.get() != null) {
+                    callback.onFailure(failure.get());
+                } else {
+                    callback.onRejected(rejection.get());
+                }
+            });
+        };
+        for (String key : keys) {
+            claimCell(region, claimId, expiresAt, key, committed, rejection, failure, done);
+        }
+    }
+
+    /**
+     * Reivindica as células da região e, se a reivindicação for aceita, grava a região no repositório.
+     * Se a gravação falhar, a reivindicação é desfeita e o callback recebe a falha.
+     */
+    public void admit(final Region region, final Callback callback) {
+        claim(region, new Callback() {
+            @Override
+            public void onAccepted(final Region claimed) {
+                repository.save(claimed, new WriteCallback() {
+                    @Override
+                    public void onSuccess() {
+                        callback.onAccepted(claimed);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        release(Collections.singletonList(claimed), null);
+                        callback.onFailure(e);
+                    }
+                });
+            }
+
+            @Override
+            public void onRejected(RegionAdmission.Result result) {
+                callback.onRejected(result);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        });
+    }
+
+    /**
+     * Remove as reivindicações e as reservas de nome das regiões, identificadas pelo nome e pelas coordenadas, com
+     * uma transação por nó.
+     *
+     * @param callback Notificado depois de todas as células, com a primeira falha se houver alguma; pode ser null.
+     */
+    public void release(List<Region> regions, final WriteCallback callback) {
+        Map<String, List<Region>> byCell = byKey(regions);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        Runnable done = whenAllDone(byCell.size(), failure, callback);
+        for (Map.Entry<String, List<Region>> entry : byCell.entrySet()) {
+            final List<Region> released = entry.getValue();
+            removeClaims(entry.getKey(), claim -> matchesAny(claim.getValue(), released), done, failure);
+        }
+    }
+
+    /**
+     * Confirma as reservas e acrescenta as reivindicações e as reservas de nome que faltam para regiões já gravadas,
+     * sem verificar conflitos: as regiões existem e passam a bloquear a sua vizinhança e o seu nome. Uma reserva com
+     * a chave da região, mesmo expirada, passa a ser permanente. Cada reivindicação acrescentada usa a chave da
+     * região como identificador, então repetir o preenchimento, no mesmo ou em outro dispositivo, não duplica
+     * reivindicações; uma região que já tem a sua reivindicação no nó não recebe outra.
+     *
+     * @param callback Notificado depois de todos os nós, com a primeira falha se houver alguma; pode ser null.
+     */
+    public void backfill(List<Region> regions, final WriteCallback callback) {
+        Map<String, List<Region>> byCell = byKey(regions);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Runnable done = whenAllDone(byCell.size(), failure, callback);
+        for (final Map.Entry<String, List<Region>> entry : byCell.entrySet()) {
+            repository.transactCell(entry.getKey(), new CellTransaction() {
+                @Override
+                public Map<String, CellClaim> apply(Map<String, CellClaim> claims) {
+                    long now = clock.getAsLong();
+                    Map<String, CellClaim> updated = new HashMap<>(claims);
+                    boolean changed = false;
+                    for (Region region : entry.getValue()) {
+                        CellClaim reserved = region.getKey() != null ? claims.get(region.getKey()) : null;
+                        if (reserved != null && reserved.getExpiresAt() != null) {
+                            updated.put(region.getKey(), new CellClaim(region.getName(), region.getLatitude(), region.getLongitude()));
+                            changed = true;
+                        } else if (reserved == null && !isClaimed(region, claims.values(), now)) {
+                            String claimId = region.getKey() != null ? region.getKey() : UUID.randomUUID().toString();
+                            updated.put(claimId, new CellClaim(region.getName(), region.getLatitude(), region.getLongitude()));
+                            changed = true;
+                        }
+                    }
+                    return changed ? updated : null; // Nada a confirmar nem a acrescentar: não grava
+                }
+
+                @Override
+                public void onCommitted() {
+                    done.run();
+                }
+
+                @Override
+                public void onAborted() {
+                    done.run();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    Log.w(TAG, "Falha no preenchimento das reivindicações da célula " + entry.getKey() + ": " + e.getMessage());
+                    failure.compareAndSet(null, e);
+                    done.run();
+                }
+            });
+        }
+    }
+
+    // Agrupa as regiões pelos nós que elas reivindicam
+    private Map<String, List<Region>> byKey(List<Region> regions) {
+        Map<String, List<Region>> byCell = new LinkedHashMap<>();
+        for (Region region : regions) {
+            for (String cell : keysOf(region)) {
+                List<Region> list = byCell.get(cell);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    byCell.put(cell, list);
+                }
+                list.add(region);
+            }
+        }
+        return byCell;
+    }
+
+    // Notifica o callback, se houver, depois de count chamadas, com a primeira falha registrada em failure
+    private static Runnable whenAllDone(int count, final AtomicReference<Exception> failure, final WriteCallback callback) {
+        final AtomicInteger pending = new AtomicInteger(count);
+        Runnable done = () -> {
+            if (pending.decrementAndGet() == 0 && callback != null) {
+                if (failure.get() == null) {
+                    callback.onSuccess();
+                } else {
+                    callback.onFailure(failure.get());
+                }
+            }
+        };
+        if (count == 0 && callback != null) {
+            callback.onSuccess();
+        }
+        return done;
+    }
+
+    // Reivindica um nó; no nó do nome, apenas o nome é verificado. As reservas expiradas são ignoradas e removidas.
+    // O resultado é registrado em committed, rejection ou failure antes de done ser chamado
+    private void claimCell(final Region region, final String claimId, final Long expiresAt, final String key,
+                           final List<String> committed,
+                           final AtomicReference<RegionAdmission.Result> rejection,
+                           final AtomicReference<Exception> failure, final Runnable done) {
+        final AtomicReference<RegionAdmission.Result> result = new AtomicReference<>();
+        repository.transactCell(key, new CellTransaction() {
+            @Override
+            public Map<String, CellClaim> apply(Map<String, CellClaim> claims) {
+                long now = clock.getAsLong();
+                Map<String, CellClaim> updated = new HashMap<>(claims.size() + 1);
+                List<Region> existing = new ArrayList<>(claims.size());
+                for (Map.Entry<String, CellClaim> entry : claims.entrySet()) {
+                    CellClaim claim = entry.getValue();
+                    if (claim.isExpired(now)) {
+                        continue;
+                    }
+                    updated.put(entry.getKey(), claim);
+                    if (!entry.getKey().equals(claimId)) {
+                        existing.add(new Region(claim.getName(), claim.getLatitude(), claim.getLongitude(), null, 0));
+                    }
+                }
+                RegionAdmission.Result check = key.startsWith(NAME_PREFIX)
+                        ? checkName(region.getName(), existing)
+                        : RegionAdmission.check(region, existing);
+                result.set(check);
+                if (check != RegionAdmission.Result.ACCEPTED) {
+                    return null;
+                }
+                updated.put(claimId, new CellClaim(region.getName(), region.getLatitude(), region.getLongitude(), expiresAt));
+                return updated;
+            }
+
+            @Override
+            public void onCommitted() {
+                committed.add(key);
+                done.run();
+            }
+
+            @Override
+            public void onAborted() {
+                Log.d(TAG, "Reivindicação recusada na célula " + key + ": " + result.get());
+                rejection.compareAndSet(null, result.get());
+                done.run();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Falha na reivindicação da célula " + key + ": " + e.getMessage());
+                failure.compareAndSet(null, e);
+                done.run();
+            }
+        });
+    }
+
+    // Desfaz as reivindicações já feitas por uma admissão recusada e executa then ao final
+    private void undo(List<String> claimed, final String claimId, final Runnable then) {
+        List<String> cells = new ArrayList<>(claimed);
+        final AtomicInteger pending = new AtomicInteger(cells.size());
+        if (cells.isEmpty()) {
+            then.run();
+        }
+        for (String cell : cells) {
+            removeClaims(cell, claim -> claim.getKey().equals(claimId), () -> {
+                if (pending.decrementAndGet() == 0) {
+                    then.run();
+                }
+            }, null);
+        }
+    }
+
+    // Remove da célula as reivindicações, indexadas pelo identificador, que satisfazem o predicado
+    private void removeClaims(final String cell, final Predicate<Map.Entry<String, CellClaim>> matches, final Runnable done,
+                              final AtomicReference<Exception> failure) {
+        repository.transactCell(cell, new CellTransaction() {
+            @Override
+            public Map<String, CellClaim> apply(Map<String, CellClaim> claims) {
+                Map<String, CellClaim> updated = new HashMap<>(claims);
+                boolean removed = false;
+                for (Iterator<Map.Entry<String, CellClaim>> it = updated.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<String, CellClaim> entry = it.next();
+                    if (matches.test(entry)) {
+                        it.remove();
+                        removed = true;
+                    }
+                }
+                return removed ? updated : null; // Nada a remover: não grava
+            }
+
+            @Override
+            public void onCommitted() {
+                finish();
+            }
+
+            @Override
+            public void onAborted() {
+                finish();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                // A reivindicação que não pôde ser removida continua bloqueando a vizinhança, o que é conservador
+                Log.w(TAG, "Falha na liberação de reivindicações da célula " + cell + ": " + e.getMessage());
+                if (failure != null) {
+                    failure.compareAndSet(null, e);
+                }
+                finish();
+            }
+
+            private void finish() {
+                if (done != null) {
+                    done.run();
+                }
+            }
+        });
+    }
+
+    private static RegionAdmission.Result checkName(String name, List<Region> existing) {
+        for (Region region : existing) {
+            if (name.equals(region.getName())) {
+                return RegionAdmission.Result.DUPLICATE_NAME;
+            }
+        }
+        return RegionAdmission.Result.ACCEPTED;
+    }
+
+    private static boolean isClaimed(Region region, Iterable<CellClaim> claims, long now) {
+        for (CellClaim claim : claims) {
+            if (!claim.isExpired(now) && matchesAny(claim, Collections.singletonList(region))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesAny(CellClaim claim, List<Region> regions) {
+        for (Region region : regions) {
+            if (claim.getName() != null && claim.getName().equals(region.getName())
+                    && claim.getLatitude() == region.getLatitude() && claim.getLongitude() == region.getLongitude()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Preenchimento das reivindicações (RegionClaims) das regiões gravadas antes delas.
+ *
+ * As regiões gravadas antes das reivindicações não bloqueiam a sua vizinhança nem o seu nome, então uma nova região
+ * poderia ser aceita ao lado delas. O preenchimento lê todas as regiões com loadAll() e acrescenta as reivindicações
+ * que faltam (RegionClaims.backfill()), que usam a chave da região como identificador: repetir o preenchimento, ou
+ * executá-lo em vários dispositivos ao mesmo tempo, não duplica reivindicações.
+ *
+ * O preenchimento é feito uma única vez por dispositivo: quando termina sem falhas, o arquivo marcador é criado, e as
+ * execuções seguintes terminam sem consultar o repositório. Se falhar, é repetido na próxima inicialização.
+ *
+ * O método run() bloqueia a thread chamadora enquanto espera pelo repositório e deve ser executado em segundo plano.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RegionClaimsBackfillJob implements Runnable {
+    private static final String TAG = "RegionClaimsBackfill";
+    private static final long TIMEOUT_SECONDS = 120; // Espera máxima por cada operação do repositório
+
+    private final RegionRepository repository;
+    private final RegionClaims claims;
+    private final File marker;
+
+    public RegionClaimsBackfillJob(RegionRepository repository, RegionClaims claims, File marker) {
+        this.repository = repository;
+        this.claims = claims;
+        this.marker = marker;
+    }
+
+    @Override
+    public void run() {
+        if (marker.exists()) {
+            return;
+        }
+        try {
+            List<Region> regions = loadAll();
+            if (regions == null || !backfill(regions)) {
+                Log.w(TAG, "Preenchimento das reivindicações interrompido; será repetido na próxima inicialização");
+                return;
+            }
+            if (!marker.createNewFile() && !marker.exists()) {
+                throw new IOException("Não foi possível criar " + marker);
+            }
+            Log.d(TAG, "Reivindicações preenchidas para " + regions.size() + " regiões");
+        } catch (IOException e) {
+            Log.e(TAG, "Falha ao registrar o preenchimento: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Retorna null se a consulta for cancelada ou não terminar a tempo
+    private List<Region> loadAll() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<List<Region>> result = new AtomicReference<>();
+        repository.loadAll(new ConsultaCallback() {
+            @Override
+            public void onRegionsLoaded(List<Region> regions) {
+                result.set(regions);
+                done.countDown();
+            }
+
+            @Override
+            public void onCancelled() {
+                done.countDown();
+            }
+        });
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            Log.e(TAG, "Tempo esgotado na consulta das regiões");
+            return null;
+        }
+        return result.get();
+    }
+
+    private boolean backfill(List<Region> regions) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicBoolean success = new AtomicBoolean();
+        claims.backfill(regions, new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                success.set(true);
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Falha no preenchimento das reivindicações: " + e.getMessage());
+                done.countDown();
+            }
+        });
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            Log.e(TAG, "Tempo esgotado no preenchimento das reivindicações");
+            return false;
+        }
+        return success.get();
+    }
+}
@@ -0,0 +1,235 @@
+/**
+ * Tarefa de compactação que move as regiões antigas do nó "regioes" para os baldes de arquivo.
+ *
+ * A cada execução, calcula o instante de corte da RetentionPolicy e processa o histórico em lotes: consulta até
+ * chunkSize regiões anteriores ao corte, agrupa-as por balde, junta as quase duplicadas (mesmo nome, mesmo balde
+ * e a menos de mergeRadiusMeters, mantendo a mais antiga) e arquiva o lote em uma única operação atômica do
+ * repositório. Como as regiões arquivadas saem do conjunto consultado, o lote seguinte começa naturalmente onde o
+ * anterior terminou, sem cursor. A execução termina quando não há mais regiões antigas, quando atinge o número
+ * máximo de lotes ou na primeira falha; a próxima execução continua do mesmo ponto.
+ *
+ * Se a tarefa receber uma RegionClaims, as reivindicações das regiões arquivadas são liberadas depois de cada lote,
+ * para que elas deixem de bloquear novas regiões na vizinhança. Uma falha na liberação não interrompe a compactação:
+ * a reivindicação que sobra apenas continua recusando regiões próximas a ela.
+ *
+ * O método run() bloqueia a thread chamadora enquanto espera pelo repositório e deve ser executado em segundo plano.
+ *
+ * Principais funcionalidades:
+ * - Processamento incremental do histórico em lotes de tamanho limitado.
+ * - Agrupamento das regiões em baldes por período e junção de quase duplicadas dentro de cada lote.
+ * - Relatório da execução com a quantidade de lotes, regiões arquivadas e regiões juntadas.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RegionCompactionJob implements Runnable {
+    private static final String TAG = "RegionCompactionJob";
+    private static final long TIMEOUT_SECONDS = 60; // Espera máxima por cada operação do repositório
+
+    private final RegionRepository repository;
+    private final RetentionPolicy policy;
+    private final RegionClaims claims;
+    private volatile Report lastReport;
+
+    public RegionCompactionJob(RegionRepository repository, RetentionPolicy policy) {
+        this(repository, policy, null);
+    }
+
+    public RegionCompactionJob(RegionRepository repository, RetentionPolicy policy, RegionClaims claims) {
+        this.repository = repository;
+        this.policy = policy;
+        this.claims = claims;
+    }
+
+    @Override
+    public void run() {
+        lastReport = compact(System.currentTimeMillis());
+        Log.d(TAG, lastReport.toString());
+    }
+
+    /**
+     * Executa a compactação considerando nowMillis como o instante atual.
+     */
+    public Report compact(long nowMillis) {
+        Report report = new Report();
+        long cutoff = policy.cutoff(nowMillis);
+        try {
+            while (report.chunks < policy.getMaxChunksPerRun()) {
+                List<Region> chunk = load(cutoff);
+                if (chunk == null) {
+                    report.failed = true;
+                    break;
+                }
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                Map<String, List<Region>> buckets = group(chunk);
+                if (!archive(buckets, chunk)) {
+                    report.failed = true;
+                    break;
+                }
+                int archived = 0;
+                for (List<Region> regions : buckets.values()) {
+                    archived += regions.size();
+                }
+                report.chunks++;
+                report.removed += chunk.size();
+                report.archived += archived;
+                report.merged += chunk.size() - archived;
+                if (claims != null) {
+                    release(chunk);
+                }
+                if (chunk.size() < policy.getChunkSize()) {
+                    break; // Último lote: não há mais regiões anteriores ao corte
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.failed = true;
+        }
+        return report;
+    }
+
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    // Agrupa o lote por balde, descartando as quase duplicadas de regiões mais antigas do mesmo balde
+    private Map<String, List<Region>> group(List<Region> chunk) {
+        double mergeRadius = policy.getMergeRadiusMeters();
+        Map<String, List<Region>> buckets = new LinkedHashMap<>();
+        Map<String, RegionSpatialIndex> indexes = new LinkedHashMap<>();
+        for (Region region : chunk) { // O lote vem em ordem crescente de timestamp
+            String bucket = policy.bucketOf(region.getTimestamp());
+            List<Region> regions = buckets.get(bucket);
+            if (regions == null) {
+                regions = new ArrayList<>();
+                buckets.put(bucket, regions);
+            }
+            if (mergeRadius > 0) {
+                RegionSpatialIndex index = indexes.get(bucket);
+                if (index == null) {
+                    index = new RegionSpatialIndex(mergeRadius);
+                    indexes.put(bucket, index);
+                }
+                if (hasDuplicate(index, region, mergeRadius)) {
+                    continue;
+                }
+                index.add(region);
+            }
+            regions.add(region);
+        }
+        return buckets;
+    }
+
+    private static boolean hasDuplicate(RegionSpatialIndex index, Region region, double radius) {
+        for (Region near : index.withinRadius(region.getLatitude(), region.getLongitude(), radius)) {
+            if (near.getName() != null && near.getName().equals(region.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Consulta o próximo lote; retorna null se a consulta for cancelada ou não terminar a tempo
+    private List<Region> load(long cutoff) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<List<Region>> result = new AtomicReference<>();
+        repository.loadOlderThan(cutoff, policy.getChunkSize(), new ConsultaCallback() {
+            @Override
+            public void onRegionsLoaded(List<Region> regions) {
+                result.set(regions);
+                done.countDown();
+            }
+
+            @Override
+            public void onCancelled() {
+                done.countDown();
+            }
+        });
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            Log.e(TAG, "Tempo esgotado na consulta das regiões antigas");
+            return null;
+        }
+        return result.get();
+    }
+
+    private boolean archive(Map<String, List<Region>> buckets, List<Region> removed) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicBoolean success = new AtomicBoolean();
+        repository.archive(buckets, removed, new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                success.set(true);
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Falha no arquivamento do lote: " + e.getMessage());
+                done.countDown();
+            }
+        });
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            Log.e(TAG, "Tempo esgotado no arquivamento do lote");
+            return false;
+        }
+        return success.get();
+    }
+
+    // Libera as reivindicações das regiões arquivadas e espera pela confirmação, sem interromper a compactação se falhar
+    private void release(List<Region> removed) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        claims.release(removed, new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.w(TAG, "Falha na liberação das reivindicações do lote: " + e.getMessage());
+                done.countDown();
+            }
+        });
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            Log.w(TAG, "Tempo esgotado na liberação das reivindicações do lote");
+        }
+    }
+
+    /**
+     * Resultado de uma execução da compactação.
+     */
+    public static class Report {
+        public int chunks;     // Lotes arquivados com sucesso
+        public int removed;    // Regiões retiradas do conjunto consultado
+        public int archived;   // Regiões gravadas nos baldes de arquivo
+        public int merged;     // Regiões descartadas por serem quase duplicadas de outra do mesmo balde
+        public boolean failed; // A execução parou por uma falha ou por tempo esgotado
+
+        @Override
+        public String toString() {
+            return "Compactação: lotes=" + chunks + " removidas=" + removed + " arquivadas=" + archived
+                    + " juntadas=" + merged + (failed ? " (interrompida por falha)" : "");
+        }
+    }
+}
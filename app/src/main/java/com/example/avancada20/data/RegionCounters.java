@@ -0,0 +1,107 @@
+/**
+ * Contadores agregados das regiões, mantidos pelo próprio banco de dados junto com as gravações.
+ *
+ * Cada região conta uma vez em cada dimensão: na área (prefixo de geohash de AREA_PRECISION caracteres, o mesmo
+ * dos fragmentos), no dia do seu timestamp (UTC, "aaaa-mm-dd", ou NO_DATE sem timestamp), no seu usuário e no total
+ * (chave TOTAL_KEY da dimensão TOTAL). Os repositórios aplicam os incrementos calculados por deltas() na mesma
+ * operação atômica que grava as regiões (e os decrementos na mesma operação que as arquiva), de modo que os painéis
+ * leem apenas alguns nós pequenos em vez de todas as regiões. Se os contadores divergirem dos dados, o
+ * RegionCountersRebuildJob os recalcula a partir das regiões.
+ *
+ * No Realtime Database, os contadores ficam em "contadores/{dimensão}/{chave}"; no Firestore, no campo
+ * "valores.{chave}" do documento "contadores/{dimensão}".
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.Geohash;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+public final class RegionCounters {
+    public static final String NODE = "contadores";
+    public static final String AREA = "area";
+    public static final String DAY = "dia";
+    public static final String USER = "usuario";
+    public static final String TOTAL = "total";
+    public static final String TOTAL_KEY = "regioes";
+    public static final String NO_DATE = "sem-data";
+    public static final String[] DIMENSIONS = {AREA, DAY, USER, TOTAL};
+    public static final int AREA_PRECISION = RegionShards.DEFAULT_PRECISION;
+
+    private RegionCounters() {
+    }
+
+    /**
+     * Incrementos dos contadores para as regiões informadas, por dimensão e chave, multiplicados por sign
+     * (1 para regiões gravadas, -1 para regiões removidas). Chaves com incremento zero não aparecem.
+     */
+    public static Map<String, Map<String, Long>> deltas(Iterable<Region> regions, int sign) {
+        Map<String, Map<String, Long>> deltas = new HashMap<>();
+        SimpleDateFormat format = dayFormat();
+        for (Region region : regions) {
+            add(deltas, AREA, areaOf(region), sign);
+            add(deltas, DAY, dayOf(region.getTimestamp(), format), sign);
+            add(deltas, USER, String.valueOf(region.getuser()), sign);
+            add(deltas, TOTAL, TOTAL_KEY, sign);
+        }
+        return deltas;
+    }
+
+    /**
+     * Soma os incrementos de delta aos contadores de target, removendo as chaves que chegarem a zero.
+     */
+    public static void apply(Map<String, Map<String, Long>> target, Map<String, Map<String, Long>> delta) {
+        for (Map.Entry<String, Map<String, Long>> dimension : delta.entrySet()) {
+            for (Map.Entry<String, Long> counter : dimension.getValue().entrySet()) {
+                add(target, dimension.getKey(), counter.getKey(), counter.getValue());
+            }
+        }
+    }
+
+    public static String areaOf(Region region) {
+        return Geohash.encode(region.getLatitude(), region.getLongitude(), AREA_PRECISION);
+    }
+
+    public static String dayOf(Long timestamp) {
+        return dayOf(timestamp, dayFormat());
+    }
+
+    private static String dayOf(Long timestamp, SimpleDateFormat format) {
+        return timestamp == null ? NO_DATE : format.format(new Date(timestamp));
+    }
+
+    private static SimpleDateFormat dayFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    private static void add(Map<String, Map<String, Long>> counters, String dimension, String key, long delta) {
+        Map<String, Long> values = counters.get(dimension);
+        if (values == null) {
+            values = new HashMap<>();
+            counters.put(dimension, values);
+        }
+        Long current = values.get(key);
+        long updated = (current == null ? 0 : current) + delta;
+        if (updated == 0) {
+            values.remove(key);
+            if (values.isEmpty()) {
+                counters.remove(dimension);
+            }
+        } else {
+            values.put(key, updated);
+        }
+    }
+}
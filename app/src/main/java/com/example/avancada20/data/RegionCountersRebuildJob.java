@@ -0,0 +1,137 @@
+/**
+ * Reparo dos contadores agregados (RegionCounters): recalcula todos os contadores a partir das regiões armazenadas
+ * e os substitui no repositório.
+ *
+ * Os contadores só divergem das regiões quando algo as altera por fora do repositório (edição manual no console,
+ * regras antigas do banco de dados, dados anteriores aos contadores) ou quando um arquivamento repetido decrementa
+ * duas vezes a mesma região. A reconstrução lê todas as regiões com loadAll() e grava o resultado com
+ * replaceCounters(); gravações feitas entre a leitura e a substituição não entram na contagem, então ela deve ser
+ * executada com os envios parados, ou repetida até dois relatórios seguidos mostrarem os mesmos totais.
+ *
+ * O método run() bloqueia a thread chamadora enquanto espera pelo repositório e deve ser executado em segundo plano.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RegionCountersRebuildJob implements Runnable {
+    private static final String TAG = "RegionCountersRebuild";
+    private static final long TIMEOUT_SECONDS = 120; // Espera máxima por cada operação do repositório
+
+    private final RegionRepository repository;
+    private volatile Report lastReport;
+
+    public RegionCountersRebuildJob(RegionRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public void run() {
+        lastReport = rebuild();
+        Log.d(TAG, lastReport.toString());
+    }
+
+    public Report rebuild() {
+        Report report = new Report();
+        try {
+            List<Region> regions = loadAll();
+            if (regions == null) {
+                report.failed = true;
+                return report;
+            }
+            Map<String, Map<String, Long>> counters = RegionCounters.deltas(regions, 1);
+            if (!replace(counters)) {
+                report.failed = true;
+                return report;
+            }
+            report.regions = regions.size();
+            for (String dimension : RegionCounters.DIMENSIONS) {
+                Map<String, Long> values = counters.get(dimension);
+                report.keys += values == null ? 0 : values.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.failed = true;
+        }
+        return report;
+    }
+
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    // Retorna null se a consulta for cancelada ou não terminar a tempo
+    private List<Region> loadAll() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<List<Region>> result = new AtomicReference<>();
+        repository.loadAll(new ConsultaCallback() {
+            @Override
+            public void onRegionsLoaded(List<Region> regions) {
+                result.set(regions);
+                done.countDown();
+            }
+
+            @Override
+            public void onCancelled() {
+                done.countDown();
+            }
+        });
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            Log.e(TAG, "Tempo esgotado na consulta das regiões");
+            return null;
+        }
+        return result.get();
+    }
+
+    private boolean replace(Map<String, Map<String, Long>> counters) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicBoolean success = new AtomicBoolean();
+        repository.replaceCounters(counters, new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                success.set(true);
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Falha na gravação dos contadores: " + e.getMessage());
+                done.countDown();
+            }
+        });
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            Log.e(TAG, "Tempo esgotado na gravação dos contadores");
+            return false;
+        }
+        return success.get();
+    }
+
+    /**
+     * Resultado de uma reconstrução dos contadores.
+     */
+    public static class Report {
+        public int regions;    // Regiões contadas
+        public int keys;       // Contadores gravados, somando todas as dimensões
+        public boolean failed; // A reconstrução parou por uma falha ou por tempo esgotado; os contadores não mudaram
+
+        @Override
+        public String toString() {
+            return "Contadores: regioes=" + regions + " chaves=" + keys + (failed ? " (interrompida por falha)" : "");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Abstração do armazenamento de regiões usada pelas threads de consulta e de gravação.
+ *
+ * Todas as operações são assíncronas, no mesmo estilo dos ouvintes do Firebase: o resultado é entregue a um
+ * callback, em uma thread escolhida pela implementação. Isso permite trocar o Firebase Realtime Database por
+ * um repositório em memória nos testes e na bancada de carga, sem depender de um backend real.
+ *
+ * Principais funcionalidades:
+ * - Consulta de todas as regiões armazenadas, ou apenas das regiões próximas de um ponto.
+ * - Gravação de uma região ou de um lote de regiões, com notificação de sucesso ou falha.
+ * - Consulta paginada das regiões mais antigas e arquivamento atômico delas, usados pela compactação do histórico.
+ * - Transação sobre o nó de reivindicações de uma célula da grade, usada pela admissão atômica de regiões.
+ * - Contadores agregados por área, dia e usuário (RegionCounters), atualizados junto com as gravações e arquivamentos.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+
+import java.util.List;
+import java.util.Map;
+
+public interface RegionRepository {
+    /**
+     * Consulta todas as regiões armazenadas.
+     * Cada região entregue ao callback tem a chave do banco de dados preenchida (Region.getKey()).
+     */
+    void loadAll(ConsultaCallback callback);
+
+    /**
+     * Consulta as regiões próximas das coordenadas informadas.
+     * O resultado contém todas as regiões a menos de radiusMeters e pode conter outras regiões da vizinhança;
+     * quem consulta deve calcular as distâncias exatas.
+     */
+    void loadNear(double latitude, double longitude, double radiusMeters, ConsultaCallback callback);
+
+    /**
+     * Gera uma nova chave única, sem acesso à rede, para uma região que ainda não foi gravada.
+     * Quem atribui a chave antes de gravar pode repetir a gravação sem duplicar a região.
+     */
+    String newKey();
+
+    /**
+     * Grava uma região. Uma região sem chave recebe uma nova chave gerada pelo repositório, atribuída à região
+     * (Region.setKey()) antes da gravação; uma região com chave é gravada sobre ela, substituindo a região anterior.
+     */
+    void save(Region region, WriteCallback callback);
+
+    /**
+     * Grava um lote de regiões, com as mesmas regras de chave de save().
+     * A mesma operação incrementa os contadores agregados (RegionCounters.deltas()) apenas das regiões cujas chaves
+     * ainda não estavam gravadas, de modo que regravar um lote já gravado não altera os contadores.
+     * A gravação é atômica no Realtime Database; no Firestore, apenas para lotes de até
+     * FirestoreRegionRepository.MAX_ATOMIC_REGIONS regiões.
+     */
+    void saveAll(List<Region> regions, WriteCallback callback);
+
+    /**
+     * Consulta até limit regiões com timestamp anterior a cutoff, em ordem crescente de timestamp.
+     * Regiões sem timestamp são consideradas as mais antigas.
+     */
+    void loadOlderThan(long cutoff, int limit, ConsultaCallback callback);
+
+    /**
+     * Em uma única operação atômica, remove as regiões de removed do conjunto consultado e grava as regiões de
+     * archived nos baldes de arquivo indicados pelas chaves do mapa. Cada região arquivada mantém a sua chave.
+     * A mesma operação decrementa os contadores agregados das regiões de removed.
+     */
+    void archive(Map<String, List<Region>> archived, List<Region> removed, WriteCallback callback);
+
+    /**
+     * Executa uma transação sobre as reivindicações da célula cellKey: lê as reivindicações, aplica a função da
+     * transação e grava o resultado somente se nenhuma outra gravação tiver alterado a célula nesse meio tempo;
+     * caso contrário, repete a função com os dados novos. Usado pela RegionClaims para admitir regiões de forma
+     * atômica entre dispositivos.
+     */
+    void transactCell(String cellKey, CellTransaction transaction);
+
+    /**
+     * Consulta os contadores agregados de uma dimensão (RegionCounters.AREA, DAY, USER ou TOTAL), indexados pela chave.
+     */
+    void loadCounters(String dimension, CountersCallback callback);
+
+    /**
+     * Substitui todos os contadores agregados pelos informados, indexados por dimensão e chave, em uma única
+     * operação. Usado pelo reparo (RegionCountersRebuildJob), que os recalcula a partir das regiões.
+     */
+    void replaceCounters(Map<String, Map<String, Long>> counters, WriteCallback callback);
+}
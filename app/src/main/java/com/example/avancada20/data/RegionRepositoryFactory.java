@@ -0,0 +1,44 @@
+/**
+ * Fábrica do RegionRepository usado pelo aplicativo.
+ *
+ * O armazenamento é escolhido pelo recurso de texto "region_backend" (res/values/strings.xml), que pode ser
+ * sobrescrito por variante de build ou por flavor sem alterar o código:
+ * - "realtime": FirebaseRegionRepository, sobre o Firebase Realtime Database (padrão).
+ * - "firestore": FirestoreRegionRepository, sobre o Cloud Firestore.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.avancada20.R;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+public final class RegionRepositoryFactory {
+    private static final String TAG = "RegionRepositoryFactory";
+    public static final String REALTIME = "realtime";
+    public static final String FIRESTORE = "firestore";
+
+    private RegionRepositoryFactory() {
+    }
+
+    public static RegionRepository create(Context context) {
+        return create(context.getString(R.string.region_backend));
+    }
+
+    public static RegionRepository create(String backend) {
+        if (FIRESTORE.equals(backend)) {
+            return new FirestoreRegionRepository(FirebaseFirestore.getInstance());
+        }
+        if (!REALTIME.equals(backend)) {
+            Log.w(TAG, "Armazenamento desconhecido \"" + backend + "\"; usando o Realtime Database");
+        }
+        return new FirebaseRegionRepository(FirebaseDatabase.getInstance());
+    }
+}
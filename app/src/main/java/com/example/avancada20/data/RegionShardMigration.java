@@ -0,0 +1,172 @@
+/**
+ * Migração das regiões do formato antigo, com todas as regiões como filhas diretas de "regioes", para o formato
+ * particionado "regioes/{fragmento}/{chave}" do FirebaseRegionRepository.
+ *
+ * As regiões antigas são encontradas com uma consulta ordenada pelo filho "latitude" a partir de -90: os nós de
+ * fragmento não têm esse filho e ficam fora do resultado, então cada lote lê apenas regiões ainda não migradas.
+ * Cada lote é movido com uma única atualização de múltiplos caminhos (remoção do caminho antigo, gravação no
+ * fragmento e registro do fragmento), mantendo a chave original. Como as regiões migradas deixam de aparecer na
+ * consulta, a migração pode ser interrompida e retomada a qualquer momento.
+ *
+ * Os contadores agregados não contavam as regiões antigas, mas a movimentação não os incrementa: dois dispositivos
+ * migrando o mesmo lote ao mesmo tempo gravariam a mesma região duas vezes, sem dano, e a contariam duas vezes.
+ * Em vez disso, depois do último lote, os contadores são recalculados a partir de todas as regiões
+ * (RegionCountersRebuildJob), o que dá o mesmo resultado qualquer que seja a quantidade de dispositivos migrando.
+ *
+ * A consulta pelo filho "latitude" só é filtrada no servidor se as regras do banco de dados declararem
+ * ".indexOn": ["latitude"] em "regioes"; sem a regra, o cliente baixa o nó "regioes" inteiro e filtra localmente.
+ * Por isso, quando a migração e a reconstrução dos contadores terminam, ela grava o marcador "migracoes/fragmentos" = true, e as execuções seguintes
+ * leem apenas o marcador, sem consultar as regiões.
+ *
+ * O método run() bloqueia a thread chamadora enquanto espera pelo banco de dados e deve ser executado em segundo plano.
+ *
+ * Principais funcionalidades:
+ * - Verificação do marcador de migração concluída antes de qualquer consulta às regiões.
+ * - Localização das regiões no formato antigo em lotes de tamanho limitado.
+ * - Movimentação atômica de cada lote para os fragmentos.
+ * - Reconstrução dos contadores agregados e gravação do marcador quando não há mais regiões no formato antigo.
+ * - Registro em log da quantidade de regiões migradas.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.avancada20.ui.home.Region;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RegionShardMigration implements Runnable {
+    private static final String TAG = "RegionShardMigration";
+    private static final long TIMEOUT_SECONDS = 60; // Espera máxima por cada operação do banco de dados
+    static final String MIGRATIONS_NODE = "migracoes";
+    static final String SHARDS_MARKER = "fragmentos";
+
+    private final FirebaseRegionRepository repository;
+    private final int chunkSize;
+
+    public RegionShardMigration(FirebaseRegionRepository repository, int chunkSize) {
+        this.repository = repository;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void run() {
+        DatabaseReference marker = repository.getRoot().child(MIGRATIONS_NODE).child(SHARDS_MARKER);
+        int migrated = 0;
+        try {
+            Boolean finished = readMarker(marker);
+            if (finished == null) {
+                return; // Sem resposta do banco; a migração é tentada de novo na próxima inicialização
+            }
+            if (finished) {
+                Log.d(TAG, "Migração para os fragmentos já concluída");
+                return;
+            }
+            while (true) {
+                List<Region> chunk = loadLegacyChunk();
+                if (chunk == null) {
+                    return;
+                }
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                Map<String, Object> updates = new HashMap<>();
+                for (Region region : chunk) {
+                    updates.put(FirebaseRegionRepository.REGIONS_NODE + "/" + region.getKey(), null);
+                    repository.putRegion(updates, region);
+                }
+                Tasks.await(repository.getRoot().updateChildren(updates), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                migrated += chunk.size();
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
+            RegionCountersRebuildJob.Report report = new RegionCountersRebuildJob(repository).rebuild();
+            Log.d(TAG, report.toString());
+            if (report.failed) {
+                return; // Sem o marcador, a reconstrução é repetida na próxima inicialização
+            }
+            Tasks.await(marker.setValue(true), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            Log.e(TAG, "Migração interrompida: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            Log.d(TAG, "Regiões migradas para os fragmentos: " + migrated);
+        }
+    }
+
+    // Lê o marcador de migração concluída; retorna null em caso de erro ou de tempo esgotado
+    private Boolean readMarker(DatabaseReference marker) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Boolean> result = new AtomicReference<>();
+        marker.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                result.set(Boolean.TRUE.equals(snapshot.getValue(Boolean.class)));
+                done.countDown();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.i(TAG, "Erro na leitura do marcador de migração" + error);
+                done.countDown();
+            }
+        });
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            Log.e(TAG, "Tempo esgotado na leitura do marcador de migração");
+            return null;
+        }
+        return result.get();
+    }
+
+    // Consulta o próximo lote de regiões no formato antigo; retorna null em caso de erro ou de tempo esgotado
+    private List<Region> loadLegacyChunk() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<List<Region>> result = new AtomicReference<>();
+        repository.getRoot().child(FirebaseRegionRepository.REGIONS_NODE)
+                .orderByChild("latitude").startAt(-90).limitToFirst(chunkSize)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        List<Region> lista = new ArrayList<>();
+                        for (DataSnapshot childSnapshot : snapshot.getChildren()) {
+                            FirebaseRegionRepository.addRegion(lista, childSnapshot);
+                        }
+                        result.set(lista);
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Log.i(TAG, "Erro na leitura das regiões antigas" + error);
+                        done.countDown();
+                    }
+                });
+        if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            Log.e(TAG, "Tempo esgotado na leitura das regiões antigas");
+            return null;
+        }
+        return result.get();
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Particionamento geográfico das regiões por prefixo de geohash.
+ *
+ * Cada região pertence à partição (fragmento) identificada pelo geohash das suas coordenadas com a precisão
+ * configurada. No Firebase, as regiões ficam em "regioes/{fragmento}/{chave}", de modo que uma consulta por
+ * área lê apenas os fragmentos que cobrem a área, e não o nó inteiro.
+ *
+ * Tamanho aproximado de um fragmento no equador, por precisão: 4 = 39 km x 20 km, 5 = 4,9 km x 4,9 km,
+ * 6 = 1,2 km x 0,6 km. Precisões maiores reduzem os dados lidos por consulta, mas aumentam o número de fragmentos
+ * consultados quando a área cruza as bordas.
+ *
+ * Principais funcionalidades:
+ * - Cálculo do fragmento de uma região ou de coordenadas.
+ * - Cálculo dos fragmentos que cobrem um círculo de raio R.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.Geohash;
+
+import java.util.List;
+
+public class RegionShards {
+    public static final int DEFAULT_PRECISION = 5;
+
+    private final int precision;
+
+    public RegionShards() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public RegionShards(int precision) {
+        if (precision < 1 || precision > Geohash.MAX_PRECISION) {
+            throw new IllegalArgumentException("Precisão de fragmento inválida: " + precision);
+        }
+        this.precision = precision;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public String shardOf(double latitude, double longitude) {
+        return Geohash.encode(latitude, longitude, precision);
+    }
+
+    public String shardOf(Region region) {
+        return shardOf(region.getLatitude(), region.getLongitude());
+    }
+
+    /**
+     * Retorna os fragmentos que contêm todos os pontos a menos de radiusMeters das coordenadas informadas,
+     * começando pelo fragmento que contém as próprias coordenadas.
+     */
+    public List<String> cover(double latitude, double longitude, double radiusMeters) {
+        List<String> cover = Geohash.cover(latitude, longitude, radiusMeters, precision);
+        String own = shardOf(latitude, longitude);
+        if (cover.remove(own)) {
+            cover.add(0, own);
+        }
+        return cover;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Motor de consultas espaciais sobre objetos Region, compartilhado pelo mapa, pelas cercas virtuais e pelas análises.
+ *
+ * Guarda as regiões em uma lista e as suas coordenadas em um GridIndex do módulo Calculos, cujos identificadores
+ * são as posições na lista. As consultas de raio e de retângulo visitam apenas as células candidatas e calculam a
+ * distância exata somente na borda da área consultada, com a estratégia equirretangular (DistanceStrategy), que é
+ * exata na escala da regra dos 30 metros e recorre à haversine em raios longos.
+ *
+ * Principais funcionalidades:
+ * - Inserção de regiões e construção a partir de uma lista.
+ * - Consulta das regiões a menos de R metros de um ponto e das regiões dentro de um retângulo de latitude/longitude,
+ *   inclusive retângulos que cruzam o antimeridiano.
+ * - Verificação rápida da existência de alguma região a menos de R metros (a regra dos 30 metros).
+ *
+ * A classe não é sincronizada; o acesso concorrente deve ser controlado por quem a utiliza.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.DistanceStrategy;
+import com.example.calculos.GeoGrid;
+import com.example.calculos.GridIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RegionSpatialIndex {
+    private final List<Region> regions = new ArrayList<>();
+    private final GridIndex index;
+
+    public RegionSpatialIndex() {
+        this(RegionAdmission.MIN_DISTANCE);
+    }
+
+    public RegionSpatialIndex(double cellSizeMeters) {
+        index = new GridIndex(new GeoGrid(cellSizeMeters), 16, DistanceStrategy.EQUIRECTANGULAR);
+    }
+
+    public static RegionSpatialIndex of(List<Region> regions) {
+        RegionSpatialIndex spatialIndex = new RegionSpatialIndex();
+        for (Region region : regions) {
+            spatialIndex.add(region);
+        }
+        return spatialIndex;
+    }
+
+    /**
+     * Adiciona uma região ao índice.
+     *
+     * @return O identificador da região no índice (a sua posição na ordem de inserção).
+     */
+    public int add(Region region) {
+        regions.add(region);
+        return index.add(region.getLatitude(), region.getLongitude());
+    }
+
+    public Region get(int id) {
+        return regions.get(id);
+    }
+
+    public int size() {
+        return regions.size();
+    }
+
+    public List<Region> getRegions() {
+        return regions;
+    }
+
+    // Índice de coordenadas subjacente; os identificadores são as posições das regiões neste objeto
+    public GridIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Retorna as regiões a menos de radiusMeters das coordenadas informadas.
+     */
+    public List<Region> withinRadius(double latitude, double longitude, double radiusMeters) {
+        final List<Region> result = new ArrayList<>();
+        index.queryRadius(latitude, longitude, radiusMeters, id -> result.add(regions.get(id)));
+        return result;
+    }
+
+    /**
+     * Retorna as regiões dentro do retângulo informado. Se west for maior que east, o retângulo cruza o antimeridiano.
+     */
+    public List<Region> withinBox(double south, double west, double north, double east) {
+        final List<Region> result = new ArrayList<>();
+        index.queryBox(south, west, north, east, id -> result.add(regions.get(id)));
+        return result;
+    }
+
+    /**
+     * Retorna alguma região a menos de radiusMeters das coordenadas informadas, ou null se não houver nenhuma.
+     */
+    public Region findWithin(double latitude, double longitude, double radiusMeters) {
+        int id = index.findWithin(latitude, longitude, radiusMeters);
+        return id < 0 ? null : regions.get(id);
+    }
+
+    public boolean anyWithin(double latitude, double longitude, double radiusMeters) {
+        return index.anyWithin(latitude, longitude, radiusMeters);
+    }
+}
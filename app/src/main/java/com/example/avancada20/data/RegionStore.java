@@ -0,0 +1,209 @@
+/**
+ * Lista local de regiões ainda não enviadas, segura para acesso concorrente e particionada por célula da grade.
+ *
+ * As regiões ficam em um mapa concorrente de células de MIN_DISTANCE metros (GeoGrid), e cada célula é protegida
+ * por um de STRIPES bloqueios, escolhido pelo identificador da célula. Para admitir uma região, tryAdd() toma, em
+ * ordem crescente, os bloqueios de todas as células que o círculo de MIN_DISTANCE metros ao redor dela toca, verifica
+ * as regiões dessas células e insere a nova região, de modo que a verificação e a inserção são atômicas em relação
+ * a qualquer outra admissão na vizinhança. Admissões em áreas distantes tomam bloqueios diferentes e prosseguem em
+ * paralelo; a ordem crescente dos bloqueios evita impasses entre vizinhanças que se sobrepõem.
+ *
+ * Os nomes são únicos em toda a lista: ficam em um conjunto concorrente, reservado com uma operação atômica depois da
+ * verificação de proximidade, de modo que duas admissões simultâneas com o mesmo nome em áreas distantes não são
+ * ambas aceitas.
+ *
+ * Uma região com forma fica na célula do seu ponto de referência, mas pode estar a menos de MIN_DISTANCE metros de
+ * regiões bem mais distantes desse ponto. Por isso a vizinhança verificada é ampliada pelo alcance da nova forma e
+ * pelo maior alcance já registrado (maxReach); se maxReach crescer entre o cálculo da vizinhança e a tomada dos
+ * bloqueios, a admissão recomeça com a vizinhança maior. Sem regiões com forma, a vizinhança é a mesma de antes.
+ *
+ * Principais funcionalidades:
+ * - Verificação e inserção atômicas de uma nova região, com a mesma regra da RegionAdmission.
+ * - Retirada de todas as regiões para o envio (drain()), célula por célula, sem perder inserções concorrentes.
+ * - Contagem, cópia e limpeza da lista.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.GeoGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class RegionStore {
+    static final int STRIPES = 256; // Potência de 2: o bloqueio de uma célula é escolhido por máscara
+
+    private final GeoGrid grid = new GeoGrid(RegionAdmission.MIN_DISTANCE);
+    private final Map<Long, List<Region>> cells = new ConcurrentHashMap<>();
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile double maxReach; // Maior alcance de uma forma já admitida (ou em admissão), em metros
+
+    public RegionStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Adiciona a região se nenhuma outra tiver o mesmo nome nem estiver a menos de MIN_DISTANCE metros dela.
+     *
+     * @return ACCEPTED se a região foi adicionada, ou o motivo da recusa.
+     */
+    public RegionAdmission.Result tryAdd(Region region) {
+        double reach = RegionAdmission.reachOf(region);
+        raiseMaxReach(reach); // Antes dos bloqueios, para que admissões vizinhas já em curso recomecem e vejam a forma
+        while (true) {
+            double knownReach = maxReach;
+            final List<Long> neighborhood = new ArrayList<>(9);
+            grid.cover(region.getLatitude(), region.getLongitude(), RegionAdmission.MIN_DISTANCE + reach + knownReach,
+                    (row, column) -> {
+                        neighborhood.add(GeoGrid.key(row, column));
+                        return true;
+                    });
+            int[] stripes = stripesOf(neighborhood);
+            lock(stripes);
+            try {
+                if (maxReach != knownReach) {
+                    continue; // Uma forma maior entrou enquanto os bloqueios eram tomados
+                }
+                return admit(region, neighborhood);
+            } finally {
+                unlock(stripes);
+            }
+        }
+    }
+
+    // Verifica e insere a região; chamado com os bloqueios da vizinhança tomados
+    private RegionAdmission.Result admit(Region region, List<Long> neighborhood) {
+        String name = region.getName();
+        if (name != null && names.contains(name)) {
+            return RegionAdmission.Result.DUPLICATE_NAME;
+        }
+        for (Long cell : neighborhood) {
+            List<Region> regions = cells.get(cell);
+            if (regions != null && RegionAdmission.checkRegionProximity(region, regions)) {
+                return RegionAdmission.Result.TOO_CLOSE;
+            }
+        }
+        if (name != null && !names.add(name)) {
+            return RegionAdmission.Result.DUPLICATE_NAME; // Mesmo nome admitido ao mesmo tempo em outra área
+        }
+        long cell = grid.cellOf(region.getLatitude(), region.getLongitude());
+        List<Region> regions = cells.get(cell);
+        if (regions == null) {
+            regions = new ArrayList<>(2);
+            cells.put(cell, regions);
+        }
+        regions.add(region);
+        size.incrementAndGet();
+        return RegionAdmission.Result.ACCEPTED;
+    }
+
+    private synchronized void raiseMaxReach(double reach) {
+        if (reach > maxReach) {
+            maxReach = reach;
+        }
+    }
+
+    /**
+     * Retira e retorna todas as regiões da lista. Cada célula é retirada com o seu bloqueio, então uma região
+     * inserida durante a retirada é devolvida agora ou permanece na lista para a próxima retirada.
+     */
+    public List<Region> drain() {
+        List<Region> drained = new ArrayList<>(size.get());
+        for (Long cell : cells.keySet()) {
+            ReentrantLock lock = locks[stripeOf(cell)];
+            lock.lock();
+            try {
+                List<Region> regions = cells.remove(cell);
+                if (regions != null) {
+                    for (Region region : regions) {
+                        if (region.getName() != null) {
+                            names.remove(region.getName());
+                        }
+                    }
+                    size.addAndGet(-regions.size());
+                    drained.addAll(regions);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Retorna uma cópia das regiões da lista, sem retirá-las.
+     */
+    public List<Region> snapshot() {
+        List<Region> copy = new ArrayList<>(size.get());
+        for (Map.Entry<Long, List<Region>> entry : cells.entrySet()) {
+            ReentrantLock lock = locks[stripeOf(entry.getKey())];
+            lock.lock();
+            try {
+                copy.addAll(entry.getValue());
+            } finally {
+                lock.unlock();
+            }
+        }
+        return copy;
+    }
+
+    public void clear() {
+        drain();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    // Bloqueios das células, sem repetição e em ordem crescente, para que todas as admissões os tomem na mesma ordem
+    private static int[] stripesOf(List<Long> neighborhood) {
+        int[] stripes = new int[neighborhood.size()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = stripeOf(neighborhood.get(i));
+        }
+        Arrays.sort(stripes);
+        int distinct = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            if (i == 0 || stripes[i] != stripes[i - 1]) {
+                stripes[distinct++] = stripes[i];
+            }
+        }
+        return Arrays.copyOf(stripes, distinct);
+    }
+
+    static int stripeOf(long cell) {
+        long hash = cell * 0x9E3779B97F4A7C15L; // Espalha células vizinhas entre os bloqueios
+        return (int) (hash >>> 56) & (STRIPES - 1);
+    }
+
+    private void lock(int[] stripes) {
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+    }
+
+    private void unlock(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Agendamento do envio em segundo plano das regiões salvas pelo usuário.
+ *
+ * As regiões são acrescentadas à PendingRegionStore e o envio é agendado como um trabalho único do WorkManager
+ * (WORK_NAME, com ExistingWorkPolicy.KEEP), adiado por WINDOW_MINUTES: enquanto o trabalho espera, novos
+ * agendamentos são ignorados e tudo o que for salvo na janela segue no mesmo envio, o que reduz as vezes em que o
+ * rádio é acordado. O trabalho sobrevive ao fragmento e ao processo, respeita as restrições configuradas nos recursos
+ * booleanos "upload_unmetered_only" e "upload_charging_only" (res/values/bools.xml) e, em caso de falha, é repetido
+ * com recuo exponencial a partir de BACKOFF_SECONDS.
+ *
+ * Uma região acrescentada enquanto o trabalho termina pode ficar sem envio agendado; scheduleIfPending() é chamado na
+ * abertura do aplicativo para agendar o envio das regiões que tenham ficado na fila.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import com.example.avancada20.R;
+import com.example.avancada20.ui.home.Region;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public final class RegionUploadScheduler {
+    private static final String TAG = "RegionUploadScheduler";
+    public static final String WORK_NAME = "envio-regioes";
+    static final long WINDOW_MINUTES = 15;
+    static final long BACKOFF_SECONDS = 30;
+    static final String STORE_FILE = "regioes-pendentes.bin";
+
+    private static PendingRegionStore store;
+
+    private RegionUploadScheduler() {
+    }
+
+    // Fila compartilhada por todo o processo, para que os métodos sincronizados protejam o mesmo arquivo
+    static synchronized PendingRegionStore store(Context context) {
+        if (store == null) {
+            store = new PendingRegionStore(new File(context.getApplicationContext().getFilesDir(), STORE_FILE));
+        }
+        return store;
+    }
+
+    /**
+     * Atribui uma chave do repositório às regiões que não têm, acrescenta as regiões à fila persistente e agenda o
+     * envio. Com a chave guardada na fila, um lote enviado de novo grava sobre as mesmas regiões.
+     * Faz E/S de disco; não deve ser chamado na thread principal.
+     */
+    public static void enqueue(Context context, RegionRepository repository, List<Region> regions) throws IOException {
+        for (Region region : regions) {
+            if (region.getKey() == null) {
+                region.setKey(repository.newKey());
+            }
+        }
+        store(context).append(regions);
+        schedule(context);
+    }
+
+    /**
+     * Agenda o envio, se houver regiões pendentes. Faz E/S de disco; não deve ser chamado na thread principal.
+     */
+    public static void scheduleIfPending(Context context) {
+        try {
+            int pending = store(context).size();
+            if (pending > 0) {
+                Log.d(TAG, "Regiões pendentes de envio: " + pending);
+                schedule(context);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Erro na leitura da fila de regiões pendentes: " + e.getMessage());
+        }
+    }
+
+    public static void schedule(Context context) {
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, buildRequest(context));
+    }
+
+    static OneTimeWorkRequest buildRequest(Context context) {
+        return new OneTimeWorkRequest.Builder(RegionUploadWorker.class)
+                .setConstraints(constraints(context.getResources().getBoolean(R.bool.upload_unmetered_only),
+                        context.getResources().getBoolean(R.bool.upload_charging_only)))
+                .setInitialDelay(WINDOW_MINUTES, TimeUnit.MINUTES)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+    }
+
+    static Constraints constraints(boolean unmeteredOnly, boolean chargingOnly) {
+        return new Constraints.Builder()
+                .setRequiredNetworkType(unmeteredOnly ? NetworkType.UNMETERED : NetworkType.CONNECTED)
+                .setRequiresCharging(chargingOnly)
+                .setRequiresBatteryNotLow(true)
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Trabalho do WorkManager que envia ao banco de dados as regiões da PendingRegionStore.
+ *
+ * A fila é esvaziada em lotes de até BATCH_SIZE regiões, cada um gravado com uma única chamada a saveAll(); um lote
+ * só é retirado da fila depois que o repositório confirma a gravação. BATCH_SIZE é o maior saveAll que o Firestore
+ * grava em um único WriteBatch, de modo que cada lote é atômico em qualquer um dos repositórios. As regiões entram
+ * na fila já com a chave do repositório (RegionUploadScheduler.enqueue()), então um lote enviado de novo, porque a
+ * confirmação não chegou a tempo enquanto a gravação anterior ainda estava pendente, grava sobre as mesmas regiões
+ * em vez de duplicá-las. Se uma gravação falhar ou não for confirmada em TIMEOUT_SECONDS, o trabalho pede uma nova
+ * tentativa (Result.retry()), que o WorkManager agenda com o recuo exponencial configurado pelo
+ * RegionUploadScheduler; depois de MAX_ATTEMPTS tentativas o trabalho desiste, e as regiões continuam na fila até o
+ * próximo agendamento. TIMEOUT_SECONDS cobre todas as tentativas que o ResilientRegionRepository faz dentro de um
+ * saveAll(), contando ATTEMPT_TIMEOUT_SECONDS para cada uma, e as esperas entre elas, para que o trabalho não
+ * desista de um lote que o repositório ainda está tentando gravar.
+ *
+ * Depois da gravação, as reservas das regiões do lote (RegionClaims.reserve()) são confirmadas com
+ * RegionClaims.backfill(), e só então o lote sai da fila: se a confirmação falhar, o trabalho pede uma nova
+ * tentativa, e o lote é gravado de novo sobre as mesmas chaves, sem alterar os contadores.
+ *
+ * Cada lote confirmado também é registrado no mapa de calor (DensityStore); uma falha nesse registro é apenas
+ * registrada em log e não impede o envio.
+ *
+ * Principais funcionalidades:
+ * - Envio em lotes das regiões pendentes, com remoção da fila após a confirmação.
+ * - Pedido de nova tentativa em caso de falha, com limite de tentativas.
+ * - Registro em log e no resultado do trabalho da quantidade de regiões enviadas.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.avancada20.startup.AppServices;
+import com.example.avancada20.ui.home.Region;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class RegionUploadWorker extends Worker {
+    private static final String TAG = "RegionUploadWorker";
+    public static final String KEY_UPLOADED = "enviadas";
+    static final int BATCH_SIZE = FirestoreRegionRepository.MAX_ATOMIC_REGIONS;
+    static final int MAX_ATTEMPTS = 10;
+    static final long ATTEMPT_TIMEOUT_SECONDS = 60; // Espera por cada tentativa de gravação do repositório
+    // Espera máxima pela confirmação de cada lote: todas as tentativas do ResilientRegionRepository e as esperas entre elas
+    static final long TIMEOUT_SECONDS = ResilientRegionRepository.WRITE_ATTEMPTS * ATTEMPT_TIMEOUT_SECONDS
+            + TimeUnit.MILLISECONDS.toSeconds(ResilientRegionRepository.maxWriteBackoffMillis()) + 1;
+
+    private final RegionRepository repository;
+    private final RegionClaims claims;
+    private final PendingRegionStore store;
+    private final DensityStore density; // Pode ser null, sem mapa de calor
+
+    public RegionUploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        this(context, params, AppServices.from(context).getRegionRepository(), RegionUploadScheduler.store(context),
+                AppServices.from(context).getDensityStore());
+    }
+
+    public RegionUploadWorker(@NonNull Context context, @NonNull WorkerParameters params,
+                              RegionRepository repository, PendingRegionStore store) {
+        this(context, params, repository, store, null);
+    }
+
+    public RegionUploadWorker(@NonNull Context context, @NonNull WorkerParameters params,
+                              RegionRepository repository, PendingRegionStore store, DensityStore density) {
+        super(context, params);
+        this.repository = repository;
+        this.claims = new RegionClaims(repository);
+        this.store = store;
+        this.density = density;
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        int uploaded = 0;
+        try {
+            List<Region> batch;
+            while (!(batch = store.peek(BATCH_SIZE)).isEmpty()) {
+                if (!upload(batch)) {
+                    Log.w(TAG, "Falha no envio de " + batch.size() + " regiões (tentativa " + (getRunAttemptCount() + 1) + ")");
+                    return getRunAttemptCount() + 1 >= MAX_ATTEMPTS ? Result.failure() : Result.retry();
+                }
+                store.remove(batch.size());
+                uploaded += batch.size();
+                recordDensity(batch);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Erro na fila de regiões pendentes: " + e.getMessage());
+            return Result.failure();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+        Log.d(TAG, "Regiões enviadas: " + uploaded);
+        return Result.success(new Data.Builder().putInt(KEY_UPLOADED, uploaded).build());
+    }
+
+    private void recordDensity(List<Region> batch) {
+        if (density == null) {
+            return;
+        }
+        try {
+            density.record(batch);
+        } catch (IOException e) {
+            Log.e(TAG, "Falha ao atualizar o mapa de calor: " + e.getMessage());
+        }
+    }
+
+    // Grava o lote e confirma as reservas das suas regiões, esperando pela confirmação do repositório em cada etapa
+    private boolean upload(final List<Region> batch) throws InterruptedException {
+        final CountDownLatch saved = new CountDownLatch(1);
+        final AtomicBoolean ok = new AtomicBoolean();
+        repository.saveAll(batch, new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                ok.set(true);
+                saved.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                saved.countDown();
+            }
+        });
+        if (!saved.await(TIMEOUT_SECONDS, TimeUnit.SECONDS) || !ok.get()) {
+            return false;
+        }
+        ok.set(false);
+        final CountDownLatch confirmed = new CountDownLatch(1);
+        claims.backfill(batch, new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                ok.set(true);
+                confirmed.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.w(TAG, "Falha na confirmação das reservas: " + e.getMessage());
+                confirmed.countDown();
+            }
+        });
+        return confirmed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS) && ok.get();
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * RegionRepository que protege outro repositório com uma política de falhas (DependencyGuard) para as leituras e
+ * outra para as gravações, cada uma com o seu disjuntor.
+ *
+ * Uma leitura cancelada ou uma gravação que falhou é repetida com recuo exponencial e variação aleatória, dentro do
+ * orçamento de novas tentativas; só a falha da última tentativa chega ao callback (onCancelled() ou onFailure()).
+ * Quando uma das dependências falha seguidamente, o seu disjuntor abre e as chamadas seguintes falham na hora, sem
+ * ir ao banco, até a chamada de teste confirmar que ele voltou; as gravações recebem então uma CircuitOpenException.
+ * Leituras e gravações têm disjuntores separados porque podem falhar de forma independente (por exemplo, regras de
+ * segurança que recusam apenas as gravações).
+ *
+ * Repetir uma gravação não duplica regiões: a primeira tentativa atribui as chaves que faltam (Region.setKey()) e
+ * as seguintes gravam sobre as mesmas chaves. Cada tentativa é atômica no Realtime Database, mas no Firestore apenas
+ * até FirestoreRegionRepository.MAX_ATOMIC_REGIONS regiões; um lote maior pode ficar gravado em parte até a
+ * tentativa seguinte. Os contadores agregados só são incrementados para as chaves que ainda não estavam gravadas,
+ * então uma gravação que chegou ao banco mas cuja confirmação se perdeu não conta as regiões de novo na tentativa
+ * seguinte. As transações das células repetem a função da transação, que não tem efeitos colaterais
+ * (CellTransaction). Quem espera por uma gravação deve esperar por todas as tentativas, mais as esperas entre elas
+ * (maxWriteBackoffMillis()).
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+public class ResilientRegionRepository implements RegionRepository {
+    public static final String READS = "leituras de regiões";
+    public static final String WRITES = "gravações de regiões";
+
+    static final int READ_ATTEMPTS = 3;
+    static final long READ_BASE_MILLIS = 500;
+    static final long READ_MAX_MILLIS = 8000;
+    static final long READ_OPEN_MILLIS = 30000;
+    static final int WRITE_ATTEMPTS = 4;
+    static final long WRITE_BASE_MILLIS = 1000;
+    static final long WRITE_MAX_MILLIS = 30000;
+    static final long WRITE_OPEN_MILLIS = 60000;
+    static final int FAILURE_THRESHOLD = 5; // Falhas seguidas que abrem o disjuntor
+    static final double RETRY_RATIO = 0.2; // Novas tentativas por chamada nova, em uma falha prolongada
+    static final int RETRY_RESERVE = 10;
+
+    private final RegionRepository delegate;
+    private final DependencyGuard reads;
+    private final DependencyGuard writes;
+
+    public ResilientRegionRepository(RegionRepository delegate) {
+        this(delegate, newScheduler());
+    }
+
+    private ResilientRegionRepository(RegionRepository delegate, ScheduledExecutorService scheduler) {
+        this(delegate,
+                new DependencyGuard(READ_ATTEMPTS, new Backoff(READ_BASE_MILLIS, READ_MAX_MILLIS),
+                        new RetryBudget(RETRY_RATIO, RETRY_RESERVE),
+                        new CircuitBreaker(READS, FAILURE_THRESHOLD, READ_OPEN_MILLIS), scheduler),
+                new DependencyGuard(WRITE_ATTEMPTS, new Backoff(WRITE_BASE_MILLIS, WRITE_MAX_MILLIS),
+                        new RetryBudget(RETRY_RATIO, RETRY_RESERVE),
+                        new CircuitBreaker(WRITES, FAILURE_THRESHOLD, WRITE_OPEN_MILLIS), scheduler));
+    }
+
+    public ResilientRegionRepository(RegionRepository delegate, DependencyGuard reads, DependencyGuard writes) {
+        this.delegate = delegate;
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    /**
+     * Soma das maiores esperas entre as WRITE_ATTEMPTS tentativas de uma gravação.
+     */
+    static long maxWriteBackoffMillis() {
+        Backoff backoff = new Backoff(WRITE_BASE_MILLIS, WRITE_MAX_MILLIS);
+        long total = 0;
+        for (int attempt = 0; attempt < WRITE_ATTEMPTS - 1; attempt++) {
+            total += backoff.ceilingMillis(attempt);
+        }
+        return total;
+    }
+
+    public RegionRepository getDelegate() {
+        return delegate;
+    }
+
+    public CircuitBreaker.State getReadState() {
+        return reads.getBreaker().getState();
+    }
+
+    public CircuitBreaker.State getWriteState() {
+        return writes.getBreaker().getState();
+    }
+
+    @Override
+    public void loadAll(ConsultaCallback callback) {
+        read(delegate::loadAll, callback);
+    }
+
+    @Override
+    public void loadNear(final double latitude, final double longitude, final double radiusMeters, ConsultaCallback callback) {
+        read(wrapped -> delegate.loadNear(latitude, longitude, radiusMeters, wrapped), callback);
+    }
+
+    @Override
+    public void loadOlderThan(final long cutoff, final int limit, ConsultaCallback callback) {
+        read(wrapped -> delegate.loadOlderThan(cutoff, limit, wrapped), callback);
+    }
+
+    @Override
+    public String newKey() {
+        return delegate.newKey();
+    }
+
+    @Override
+    public void save(final Region region, WriteCallback callback) {
+        write(wrapped -> delegate.save(region, wrapped), callback);
+    }
+
+    @Override
+    public void saveAll(final List<Region> regions, WriteCallback callback) {
+        write(wrapped -> delegate.saveAll(regions, wrapped), callback);
+    }
+
+    @Override
+    public void archive(final Map<String, List<Region>> archived, final List<Region> removed, WriteCallback callback) {
+        write(wrapped -> delegate.archive(archived, removed, wrapped), callback);
+    }
+
+    @Override
+    public void transactCell(final String cellKey, final CellTransaction transaction) {
+        writes.execute(new DependencyGuard.Operation() {
+            @Override
+            public void attempt(final DependencyGuard.Attempt attempt) {
+                delegate.transactCell(cellKey, new CellTransaction() {
+                    @Override
+                    public Map<String, CellClaim> apply(Map<String, CellClaim> claims) {
+                        return transaction.apply(claims);
+                    }
+
+                    @Override
+                    public void onCommitted() {
+                        attempt.succeeded();
+                        transaction.onCommitted();
+                    }
+
+                    @Override
+                    public void onAborted() {
+                        attempt.succeeded(); // O banco respondeu; quem abortou foi a transação
+                        transaction.onAborted();
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        attempt.failed(e);
+                    }
+                });
+            }
+
+            @Override
+            public void onGaveUp(Exception e) {
+                transaction.onFailure(e);
+            }
+        });
+    }
+
+    @Override
+    public void loadCounters(final String dimension, final CountersCallback callback) {
+        reads.execute(new DependencyGuard.Operation() {
+            @Override
+            public void attempt(final DependencyGuard.Attempt attempt) {
+                delegate.loadCounters(dimension, new CountersCallback() {
+                    @Override
+                    public void onCountersLoaded(Map<String, Long> counters) {
+                        attempt.succeeded();
+                        callback.onCountersLoaded(counters);
+                    }
+
+                    @Override
+                    public void onCancelled() {
+                        attempt.failed(new IOException("Leitura dos contadores cancelada"));
+                    }
+                });
+            }
+
+            @Override
+            public void onGaveUp(Exception e) {
+                callback.onCancelled();
+            }
+        });
+    }
+
+    @Override
+    public void replaceCounters(final Map<String, Map<String, Long>> counters, WriteCallback callback) {
+        write(wrapped -> delegate.replaceCounters(counters, wrapped), callback);
+    }
+
+    // Leitura que entrega uma lista de regiões, repetida enquanto for cancelada
+    private void read(final Consumer<ConsultaCallback> call, final ConsultaCallback callback) {
+        reads.execute(new DependencyGuard.Operation() {
+            @Override
+            public void attempt(final DependencyGuard.Attempt attempt) {
+                call.accept(new ConsultaCallback() {
+                    @Override
+                    public void onRegionsLoaded(List<Region> regions) {
+                        attempt.succeeded();
+                        callback.onRegionsLoaded(regions);
+                    }
+
+                    @Override
+                    public void onCancelled() {
+                        attempt.failed(new IOException("Leitura cancelada"));
+                    }
+                });
+            }
+
+            @Override
+            public void onGaveUp(Exception e) {
+                callback.onCancelled();
+            }
+        });
+    }
+
+    // Gravação repetida enquanto falhar
+    private void write(final Consumer<WriteCallback> call, final WriteCallback callback) {
+        writes.execute(new DependencyGuard.Operation() {
+            @Override
+            public void attempt(final DependencyGuard.Attempt attempt) {
+                call.accept(new WriteCallback() {
+                    @Override
+                    public void onSuccess() {
+                        attempt.succeeded();
+                        callback.onSuccess();
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        attempt.failed(e);
+                    }
+                });
+            }
+
+            @Override
+            public void onGaveUp(Exception e) {
+                callback.onFailure(e);
+            }
+        });
+    }
+
+    private static ScheduledExecutorService newScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ResilientRegionRepository");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
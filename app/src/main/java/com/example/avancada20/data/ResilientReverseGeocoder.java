@@ -0,0 +1,51 @@
+/**
+ * ReverseGeocoder que protege o geocodificador remoto com uma política de falhas (DependencyGuard).
+ *
+ * Uma consulta que falha é repetida na thread chamadora depois de uma espera curta e sorteada, no máximo ATTEMPTS
+ * vezes, porque quem chama espera o nome; quando o geocodificador falha seguidamente, o disjuntor abre e as
+ * consultas seguintes falham na hora com uma CircuitOpenException, que o OfflineFirstReverseGeocoder trata como
+ * qualquer falha do remoto (usando o gazetteer). Assim, nem a busca antecipada nem quem salva uma região ficam
+ * presos esperando um serviço fora do ar.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import java.io.IOException;
+
+public class ResilientReverseGeocoder implements ReverseGeocoder {
+    public static final String GEOCODER = "geocodificador";
+    static final int ATTEMPTS = 2;
+    static final long BASE_MILLIS = 250;
+    static final long MAX_MILLIS = 1000;
+    static final int FAILURE_THRESHOLD = 3;
+    static final long OPEN_MILLIS = 60000;
+    static final double RETRY_RATIO = 0.2;
+    static final int RETRY_RESERVE = 5;
+
+    private final ReverseGeocoder remote;
+    private final DependencyGuard guard;
+
+    public ResilientReverseGeocoder(ReverseGeocoder remote) {
+        // As esperas são feitas na thread chamadora; não há agendamentos
+        this(remote, new DependencyGuard(ATTEMPTS, new Backoff(BASE_MILLIS, MAX_MILLIS),
+                new RetryBudget(RETRY_RATIO, RETRY_RESERVE), new CircuitBreaker(GEOCODER, FAILURE_THRESHOLD, OPEN_MILLIS), null));
+    }
+
+    public ResilientReverseGeocoder(ReverseGeocoder remote, DependencyGuard guard) {
+        this.remote = remote;
+        this.guard = guard;
+    }
+
+    @Override
+    public String reverseGeocode(final double latitude, final double longitude) throws IOException {
+        return guard.call(() -> remote.reverseGeocode(latitude, longitude));
+    }
+
+    public CircuitBreaker.State getState() {
+        return guard.getBreaker().getState();
+    }
+}
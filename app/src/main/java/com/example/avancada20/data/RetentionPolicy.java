@@ -0,0 +1,107 @@
+/**
+ * Política de retenção das regiões do nó "regioes".
+ *
+ * Define a partir de que idade uma região deixa o conjunto consultado pelas threads de consulta e é movida para
+ * um balde de arquivo, como os baldes são nomeados (por dia, mês ou ano do timestamp) e como a compactação
+ * processa o histórico: em lotes de tamanho limitado, com um número máximo de lotes por execução e, opcionalmente,
+ * juntando regiões quase duplicadas de um mesmo balde.
+ *
+ * Principais funcionalidades:
+ * - Cálculo do instante de corte a partir do instante atual e do horizonte de retenção.
+ * - Cálculo do nome do balde de arquivo de uma região a partir do seu timestamp (em UTC).
+ * - Parâmetros de lote e de junção de quase duplicadas usados pelo RegionCompactionJob.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+public class RetentionPolicy {
+    static final String UNDATED_BUCKET = "sem-data"; // Balde das regiões antigas gravadas sem timestamp
+
+    public enum Period {
+        DAY("yyyy-MM-dd"),
+        MONTH("yyyy-MM"),
+        YEAR("yyyy");
+
+        private final String pattern;
+
+        Period(String pattern) {
+            this.pattern = pattern;
+        }
+    }
+
+    private final long horizonMillis;
+    private final Period period;
+    private final double mergeRadiusMeters;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+
+    /**
+     * @param horizonMillis     Idade a partir da qual uma região é arquivada.
+     * @param period            Período de cada balde de arquivo.
+     * @param mergeRadiusMeters Distância abaixo da qual regiões de mesmo nome e mesmo balde são juntadas; 0 desativa a junção.
+     * @param chunkSize         Quantidade máxima de regiões lidas e arquivadas por lote.
+     * @param maxChunksPerRun   Quantidade máxima de lotes por execução da compactação.
+     */
+    public RetentionPolicy(long horizonMillis, Period period, double mergeRadiusMeters, int chunkSize, int maxChunksPerRun) {
+        if (horizonMillis <= 0 || chunkSize <= 0 || maxChunksPerRun <= 0 || mergeRadiusMeters < 0) {
+            throw new IllegalArgumentException("Parâmetros de retenção inválidos");
+        }
+        this.horizonMillis = horizonMillis;
+        this.period = period;
+        this.mergeRadiusMeters = mergeRadiusMeters;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+    }
+
+    /**
+     * Política padrão do aplicativo: mantém 90 dias de regiões, arquiva por mês, junta regiões de mesmo nome
+     * a menos de 5 metros e processa até 20 lotes de 500 regiões por execução.
+     */
+    public static RetentionPolicy defaults() {
+        return new RetentionPolicy(TimeUnit.DAYS.toMillis(90), Period.MONTH, 5, 500, 20);
+    }
+
+    // Regiões com timestamp anterior a este instante são arquivadas
+    public long cutoff(long nowMillis) {
+        return nowMillis - horizonMillis;
+    }
+
+    public String bucketOf(Long timestamp) {
+        if (timestamp == null) {
+            return UNDATED_BUCKET;
+        }
+        SimpleDateFormat format = new SimpleDateFormat(period.pattern, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(timestamp));
+    }
+
+    public long getHorizonMillis() {
+        return horizonMillis;
+    }
+
+    public Period getPeriod() {
+        return period;
+    }
+
+    public double getMergeRadiusMeters() {
+        return mergeRadiusMeters;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getMaxChunksPerRun() {
+        return maxChunksPerRun;
+    }
+}
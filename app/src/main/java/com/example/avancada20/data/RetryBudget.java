@@ -0,0 +1,48 @@
+/**
+ * Orçamento de novas tentativas de uma dependência, para que as repetições não multipliquem a carga durante uma falha.
+ *
+ * Funciona como um balde de fichas: cada chamada nova deposita ratio fichas, até o máximo de maxTokens, e cada nova
+ * tentativa retira uma ficha. O balde começa cheio, então algumas falhas isoladas sempre podem ser repetidas; em uma
+ * falha prolongada, as repetições ficam limitadas a uma fração ratio das chamadas novas.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.data;
+
+public class RetryBudget {
+    private final double ratio;
+    private final double maxTokens;
+
+    // Protegido pelo monitor do objeto
+    private double tokens;
+
+    public RetryBudget(double ratio, int maxTokens) {
+        if (ratio < 0 || maxTokens < 0) {
+            throw new IllegalArgumentException("Orçamento de novas tentativas inválido: " + ratio + ", " + maxTokens);
+        }
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    // Uma chamada nova foi feita
+    public synchronized void onRequest() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * Retira uma ficha para uma nova tentativa.
+     *
+     * @return Falso se o orçamento acabou e a falha deve ser entregue a quem chamou.
+     */
+    public synchronized boolean tryRetry() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.avancada20.data;
+
+import java.io.IOException;
+
+public interface ReverseGeocoder {
+    /**
+     * Obtém o nome (endereço) do lugar nas coordenadas informadas. Bloqueia a thread chamadora.
+     *
+     * @return O nome do lugar, ou null se nenhum endereço for encontrado.
+     * @throws IOException Se o serviço de geocodificação não puder ser consultado (por exemplo, sem rede).
+     */
+    String reverseGeocode(double latitude, double longitude) throws IOException;
+}
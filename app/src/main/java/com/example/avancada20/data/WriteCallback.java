@@ -0,0 +1,6 @@
+package com.example.avancada20.data;
+
+public interface WriteCallback {
+    void onSuccess();
+    void onFailure(Exception e);
+}
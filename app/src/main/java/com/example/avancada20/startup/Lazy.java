@@ -0,0 +1,41 @@
+/**
+ * Valor criado apenas no primeiro acesso, uma única vez, mesmo com acessos simultâneos de várias threads.
+ *
+ * Usado para os clientes dos SDKs compartilhados pelo aplicativo: uma fase do StartupCoordinator pode criá-los em
+ * segundo plano chamando get(), e quem os usa depois recebe a mesma instância sem esperar pela criação.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.startup;
+
+import java.util.function.Supplier;
+
+public final class Lazy<T> {
+    private final Supplier<T> supplier;
+    private volatile T value;
+
+    public Lazy(Supplier<T> supplier) {
+        this.supplier = supplier;
+    }
+
+    public T get() {
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = supplier.get();
+                    value = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isInitialized() {
+        return value != null;
+    }
+}
@@ -0,0 +1,287 @@
+/**
+ * Coordenador da inicialização do aplicativo em fases com dependências, executadas fora da thread principal.
+ *
+ * Cada fase tem um nome, uma ação e as fases das quais depende. Ao chamar start(), as fases sem dependências são
+ * entregues ao executor de segundo plano, e cada fase é entregue assim que todas as suas dependências terminam, de
+ * modo que a ordem das dependências é respeitada e as fases independentes podem executar em paralelo. Se uma fase
+ * falhar, inclusive com um Error, as fases que dependem dela não são executadas e quem espera por ela é liberado.
+ *
+ * A duração de cada fase e o instante do primeiro quadro desenhado (markFirstFrame()), ambos medidos desde a
+ * criação do coordenador, ficam registrados para os testes e para o log. O relógio pode ser substituído nos testes.
+ *
+ * Principais funcionalidades:
+ * - Registro de fases com dependências e verificação de nomes desconhecidos e de ciclos antes da execução.
+ * - Execução em ordem de dependência em um executor de segundo plano.
+ * - Execução de uma ação em um executor escolhido (por exemplo, a thread principal) quando uma fase termina.
+ * - Espera pelo término de uma fase com tempo limite.
+ * - Registro das durações das fases e da latência do primeiro quadro.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.startup;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+public class StartupCoordinator {
+    private static final String TAG = "StartupCoordinator";
+    private static final long NOT_MEASURED = -1;
+
+    private final Executor background;
+    private final LongSupplier clock;
+    private final long origin;
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+    private boolean started;
+    private volatile long firstFrameNanos = NOT_MEASURED;
+
+    public StartupCoordinator(Executor background) {
+        this(background, System::nanoTime);
+    }
+
+    public StartupCoordinator(Executor background, LongSupplier clock) {
+        this.background = background;
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+    }
+
+    /**
+     * Registra uma fase. As dependências podem ser registradas depois, desde que antes de start().
+     */
+    public synchronized StartupCoordinator add(String name, Runnable action, String... dependencies) {
+        if (started) {
+            throw new IllegalStateException("A inicialização já começou");
+        }
+        if (phases.containsKey(name)) {
+            throw new IllegalArgumentException("Fase repetida: " + name);
+        }
+        phases.put(name, new Phase(name, action, Arrays.asList(dependencies)));
+        return this;
+    }
+
+    /**
+     * Verifica as dependências e entrega ao executor as fases que não dependem de nenhuma outra.
+     */
+    public void start() {
+        List<Phase> ready = new ArrayList<>();
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+            for (Phase phase : phases.values()) {
+                for (String dependency : phase.dependencies) {
+                    Phase required = phases.get(dependency);
+                    if (required == null) {
+                        throw new IllegalStateException("A fase " + phase.name + " depende da fase desconhecida " + dependency);
+                    }
+                    required.dependents.add(phase);
+                }
+            }
+            checkAcyclic();
+            started = true;
+            for (Phase phase : phases.values()) {
+                if (phase.pending.get() == 0) {
+                    ready.add(phase);
+                }
+            }
+        }
+        for (Phase phase : ready) {
+            submit(phase);
+        }
+    }
+
+    /**
+     * Executa a ação no executor informado quando a fase terminar com sucesso, ou logo, se ela já tiver terminado.
+     * Se a fase falhar, a ação não é executada.
+     */
+    public void whenDone(String name, Executor executor, Runnable action) {
+        Phase phase = phase(name);
+        synchronized (phase) {
+            if (phase.state == State.PENDING) {
+                phase.listeners.add(new Listener(executor, action));
+                return;
+            }
+        }
+        if (phase.state == State.DONE) {
+            executor.execute(action);
+        }
+    }
+
+    /**
+     * Espera o término da fase.
+     *
+     * @return True se a fase terminou com sucesso dentro do tempo limite.
+     */
+    public boolean await(String name, long timeout, TimeUnit unit) throws InterruptedException {
+        Phase phase = phase(name);
+        return phase.done.await(timeout, unit) && phase.state == State.DONE;
+    }
+
+    public boolean isDone(String name) {
+        return phase(name).state == State.DONE;
+    }
+
+    /**
+     * Registra o instante em que o primeiro quadro foi desenhado. Apenas a primeira chamada é considerada.
+     */
+    public void markFirstFrame() {
+        if (firstFrameNanos == NOT_MEASURED) {
+            firstFrameNanos = clock.getAsLong() - origin;
+            Log.d(TAG, "Primeiro quadro em " + getFirstFrameMillis() + " ms; fases: " + getDurationsMillis());
+        }
+    }
+
+    /**
+     * @return O tempo em milissegundos entre a criação do coordenador e o primeiro quadro, ou -1 se ainda não foi medido.
+     */
+    public long getFirstFrameMillis() {
+        long nanos = firstFrameNanos;
+        return nanos == NOT_MEASURED ? NOT_MEASURED : TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * @return A duração em milissegundos de cada fase já terminada, na ordem de registro.
+     */
+    public synchronized Map<String, Long> getDurationsMillis() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        for (Phase phase : phases.values()) {
+            if (phase.durationNanos != NOT_MEASURED) {
+                durations.put(phase.name, TimeUnit.NANOSECONDS.toMillis(phase.durationNanos));
+            }
+        }
+        return Collections.unmodifiableMap(durations);
+    }
+
+    private synchronized Phase phase(String name) {
+        Phase phase = phases.get(name);
+        if (phase == null) {
+            throw new IllegalArgumentException("Fase desconhecida: " + name);
+        }
+        return phase;
+    }
+
+    private void submit(final Phase phase) {
+        background.execute(() -> run(phase));
+    }
+
+    private void run(Phase phase) {
+        if (phase.state != State.PENDING) {
+            return; // Uma dependência falhou depois que as demais terminaram
+        }
+        long start = clock.getAsLong();
+        Throwable failure = null;
+        try {
+            phase.action.run();
+        } catch (Throwable e) {
+            Log.e(TAG, "Falha na fase " + phase.name + ": " + e.getMessage());
+            failure = e;
+        }
+        phase.durationNanos = clock.getAsLong() - start;
+        Log.d(TAG, "Fase " + phase.name + " em " + TimeUnit.NANOSECONDS.toMillis(phase.durationNanos) + " ms");
+        finish(phase, failure == null ? State.DONE : State.FAILED);
+        // Um Error (por exemplo, falta de memória) é registrado como falha da fase, mas não é engolido
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+    // Conclui a fase, notifica os ouvintes e libera as dependentes; uma falha se propaga às dependentes sem executá-las
+    private void finish(Phase phase, State state) {
+        List<Listener> listeners;
+        synchronized (phase) {
+            if (phase.state != State.PENDING) {
+                return;
+            }
+            phase.state = state;
+            listeners = new ArrayList<>(phase.listeners);
+            phase.listeners.clear();
+        }
+        phase.done.countDown();
+        if (state == State.DONE) {
+            for (Listener listener : listeners) {
+                listener.executor.execute(listener.action);
+            }
+        }
+        for (Phase dependent : phase.dependents) {
+            if (state == State.FAILED) {
+                Log.w(TAG, "Fase " + dependent.name + " não executada: a fase " + phase.name + " falhou");
+                finish(dependent, State.FAILED);
+            } else if (dependent.pending.decrementAndGet() == 0) {
+                submit(dependent);
+            }
+        }
+    }
+
+    private void checkAcyclic() {
+        Set<String> visited = new HashSet<>();
+        Set<String> path = new HashSet<>();
+        for (String name : phases.keySet()) {
+            visit(name, visited, path);
+        }
+    }
+
+    private void visit(String name, Set<String> visited, Set<String> path) {
+        if (visited.contains(name)) {
+            return;
+        }
+        if (!path.add(name)) {
+            throw new IllegalStateException("Ciclo de dependências na fase " + name);
+        }
+        for (String dependency : phases.get(name).dependencies) {
+            visit(dependency, visited, path);
+        }
+        path.remove(name);
+        visited.add(name);
+    }
+
+    private enum State {
+        PENDING,
+        DONE,
+        FAILED
+    }
+
+    private static class Listener {
+        final Executor executor;
+        final Runnable action;
+
+        Listener(Executor executor, Runnable action) {
+            this.executor = executor;
+            this.action = action;
+        }
+    }
+
+    private static class Phase {
+        final String name;
+        final Runnable action;
+        final List<String> dependencies;
+        final List<Phase> dependents = new ArrayList<>();
+        final List<Listener> listeners = new ArrayList<>();
+        final AtomicInteger pending;
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile State state = State.PENDING;
+        volatile long durationNanos = NOT_MEASURED;
+
+        Phase(String name, Runnable action, List<String> dependencies) {
+            this.name = name;
+            this.action = action;
+            this.dependencies = new ArrayList<>(new LinkedHashSet<>(dependencies));
+            this.pending = new AtomicInteger(this.dependencies.size());
+        }
+    }
+}
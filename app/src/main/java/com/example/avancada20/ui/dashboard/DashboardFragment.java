@@ -7,10 +7,12 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.example.avancada20.databinding.FragmentDashboardBinding;
+import com.example.avancada20.startup.AppServices;
 
 public class DashboardFragment extends Fragment {
 
@@ -26,6 +28,10 @@ public class DashboardFragment extends Fragment {
 
         final TextView textView = binding.textDashboard;
         dashboardViewModel.getText().observe(getViewLifecycleOwner(), textView::setText);
+
+        AppServices services = AppServices.from(requireContext());
+        services.getStartup().whenDone(AppServices.PHASE_REPOSITORY, ContextCompat.getMainExecutor(requireContext()),
+                () -> dashboardViewModel.load(services.getRegionRepository()));
         return root;
     }
 
@@ -4,16 +4,53 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.example.avancada20.data.CountersCallback;
+import com.example.avancada20.data.RegionCounters;
+import com.example.avancada20.data.RegionRepository;
+
+import java.util.Map;
+
 public class DashboardViewModel extends ViewModel {
 
     private final MutableLiveData<String> mText;
 
     public DashboardViewModel() {
         mText = new MutableLiveData<>();
-        mText.setValue("This is dashboard fragment");
+        mText.setValue("Carregando contadores...");
     }
 
     public LiveData<String> getText() {
         return mText;
     }
-}
\ No newline at end of file
+
+    // Lê apenas os contadores agregados (total, dias e usuários), nunca as regiões
+    public void load(final RegionRepository repository) {
+        repository.loadCounters(RegionCounters.TOTAL, new Callback() {
+            @Override
+            public void onCountersLoaded(final Map<String, Long> total) {
+                repository.loadCounters(RegionCounters.DAY, new Callback() {
+                    @Override
+                    public void onCountersLoaded(final Map<String, Long> days) {
+                        repository.loadCounters(RegionCounters.USER, new Callback() {
+                            @Override
+                            public void onCountersLoaded(Map<String, Long> users) {
+                                Long regions = total.get(RegionCounters.TOTAL_KEY);
+                                Long today = days.get(RegionCounters.dayOf(System.currentTimeMillis()));
+                                mText.postValue("Regiões: " + (regions == null ? 0 : regions)
+                                        + "\nHoje: " + (today == null ? 0 : today)
+                                        + "\nUsuários: " + users.size());
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    private abstract class Callback implements CountersCallback {
+        @Override
+        public void onCancelled() {
+            mText.postValue("Não foi possível carregar os contadores");
+        }
+    }
+}
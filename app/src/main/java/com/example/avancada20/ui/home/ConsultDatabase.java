@@ -1,13 +1,25 @@
 /**
- * Esta classe representa uma thread responsável por consultar o banco de dados Firebase para obter informações sobre as regiões armazenadas.
- * Ela implementa a lógica para verificar se uma nova região a ser adicionada já existe no banco de dados e se está muito próxima de outras regiões existentes.
- * Se a nova região não existir no banco de dados e não estiver muito próxima de outras regiões, inicia uma nova thread para atualizar as regiões.
+ * Esta classe representa uma thread responsável por admitir uma nova região no banco de dados Firebase.
+ * Em vez de ler as regiões próximas e depois gravar, ela reivindica as células da grade que a nova região ocupa
+ * com uma transação por célula (RegionClaims): a transação só é confirmada se nenhuma reivindicação da célula tiver
+ * o mesmo nome ou estiver a menos de 30 metros, o que vale mesmo com outros dispositivos salvando ao mesmo tempo.
+ * Se a reivindicação for aceita, inicia uma nova thread para adicionar a região à lista local, que depois é enviada ao banco.
+ * Como a região só chega ao banco mais tarde, a reivindicação é uma reserva (RegionClaims.reserve()) feita com a
+ * chave com que a região será gravada: o envio a confirma, e ela expira se a região nunca for gravada.
+ * Se a lista local recusar a região, a reivindicação é desfeita, para não bloquear a vizinhança com uma região que
+ * nunca será gravada.
+ * Com um índice local (setLocalIndex()), a região é primeiro verificada contra as regiões já conhecidas pelo
+ * dispositivo, e uma recusa local dispensa a ida ao banco; as regiões aceitas pelo banco e pela lista local passam a
+ * fazer parte do índice. Com um monitor de cercas (setGeofenceMonitor()), as regiões aceitas passam a ser monitoradas
+ * imediatamente, sem esperar o próximo carregamento das cercas.
+ * O resultado é entregue a um RegionClaims.Callback opcional (setCallback()), em uma thread de segundo plano: quem
+ * inicia a thread não precisa esperar por ela.
  *
  * Principais funcionalidades:
- * - Consulta o banco de dados Firebase para obter informações sobre as regiões armazenadas.
- * - Verifica se uma nova região a ser adicionada já existe no banco de dados e se está muito próxima de outras regiões existentes.
+ * - Reivindica as células da nova região no banco de dados, lendo apenas as reivindicações dessas células.
+ * - Recusa a nova região se o nome já estiver reservado ou se ela estiver muito próxima de outras regiões.
  * - Inicia uma nova thread para atualizar as regiões, se necessário.
- * - Registra mensagens de log para monitorar o status da consulta ao banco de dados.
+ * - Registra mensagens de log para monitorar o status da admissão no banco de dados.
  *
  * Autor: Leonardo Monteiro
  * Data: 05/04/2024
@@ -18,181 +30,134 @@ package com.example.avancada20.ui.home;
 
 import android.util.Log;
 
-import androidx.annotation.NonNull;
+import com.example.avancada20.data.LocalRegionIndex;
+import com.example.avancada20.data.RegionAdmission;
+import com.example.avancada20.data.RegionClaims;
+import com.example.avancada20.data.RegionRepository;
+import com.example.avancada20.data.RegionStore;
 
-import com.example.calculos.GeoCalculator;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.TimeUnit;
-import java.util.logging.Handler;
+import java.util.Collections;
 
 public class ConsultDatabase extends Thread{
-    private List<Region> regions;
+    private RegionStore regions;
     private String locationName;
     private double latitude;
     private double longitude;
 
-    private Semaphore semaphore;
-
-
-    private DatabaseReference referencia = FirebaseDatabase.getInstance().getReference();
-    private static final long TIMEOUT_MILLISECONDS = 5000;
+    private RegionRepository repository;
+    private RegionClaims claims;
+    private LocalRegionIndex localIndex;
+    private GeofenceMonitor geofenceMonitor;
+    private RegionClaims.Callback callback;
 
-    public ConsultDatabase(List<Region> regions, String locationName, double latitude, double longitude, Semaphore semaphore) {
+    public ConsultDatabase(RegionStore regions, String locationName, double latitude, double longitude, RegionRepository repository) {
         this.regions = regions;
         this.locationName = locationName;
         this.latitude = latitude;
         this.longitude = longitude;
-        this.semaphore = semaphore;
+        this.repository = repository;
+        this.claims = new RegionClaims(repository);
+    }
+
+    /**
+     * Define o índice local consultado antes do banco e atualizado com as regiões aceitas; null para não usar.
+     */
+    public void setLocalIndex(LocalRegionIndex localIndex) {
+        this.localIndex = localIndex;
+    }
+
+    /**
+     * Define o monitor de cercas que passa a monitorar as regiões aceitas; null para nenhum.
+     */
+    public void setGeofenceMonitor(GeofenceMonitor geofenceMonitor) {
+        this.geofenceMonitor = geofenceMonitor;
+    }
 
+    /**
+     * Define quem recebe o resultado: a região adicionada à lista local, o motivo da recusa pelo índice local, pelo
+     * banco ou pela lista, ou a falha da reivindicação; null para nenhum. Deve ser chamado antes de start().
+     */
+    public void setCallback(RegionClaims.Callback callback) {
+        this.callback = callback;
     }
 
     /**
      * Executa a lógica principal da thread.
-     * Adquire a permissão do semáforo antes de acessar a lista.
-     * Consulta o banco de dados para obter as regiões do banco.
-     * Realiza a comparação entre as regiões do banco e a nova região a ser adicionada.
-     * Se a nova região não existir no banco e não estiver muito próxima de outras regiões na lista local e do banco de dados, inicia uma nova thread para atualizar as regiões.
-     * Registra mensagens de log para indicar ações realizadas ou exceções capturadas.
-     * Libera a permissão do semáforo após acessar a lista.
+     * Reivindica no banco de dados as células da nova região, em uma transação por célula.
+     * Se a reivindicação for aceita, inicia uma nova thread para adicionar a região à lista local, que também verifica a lista.
+     * Registra mensagens de log para indicar ações realizadas.
      */
     @Override
     public void run() {
-        try {
-            // Adquira a permissão do semáforo antes de acessar a lista
-            semaphore.acquire();
-
-            // Consultar o banco de dados para obter as regiões do banco
-            consultarBanco(new ConsultaCallback() {
-                @Override
-                public void onRegionsLoaded(List<Region> regionsFromDatabase) {
-                    // Realizar a comparação aqui
-                    boolean regionExists = false;
-                    for (Region region : regionsFromDatabase) {
-                        Log.d("Consulta Banco de Dados", "Região do Banco de Dados - Nome: " + region.getName());
-                        if (region.getName().equals(locationName)) {
-                            regionExists = true;
-                            break;
+        // Recusar sem ir ao banco se o índice local já tiver uma região com o mesmo nome ou muito próxima
+        if (localIndex != null) {
+            RegionAdmission.Result local = localIndex.check(locationName, latitude, longitude);
+            if (local != RegionAdmission.Result.ACCEPTED) {
+                logRejection(local);
+                if (callback != null) {
+                    callback.onRejected(local);
+                }
+                return;
+            }
+        }
+        // Reservar as células da nova região com a chave com que ela será gravada; o banco recusa a reserva se houver conflito
+        Region reserved = new Region(locationName, latitude, longitude, null, 0);
+        reserved.setKey(repository.newKey());
+        claims.reserve(reserved, new RegionClaims.Callback() {
+            @Override
+            public void onAccepted(final Region claimed) {
+                // Nenhuma reivindicação em conflito: adicionar o objeto Region à lista de regiões local
+                RegionUpdaterThread updater = new RegionUpdaterThread(regions, locationName, latitude, longitude);
+                updater.setKey(claimed.getKey());
+                updater.setListener((region, result) -> {
+                    if (result == RegionAdmission.Result.ACCEPTED) {
+                        if (localIndex != null) {
+                            localIndex.add(region);
                         }
-                    }
-
-                    if (!regionExists) {
-                        // Verificar se a nova região está a menos de 30 metros de distância de outras regiões na lista local e do banco de dados
-                        boolean tooClose = checkRegionProximity(latitude, longitude, regionsFromDatabase);
-                        if (!tooClose) {
-                            // Adicionar o objeto Region à lista de regiões local
-                            RegionUpdaterThread thread = new RegionUpdaterThread(regions, locationName, latitude, longitude, semaphore);
-                            semaphore.release();
-                            thread.start();
-
-                        } else {
-                            // Se a nova região estiver muito próxima de outra região, registrar uma mensagem no log
-                            Log.d("Consulta Banco de Dados ", "A nova região está muito próxima de outra região do Banco");
+                        if (geofenceMonitor != null) {
+                            geofenceMonitor.addRegion(region);
+                        }
+                        if (callback != null) {
+                            callback.onAccepted(region);
                         }
                     } else {
-                        // Se a região já existir, registrar uma mensagem no log
-                        Log.d("Consulta Banco de Dados", "Esta região já está na lista do Banco de Dados");
+                        claims.release(Collections.singletonList(claimed), null);
+                        if (callback != null) {
+                            callback.onRejected(result);
+                        }
                     }
-
-                    // Libere a permissão do semáforo após acessar a lista
-                    semaphore.release();
-                    Log.d("Consulta Banco de Dados", "Semáforo do Banco liberado");
-                }
-
-                @Override
-                public void onCancelled() {
-                    // Tratar o cancelamento da consulta
-                    Log.d("Consulta Banco de Dados", "Consulta cancelada");
-                    // Libere a permissão do semáforo após acessar a lista
-                    semaphore.release();
-                    Log.d("Consulta Banco de Dados", "Semáforo do Banco liberado");
-                }
-            });
-
-        } catch (InterruptedException e) {
-            // Lidar com qualquer exceção de interrupção que possa ocorrer
-            e.printStackTrace();
-        }
-        Log.d("Consulta Banco de Dados", "Thread Finalizada");
-    }
-
-
-
-    /**
-     * Verifica se a nova região está muito próxima de outras regiões na lista.
-     * Utiliza um objeto GeoCalculator para calcular a distância entre a nova região e as regiões existentes na lista.
-     * Percorre todas as regiões na lista e calcula a distância entre cada uma delas e a nova região.
-     * Se a distância entre a nova região e qualquer região na lista for menor que 30 metros, retorna verdadeiro.
-     * Caso contrário, retorna falso.
-     *
-     * @param latitude  A latitude da nova região.
-     * @param longitude A longitude da nova região.
-     * @param regions   A lista de regiões existentes.
-     * @return True se a nova região estiver muito próxima de outras regiões na lista, false caso contrário.
-     */
-    private boolean checkRegionProximity(double latitude, double longitude, List<Region> regions) {
-        GeoCalculator cal = new GeoCalculator(); // Utiliza um objeto GeoCalculator para calcular a distância
-        for (Region region : regions) { // Percorre todas as regiões na lista
-            double distance = cal.calculateDistance(region.getLatitude(), region.getLongitude(), latitude, longitude); // Calcula a distância entre a nova região e a região atual na lista
-            if (distance < 30) { // Se a distância for menor que 30 metros, retorna verdadeiro
-                return true;
+                });
+                updater.start();
             }
-        }
-        return false; // Caso contrário, retorna falso
-    }
 
-    /**
-     * Consulta o banco de dados para obter as regiões armazenadas.
-     * Obtém uma referência para o nó "regioes" no banco de dados.
-     * Adiciona um ouvinte de evento de valor único para a referência.
-     * Para cada região encontrada no banco de dados, extrai os dados (nome, latitude, longitude, timestamp, usuário) e cria um objeto Region correspondente.
-     * Adiciona cada objeto Region a uma lista.
-     * Notifica o callback com a lista de regiões após a conclusão da consulta bem-sucedida.
-     * Em caso de erro na leitura do banco de dados, registra uma mensagem de log e notifica o callback sobre o cancelamento da consulta.
-     *
-     * @param callback O objeto de callback para notificar sobre o resultado da consulta.
-     */
-    private void consultarBanco(final ConsultaCallback callback) {
-        DatabaseReference regiao = referencia.child("regioes"); // Obtém uma referência para o nó "regioes" no banco de dados
-        List<Region> list = new ArrayList<>(); // Cria uma lista para armazenar as regiões obtidas do banco de dados
-        regiao.addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                List<Region> lista = new ArrayList<>(); // Cria uma lista temporária para armazenar as regiões obtidas do banco de dados
-                for (DataSnapshot childSnapshot : snapshot.getChildren()) {
-                    // Extrai os dados (nome, latitude, longitude, timestamp, usuário) de cada região no banco de dados
-                    String name = childSnapshot.child("name").getValue(String.class);
-                    double latitude = childSnapshot.child("latitude").getValue(Double.class);
-                    double longitude = childSnapshot.child("longitude").getValue(Double.class);
-                    Long timestamp = childSnapshot.child("timestamp").getValue(Long.class);
-                    int user = Math.toIntExact(childSnapshot.child("user").getValue(Long.class));
-                    String key = childSnapshot.getKey();
-                    int Chave = Integer.parseInt(key); // Chave por rota do banco de dados 1, 2,3 ...
-
-                    // Cria um objeto Region com os dados extraídos
-                    Region region = new Region(name, latitude, longitude, timestamp, user);
-                    lista.add(region); // Adiciona o objeto Region à lista temporária
+            public void onRejected(RegionAdmission.Result result) {
+                logRejection(result);
+                if (callback != null) {
+                    callback.onRejected(result);
                 }
-                // Notificar o callback com a lista de regiões após a conclusão da consulta
-                callback.onRegionsLoaded(lista);
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                // Em caso de erro na leitura do banco de dados, registra uma mensagem de log
-                Log.i("Consulta Banco de Dados", "Erro na leitura do Banco de Dados" + error);
-                // Notificar o callback sobre o cancelamento da consulta
-                callback.onCancelled();
+            public void onFailure(Exception e) {
+                // Tratar a falha da transação
+                Log.d("Consulta Banco de Dados", "Reivindicação cancelada: " + e.getMessage());
+                if (callback != null) {
+                    callback.onFailure(e);
+                }
             }
         });
+        Log.d("Consulta Banco de Dados", "Thread Finalizada");
+    }
+
+    private static void logRejection(RegionAdmission.Result result) {
+        if (result == RegionAdmission.Result.TOO_CLOSE) {
+            // Se a nova região estiver muito próxima de outra região, registrar uma mensagem no log
+            Log.d("Consulta Banco de Dados ", "A nova região está muito próxima de outra região do Banco");
+        } else {
+            // Se a região já existir, registrar uma mensagem no log
+            Log.d("Consulta Banco de Dados", "Esta região já está na lista do Banco de Dados");
+        }
     }
 
 }
\ No newline at end of file
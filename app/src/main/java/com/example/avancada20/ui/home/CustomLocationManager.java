@@ -9,6 +9,12 @@
  * - Inicialização e interrupção das atualizações de localização em segundo plano.
  * - Registro de mensagens de log para monitorar o status das atualizações de localização.
  * - Envio de informações de localização para um ouvinte de callback registrado.
+ * - Encaminhamento direto das posições ao monitor de cercas virtuais, sem passar pela thread principal.
+ * - Gravação de cada posição no registro da trajetória, também na thread das atualizações de localização.
+ * - Encaminhamento de cada posição à busca antecipada dos nomes das células próximas.
+ *
+ * As posições vêm de uma LocationSource: o GPS do dispositivo (FusedLocationSource) ou um trajeto gravado
+ * (ReplayLocationSource), escolhido pela LocationSourceFactory.
  *
  * Autor: Leonardo Monteiro
  * Data: 05/04/2024
@@ -28,28 +34,31 @@ import android.util.Log;
 
 import androidx.core.app.ActivityCompat;
 
-import com.google.android.gms.location.FusedLocationProviderClient;
-import com.google.android.gms.location.LocationCallback;
-import com.google.android.gms.location.LocationRequest;
-import com.google.android.gms.location.LocationResult;
+import com.example.avancada20.data.GeocodePrefetcher;
+import com.example.calculos.TrajectoryLog;
+
+import java.io.IOException;
 
 public class CustomLocationManager {
 
     private static final String TAG = "CustomLocationManager";
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1001;
-    private static final long UPDATE_INTERVAL = 5000; // 5 segundos
-    private static final int FASTEST_UPDATE_INTERVAL = 2000; // 2 segundos
 
-    private FusedLocationProviderClient fusedLocationProviderClient;
-    private LocationCallback locationCallback;
+    private final LocationSource locationSource;
     private LocationCallbackListener callbackListener;
+    private volatile GeofenceMonitor geofenceMonitor;
+    private volatile TrajectoryLog trajectoryLog;
+    private volatile GeocodePrefetcher geocodePrefetcher;
     private Handler handler;
     private Context context;
 
     public CustomLocationManager(Context context) {
+        this(context, LocationSourceFactory.create(context));
+    }
+
+    public CustomLocationManager(Context context, LocationSource locationSource) {
         this.context = context;
-        fusedLocationProviderClient = new FusedLocationProviderClient(context);
-        createLocationCallback();
+        this.locationSource = locationSource;
         handler = new Handler(Looper.getMainLooper());
         requestLocationPermission();
     }
@@ -64,25 +73,38 @@ public class CustomLocationManager {
     }
 
 
+    /**
+     * Define o monitor de cercas virtuais que recebe cada nova posição.
+     * O monitor é chamado na thread das atualizações de localização, antes da entrega ao callbackListener na thread principal.
+     */
+    public void setGeofenceMonitor(GeofenceMonitor monitor) {
+        this.geofenceMonitor = monitor;
+    }
+
+
+    /**
+     * Define o registro em que cada nova posição é acrescentada, na thread das atualizações de localização.
+     */
+    public void setTrajectoryLog(TrajectoryLog log) {
+        this.trajectoryLog = log;
+    }
+
+
+    /**
+     * Define a busca antecipada de nomes que recebe cada nova posição, na thread das atualizações de localização.
+     */
+    public void setGeocodePrefetcher(GeocodePrefetcher prefetcher) {
+        this.geocodePrefetcher = prefetcher;
+    }
+
+
     /**
      * Inicia as atualizações de localização em segundo plano.
-     * Cria uma nova thread para executar a lógica de iniciar as atualizações de localização.
-     * Dentro da nova thread, prepara o Looper para processar mensagens de localização.
-     * Verifica se a permissão de localização foi concedida.
-     * Se a permissão foi concedida, registra uma mensagem de log e inicia as atualizações de localização.
-     * Se a permissão não foi concedida, registra uma mensagem de log informando que a permissão de localização não foi concedida.
+     * A fonte de posições entrega cada posição em uma thread própria, que executa todo o encaminhamento da posição
+     * (cercas virtuais, trajetória e busca antecipada de nomes) antes de repassá-la à thread principal.
      */
     public void startLocationUpdatesInBackground() {
-        new Thread(() -> {
-            Looper.prepare(); // Prepara o Looper para processar mensagens de localização
-            if (checkLocationPermission()) { // Verifica se a permissão de localização foi concedida
-                Log.d(TAG, "Location permission granted. Starting location updates..."); // Registra uma mensagem de log informando que a permissão de localização foi concedida
-                startLocationUpdates(); // Inicia as atualizações de localização
-            } else {
-                Log.d(TAG, "Location permission not granted."); // Registra uma mensagem de log informando que a permissão de localização não foi concedida
-            }
-            Looper.loop(); // Inicia o loop do Looper para processar mensagens de localização
-        }).start(); // Inicia a nova thread
+        locationSource.start(this::onLocation);
     }
 
 
@@ -127,67 +149,45 @@ public class CustomLocationManager {
 
 
     /**
-     * Inicia as atualizações de localização.
-     * Verifica se a permissão de localização foi concedida.
-     * Se a permissão foi concedida, cria uma solicitação de localização com prioridade alta.
-     * Define o intervalo de atualização e o intervalo mais rápido de atualização.
-     * Solicita atualizações de localização ao provedor de localização fundida usando a solicitação de localização criada.
-     * Registra uma mensagem de log informando que as atualizações de localização foram iniciadas.
-     * Se a permissão de localização não foi concedida, registra uma mensagem de log informando que as atualizações de localização não podem ser iniciadas devido à falta de permissões.
+     * Para as atualizações de localização da fonte de posições.
      */
-    private void startLocationUpdates() {
-        if (checkLocationPermission()) { // Verifica se a permissão de localização foi concedida
-            LocationRequest locationRequest = LocationRequest.create(); // Cria uma solicitação de localização
-            locationRequest.setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY); // Define a prioridade da solicitação como alta precisão
-            locationRequest.setInterval(UPDATE_INTERVAL); // Define o intervalo de atualização
-            locationRequest.setFastestInterval(FASTEST_UPDATE_INTERVAL); // Define o intervalo mais rápido de atualização
-
-            // Solicita atualizações de localização ao provedor de localização fundida usando a solicitação de localização criada
-            fusedLocationProviderClient.requestLocationUpdates(locationRequest, locationCallback, Looper.myLooper());
-            Log.d(TAG, "Location updates started."); // Registra uma mensagem de log informando que as atualizações de localização foram iniciadas
-        } else {
-            Log.d(TAG, "Location updates cannot be started due to lack of permissions."); // Se a permissão de localização não foi concedida, registra uma mensagem de log informando que as atualizações de localização não podem ser iniciadas devido à falta de permissões
-        }
+    public void stopLocationUpdates() {
+        locationSource.stop();
     }
 
 
     /**
-     * Para as atualizações de localização.
-     * Verifica se a permissão de localização foi concedida.
-     * Se a permissão foi concedida, remove as atualizações de localização registradas com o provedor de localização fundida.
-     * Registra uma mensagem de log informando que as atualizações de localização foram interrompidas.
-     * Se a permissão de localização não foi concedida, registra uma mensagem de log informando que as atualizações de localização não podem ser interrompidas devido à falta de permissões.
+     * Encaminha uma nova posição, na thread da fonte de posições.
+     * Se houver monitor de cercas, registro da trajetória ou busca antecipada de nomes, a posição é entregue a cada
+     * um deles nessa mesma thread; depois, se o callbackListener não for nulo, é enviada a ele na thread principal
+     * usando um Handler.
      */
-    public void stopLocationUpdates() {
-        if (checkLocationPermission()) { // Verifica se a permissão de localização foi concedida
-            fusedLocationProviderClient.removeLocationUpdates(locationCallback); // Remove as atualizações de localização registradas com o provedor de localização fundida
-            Log.d(TAG, "Location updates stopped."); // Registra uma mensagem de log informando que as atualizações de localização foram interrompidas
-        } else {
-            Log.d(TAG, "Location updates cannot be stopped due to lack of permissions."); // Se a permissão de localização não foi concedida, registra uma mensagem de log informando que as atualizações de localização não podem ser interrompidas devido à falta de permissões
+    private void onLocation(final Location location) {
+        GeofenceMonitor monitor = geofenceMonitor;
+        if (monitor != null) { // Encaminha a posição ao monitor de cercas ainda na thread de localização
+            monitor.onLocation(location.getLatitude(), location.getLongitude());
+        }
+        TrajectoryLog log = trajectoryLog;
+        if (log != null) { // Acrescenta a posição ao registro da trajetória
+            appendToTrajectory(log, location);
+        }
+        GeocodePrefetcher prefetcher = geocodePrefetcher;
+        if (prefetcher != null) { // Agenda a busca dos nomes da célula atual e das seguintes
+            prefetcher.onLocation(location.getLatitude(), location.getLongitude());
+        }
+        if (callbackListener != null) { // Verifica se o callbackListener não é nulo
+            handler.post(() -> callbackListener.onNewLocationReceived(location)); // Envia a nova localização recebida para o callbackListener usando um Handler
         }
     }
 
 
-    /**
-     * Cria um callback de localização.
-     * Cria um novo LocationCallback e substitui seu método onLocationResult().
-     * No método onLocationResult(), verifica se o objeto LocationResult não é nulo.
-     * Se não for nulo, obtém a última localização do objeto LocationResult.
-     * Se a localização não for nula e o callbackListener não for nulo, envia a nova localização recebida para o callbackListener usando um Handler.
-     */
-    private void createLocationCallback() {
-        // Cria um novo LocationCallback e substitui seu método onLocationResult()
-        locationCallback = new LocationCallback() {
-            @Override
-            public void onLocationResult(LocationResult locationResult) {
-                if (locationResult != null) { // Verifica se o objeto LocationResult não é nulo
-                    final Location location = locationResult.getLastLocation(); // Obtém a última localização do objeto LocationResult
-                    if (location != null && callbackListener != null) { // Verifica se a localização não é nula e se o callbackListener não é nulo
-                        handler.post(() -> callbackListener.onNewLocationReceived(location)); // Envia a nova localização recebida para o callbackListener usando um Handler
-                    }
-                }
-            }
-        };
+    // Grava a posição no registro; uma falha de disco não interrompe as atualizações de localização
+    private static void appendToTrajectory(TrajectoryLog log, Location location) {
+        try {
+            log.append(location.getTime(), location.getLatitude(), location.getLongitude());
+        } catch (IOException e) {
+            Log.e(TAG, "Falha na gravação da trajetória: " + e.getMessage());
+        }
     }
 
 }
@@ -0,0 +1,67 @@
+/**
+ * Blocos do mapa de calor das regiões, desenhados a partir das contagens agregadas do DensityStore.
+ *
+ * Cada bloco lê as TILE_BINS x TILE_BINS contagens do bloco na pirâmide, nunca as regiões, e as pinta em uma
+ * imagem pequena ampliada com filtragem para TILE_SIZE pixels. A intensidade de uma faixa é a contagem em escala
+ * logarítmica relativa à maior contagem do zoom, de modo que áreas esparsas continuam visíveis ao lado das densas.
+ * Blocos sem nenhuma região não são desenhados (NO_TILE).
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.ui.home;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import com.example.avancada20.data.DensityStore;
+import com.example.calculos.DensityPyramid;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+
+import java.io.ByteArrayOutputStream;
+
+public class DensityTileProvider implements TileProvider {
+    private static final int TILE_SIZE = 256; // Pixels por lado de um bloco do mapa
+    private static final int BINS = DensityPyramid.TILE_BINS;
+
+    private final DensityStore density;
+
+    public DensityTileProvider(DensityStore density) {
+        this.density = density;
+    }
+
+    @Override
+    public Tile getTile(int x, int y, int zoom) {
+        int[] counts = density.tile(zoom, x, y);
+        double scale = Math.log1p(Math.max(density.maxBinCount(zoom), 1));
+        int[] pixels = new int[counts.length];
+        boolean empty = true;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                pixels[i] = color(Math.log1p(counts[i]) / scale);
+                empty = false;
+            }
+        }
+        if (empty) {
+            return NO_TILE;
+        }
+        Bitmap bins = Bitmap.createBitmap(pixels, BINS, BINS, Bitmap.Config.ARGB_8888);
+        Bitmap tile = Bitmap.createScaledBitmap(bins, TILE_SIZE, TILE_SIZE, true);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        tile.compress(Bitmap.CompressFormat.PNG, 100, png);
+        bins.recycle();
+        tile.recycle();
+        return new Tile(TILE_SIZE, TILE_SIZE, png.toByteArray());
+    }
+
+    // Do amarelo translúcido (pouco denso) ao vermelho quase opaco (mais denso)
+    private static int color(double intensity) {
+        intensity = Math.max(0, Math.min(1, intensity));
+        int alpha = (int) (80 + 140 * intensity);
+        int green = (int) (220 * (1 - intensity));
+        return Color.argb(alpha, 255, green, 0);
+    }
+}
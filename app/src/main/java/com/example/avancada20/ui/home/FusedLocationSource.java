@@ -0,0 +1,91 @@
+/**
+ * Fonte de posições sobre o provedor de localização fundida (FusedLocationProviderClient) do Google Play Services.
+ *
+ * As atualizações são pedidas com prioridade alta, a cada UPDATE_INTERVAL (no mínimo FASTEST_UPDATE_INTERVAL), em
+ * uma thread própria com Looper, de modo que as posições chegam ao ouvinte fora da thread principal. Sem a
+ * permissão de localização, a fonte apenas registra o fato no log e não entrega nenhuma posição.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.ui.home;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.core.app.ActivityCompat;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+
+public class FusedLocationSource implements LocationSource {
+    private static final String TAG = "FusedLocationSource";
+    private static final long UPDATE_INTERVAL = 5000; // 5 segundos
+    private static final int FASTEST_UPDATE_INTERVAL = 2000; // 2 segundos
+
+    private final Context context;
+    private final FusedLocationProviderClient fusedLocationProviderClient;
+    private volatile LocationCallback locationCallback;
+    private volatile Looper looper;
+
+    public FusedLocationSource(Context context) {
+        this.context = context;
+        this.fusedLocationProviderClient = new FusedLocationProviderClient(context);
+    }
+
+    @Override
+    public void start(final Listener listener) {
+        new Thread(() -> {
+            Looper.prepare(); // Prepara o Looper que recebe as mensagens de localização
+            if (!hasPermission()) {
+                Log.d(TAG, "Location updates cannot be started due to lack of permissions.");
+                return;
+            }
+            LocationRequest locationRequest = LocationRequest.create();
+            locationRequest.setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY);
+            locationRequest.setInterval(UPDATE_INTERVAL);
+            locationRequest.setFastestInterval(FASTEST_UPDATE_INTERVAL);
+            locationCallback = new LocationCallback() {
+                @Override
+                public void onLocationResult(LocationResult locationResult) {
+                    Location location = locationResult == null ? null : locationResult.getLastLocation();
+                    if (location != null) {
+                        listener.onLocation(location);
+                    }
+                }
+            };
+            looper = Looper.myLooper();
+            fusedLocationProviderClient.requestLocationUpdates(locationRequest, locationCallback, looper);
+            Log.d(TAG, "Location updates started.");
+            Looper.loop(); // Processa as mensagens de localização até stop()
+        }, TAG).start();
+    }
+
+    @Override
+    public void stop() {
+        LocationCallback callback = locationCallback;
+        if (callback != null) {
+            fusedLocationProviderClient.removeLocationUpdates(callback);
+            locationCallback = null;
+            Log.d(TAG, "Location updates stopped.");
+        }
+        Looper current = looper;
+        if (current != null) {
+            current.quitSafely();
+            looper = null;
+        }
+    }
+
+    private boolean hasPermission() {
+        return ActivityCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED
+                || ActivityCompat.checkSelfPermission(context, Manifest.permission.ACCESS_COARSE_LOCATION) == PackageManager.PERMISSION_GRANTED;
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * Classe responsável por detectar quando o dispositivo entra ou sai das regiões armazenadas.
+ *
+ * Recebe as posições diretamente do CustomLocationManager e as processa em uma thread própria com o GeofenceEngine
+ * do módulo Calculos, de modo que nem o cálculo nem a entrega dos eventos acontecem na thread principal.
+ * Se as posições chegarem mais rápido do que podem ser processadas, apenas a mais recente é avaliada.
+ *
+ * As cercas são as regiões a menos de LOAD_RADIUS metros da posição (RegionRepository.loadNear()), carregadas na
+ * primeira posição depois de loadRegions() e de novo quando o dispositivo se afasta mais de RELOAD_DISTANCE metros
+ * do centro do último carregamento. A cada carregamento, as cercas em que a posição já estava são marcadas no novo
+ * GeofenceEngine, sem um novo evento de entrada, e as regiões incluídas por addRegion() que o banco ainda não tem
+ * (estão na fila de envio) continuam monitoradas.
+ *
+ * Principais funcionalidades:
+ * - Carregamento das regiões próximas do repositório e construção do índice espacial das cercas.
+ * - Inclusão de novas regiões sem recarregar as demais.
+ * - Inclusão, no índice local das regiões (LocalRegionIndex), das regiões carregadas que ele ainda não tem, se houver um.
+ * - Avaliação incremental de cada posição, com histerese para evitar entradas e saídas repetidas na borda.
+ * - Notificação dos eventos de entrada e saída a um RegionGeofenceListener, na thread do monitor.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.ui.home;
+
+import android.util.Log;
+
+import com.example.avancada20.data.LocalRegionIndex;
+import com.example.avancada20.data.RegionAdmission;
+import com.example.avancada20.data.RegionRepository;
+import com.example.avancada20.data.RegionSpatialIndex;
+import com.example.calculos.GeoCalculator;
+import com.example.calculos.GeofenceEngine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class GeofenceMonitor {
+    private static final String TAG = "GeofenceMonitor";
+    static final double RADIUS = RegionAdmission.MIN_DISTANCE; // Raio das cercas, em metros
+    static final double HYSTERESIS = 10; // Margem para a saída, em metros
+    static final double CELL_SIZE = 200; // Tamanho das células do cache de candidatas, em metros
+    static final double LOAD_RADIUS = 5000; // Raio das regiões carregadas ao redor da posição, em metros
+    static final double RELOAD_DISTANCE = LOAD_RADIUS / 2; // Afastamento do centro que provoca um novo carregamento
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, TAG));
+    private final AtomicReference<double[]> pendingFix = new AtomicReference<>();
+    private final RegionGeofenceListener listener;
+    private volatile LocalRegionIndex localIndex;
+    private volatile RegionRepository repository;
+
+    // Acessados apenas pela thread do monitor
+    private final GeoCalculator calculator = new GeoCalculator();
+    private RegionSpatialIndex regions = new RegionSpatialIndex();
+    private GeofenceEngine engine = newEngine(regions);
+    private final List<Region> added = new ArrayList<>(); // Incluídas por addRegion() e ainda não vindas do banco
+    private double[] lastFix;
+    private double[] loadCenter; // Centro do último carregamento, ou do carregamento em andamento
+
+    public GeofenceMonitor(RegionGeofenceListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Define o índice local que recebe as regiões de cada carregamento que ainda não tem; null para não usar.
+     */
+    public void setLocalIndex(LocalRegionIndex localIndex) {
+        this.localIndex = localIndex;
+    }
+
+    /**
+     * Passa a carregar as cercas do repositório ao redor da posição: imediatamente, se já houver uma posição, ou na
+     * primeira que chegar.
+     */
+    public void loadRegions(RegionRepository repository) {
+        this.repository = repository;
+        executor.execute(() -> {
+            if (lastFix != null) {
+                loadNear(lastFix);
+            }
+        });
+    }
+
+    /**
+     * Inclui uma nova região nas cercas monitoradas; ela continua monitorada nos próximos carregamentos, mesmo que
+     * ainda não tenha sido enviada ao banco.
+     */
+    public void addRegion(final Region region) {
+        executor.execute(() -> {
+            added.add(region);
+            regions.add(region);
+            engine.invalidate();
+        });
+    }
+
+    /**
+     * Recebe uma nova posição. Pode ser chamado de qualquer thread; a avaliação acontece na thread do monitor.
+     */
+    public void onLocation(double latitude, double longitude) {
+        // Só agenda uma avaliação se não houver outra pendente; a pendente passa a usar a posição mais recente
+        if (pendingFix.getAndSet(new double[]{latitude, longitude}) == null) {
+            executor.execute(this::evaluatePendingFix);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void evaluatePendingFix() {
+        double[] fix = pendingFix.getAndSet(null);
+        if (fix == null) {
+            return;
+        }
+        lastFix = fix;
+        if (repository != null && (loadCenter == null
+                || calculator.calculateDistance(loadCenter[0], loadCenter[1], fix[0], fix[1]) > RELOAD_DISTANCE)) {
+            loadNear(fix);
+        }
+        engine.update(fix[0], fix[1], new GeofenceEngine.Listener() {
+            @Override
+            public void onEnter(int id, double distanceMeters) {
+                listener.onRegionEntered(regions.get(id), distanceMeters);
+            }
+
+            @Override
+            public void onExit(int id, double distanceMeters) {
+                listener.onRegionExited(regions.get(id), distanceMeters);
+            }
+        });
+    }
+
+    // Carrega as regiões ao redor da posição; até o resultado chegar, as cercas atuais continuam em uso
+    private void loadNear(final double[] center) {
+        loadCenter = center;
+        repository.loadNear(center[0], center[1], LOAD_RADIUS, new ConsultaCallback() {
+            @Override
+            public void onRegionsLoaded(final List<Region> loaded) {
+                executor.execute(() -> replaceRegions(loaded));
+            }
+
+            @Override
+            public void onCancelled() {
+                Log.d(TAG, "Consulta das cercas cancelada depois das novas tentativas do repositório");
+                executor.execute(() -> {
+                    if (loadCenter == center) {
+                        loadCenter = null; // Tenta de novo na próxima posição
+                    }
+                });
+            }
+        });
+    }
+
+    // Troca as cercas pelas carregadas, mantendo as incluídas localmente e o estado das cercas ocupadas
+    private void replaceRegions(List<Region> loaded) {
+        List<Region> all = new ArrayList<>(loaded);
+        for (Iterator<Region> it = added.iterator(); it.hasNext(); ) {
+            Region region = it.next();
+            if (indexOf(loaded, region) >= 0) {
+                it.remove(); // Já está no banco
+            } else {
+                all.add(region);
+            }
+        }
+        RegionSpatialIndex next = RegionSpatialIndex.of(all);
+        GeofenceEngine nextEngine = newEngine(next);
+        for (int id : engine.getInside()) {
+            int moved = indexOf(all, regions.get(id));
+            if (moved >= 0) {
+                nextEngine.markInside(moved);
+            }
+        }
+        regions = next;
+        engine = nextEngine;
+        Log.d(TAG, "Cercas carregadas: " + loaded.size() + " do banco, " + (all.size() - loaded.size()) + " locais");
+        LocalRegionIndex index = localIndex;
+        if (index != null) {
+            Log.d(TAG, "Regiões incluídas no índice local: " + index.addMissing(loaded));
+        }
+    }
+
+    // Posição da região na lista, comparando pela chave quando as duas têm uma
+    private static int indexOf(List<Region> regions, Region region) {
+        for (int i = 0; i < regions.size(); i++) {
+            Region candidate = regions.get(i);
+            if (candidate.getKey() != null && region.getKey() != null
+                    ? Objects.equals(candidate.getKey(), region.getKey()) : candidate.equals(region)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static GeofenceEngine newEngine(RegionSpatialIndex regions) {
+        return new GeofenceEngine(regions.getIndex(), RADIUS, HYSTERESIS, CELL_SIZE);
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Fonte das posições do dispositivo entregues ao CustomLocationManager.
+ *
+ * Implementações:
+ * - FusedLocationSource: o provedor de localização fundida do Google Play Services (GPS e rede).
+ * - ReplayLocationSource: um trajeto gravado (GPX ou CSV) reproduzido em tempo real, acelerado ou sem esperas,
+ *   para simular deslocamentos e medir o caminho das posições sem um dispositivo em movimento.
+ * A fonte usada pelo aplicativo é escolhida pela LocationSourceFactory.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.ui.home;
+
+import android.location.Location;
+
+public interface LocationSource {
+    /**
+     * Começa a entregar as posições ao ouvinte, em uma thread da própria fonte (nunca na thread chamadora).
+     */
+    void start(Listener listener);
+
+    /**
+     * Para a entrega das posições; pode ser chamado mesmo que a fonte não tenha sido iniciada.
+     */
+    void stop();
+
+    interface Listener {
+        void onLocation(Location location);
+    }
+}
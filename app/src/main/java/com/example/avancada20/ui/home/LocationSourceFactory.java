@@ -0,0 +1,71 @@
+/**
+ * Fábrica da LocationSource usada pelo aplicativo.
+ *
+ * A fonte é escolhida pelo recurso de texto "location_source" (res/values/strings.xml), que pode ser sobrescrito por
+ * variante de build ou por flavor sem alterar o código:
+ * - "fused": FusedLocationSource, o GPS do dispositivo (padrão).
+ * - "replay": ReplayLocationSource, o trajeto do asset "location_replay_asset" (GPX ou CSV), na velocidade
+ *   "location_replay_speed" ("1" para tempo real, um fator de aceleração ou "max" para sem esperas).
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.ui.home;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.avancada20.R;
+import com.example.calculos.TrackReplay;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+public final class LocationSourceFactory {
+    private static final String TAG = "LocationSourceFactory";
+    public static final String FUSED = "fused";
+    public static final String REPLAY = "replay";
+    public static final String MAX_SPEED = "max";
+
+    private LocationSourceFactory() {
+    }
+
+    public static LocationSource create(final Context context) {
+        String source = context.getString(R.string.location_source);
+        if (REPLAY.equals(source)) {
+            final String asset = context.getString(R.string.location_replay_asset);
+            return new ReplayLocationSource(() -> {
+                try (InputStream input = context.getAssets().open(asset)) {
+                    if (asset.toLowerCase(Locale.ROOT).endsWith(".gpx")) {
+                        return TrackReplay.readGpx(input);
+                    }
+                    return TrackReplay.readCsv(new InputStreamReader(input, StandardCharsets.UTF_8));
+                }
+            }, parseSpeed(context.getString(R.string.location_replay_speed)));
+        }
+        if (!FUSED.equals(source)) {
+            Log.w(TAG, "Fonte de posições desconhecida \"" + source + "\"; usando o GPS");
+        }
+        return new FusedLocationSource(context);
+    }
+
+    static double parseSpeed(String speed) {
+        if (MAX_SPEED.equals(speed)) {
+            return TrackReplay.AS_FAST_AS_POSSIBLE;
+        }
+        try {
+            double factor = Double.parseDouble(speed);
+            if (factor > 0) {
+                return factor;
+            }
+        } catch (NumberFormatException ignored) {
+            // Cai no tempo real abaixo
+        }
+        Log.w(TAG, "Velocidade de reprodução inválida \"" + speed + "\"; usando tempo real");
+        return 1;
+    }
+}
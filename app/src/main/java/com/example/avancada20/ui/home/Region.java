@@ -8,6 +8,11 @@
  * - Armazenamento e recuperação do nome, latitude, longitude, timestamp e usuário associado a uma região.
  * - Implementação de métodos para obter e definir essas informações.
  * - Implementação de métodos equals() e hashCode() para comparar objetos Region.
+ * - Latitude e longitude em radianos e cosseno da latitude pré-calculados, atualizados pelos setters e não gravados
+ *   no banco de dados, para as comparações de distância com GeoCalculator.
+ * - Forma opcional (um polígono, para prédios, campi e trechos de rua), gravada como coordenadas intercaladas
+ *   (latitude, longitude, latitude, ...). Sem forma, a região é o ponto com o círculo implícito da RegionAdmission;
+ *   com forma, a latitude e a longitude são um ponto de referência dentro dela.
  *
  * Autor: Leonardo Monteiro
  * Data: 05/04/2024
@@ -16,6 +21,12 @@
 
 package com.example.avancada20.ui.home;
 
+import com.example.calculos.GeoCalculator;
+import com.example.calculos.Polygon;
+import com.google.firebase.database.Exclude;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 public class Region {
@@ -24,13 +35,19 @@ public class Region {
     private double longitude;
     private Long timestamp;
     private int user;
+    private String key; // Chave do nó no banco de dados; não é gravada junto com a região
+    private double latitudeRadians;
+    private double longitudeRadians;
+    private double cosLatitude = 1; // cos(0), coerente com a latitude padrão do construtor vazio
+    private List<Double> polygon; // Coordenadas intercaladas dos vértices, ou null para uma região pontual
+    private Polygon shape; // Polígono construído a partir de polygon na primeira consulta; não é gravado
 
     public Region(String name, double latitude, double longitude,Long timestamp, int user) {
         this.name = name;
-        this.latitude = latitude;
-        this.longitude = longitude;
         this.timestamp = timestamp;
         this.user = user;
+        setLatitude(latitude);
+        setLongitude(longitude);
     }
     public Region(){}
 
@@ -48,6 +65,8 @@ public class Region {
     }
     public void setLatitude(double latitude) {
         this.latitude = latitude;
+        this.latitudeRadians = Math.toRadians(latitude);
+        this.cosLatitude = Math.cos(latitudeRadians);
     }
 
     public double getLongitude() {
@@ -55,6 +74,75 @@ public class Region {
     }
     public void setLongitude(double longitude) {
         this.longitude = longitude;
+        this.longitudeRadians = Math.toRadians(longitude);
+    }
+
+    @Exclude
+    public double getLatitudeRadians() {
+        return latitudeRadians;
+    }
+
+    @Exclude
+    public double getLongitudeRadians() {
+        return longitudeRadians;
+    }
+
+    @Exclude
+    public double getCosLatitude() {
+        return cosLatitude;
+    }
+
+    /**
+     * Distância em metros até outra região, usando os valores pré-calculados das duas.
+     */
+    public double distanceTo(Region other, GeoCalculator calculator) {
+        return calculator.calculateDistance(latitudeRadians, longitudeRadians, cosLatitude,
+                other.latitudeRadians, other.longitudeRadians, other.cosLatitude);
+    }
+
+    public List<Double> getPolygon() {
+        return polygon;
+    }
+    public void setPolygon(List<Double> polygon) {
+        this.polygon = polygon;
+        this.shape = null;
+    }
+
+    /**
+     * Retorna a forma da região, ou null se ela for pontual.
+     */
+    @Exclude
+    public Polygon getShape() {
+        if (shape == null && polygon != null) {
+            double[] coordinates = new double[polygon.size()];
+            for (int i = 0; i < coordinates.length; i++) {
+                coordinates[i] = polygon.get(i);
+            }
+            shape = Polygon.fromCoordinates(coordinates);
+        }
+        return shape;
+    }
+    @Exclude
+    public void setShape(Polygon shape) {
+        if (shape == null) {
+            polygon = null;
+        } else {
+            double[] coordinates = shape.toCoordinates();
+            polygon = new ArrayList<>(coordinates.length);
+            for (double coordinate : coordinates) {
+                polygon.add(coordinate);
+            }
+        }
+        this.shape = shape;
+    }
+
+    @Exclude
+    public String getKey() {
+        return key;
+    }
+    @Exclude
+    public void setKey(String key) {
+        this.key = key;
     }
 
     @Override
@@ -77,6 +165,7 @@ public class Region {
                 Double.compare(other.longitude, longitude) == 0 && // Compara as longitudes
                 Objects.equals(other.name, name) && // Compara os nomes
                 Objects.equals(other.timestamp, timestamp) && // Compara os timestamps
+                Objects.equals(other.polygon, polygon) && // Compara as formas
                 other.user == user; // Compara os usuários
     }
 
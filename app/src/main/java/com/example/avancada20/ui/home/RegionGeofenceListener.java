@@ -0,0 +1,6 @@
+package com.example.avancada20.ui.home;
+
+public interface RegionGeofenceListener {
+    void onRegionEntered(Region region, double distanceMeters);
+    void onRegionExited(Region region, double distanceMeters);
+}
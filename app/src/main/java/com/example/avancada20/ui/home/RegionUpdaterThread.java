@@ -2,12 +2,11 @@
  * Classe responsável por atualizar a lista de regiões com base em novos dados de localização.
  *
  * Esta classe implementa uma thread que executa a lógica para adicionar uma nova região à lista de regiões.
- * Ao receber uma nova localização, adquire a permissão de um semáforo antes de acessar a lista de regiões.
- * Verifica se a região já existe na lista. Se não existir, verifica se a nova região está a menos de 30 metros de distância de outras regiões na lista.
- * Se a nova região não estiver muito próxima, cria um objeto Region com os dados da localização e o adiciona à lista de regiões.
+ * A lista é uma RegionStore, que verifica e insere a região de forma atômica, bloqueando apenas as células vizinhas:
+ * a região só é adicionada se não existir outra com o mesmo nome nem outra a menos de 30 metros de distância.
  * Registra mensagens no log para indicar as ações realizadas ou situações encontradas.
- * Libera a permissão do semáforo após acessar a lista de regiões.
- * Utiliza uma classe GeoCalculator para calcular a distância entre a nova região e as regiões existentes na lista.
+ * Um Listener opcional recebe a região criada e o resultado da admissão na lista, na própria thread.
+ * Uma chave opcional (setKey()) é atribuída à região criada, para que ela seja gravada com a chave da sua reserva.
  *
  * Autor: Leonardo Monteiro
  * Data: 05/04/2024
@@ -20,114 +19,78 @@ package com.example.avancada20.ui.home;
 
 import android.util.Log;
 
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.example.calculos.GeoCalculator;
+import com.example.avancada20.data.RegionAdmission;
+import com.example.avancada20.data.RegionStore;
 
-import java.util.List;
 import java.util.Random;
-import java.util.concurrent.Semaphore;
 
 public class RegionUpdaterThread extends Thread {
-    private List<Region> regions;
+    /**
+     * Recebe o resultado da admissão da região na lista local.
+     */
+    public interface Listener {
+        void onResult(Region region, RegionAdmission.Result result);
+    }
+
+    private RegionStore regions;
     private String locationName;
     private double latitude;
     private double longitude;
+    private Listener listener;
+    private String key;
 
-    private Semaphore semaphore;
     Random random = new Random();
 
-    private DatabaseReference referencia = FirebaseDatabase.getInstance().getReference();
-
-    public RegionUpdaterThread(List<Region> regions, String locationName, double latitude, double longitude, Semaphore semaphore) {
+    public RegionUpdaterThread(RegionStore regions, String locationName, double latitude, double longitude) {
         this.regions = regions;
         this.locationName = locationName;
         this.latitude = latitude;
         this.longitude = longitude;
-        this.semaphore = semaphore;
     }
 
     /**
-     * Executa a lógica para adicionar uma nova região à lista de regiões.
-     * Adquire a permissão do semáforo antes de acessar a lista.
-     * Verifica se a região já existe na lista. Se não existir, verifica se a nova região está a menos de 30 metros de distância de outras regiões na lista.
-     * Se não estiver muito próxima, cria um objeto Region com os dados da localização e o adiciona à lista de regiões.
-     * Registra mensagens no log para indicar as ações realizadas ou situações encontradas.
-     * Finalmente, libera a permissão do semáforo após acessar a lista.
+     * Define quem recebe o resultado da admissão; null para nenhum. Deve ser chamado antes de start().
      */
-    @Override
-    public void run() {
-        try {
-            // Adquira a permissão do semáforo antes de acessar a lista
-            semaphore.acquire();
-
-            // Verificar se a região já existe na lista
-            boolean regionExists = false;
-            for (Region region : regions) {
-                Log.d("Consulta Na Lista", "Região do Banco de Dados - Nome: " + region.getName());
-                if (region.getName().equals(locationName)) {
-                    regionExists = true;
-                    break;
-                }
-            }
-
-            if (!regionExists) {
-                // Verificar se a nova região está a menos de 30 metros de distância de outras regiões na lista
-                boolean tooClose = checkRegionProximity(latitude, longitude, regions);
-
-                if (!tooClose) {
-                    // Criar um objeto Region com os dados da localização
-                    Region newRegion = new Region(locationName, latitude, longitude, System.nanoTime(), Math.abs(random.nextInt()));
-
-                    // Adicionar o objeto Region à lista de regiões
-                    regions.add(newRegion);
-
-                    // Exibir o tamanho atual da lista de regiões no log
-                    Log.d("Consulta Na Lista", "Região Adicionada na Lista " + "Size lista:  " + newRegion.getuser());
-                } else {
-                    // Se a nova região estiver muito próxima de outra região, registrar uma mensagem no log
-                    Log.d("Consulta Na Lista", "A nova região está muito próxima de outra região da Lista");
-                }
-            } else {
-                // Se a região já existir, registrar uma mensagem no log
-                Log.d("Consulta Na Lista", "Esta região já está na lista");
-            }
-        } catch (InterruptedException e) {
-            // Lidar com qualquer exceção de interrupção que possa ocorrer
-            e.printStackTrace();
-        } finally {
-            // Libere a permissão do semáforo após acessar a lista
-            semaphore.release();
-            Log.d("Consulta Na Lista", "Semáforo da Lista liberado");
-        }
-        Log.d("Consulta Na Lista", "Thread Finalizada");
+    public void setListener(Listener listener) {
+        this.listener = listener;
     }
 
+    /**
+     * Define a chave com que a região será gravada; null para o repositório atribuir uma. Deve ser chamado antes de start().
+     */
+    public void setKey(String key) {
+        this.key = key;
+    }
 
     /**
-     * Verifica se a nova região está muito próxima de outras regiões na lista.
-     * Utiliza um objeto GeoCalculator para calcular a distância entre a nova região e as regiões existentes na lista.
-     * Percorre todas as regiões na lista e calcula a distância entre cada uma delas e a nova região.
-     * Se a distância entre a nova região e qualquer região na lista for menor que 30 metros, retorna verdadeiro.
-     * Caso contrário, retorna falso.
-     *
-     * @param latitude  A latitude da nova região.
-     * @param longitude A longitude da nova região.
-     * @param regions   A lista de regiões existentes.
-     * @return True se a nova região estiver muito próxima de outras regiões na lista, false caso contrário.
+     * Executa a lógica para adicionar uma nova região à lista de regiões.
+     * Cria um objeto Region com os dados da localização e tenta adicioná-lo à lista, que recusa a região se ela
+     * já existir na lista ou estiver a menos de 30 metros de distância de outras regiões na lista.
+     * Registra mensagens no log para indicar as ações realizadas ou situações encontradas.
      */
-    private boolean checkRegionProximity(double latitude, double longitude, List<Region> regions) {
-        GeoCalculator cal = new GeoCalculator();
-        for (Region region : regions) {
-            // Calcula a distância entre a nova região e a região atual na lista
-            double distance = cal.calculateDistance(region.getLatitude(), region.getLongitude(), latitude, longitude);
-            // Se a distância for menor que 30 metros, retorna verdadeiro
-            if (distance < 30) {
-                return true;
-            }
+    @Override
+    public void run() {
+        // Criar um objeto Region com os dados da localização
+        Region newRegion = new Region(locationName, latitude, longitude, System.currentTimeMillis(), Math.abs(random.nextInt()));
+        newRegion.setKey(key);
+
+        // Verificar e adicionar a região à lista de regiões em uma única operação
+        RegionAdmission.Result result = regions.tryAdd(newRegion);
+
+        if (result == RegionAdmission.Result.ACCEPTED) {
+            // Exibir o tamanho atual da lista de regiões no log
+            Log.d("Consulta Na Lista", "Região Adicionada na Lista " + "Size lista:  " + regions.size());
+        } else if (result == RegionAdmission.Result.TOO_CLOSE) {
+            // Se a nova região estiver muito próxima de outra região, registrar uma mensagem no log
+            Log.d("Consulta Na Lista", "A nova região está muito próxima de outra região da Lista");
+        } else {
+            // Se a região já existir, registrar uma mensagem no log
+            Log.d("Consulta Na Lista", "Esta região já está na lista");
         }
-        // Se nenhuma região na lista estiver muito próxima da nova região, retorna falso
-        return false;
+        if (listener != null) {
+            listener.onResult(newRegion, result);
+        }
+        Log.d("Consulta Na Lista", "Thread Finalizada");
     }
 
-}
\ No newline at end of file
+}
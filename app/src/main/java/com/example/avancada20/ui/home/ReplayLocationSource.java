@@ -0,0 +1,76 @@
+/**
+ * Fonte de posições que reproduz um trajeto gravado (TrackReplay), no lugar do GPS.
+ *
+ * O trajeto é carregado na thread da reprodução (o carregador pode ler um arquivo ou um asset) e reproduzido com a
+ * velocidade informada: TrackReplay.AS_FAST_AS_POSSIBLE, tempo real (1) ou acelerado (N). Os instantes do trajeto são
+ * deslocados para que a primeira posição tenha o instante do início da reprodução, de modo que o registro da
+ * trajetória, que ignora posições mais antigas que a última, aceita reproduções de trajetos antigos.
+ *
+ * Autor: Leonardo Monteiro
+ * Data: 19/10/2026
+ */
+
+
+package com.example.avancada20.ui.home;
+
+import android.location.Location;
+import android.util.Log;
+
+import com.example.calculos.TrackReplay;
+
+import java.util.concurrent.Callable;
+
+public class ReplayLocationSource implements LocationSource {
+    private static final String TAG = "ReplayLocationSource";
+    static final String PROVIDER = "replay";
+
+    private final Callable<TrackReplay> loader;
+    private final double speed;
+    private volatile Thread thread;
+
+    public ReplayLocationSource(Callable<TrackReplay> loader, double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Velocidade inválida: " + speed);
+        }
+        this.loader = loader;
+        this.speed = speed;
+    }
+
+    @Override
+    public synchronized void start(final Listener listener) {
+        stop();
+        thread = new Thread(() -> {
+            try {
+                TrackReplay track = loader.call();
+                if (track.size() == 0) {
+                    Log.w(TAG, "Trajeto vazio");
+                    return;
+                }
+                final long offset = System.currentTimeMillis() - track.getTime(0);
+                Log.d(TAG, "Reproduzindo " + track.size() + " posições a " + speed + "x");
+                track.play(speed, (time, latitude, longitude) -> {
+                    Location location = new Location(PROVIDER);
+                    location.setTime(time + offset);
+                    location.setLatitude(latitude);
+                    location.setLongitude(longitude);
+                    listener.onLocation(location);
+                    return true;
+                });
+                Log.d(TAG, "Reprodução concluída");
+            } catch (InterruptedException e) {
+                Log.d(TAG, "Reprodução interrompida");
+            } catch (Exception e) {
+                Log.e(TAG, "Falha na leitura do trajeto: " + e.getMessage());
+            }
+        }, TAG);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.GeoCalculator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Comportamento esperado de qualquer RegionRepository. Cada implementação tem uma subclasse que fornece um
+ * repositório vazio: a em memória nos testes na JVM e a do Firestore nos testes instrumentados (emulador).
+ */
+public abstract class RegionRepositoryContract {
+    private static final long TIMEOUT_SECONDS = 60;
+
+    protected RegionRepository repository;
+
+    protected abstract RegionRepository createRepository() throws Exception;
+
+    protected void destroyRepository(RegionRepository repository) throws Exception {
+    }
+
+    @Before
+    public void setUpRepository() throws Exception {
+        repository = createRepository();
+    }
+
+    @After
+    public void tearDownRepository() throws Exception {
+        destroyRepository(repository);
+    }
+
+    @Test
+    public void saveAll_largerThanOneBatch_isFullyLoadedWithKeys() throws Exception {
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 620; i++) { // Mais que um WriteBatch do Firestore e várias páginas
+            regions.add(new Region("Regiao " + i, -19.9 + i * 0.001, -43.9, 1000L + i, i));
+        }
+        save(regions);
+
+        Set<String> keys = new HashSet<>();
+        for (Region region : regions) {
+            assertNotNull(region.getKey());
+            keys.add(region.getKey());
+        }
+        assertEquals(regions.size(), keys.size());
+
+        List<Region> loaded = loadAll();
+        assertEquals(regions.size(), loaded.size());
+        for (Region region : loaded) {
+            assertTrue(keys.contains(region.getKey()));
+        }
+    }
+
+    @Test
+    public void polygon_isSavedAndLoaded() throws Exception {
+        Region point = new Region("Ponto", -19.9191, -43.9386, 1000L, 1);
+        Region campus = new Region("Campus", -19.8700, -43.9650, 1000L, 2);
+        campus.setPolygon(Arrays.asList(-19.8750, -43.9700, -19.8750, -43.9600, -19.8650, -43.9600, -19.8650, -43.9700));
+        List<Region> regions = new ArrayList<>();
+        regions.add(point);
+        regions.add(campus);
+        save(regions);
+
+        Map<String, Region> loaded = new HashMap<>();
+        for (Region region : loadAll()) {
+            loaded.put(region.getName(), region);
+        }
+        assertNull(loaded.get("Ponto").getPolygon());
+        assertEquals(campus.getPolygon(), loaded.get("Campus").getPolygon());
+        assertTrue(loaded.get("Campus").getShape().contains(-19.8700, -43.9650));
+    }
+
+    @Test
+    public void saveAll_withAssignedKeys_overwritesInsteadOfDuplicating() throws Exception {
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Region region = new Region("Regiao " + i, -19.9 + i * 0.001, -43.9, 1000L + i, i);
+            region.setKey(repository.newKey());
+            regions.add(region);
+        }
+        Set<String> keys = new HashSet<>();
+        for (Region region : regions) {
+            keys.add(region.getKey());
+        }
+        assertEquals(regions.size(), keys.size());
+
+        save(regions);
+        save(regions); // Reenvio do mesmo lote, como o de uma confirmação que não chegou
+
+        List<Region> loaded = loadAll();
+        assertEquals(regions.size(), loaded.size());
+        for (Region region : loaded) {
+            assertTrue(keys.contains(region.getKey()));
+        }
+    }
+
+    @Test
+    public void loadNear_containsEveryRegionWithinRadius() throws Exception {
+        Random random = new Random(11);
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            regions.add(new Region("Regiao " + i, -19.92 + random.nextDouble() * 0.02, -43.94 + random.nextDouble() * 0.02, 1000L, i));
+        }
+        regions.add(new Region("Longe", 10, 10, 1000L, 999));
+        save(regions);
+
+        GeoCalculator calculator = new GeoCalculator();
+        double[] radii = {30, 300, 1500};
+        for (int q = 0; q < 10; q++) {
+            double lat = -19.92 + random.nextDouble() * 0.02;
+            double lon = -43.94 + random.nextDouble() * 0.02;
+            double radius = radii[q % radii.length];
+            Set<String> near = new HashSet<>();
+            for (Region region : loadNear(lat, lon, radius)) {
+                near.add(region.getKey());
+                assertNotEquals("Longe", region.getName());
+            }
+            for (Region region : regions) {
+                if (calculator.calculateDistance(lat, lon, region.getLatitude(), region.getLongitude()) < radius) {
+                    assertTrue(near.contains(region.getKey()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void loadOlderThan_returnsUndatedThenOldestUpToLimit() throws Exception {
+        List<Region> regions = new ArrayList<>();
+        regions.add(new Region("Sem data", -19.9, -43.9, null, 0));
+        for (int i = 1; i <= 20; i++) {
+            regions.add(new Region("Regiao " + i, -19.9 + i * 0.001, -43.9, 1000L * (21 - i), i));
+        }
+        save(regions);
+
+        List<Region> oldest = loadOlderThan(10500, 5);
+        assertEquals(5, oldest.size());
+        assertNull(oldest.get(0).getTimestamp());
+        for (int i = 1; i < oldest.size(); i++) {
+            assertEquals(Long.valueOf(1000L * i), oldest.get(i).getTimestamp());
+        }
+        assertEquals(11, loadOlderThan(10500, 100).size()); // Sem data e timestamps de 1000 a 10000
+    }
+
+    @Test
+    public void archive_removesRegionsFromLoads() throws Exception {
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            regions.add(new Region("Regiao " + i, -19.9 + i * 0.001, -43.9, 1000L + i, i));
+        }
+        save(regions);
+
+        List<Region> removed = new ArrayList<>(regions.subList(0, 10));
+        Map<String, List<Region>> archived = new HashMap<>();
+        archived.put("1970-01", new ArrayList<>(removed.subList(0, 8))); // Duas removidas sem arquivar (juntadas)
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        repository.archive(archived, removed, writeCallback(done, failure));
+        await(done, failure);
+
+        Set<String> remaining = new HashSet<>();
+        for (Region region : loadAll()) {
+            remaining.add(region.getKey());
+        }
+        assertEquals(20, remaining.size());
+        for (Region region : removed) {
+            assertFalse(remaining.contains(region.getKey()));
+        }
+        assertTrue(loadOlderThan(1010, 100).isEmpty());
+    }
+
+    @Test
+    public void saveAllAndArchive_keepCountersInStepWithRegions() throws Exception {
+        int user = 100000 + new Random().nextInt(1000000); // Usuário exclusivo deste teste
+        String userKey = String.valueOf(user);
+        long day = 1792368000000L; // 19/10/2026 00:00 UTC
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            regions.add(new Region("Regiao " + i, -19.92 + i * 0.00001, -43.94, i < 8 ? day + i : null, user));
+        }
+        String area = RegionCounters.areaOf(regions.get(0));
+        long totalBefore = counter(RegionCounters.TOTAL, RegionCounters.TOTAL_KEY);
+        long dayBefore = counter(RegionCounters.DAY, "2026-10-19");
+        long undatedBefore = counter(RegionCounters.DAY, RegionCounters.NO_DATE);
+        long areaBefore = counter(RegionCounters.AREA, area);
+        save(regions);
+
+        assertEquals(totalBefore + 12, counter(RegionCounters.TOTAL, RegionCounters.TOTAL_KEY));
+        assertEquals(dayBefore + 8, counter(RegionCounters.DAY, "2026-10-19"));
+        assertEquals(undatedBefore + 4, counter(RegionCounters.DAY, RegionCounters.NO_DATE));
+        assertEquals(areaBefore + 12, counter(RegionCounters.AREA, area));
+        assertEquals(12, counter(RegionCounters.USER, userKey));
+
+        List<Region> removed = new ArrayList<>(regions.subList(0, 5));
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        repository.archive(Collections.singletonMap("2026-10", removed), removed, writeCallback(done, failure));
+        await(done, failure);
+
+        assertEquals(totalBefore + 7, counter(RegionCounters.TOTAL, RegionCounters.TOTAL_KEY));
+        assertEquals(dayBefore + 3, counter(RegionCounters.DAY, "2026-10-19"));
+        assertEquals(7, counter(RegionCounters.USER, userKey));
+    }
+
+    @Test
+    public void saveAll_sameKeyedBatchTwice_countsRegionsOnce() throws Exception {
+        int user = 100000 + new Random().nextInt(1000000); // Usuário exclusivo deste teste
+        String userKey = String.valueOf(user);
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Region region = new Region("Regiao " + i, -19.93 + i * 0.001, -43.95, 1792368000000L, user);
+            region.setKey(repository.newKey());
+            regions.add(region);
+        }
+        long totalBefore = counter(RegionCounters.TOTAL, RegionCounters.TOTAL_KEY);
+        save(regions);
+        save(regions); // Reenvio do mesmo lote, como o de uma confirmação que não chegou
+
+        assertEquals(3, counter(RegionCounters.USER, userKey));
+        assertEquals(totalBefore + 3, counter(RegionCounters.TOTAL, RegionCounters.TOTAL_KEY));
+
+        // Um lote com uma região já gravada e uma nova conta apenas a nova
+        List<Region> mixed = new ArrayList<>();
+        mixed.add(regions.get(0));
+        mixed.add(new Region("Regiao nova", -19.94, -43.95, 1792368000000L, user));
+        save(mixed);
+        assertEquals(4, counter(RegionCounters.USER, userKey));
+        assertEquals(totalBefore + 4, counter(RegionCounters.TOTAL, RegionCounters.TOTAL_KEY));
+    }
+
+    @Test
+    public void rebuildJob_recomputesCountersFromRegions() throws Exception {
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            regions.add(new Region("Regiao " + i, -19.9 + i * 0.01, -43.9, 1000L + i * 86400000L, i % 4));
+        }
+        save(regions);
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        repository.replaceCounters(Collections.singletonMap(RegionCounters.USER,
+                Collections.singletonMap("0", 999L)), writeCallback(done, failure)); // Contadores corrompidos
+        await(done, failure);
+
+        RegionCountersRebuildJob.Report report = new RegionCountersRebuildJob(repository).rebuild();
+        assertFalse(report.failed);
+
+        Map<String, Map<String, Long>> expected = RegionCounters.deltas(loadAll(), 1);
+        assertEquals(report.regions, loadAll().size());
+        for (String dimension : RegionCounters.DIMENSIONS) {
+            Map<String, Long> values = expected.get(dimension);
+            assertEquals(values == null ? Collections.<String, Long>emptyMap() : values, counters(dimension));
+        }
+    }
+
+    @Test
+    public void transactCell_concurrentTransactionsAreAllApplied() throws Exception {
+        final String cell = "teste-" + UUID.randomUUID();
+        final CountDownLatch done = new CountDownLatch(20);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        for (int i = 0; i < 20; i++) {
+            final String id = "reivindicacao" + i;
+            final CellClaim claim = new CellClaim("Regiao " + i, -19.92 + i * 0.001, -43.94);
+            repository.transactCell(cell, new CellResult(done, failure) {
+                @Override
+                public Map<String, CellClaim> apply(Map<String, CellClaim> claims) {
+                    Map<String, CellClaim> updated = new HashMap<>(claims);
+                    updated.put(id, claim);
+                    return updated;
+                }
+            });
+        }
+        await(done, failure);
+
+        Map<String, CellClaim> claims = readCell(cell);
+        assertEquals(20, claims.size()); // Nenhuma transação sobrescreveu outra
+        assertEquals("Regiao 7", claims.get("reivindicacao7").getName());
+        assertEquals(-19.913, claims.get("reivindicacao7").getLatitude(), 1e-9);
+    }
+
+    @Test
+    public void transactCell_abortLeavesCellUnchanged() throws Exception {
+        final String cell = "teste-" + UUID.randomUUID();
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        repository.transactCell(cell, new CellResult(done, failure) {
+            @Override
+            public Map<String, CellClaim> apply(Map<String, CellClaim> claims) {
+                return Collections.singletonMap("a", new CellClaim("A", -19.9, -43.9));
+            }
+        });
+        await(done, failure);
+
+        done = new CountDownLatch(1);
+        CellResult abort = new CellResult(done, failure) {
+            @Override
+            public Map<String, CellClaim> apply(Map<String, CellClaim> claims) {
+                return null;
+            }
+        };
+        repository.transactCell(cell, abort);
+        await(done, failure);
+        assertTrue(abort.aborted);
+        assertEquals(Collections.singleton("a"), readCell(cell).keySet());
+    }
+
+    // Lê as reivindicações da célula com uma transação que sempre aborta
+    protected Map<String, CellClaim> readCell(String cell) throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final AtomicReference<Map<String, CellClaim>> read = new AtomicReference<>();
+        repository.transactCell(cell, new CellResult(done, failure) {
+            @Override
+            public Map<String, CellClaim> apply(Map<String, CellClaim> claims) {
+                read.set(new HashMap<>(claims));
+                return null;
+            }
+        });
+        await(done, failure);
+        return read.get();
+    }
+
+    protected Map<String, Long> counters(String dimension) throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Map<String, Long>> result = new AtomicReference<>();
+        repository.loadCounters(dimension, new CountersCallback() {
+            @Override
+            public void onCountersLoaded(Map<String, Long> counters) {
+                result.set(counters);
+                done.countDown();
+            }
+
+            @Override
+            public void onCancelled() {
+                done.countDown();
+            }
+        });
+        assertTrue("Tempo esgotado", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertNotNull("Consulta cancelada", result.get());
+        return result.get();
+    }
+
+    protected long counter(String dimension, String key) throws Exception {
+        Long value = counters(dimension).get(key);
+        return value == null ? 0 : value;
+    }
+
+    protected void save(List<Region> regions) throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        repository.saveAll(regions, writeCallback(done, failure));
+        await(done, failure);
+    }
+
+    protected List<Region> loadAll() throws Exception {
+        LoadResult result = new LoadResult();
+        repository.loadAll(result);
+        return result.get();
+    }
+
+    protected List<Region> loadNear(double latitude, double longitude, double radiusMeters) throws Exception {
+        LoadResult result = new LoadResult();
+        repository.loadNear(latitude, longitude, radiusMeters, result);
+        return result.get();
+    }
+
+    protected List<Region> loadOlderThan(long cutoff, int limit) throws Exception {
+        LoadResult result = new LoadResult();
+        repository.loadOlderThan(cutoff, limit, result);
+        return result.get();
+    }
+
+    private static WriteCallback writeCallback(final CountDownLatch done, final AtomicReference<Exception> failure) {
+        return new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                failure.set(e);
+                done.countDown();
+            }
+        };
+    }
+
+    private static void await(CountDownLatch done, AtomicReference<Exception> failure) throws Exception {
+        assertTrue("Tempo esgotado", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private abstract static class CellResult implements CellTransaction {
+        private final CountDownLatch done;
+        private final AtomicReference<Exception> failure;
+        volatile boolean aborted;
+
+        CellResult(CountDownLatch done, AtomicReference<Exception> failure) {
+            this.done = done;
+            this.failure = failure;
+        }
+
+        @Override
+        public void onCommitted() {
+            done.countDown();
+        }
+
+        @Override
+        public void onAborted() {
+            aborted = true;
+            done.countDown();
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            failure.set(e);
+            done.countDown();
+        }
+    }
+
+    private static class LoadResult implements ConsultaCallback {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile List<Region> regions;
+
+        @Override
+        public void onRegionsLoaded(List<Region> regions) {
+            this.regions = regions;
+            done.countDown();
+        }
+
+        @Override
+        public void onCancelled() {
+            done.countDown();
+        }
+
+        List<Region> get() throws InterruptedException {
+            assertTrue("Tempo esgotado", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertNotNull("Consulta cancelada", regions);
+            return Collections.unmodifiableList(regions);
+        }
+    }
+}
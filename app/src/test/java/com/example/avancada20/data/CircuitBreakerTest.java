@@ -0,0 +1,80 @@
+package com.example.avancada20.data;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void opensAfterConsecutiveFailuresOnly() {
+        CircuitBreaker breaker = new CircuitBreaker("teste", 3, 1000, now::get);
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess(); // Zera a contagem
+        breaker.onFailure();
+        breaker.onFailure();
+        assertTrue(breaker.allowRequest());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void halfOpen_allowsSingleProbe() {
+        CircuitBreaker breaker = new CircuitBreaker("teste", 1, 1000, now::get);
+        breaker.onFailure();
+        now.set(999);
+        assertFalse(breaker.allowRequest());
+
+        now.set(1000);
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest()); // Só uma chamada de teste por vez
+
+        breaker.onFailure(); // A chamada de teste falhou: abre de novo, contando a partir de agora
+        now.set(1999);
+        assertFalse(breaker.allowRequest());
+        now.set(2000);
+        assertTrue(breaker.allowRequest());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void backoff_growsExponentiallyWithJitterUpToCeiling() {
+        Backoff backoff = new Backoff(100, 5000, new Random(7));
+        assertEquals(100, backoff.ceilingMillis(0));
+        assertEquals(800, backoff.ceilingMillis(3));
+        assertEquals(5000, backoff.ceilingMillis(10));
+        assertEquals(5000, backoff.ceilingMillis(200));
+
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (int i = 0; i < 1000; i++) {
+            long delay = backoff.delayMillis(3);
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        assertTrue(min >= 0 && min < 100); // Esperas espalhadas por todo o intervalo
+        assertTrue(max < 800 && max > 700);
+    }
+
+    @Test
+    public void retryBudget_refillsWithRequests() {
+        RetryBudget budget = new RetryBudget(0.5, 2);
+        assertTrue(budget.tryRetry());
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+        budget.onRequest();
+        assertFalse(budget.tryRetry());
+        budget.onRequest();
+        assertTrue(budget.tryRetry());
+    }
+}
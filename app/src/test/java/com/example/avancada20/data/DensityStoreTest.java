@@ -0,0 +1,55 @@
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class DensityStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void record_persistsCountsAcrossReopen() throws IOException {
+        File file = new File(folder.getRoot(), "densidade.bin");
+        DensityStore store = DensityStore.open(file);
+        assertEquals(0, store.getTotal());
+
+        store.record(Arrays.asList(
+                new Region("Praça", -19.9191, -43.9386, 0L, 0),
+                new Region("Banca", -19.9196, -43.9386, 0L, 0),
+                new Region("Porto", -23.55, -46.63, 0L, 1)));
+        store.record(Collections.<Region>emptyList());
+        assertEquals(3, store.getTotal());
+
+        DensityStore reopened = DensityStore.open(file);
+        assertEquals(3, reopened.getTotal());
+        assertArrayEquals(store.tile(0, 0, 0), reopened.tile(0, 0, 0));
+        int sum = 0;
+        for (int count : reopened.tile(0, 0, 0)) {
+            sum += count;
+        }
+        assertEquals(3, sum);
+        assertEquals(2, reopened.maxBinCount(0)); // As duas regiões de Belo Horizonte caem na mesma faixa
+    }
+
+    @Test
+    public void open_startsEmptyWhenFileIsCorrupt() throws IOException {
+        File file = folder.newFile("densidade.bin");
+        Files.write(file.toPath(), new byte[]{1, 2, 3});
+        DensityStore store = DensityStore.open(file);
+        assertEquals(0, store.getTotal());
+
+        store.record(Collections.singletonList(new Region("Praça", -19.9191, -43.9386, 0L, 0)));
+        assertEquals(1, DensityStore.open(file).getTotal());
+    }
+}
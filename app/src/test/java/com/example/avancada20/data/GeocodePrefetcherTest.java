@@ -0,0 +1,180 @@
+package com.example.avancada20.data;
+
+import com.example.calculos.GeoCalculator;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class GeocodePrefetcherTest {
+    private static final double LATITUDE = -19.9191;
+    private static final double LONGITUDE = -43.9386;
+    private static final double METERS_PER_DEGREE = 111195;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void prefetch_makesLaterResolveACacheHit() throws Exception {
+        FakeGeocoder geocoder = new FakeGeocoder(null);
+        GeocodePrefetcher prefetcher = new GeocodePrefetcher(geocoder, new GeocodeCache(), executor, 0, System::currentTimeMillis);
+        prefetcher.onLocation(LATITUDE, LONGITUDE);
+        awaitCalls(geocoder, 1);
+        awaitCached(prefetcher, LATITUDE, LONGITUDE);
+
+        assertNotNull(prefetcher.resolve(LATITUDE + 1e-5, LONGITUDE));
+        assertEquals(1, prefetcher.getHitCount());
+        assertEquals(0, prefetcher.getMissCount());
+        assertEquals(1, geocoder.count());
+    }
+
+    @Test
+    public void movingNorth_prefetchesCellsAhead() throws Exception {
+        FakeGeocoder geocoder = new FakeGeocoder(null);
+        GeocodePrefetcher prefetcher = new GeocodePrefetcher(geocoder, new GeocodeCache(), executor, 0, System::currentTimeMillis);
+        prefetcher.onLocation(LATITUDE, LONGITUDE);
+        prefetcher.onLocation(north(LATITUDE, 10), LONGITUDE);
+
+        double ahead = north(LATITUDE, 10 + GeocodePrefetcher.LOOKAHEAD_CELLS * GeocodeCache.CELL_SIZE);
+        awaitCached(prefetcher, ahead, LONGITUDE);
+        assertEquals("Rua " + prefetcher.getCache().cellOf(ahead, LONGITUDE), prefetcher.resolve(ahead, LONGITUDE));
+        assertEquals(0, prefetcher.getMissCount());
+    }
+
+    @Test
+    public void rateLimit_spacesGeocoderCalls() throws Exception {
+        FakeGeocoder geocoder = new FakeGeocoder(null);
+        GeocodePrefetcher prefetcher = new GeocodePrefetcher(geocoder, new GeocodeCache(), executor, 100, System::currentTimeMillis);
+        prefetcher.onLocation(LATITUDE, LONGITUDE);
+        prefetcher.onLocation(north(LATITUDE, 10), LONGITUDE);
+        awaitCalls(geocoder, 4);
+
+        List<Long> times = geocoder.times();
+        for (int i = 1; i < times.size(); i++) {
+            assertTrue("Intervalo: " + (times.get(i) - times.get(i - 1)), times.get(i) - times.get(i - 1) >= 95);
+        }
+    }
+
+    @Test
+    public void movingAway_dropsQueuedTargets() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FakeGeocoder geocoder = new FakeGeocoder(release);
+        GeocodePrefetcher prefetcher = new GeocodePrefetcher(geocoder, new GeocodeCache(), executor, 0, System::currentTimeMillis);
+        prefetcher.onLocation(LATITUDE, LONGITUDE);
+        awaitCalls(geocoder, 1); // A primeira consulta fica bloqueada
+        prefetcher.onLocation(north(LATITUDE, 10), LONGITUDE);
+        double farLatitude = north(LATITUDE, 5000);
+        prefetcher.onLocation(farLatitude, LONGITUDE);
+        release.countDown();
+
+        awaitCalls(geocoder, 1 + 1 + GeocodePrefetcher.LOOKAHEAD_CELLS);
+        Thread.sleep(200);
+        List<double[]> points = geocoder.points();
+        assertEquals(1 + 1 + GeocodePrefetcher.LOOKAHEAD_CELLS, points.size());
+        GeoCalculator calculator = new GeoCalculator();
+        for (double[] point : points.subList(1, points.size())) {
+            double distance = calculator.calculateDistance(farLatitude, LONGITUDE, point[0], point[1]);
+            assertTrue("Distância: " + distance, distance <= (GeocodePrefetcher.LOOKAHEAD_CELLS + 1) * GeocodeCache.CELL_SIZE);
+        }
+    }
+
+    @Test
+    public void resolve_withoutPrefetch_queriesGeocoderOnce() {
+        FakeGeocoder geocoder = new FakeGeocoder(null);
+        GeocodePrefetcher prefetcher = new GeocodePrefetcher(geocoder, new GeocodeCache(), executor, 0, System::currentTimeMillis);
+        String name = prefetcher.resolve(LATITUDE, LONGITUDE);
+        assertNotNull(name);
+        assertEquals(name, prefetcher.resolve(LATITUDE, LONGITUDE));
+        assertEquals(1, geocoder.count());
+        assertEquals(1, prefetcher.getMissCount());
+        assertEquals(1, prefetcher.getHitCount());
+    }
+
+    @Test
+    public void cache_evictsLeastRecentlyUsedCell() {
+        GeocodeCache cache = new GeocodeCache(2);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.get(1);
+        cache.put(3, "c");
+        assertTrue(cache.contains(1));
+        assertFalse(cache.contains(2));
+        assertTrue(cache.contains(3));
+        assertEquals(2, cache.size());
+    }
+
+    private static double north(double latitude, double meters) {
+        return latitude + meters / METERS_PER_DEGREE;
+    }
+
+    private static void awaitCalls(FakeGeocoder geocoder, int calls) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (geocoder.count() < calls && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue("Consultas: " + geocoder.count(), geocoder.count() >= calls);
+    }
+
+    private static void awaitCached(GeocodePrefetcher prefetcher, double latitude, double longitude) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (prefetcher.getCache().get(latitude, longitude) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertNotNull(prefetcher.getCache().get(latitude, longitude));
+    }
+
+    // Geocodificador que registra as consultas; a primeira pode ficar bloqueada até a liberação
+    private static class FakeGeocoder implements ReverseGeocoder {
+        private final CountDownLatch release;
+        private final GeocodeCache grid = new GeocodeCache();
+        private final List<double[]> points = new ArrayList<>();
+        private final List<Long> times = new ArrayList<>();
+
+        FakeGeocoder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String reverseGeocode(double latitude, double longitude) throws IOException {
+            boolean first;
+            synchronized (this) {
+                points.add(new double[]{latitude, longitude});
+                times.add(System.currentTimeMillis());
+                first = points.size() == 1;
+            }
+            if (first && release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            return "Rua " + grid.cellOf(latitude, longitude);
+        }
+
+        synchronized int count() {
+            return points.size();
+        }
+
+        synchronized List<double[]> points() {
+            return new ArrayList<>(points);
+        }
+
+        synchronized List<Long> times() {
+            return new ArrayList<>(times);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.avancada20.data;
+
+import java.util.concurrent.TimeUnit;
+
+public class InMemoryRegionRepositoryTest extends RegionRepositoryContract {
+    @Override
+    protected RegionRepository createRepository() {
+        InMemoryRegionRepository repository = new InMemoryRegionRepository();
+        repository.setLatency(0, 1, TimeUnit.MILLISECONDS);
+        return repository;
+    }
+
+    @Override
+    protected void destroyRepository(RegionRepository repository) {
+        ((InMemoryRegionRepository) repository).shutdown();
+    }
+}
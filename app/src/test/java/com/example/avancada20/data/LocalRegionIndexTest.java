@@ -0,0 +1,87 @@
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.Polygon;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class LocalRegionIndexTest {
+    private static final double METERS_PER_DEGREE = 111195;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void check_rejectsLikeRegionAdmissionAndSurvivesReopen() throws IOException {
+        File file = new File(folder.getRoot(), "regioes.idx");
+        LocalRegionIndex index = LocalRegionIndex.open(file);
+        index.replaceAll(Arrays.asList(
+                new Region("Praça", -19.9191, -43.9386, 0L, 0),
+                new Region("Porto", -23.55, -46.63, 0L, 1)));
+        index.add(new Region("Banca", -19.9200, -43.9386, 0L, 0));
+
+        LocalRegionIndex reopened = LocalRegionIndex.open(file);
+        assertEquals(3, reopened.size());
+        assertEquals(RegionAdmission.Result.TOO_CLOSE, reopened.check("Feira", -19.9191 + 20 / METERS_PER_DEGREE, -43.9386));
+        assertEquals(RegionAdmission.Result.DUPLICATE_NAME, reopened.check("Banca", -19.9200, -43.9386 + 0.0001));
+        assertEquals(RegionAdmission.Result.ACCEPTED, reopened.check("Feira", -19.9191 + 40 / METERS_PER_DEGREE, -43.9386));
+        // Mesmo nome longe dali: o índice não tem como saber, quem decide é o banco
+        assertEquals(RegionAdmission.Result.ACCEPTED, reopened.check("Porto", -19.95, -43.95));
+    }
+
+    @Test
+    public void replaceAll_skipsShapedRegionsAndDropsPreviousContent() throws IOException {
+        LocalRegionIndex index = LocalRegionIndex.open(new File(folder.getRoot(), "regioes.idx"));
+        index.add(new Region("Praça", -19.9191, -43.9386, 0L, 0));
+        Region parque = new Region("Parque", -19.93, -43.94, 0L, 0);
+        parque.setShape(Polygon.fromCoordinates(new double[]{-19.931, -43.941, -19.931, -43.939, -19.929, -43.939, -19.929, -43.941}));
+        index.replaceAll(Collections.singletonList(parque));
+
+        assertEquals(0, index.size());
+        assertEquals(RegionAdmission.Result.ACCEPTED, index.check("Praça", -19.9191, -43.9386));
+    }
+
+    @Test
+    public void addMissing_appendsOnlyRegionsNotYetIndexed() throws IOException {
+        LocalRegionIndex index = LocalRegionIndex.open(new File(folder.getRoot(), "regioes.idx"));
+        Region praca = new Region("Praça", -19.9191, -43.9386, 0L, 0);
+        index.add(praca);
+        Region banca = new Region("Banca", -19.9200, -43.9386, 0L, 0);
+        // Outra região com o mesmo nome, a 10 m, ainda é incluída
+        Region vizinha = new Region("Praça", -19.9191 + 10 / METERS_PER_DEGREE, -43.9386, 0L, 0);
+
+        assertEquals(2, index.addMissing(Arrays.asList(praca, banca, vizinha)));
+        assertEquals(0, index.addMissing(Arrays.asList(praca, banca, vizinha)));
+        assertEquals(3, index.size());
+        assertEquals(RegionAdmission.Result.DUPLICATE_NAME, index.check("Banca", -19.9200, -43.9386 + 0.0001));
+    }
+
+    @Test
+    public void open_startsEmptyWhenFileIsCorrupt() throws IOException {
+        File file = folder.newFile("regioes.idx");
+        Files.write(file.toPath(), new byte[]{1, 2, 3});
+        LocalRegionIndex index = LocalRegionIndex.open(file);
+        assertEquals(0, index.size());
+
+        index.add(new Region("Praça", -19.9191, -43.9386, 0L, 0));
+        assertEquals(1, LocalRegionIndex.open(file).size());
+    }
+
+    @Test
+    public void encodeName_marksLongNamesAsTruncated() {
+        char[] name = new char[LocalRegionIndex.NAME_BYTES + 1];
+        Arrays.fill(name, 'a');
+        assertEquals((byte) 0xFF, LocalRegionIndex.encodeName(new String(name))[0]);
+        assertEquals(6, LocalRegionIndex.encodeName("Praça")[0]); // "ç" ocupa dois bytes em UTF-8
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.avancada20.data;
+
+import com.example.calculos.Gazetteer;
+import com.example.calculos.GazetteerBuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class OfflineFirstReverseGeocoderTest {
+    private static final double LATITUDE = -19.9191;
+    private static final double LONGITUDE = -43.9386;
+    private static final double METERS_PER_DEGREE = 111195;
+
+    private Gazetteer gazetteer;
+    private int remoteCalls;
+
+    @Before
+    public void setUp() throws IOException {
+        GazetteerBuilder builder = new GazetteerBuilder(GazetteerBuilder.DEFAULT_CELL_SIZE);
+        builder.add("Praça da Liberdade", LATITUDE, LONGITUDE);
+        gazetteer = new Gazetteer(builder.toByteBuffer());
+    }
+
+    @Test
+    public void nearbyPoint_answersWithoutRemote() throws IOException {
+        ReverseGeocoder geocoder = new OfflineFirstReverseGeocoder(() -> gazetteer, remote("Rua remota", false));
+        assertEquals("Praça da Liberdade", geocoder.reverseGeocode(north(10), LONGITUDE));
+        assertEquals(0, remoteCalls);
+    }
+
+    @Test
+    public void fartherPoint_prefersRemoteAndFallsBackWhenOffline() throws IOException {
+        ReverseGeocoder online = new OfflineFirstReverseGeocoder(() -> gazetteer, remote("Rua remota", false));
+        assertEquals("Rua remota", online.reverseGeocode(north(100), LONGITUDE));
+
+        ReverseGeocoder offline = new OfflineFirstReverseGeocoder(() -> gazetteer, remote(null, true));
+        assertEquals("Praça da Liberdade", offline.reverseGeocode(north(100), LONGITUDE));
+        ReverseGeocoder withoutRemote = new OfflineFirstReverseGeocoder(() -> gazetteer, null);
+        assertEquals("Praça da Liberdade", withoutRemote.reverseGeocode(north(100), LONGITUDE));
+        assertNull(withoutRemote.reverseGeocode(north(1000), LONGITUDE));
+    }
+
+    @Test(expected = IOException.class)
+    public void noLocalPointAndRemoteFailure_propagatesError() throws IOException {
+        new OfflineFirstReverseGeocoder(Gazetteer::empty, remote(null, true)).reverseGeocode(LATITUDE, LONGITUDE);
+    }
+
+    private ReverseGeocoder remote(final String name, final boolean fail) {
+        return (latitude, longitude) -> {
+            remoteCalls++;
+            if (fail) {
+                throw new IOException("Sem rede");
+            }
+            return name;
+        };
+    }
+
+    private static double north(double meters) {
+        return LATITUDE + meters / METERS_PER_DEGREE;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PendingRegionStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void appendPeekAndRemove_keepOrderAcrossInstances() throws IOException {
+        File file = new File(folder.getRoot(), "pendentes.bin");
+        PendingRegionStore store = new PendingRegionStore(file);
+        assertTrue(store.peek(10).isEmpty());
+
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            regions.add(new Region("Região " + i, -19.9 + i * 0.001, -43.9, i == 2 ? null : 1712000000000L + i, i));
+        }
+        store.append(regions.subList(0, 3));
+        store.append(regions.subList(3, 5));
+        assertEquals(regions.subList(0, 2), store.peek(2));
+
+        store.remove(2);
+        // Uma nova instância sobre o mesmo arquivo vê a fila depois da remoção
+        PendingRegionStore reopened = new PendingRegionStore(file);
+        assertEquals(3, reopened.size());
+        assertEquals(regions.subList(2, 5), reopened.peek(10));
+        assertNull(reopened.peek(1).get(0).getTimestamp());
+
+        reopened.remove(10);
+        assertEquals(0, reopened.size());
+    }
+
+    @Test
+    public void polygon_andRecordsWithoutOptionalFields_areRead() throws IOException {
+        File file = new File(folder.getRoot(), "pendentes.bin");
+        // Registro no formato anterior aos campos opcionais: começa direto pelo booleano do nome
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeBoolean(true);
+            out.writeUTF("Rua A");
+            out.writeDouble(-23.55);
+            out.writeDouble(-46.63);
+            out.writeBoolean(false);
+            out.writeInt(7);
+        }
+        PendingRegionStore store = new PendingRegionStore(file);
+        Region campus = new Region("Campus", -19.87, -43.965, 1712000000000L, 8);
+        campus.setPolygon(Arrays.asList(-19.875, -43.97, -19.875, -43.96, -19.865, -43.96));
+        store.append(Arrays.asList(campus));
+
+        List<Region> pending = new PendingRegionStore(file).peek(10);
+        assertEquals(Arrays.asList(new Region("Rua A", -23.55, -46.63, null, 7), campus), pending);
+        assertNull(pending.get(0).getPolygon());
+        assertEquals(campus.getPolygon(), pending.get(1).getPolygon());
+    }
+
+    @Test
+    public void key_isKeptThroughQueue() throws IOException {
+        File file = new File(folder.getRoot(), "pendentes.bin");
+        PendingRegionStore store = new PendingRegionStore(file);
+        Region keyed = new Region("Rua A", -23.55, -46.63, 1712000000000L, 7);
+        keyed.setKey("-NxA1b2C3d4");
+        Region unkeyed = new Region("Rua B", -23.56, -46.64, null, 8);
+        Region last = new Region("Rua C", -23.57, -46.65, null, 9);
+        last.setKey("-NxA1b2C3d5");
+        store.append(Arrays.asList(keyed, unkeyed, last));
+        store.remove(1);
+
+        List<Region> pending = new PendingRegionStore(file).peek(10);
+        assertNull(pending.get(0).getKey());
+        assertEquals("-NxA1b2C3d5", pending.get(1).getKey());
+    }
+
+    @Test
+    public void truncatedTail_isDiscarded() throws IOException {
+        File file = new File(folder.getRoot(), "pendentes.bin");
+        PendingRegionStore store = new PendingRegionStore(file);
+        Region first = new Region("Rua A", -23.55, -46.63, 1712000000000L, 7);
+        store.append(Arrays.asList(first));
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{1, 0, 5, 'R'}); // Registro interrompido no meio do nome
+        }
+
+        assertEquals(Arrays.asList(first), store.peek(10));
+        Region second = new Region("Rua B", -23.56, -46.64, null, 8);
+        store.append(Arrays.asList(second));
+        assertEquals(Arrays.asList(first, second), new PendingRegionStore(file).peek(10));
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class RegionClaimsTest {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final InMemoryRegionRepository repository = new InMemoryRegionRepository();
+    private final AtomicLong now = new AtomicLong(1000);
+    private final RegionClaims claims = new RegionClaims(repository, now::get);
+
+    @After
+    public void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    public void claim_rejectsNearbyAndDuplicateName() throws Exception {
+        assertEquals(RegionAdmission.Result.ACCEPTED, claim(new Region("Praça", -19.9191, -43.9386, null, 0)));
+        assertEquals(RegionAdmission.Result.TOO_CLOSE, claim(new Region("Banca", -19.9192, -43.9386, null, 0)));
+        assertEquals(RegionAdmission.Result.DUPLICATE_NAME, claim(new Region("Praça", -19.9196, -43.9386, null, 0)));
+        assertEquals(RegionAdmission.Result.ACCEPTED, claim(new Region("Banca", -19.9196, -43.9386, null, 0))); // ~55 m
+    }
+
+    @Test
+    public void claim_rejectsDuplicateNameFarAway_untilReleased() throws Exception {
+        final Region praca = new Region("Praça", -19.9191, -43.9386, null, 0);
+        assertEquals(RegionAdmission.Result.ACCEPTED, claim(praca));
+        // Em outra cidade, sem nenhuma célula em comum: o nome é recusado pela reserva
+        assertEquals(RegionAdmission.Result.DUPLICATE_NAME, claim(new Region("Praça", -23.5505, -46.6333, null, 0)));
+        assertEquals(RegionAdmission.Result.ACCEPTED, claim(new Region("Sé", -23.5505, -46.6333, null, 0)));
+
+        final CountDownLatch done = new CountDownLatch(1);
+        claims.release(Collections.singletonList(praca), new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+            }
+        });
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(repository.cellsSnapshot().containsKey(RegionClaims.nameKeyOf("Praça")));
+        assertEquals(RegionAdmission.Result.ACCEPTED, claim(new Region("Praça", -23.5600, -46.6333, null, 0)));
+    }
+
+    @Test
+    public void backfillJob_claimsRegionsSavedWithoutClaimsOnce() throws Exception {
+        File marker = new File(folder.getRoot(), "reivindicacoes.preenchidas");
+        Region praca = new Region("Praça", -19.9191, -43.9386, 1000L, 0);
+        Region se = new Region("Sé", -23.5505, -46.6333, 1000L, 0);
+        final CountDownLatch saved = new CountDownLatch(1);
+        repository.saveAll(Arrays.asList(praca, se), new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                saved.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+            }
+        });
+        assertTrue(saved.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(RegionAdmission.Result.ACCEPTED, claim(new Region("Sé", -23.5505, -46.6333, null, 0)));
+
+        new RegionClaimsBackfillJob(repository, claims, marker).run();
+        assertTrue(marker.exists());
+        assertEquals(RegionAdmission.Result.TOO_CLOSE, claim(new Region("Banca", -19.9192, -43.9386, null, 0)));
+        assertEquals(RegionAdmission.Result.DUPLICATE_NAME, claim(new Region("Praça", -23.5600, -46.6333, null, 0)));
+
+        // A reivindicação já feita para a Sé não é duplicada, e repetir o preenchimento não acrescenta nada
+        Map<String, Map<String, CellClaim>> before = repository.cellsSnapshot();
+        assertEquals(1, before.get(RegionClaims.nameKeyOf("Sé")).size());
+        assertTrue(marker.delete());
+        new RegionClaimsBackfillJob(repository, claims, marker).run();
+        assertEquals(before.keySet(), repository.cellsSnapshot().keySet());
+        for (String cell : before.keySet()) {
+            assertEquals(before.get(cell).keySet(), repository.cellsSnapshot().get(cell).keySet());
+        }
+    }
+
+    @Test
+    public void claim_rejectedInOneCell_undoesOtherCellsBeforeCallback() throws Exception {
+        // Um ponto cujo círculo de 30 m toca mais de uma célula
+        double latitude = -19.9191;
+        double longitude = -43.9386;
+        List<String> cells = claims.cellsOf(latitude, longitude);
+        while (cells.size() < 2) {
+            longitude += 0.0001;
+            cells = claims.cellsOf(latitude, longitude);
+        }
+        // Uma reivindicação com o mesmo nome apenas na última célula
+        String last = cells.get(cells.size() - 1);
+        final CountDownLatch done = new CountDownLatch(1);
+        repository.transactCell(last, new CellTransaction() {
+            @Override
+            public Map<String, CellClaim> apply(Map<String, CellClaim> current) {
+                return Collections.singletonMap("existente", new CellClaim("Praça", 0, 0));
+            }
+
+            @Override
+            public void onCommitted() {
+                done.countDown();
+            }
+
+            @Override
+            public void onAborted() {
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+            }
+        });
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // As demais células e o nó do nome são reivindicados ao mesmo tempo e desfeitos antes da recusa
+        assertEquals(RegionAdmission.Result.DUPLICATE_NAME, claim(new Region("Praça", latitude, longitude, null, 0)));
+        assertEquals(Collections.singleton(last), repository.cellsSnapshot().keySet());
+    }
+
+    @Test
+    public void release_freesNeighborhoodForNewRegions() throws Exception {
+        Region region = new Region("Praça", -19.9191, -43.9386, null, 0);
+        assertEquals(RegionAdmission.Result.ACCEPTED, claim(region));
+
+        final CountDownLatch done = new CountDownLatch(1);
+        claims.release(Collections.singletonList(region), new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+            }
+        });
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(repository.cellsSnapshot().isEmpty());
+        assertEquals(RegionAdmission.Result.ACCEPTED, claim(new Region("Banca", -19.9192, -43.9386, null, 0)));
+    }
+
+    @Test
+    public void reserve_expiresUnlessConfirmedAfterUpload() throws Exception {
+        Region praca = new Region("Praça", -19.9191, -43.9386, null, 0);
+        praca.setKey(repository.newKey());
+        Region se = new Region("Sé", -23.5505, -46.6333, null, 0);
+        se.setKey(repository.newKey());
+        assertEquals(RegionAdmission.Result.ACCEPTED, reserve(praca));
+        assertEquals(RegionAdmission.Result.ACCEPTED, reserve(se));
+        assertEquals(RegionAdmission.Result.TOO_CLOSE, claim(new Region("Banca", -19.9192, -43.9386, null, 0)));
+
+        // Só a Praça chega ao banco: a sua reserva, identificada pela chave da região, passa a ser permanente
+        final CountDownLatch done = new CountDownLatch(1);
+        claims.backfill(Collections.singletonList(praca), new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+            }
+        });
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        for (String cell : claims.cellsOf(praca.getLatitude(), praca.getLongitude())) {
+            assertNull(repository.cellsSnapshot().get(cell).get(praca.getKey()).getExpiresAt());
+        }
+
+        // Expirada, a reserva da Sé, que nunca foi gravada, deixa de bloquear a vizinhança e o nome
+        now.addAndGet(RegionClaims.RESERVATION_TTL_MILLIS);
+        assertEquals(RegionAdmission.Result.TOO_CLOSE, claim(new Region("Banca", -19.9192, -43.9386, null, 0)));
+        assertEquals(RegionAdmission.Result.ACCEPTED, claim(new Region("Sé", -23.5506, -46.6333, null, 0)));
+        assertFalse(repository.cellsSnapshot().get(RegionClaims.nameKeyOf("Sé")).containsKey(se.getKey()));
+    }
+
+    private RegionAdmission.Result claim(Region region) throws Exception {
+        return admit(region, false);
+    }
+
+    private RegionAdmission.Result reserve(Region region) throws Exception {
+        return admit(region, true);
+    }
+
+    private RegionAdmission.Result admit(Region region, boolean reservation) throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<RegionAdmission.Result> result = new AtomicReference<>();
+        RegionClaims.Callback callback = new RegionClaims.Callback() {
+            @Override
+            public void onAccepted(Region claimed) {
+                result.set(RegionAdmission.Result.ACCEPTED);
+                done.countDown();
+            }
+
+            @Override
+            public void onRejected(RegionAdmission.Result rejected) {
+                result.set(rejected);
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                done.countDown();
+            }
+        };
+        if (reservation) {
+            claims.reserve(region, callback);
+        } else {
+            claims.claim(region, callback);
+        }
+        assertTrue("Tempo esgotado", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertNotNull("Falha na reivindicação", result.get());
+        return result.get();
+    }
+}
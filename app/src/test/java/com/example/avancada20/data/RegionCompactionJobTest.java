@@ -0,0 +1,136 @@
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RegionCompactionJobTest {
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long NOW = 1790000000000L; // 21/09/2026, em UTC
+
+    private final InMemoryRegionRepository repository = new InMemoryRegionRepository();
+
+    @After
+    public void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    public void compact_movesOnlyOldRegionsInBoundedChunks() throws InterruptedException {
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            // Metade com mais de 30 dias, metade mais recente; todas distantes entre si
+            long age = i % 2 == 0 ? 40 * DAY + i * 1000L : 10 * DAY;
+            regions.add(new Region("Regiao " + i, -19.9 + i * 0.001, -43.9, NOW - age, i));
+        }
+        save(regions);
+
+        RetentionPolicy policy = new RetentionPolicy(30 * DAY, RetentionPolicy.Period.MONTH, 0, 40, 2);
+        RegionCompactionJob job = new RegionCompactionJob(repository, policy);
+
+        // Cada execução processa no máximo 2 lotes de 40 regiões
+        RegionCompactionJob.Report first = job.compact(NOW);
+        assertEquals(2, first.chunks);
+        assertEquals(80, first.removed);
+        assertEquals(250 - 80, repository.snapshot().size());
+
+        RegionCompactionJob.Report second = job.compact(NOW);
+        assertEquals(45, second.removed);
+        assertFalse(second.failed);
+
+        Map<String, Region> hot = repository.snapshot();
+        assertEquals(125, hot.size());
+        for (Region region : hot.values()) {
+            assertTrue(region.getTimestamp() >= policy.cutoff(NOW));
+        }
+        assertEquals(125, archivedCount());
+        assertEquals(0, job.compact(NOW).removed);
+    }
+
+    @Test
+    public void compact_mergesNearDuplicatesIntoMonthlyBuckets() throws InterruptedException {
+        long august = NOW - 45 * DAY;
+        List<Region> regions = new ArrayList<>();
+        regions.add(new Region("Praça", -19.9, -43.9, august, 1));
+        regions.add(new Region("Praça", -19.90002, -43.9, august + 1000, 2)); // ~2 m da anterior
+        regions.add(new Region("Igreja", -19.90002, -43.90001, august + 2000, 3)); // Perto, mas com outro nome
+        regions.add(new Region("Praça", -19.9, -43.9, NOW - 400 * DAY, 4)); // Mesmo lugar, outro mês
+        regions.add(new Region(null, -19.8, -43.8, null, 5)); // Região antiga sem timestamp
+        save(regions);
+
+        RetentionPolicy policy = new RetentionPolicy(30 * DAY, RetentionPolicy.Period.MONTH, 5, 100, 10);
+        RegionCompactionJob.Report report = new RegionCompactionJob(repository, policy).compact(NOW);
+
+        assertEquals(5, report.removed);
+        assertEquals(4, report.archived);
+        assertEquals(1, report.merged);
+        Map<String, Map<String, Region>> archive = repository.archiveSnapshot();
+        assertEquals(2, archive.get("2026-08").size());
+        assertEquals(1, archive.get("2025-08").size());
+        assertEquals(1, archive.get(RetentionPolicy.UNDATED_BUCKET).size());
+        assertTrue(repository.snapshot().isEmpty());
+
+        // A região mantida na junção é a mais antiga
+        boolean keptOldest = false;
+        for (Region region : archive.get("2026-08").values()) {
+            keptOldest |= region.getuser() == 1;
+        }
+        assertTrue(keptOldest);
+    }
+
+    @Test
+    public void compact_stopsOnFailureAndResumesOnNextRun() throws InterruptedException {
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            regions.add(new Region("Regiao " + i, -19.9 + i * 0.001, -43.9, NOW - 100 * DAY, i));
+        }
+        save(regions);
+        RetentionPolicy policy = new RetentionPolicy(30 * DAY, RetentionPolicy.Period.DAY, 0, 10, 100);
+        RegionCompactionJob job = new RegionCompactionJob(repository, policy);
+
+        repository.setFailureRates(0, 1);
+        RegionCompactionJob.Report failed = job.compact(NOW);
+        assertTrue(failed.failed);
+        assertEquals(0, failed.removed);
+        assertEquals(60, repository.snapshot().size());
+
+        repository.setFailureRates(0, 0);
+        RegionCompactionJob.Report resumed = job.compact(NOW);
+        assertFalse(resumed.failed);
+        assertEquals(60, resumed.removed);
+        assertEquals(60, archivedCount());
+    }
+
+    private int archivedCount() {
+        int count = 0;
+        for (Map<String, Region> bucket : repository.archiveSnapshot().values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    private void save(List<Region> regions) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        repository.saveAll(regions, new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                fail(e.getMessage());
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.GridIndex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bancada de carga do caminho de gravação de regiões.
+ *
+ * Dispara muitas admissões concorrentes contra um RegionRepository (consulta, verificação com RegionAdmission e
+ * gravação, como faz o ConsultDatabase) e, ao final, mede a vazão, os percentis de latência e as violações de
+ * invariantes: gravações confirmadas que não aparecem no repositório e pares de regiões a menos de 30 metros.
+ * Com Config.useClaims, cada admissão é feita pela RegionClaims (transações nas células, depois a gravação).
+ */
+public class RegionSaveLoadHarness {
+    private static final long OPERATION_TIMEOUT_SECONDS = 30;
+
+    public static class Config {
+        int saves = 2000;
+        int concurrency = 64;
+        double centerLatitude = -19.9191;
+        double centerLongitude = -43.9386;
+        double spreadMeters = 2000; // Lado do quadrado em que os pontos são sorteados
+        long seed = 1;
+        boolean useClaims = false; // Admissão por reivindicação de células em vez de consulta seguida de gravação
+    }
+
+    public static class Report {
+        long attempted;
+        final AtomicLong accepted = new AtomicLong();
+        final AtomicLong rejectedDuplicate = new AtomicLong();
+        final AtomicLong rejectedTooClose = new AtomicLong();
+        final AtomicLong readFailures = new AtomicLong();
+        final AtomicLong writeFailures = new AtomicLong();
+        long lostWrites;
+        long proximityViolations;
+        double seconds;
+        long p50Micros;
+        long p95Micros;
+        long p99Micros;
+        long maxMicros;
+
+        double throughput() {
+            return attempted / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%d operações em %.2f s (%.0f op/s) | aceitas %d, nome repetido %d, muito próximas %d, falhas de leitura %d, falhas de gravação %d"
+                            + " | latência p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, máx %.2f ms"
+                            + " | gravações perdidas %d, violações de 30 m %d",
+                    attempted, seconds, throughput(), accepted.get(), rejectedDuplicate.get(), rejectedTooClose.get(),
+                    readFailures.get(), writeFailures.get(),
+                    p50Micros / 1000.0, p95Micros / 1000.0, p99Micros / 1000.0, maxMicros / 1000.0,
+                    lostWrites, proximityViolations);
+        }
+    }
+
+    /**
+     * Executa a carga e verifica os invariantes sobre o estado final do repositório.
+     *
+     * @param finalState Regiões armazenadas ao final da carga, indexadas pela chave.
+     */
+    public Report run(final RegionRepository repository, Config config, FinalState finalState) throws InterruptedException {
+        final Report report = new Report();
+        final long[] latencies = new long[config.saves];
+        final Set<String> acknowledged = ConcurrentHashMap.newKeySet();
+        Random random = new Random(config.seed);
+        double metersPerDegree = 111195;
+        double cos = Math.cos(Math.toRadians(config.centerLatitude));
+
+        final RegionClaims claims = config.useClaims ? new RegionClaims(repository) : null;
+        ExecutorService workers = Executors.newFixedThreadPool(config.concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < config.saves; i++) {
+            final int operation = i;
+            final double latitude = config.centerLatitude + (random.nextDouble() - 0.5) * config.spreadMeters / metersPerDegree;
+            final double longitude = config.centerLongitude + (random.nextDouble() - 0.5) * config.spreadMeters / (metersPerDegree * cos);
+            workers.execute(() -> {
+                long begin = System.nanoTime();
+                if (claims != null) {
+                    admitWithClaims(claims, "Região " + operation, latitude, longitude, report, acknowledged);
+                } else {
+                    admit(repository, "Região " + operation, latitude, longitude, report, acknowledged);
+                }
+                latencies[operation] = (System.nanoTime() - begin) / 1000;
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.MINUTES);
+        report.seconds = (System.nanoTime() - start) / 1e9;
+        report.attempted = config.saves;
+
+        Arrays.sort(latencies);
+        report.p50Micros = latencies[(int) (latencies.length * 0.50)];
+        report.p95Micros = latencies[(int) (latencies.length * 0.95)];
+        report.p99Micros = latencies[(int) (latencies.length * 0.99)];
+        report.maxMicros = latencies[latencies.length - 1];
+
+        Map<String, Region> stored = finalState.regions();
+        for (String key : acknowledged) {
+            if (!stored.containsKey(key)) {
+                report.lostWrites++;
+            }
+        }
+        GridIndex index = new GridIndex(RegionAdmission.MIN_DISTANCE);
+        for (Region region : stored.values()) {
+            if (index.anyWithin(region.getLatitude(), region.getLongitude(), RegionAdmission.MIN_DISTANCE)) {
+                report.proximityViolations++;
+            }
+            index.add(region.getLatitude(), region.getLongitude());
+        }
+        return report;
+    }
+
+    // Uma admissão completa: consulta, verificação e gravação, aguardando cada etapa como o ConsultDatabase.
+    private static void admit(RegionRepository repository, String name, double latitude, double longitude,
+                              Report report, Set<String> acknowledged) {
+        final CountDownLatch loaded = new CountDownLatch(1);
+        final RegionAdmission.Result[] result = new RegionAdmission.Result[1];
+        repository.loadNear(latitude, longitude, RegionAdmission.MIN_DISTANCE, new ConsultaCallback() {
+            @Override
+            public void onRegionsLoaded(List<Region> regions) {
+                result[0] = RegionAdmission.check(name, latitude, longitude, regions);
+                loaded.countDown();
+            }
+
+            @Override
+            public void onCancelled() {
+                loaded.countDown();
+            }
+        });
+        if (!await(loaded) || result[0] == null) {
+            report.readFailures.incrementAndGet();
+            return;
+        }
+        if (result[0] == RegionAdmission.Result.DUPLICATE_NAME) {
+            report.rejectedDuplicate.incrementAndGet();
+            return;
+        }
+        if (result[0] == RegionAdmission.Result.TOO_CLOSE) {
+            report.rejectedTooClose.incrementAndGet();
+            return;
+        }
+
+        final Region region = new Region(name, latitude, longitude, System.currentTimeMillis(), 1);
+        final CountDownLatch saved = new CountDownLatch(1);
+        final boolean[] success = new boolean[1];
+        repository.save(region, new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                success[0] = true;
+                saved.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                saved.countDown();
+            }
+        });
+        if (await(saved) && success[0]) {
+            acknowledged.add(region.getKey());
+            report.accepted.incrementAndGet();
+        } else {
+            report.writeFailures.incrementAndGet();
+        }
+    }
+
+    // Uma admissão pela RegionClaims: as falhas das transações contam como falhas de leitura e as da gravação, de gravação
+    private static void admitWithClaims(RegionClaims claims, String name, double latitude, double longitude,
+                                        Report report, Set<String> acknowledged) {
+        final Region region = new Region(name, latitude, longitude, System.currentTimeMillis(), 1);
+        final CountDownLatch done = new CountDownLatch(1);
+        claims.admit(region, new RegionClaims.Callback() {
+            @Override
+            public void onAccepted(Region admitted) {
+                acknowledged.add(admitted.getKey());
+                report.accepted.incrementAndGet();
+                done.countDown();
+            }
+
+            @Override
+            public void onRejected(RegionAdmission.Result result) {
+                if (result == RegionAdmission.Result.DUPLICATE_NAME) {
+                    report.rejectedDuplicate.incrementAndGet();
+                } else {
+                    report.rejectedTooClose.incrementAndGet();
+                }
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                if (region.getKey() == null) {
+                    report.readFailures.incrementAndGet();
+                } else {
+                    report.writeFailures.incrementAndGet();
+                }
+                done.countDown();
+            }
+        });
+        if (!await(done)) {
+            report.readFailures.incrementAndGet();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(OPERATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Fornece o estado final do repositório para a verificação dos invariantes.
+     */
+    public interface FinalState {
+        Map<String, Region> regions();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.avancada20.data;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RegionSaveLoadHarnessTest {
+    private final InMemoryRegionRepository repository = new InMemoryRegionRepository(8);
+
+    @After
+    public void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    public void concurrentSaves_withFailures_loseNoAcknowledgedWrite() throws InterruptedException {
+        repository.setLatency(0, 2, TimeUnit.MILLISECONDS);
+        repository.setFailureRates(0.01, 0.02);
+
+        RegionSaveLoadHarness.Config config = new RegionSaveLoadHarness.Config();
+        config.saves = 2000;
+        config.concurrency = 32;
+        RegionSaveLoadHarness.Report report = new RegionSaveLoadHarness().run(repository, config, repository::snapshot);
+
+        assertEquals(0, report.lostWrites);
+        assertEquals(config.saves, report.accepted.get() + report.rejectedDuplicate.get() + report.rejectedTooClose.get()
+                + report.readFailures.get() + report.writeFailures.get());
+        assertEquals(report.accepted.get(), repository.snapshot().size());
+    }
+
+    @Test
+    public void concurrentSaves_inSameSpot_exposeReadCheckWriteRace() throws InterruptedException {
+        repository.setLatency(5, 5, TimeUnit.MILLISECONDS);
+
+        RegionSaveLoadHarness.Config config = new RegionSaveLoadHarness.Config();
+        config.saves = 64;
+        config.concurrency = 32;
+        config.spreadMeters = 5;
+        RegionSaveLoadHarness.Report report = new RegionSaveLoadHarness().run(repository, config, repository::snapshot);
+
+        // Todas as consultas concorrentes veem o repositório vazio e aprovam regiões a menos de 30 m umas das outras
+        assertTrue(report.proximityViolations > 0);
+    }
+
+    @Test
+    public void concurrentSaves_inSameSpot_withClaims_acceptAtMostOne() throws InterruptedException {
+        repository.setLatency(5, 5, TimeUnit.MILLISECONDS);
+
+        RegionSaveLoadHarness.Config config = new RegionSaveLoadHarness.Config();
+        config.saves = 64;
+        config.concurrency = 32;
+        config.spreadMeters = 5;
+        config.useClaims = true;
+        RegionSaveLoadHarness.Report report = new RegionSaveLoadHarness().run(repository, config, repository::snapshot);
+
+        // As transações nas células serializam as admissões: no máximo uma é aceita. Como as células de cada admissão
+        // são reivindicadas ao mesmo tempo, admissões em conflito podem ser todas recusadas, cada uma por uma célula
+        assertEquals(0, report.proximityViolations);
+        assertTrue(report.accepted.get() <= 1);
+        assertEquals(config.saves - report.accepted.get(), report.rejectedTooClose.get());
+    }
+
+    @Test
+    public void concurrentSaves_withClaimsAndFailures_keepInvariants() throws InterruptedException {
+        repository.setLatency(0, 2, TimeUnit.MILLISECONDS);
+        repository.setFailureRates(0.01, 0.02);
+
+        RegionSaveLoadHarness.Config config = new RegionSaveLoadHarness.Config();
+        config.saves = 2000;
+        config.concurrency = 32;
+        config.spreadMeters = 500;
+        config.useClaims = true;
+        RegionSaveLoadHarness.Report report = new RegionSaveLoadHarness().run(repository, config, repository::snapshot);
+
+        assertEquals(0, report.lostWrites);
+        assertEquals(0, report.proximityViolations);
+        assertEquals(config.saves, report.accepted.get() + report.rejectedDuplicate.get() + report.rejectedTooClose.get()
+                + report.readFailures.get() + report.writeFailures.get());
+    }
+}
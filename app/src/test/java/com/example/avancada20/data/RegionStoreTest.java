@@ -0,0 +1,177 @@
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.Region;
+import com.example.calculos.GridIndex;
+import com.example.calculos.Polygon;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RegionStoreTest {
+    private static final double CENTER_LATITUDE = -19.9191;
+    private static final double CENTER_LONGITUDE = -43.9386;
+    private static final double METERS_PER_DEGREE = 111195;
+
+    @Test
+    public void tryAdd_appliesAdmissionRules() {
+        RegionStore store = new RegionStore();
+        assertEquals(RegionAdmission.Result.ACCEPTED, store.tryAdd(new Region("Praça", -19.9191, -43.9386, 0L, 0)));
+        assertEquals(RegionAdmission.Result.TOO_CLOSE, store.tryAdd(new Region("Banca", -19.9192, -43.9386, 0L, 0)));
+        assertEquals(RegionAdmission.Result.DUPLICATE_NAME, store.tryAdd(new Region("Praça", 10, 10, 0L, 0)));
+        assertEquals(RegionAdmission.Result.ACCEPTED, store.tryAdd(new Region("Banca", -19.9196, -43.9386, 0L, 0)));
+        assertEquals(2, store.size());
+
+        assertEquals(2, store.drain().size());
+        assertTrue(store.isEmpty());
+        assertEquals(RegionAdmission.Result.ACCEPTED, store.tryAdd(new Region("Praça", -19.9191, -43.9386, 0L, 0)));
+    }
+
+    @Test
+    public void tryAdd_measuresShapesByTheirEdges() {
+        RegionStore store = new RegionStore();
+        // Campus de 400 m x 400 m com o ponto de referência no canto sudoeste
+        double north = 400 / METERS_PER_DEGREE;
+        double east = 400 / (METERS_PER_DEGREE * Math.cos(Math.toRadians(CENTER_LATITUDE)));
+        Region campus = new Region("Campus", CENTER_LATITUDE, CENTER_LONGITUDE, 0L, 0);
+        campus.setShape(new Polygon(
+                new double[]{CENTER_LATITUDE, CENTER_LATITUDE, CENTER_LATITUDE + north, CENTER_LATITUDE + north},
+                new double[]{CENTER_LONGITUDE, CENTER_LONGITUDE + east, CENTER_LONGITUDE + east, CENTER_LONGITUDE}));
+        assertEquals(RegionAdmission.Result.ACCEPTED, store.tryAdd(campus));
+
+        // Longe do ponto de referência, mas dentro do campus ou a menos de 30 m da borda nordeste
+        assertEquals(RegionAdmission.Result.TOO_CLOSE,
+                store.tryAdd(new Region("Biblioteca", CENTER_LATITUDE + north / 2, CENTER_LONGITUDE + east / 2, 0L, 0)));
+        assertEquals(RegionAdmission.Result.TOO_CLOSE,
+                store.tryAdd(new Region("Portaria", CENTER_LATITUDE + north * 1.05, CENTER_LONGITUDE + east, 0L, 0)));
+        assertEquals(RegionAdmission.Result.ACCEPTED,
+                store.tryAdd(new Region("Padaria", CENTER_LATITUDE + north * 1.1, CENTER_LONGITUDE + east, 0L, 0)));
+
+        // Uma forma vizinha que avança sobre o campus é recusada; a mesma forma 40 m a leste é aceita
+        Region annex = new Region("Anexo", CENTER_LATITUDE, CENTER_LONGITUDE + east * 1.05, 0L, 0);
+        annex.setShape(new Polygon(
+                new double[]{CENTER_LATITUDE, CENTER_LATITUDE, CENTER_LATITUDE + north / 4},
+                new double[]{CENTER_LONGITUDE + east * 0.95, CENTER_LONGITUDE + east * 1.2, CENTER_LONGITUDE + east * 1.2}));
+        assertEquals(RegionAdmission.Result.TOO_CLOSE, store.tryAdd(annex));
+        annex.setShape(new Polygon(
+                new double[]{CENTER_LATITUDE, CENTER_LATITUDE, CENTER_LATITUDE + north / 4},
+                new double[]{CENTER_LONGITUDE + east * 1.1, CENTER_LONGITUDE + east * 1.2, CENTER_LONGITUDE + east * 1.2}));
+        assertEquals(RegionAdmission.Result.ACCEPTED, store.tryAdd(annex));
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    public void concurrentProducers_keepInvariants() throws InterruptedException {
+        RegionStore store = new RegionStore();
+        int accepted = produce(store, 8, 40000, 3000, false);
+
+        List<Region> regions = store.snapshot();
+        assertEquals(accepted, regions.size());
+        assertEquals(accepted, store.size());
+        assertEquals(0, proximityViolations(regions));
+    }
+
+    @Test
+    public void concurrentProducers_inSameSpot_acceptExactlyOne() throws InterruptedException {
+        RegionStore store = new RegionStore();
+        assertEquals(1, produce(store, 16, 1600, 5, false));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void concurrentProducers_withSameNames_acceptEachNameOnce() throws InterruptedException {
+        RegionStore store = new RegionStore();
+        produce(store, 8, 20000, 20000, true);
+
+        Set<String> names = new HashSet<>();
+        for (Region region : store.snapshot()) {
+            assertTrue(names.add(region.getName()));
+        }
+    }
+
+    @Test
+    public void drain_concurrentWithProducers_losesNoRegion() throws Exception {
+        final RegionStore store = new RegionStore();
+        final List<Region> drained = new ArrayList<>();
+        final AtomicBoolean producing = new AtomicBoolean(true);
+        Thread consumer = new Thread(() -> {
+            while (producing.get()) {
+                drained.addAll(store.drain());
+            }
+        });
+        consumer.start();
+        int accepted = produce(store, 4, 20000, 100000, false);
+        producing.set(false);
+        consumer.join();
+        drained.addAll(store.drain());
+        assertEquals(accepted, drained.size());
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    public void concurrentProducers_anyThreadCount_keepInvariants() throws InterruptedException {
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            RegionStore store = new RegionStore();
+            int accepted = produce(store, threads, 50000, 50000, false);
+
+            List<Region> regions = store.snapshot();
+            assertEquals(accepted, regions.size());
+            assertEquals(accepted, store.size());
+            assertEquals(0, proximityViolations(regions));
+        }
+    }
+
+    // Admissões concorrentes de pontos sorteados em um quadrado de spreadMeters de lado; retorna as aceitas
+    private static int produce(final RegionStore store, int threads, int operations, final double spreadMeters,
+                               final boolean repeatNames) throws InterruptedException {
+        final AtomicInteger accepted = new AtomicInteger();
+        final AtomicInteger next = new AtomicInteger();
+        final int total = operations;
+        final CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            final Random random = new Random(t);
+            executor.execute(() -> {
+                double metersPerDegree = 111195;
+                double cos = Math.cos(Math.toRadians(CENTER_LATITUDE));
+                int i;
+                while ((i = next.getAndIncrement()) < total) {
+                    double latitude = CENTER_LATITUDE + (random.nextDouble() - 0.5) * spreadMeters / metersPerDegree;
+                    double longitude = CENTER_LONGITUDE + (random.nextDouble() - 0.5) * spreadMeters / (metersPerDegree * cos);
+                    String name = "Região " + (repeatNames ? i % 100 : i);
+                    if (store.tryAdd(new Region(name, latitude, longitude, 0L, i)) == RegionAdmission.Result.ACCEPTED) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(2, TimeUnit.MINUTES));
+        executor.shutdown();
+        return accepted.get();
+    }
+
+    private static int proximityViolations(List<Region> regions) {
+        GridIndex index = new GridIndex(RegionAdmission.MIN_DISTANCE);
+        int violations = 0;
+        for (Region region : regions) {
+            if (index.anyWithin(region.getLatitude(), region.getLongitude(), RegionAdmission.MIN_DISTANCE)) {
+                violations++;
+            }
+            index.add(region.getLatitude(), region.getLongitude());
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.avancada20.data;
+
+import com.example.avancada20.ui.home.ConsultaCallback;
+import com.example.avancada20.ui.home.Region;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * O contrato vale para o repositório em memória protegido, com um quarto das leituras e das gravações falhando:
+ * as novas tentativas escondem as falhas. Os demais testes usam um repositório em memória que falha de forma
+ * roteirizada.
+ */
+public class ResilientRegionRepositoryTest extends RegionRepositoryContract {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicLong now = new AtomicLong();
+
+    @Override
+    protected RegionRepository createRepository() {
+        InMemoryRegionRepository delegate = new InMemoryRegionRepository();
+        delegate.setLatency(0, 1, TimeUnit.MILLISECONDS);
+        delegate.setFailureRates(0.25, 0.25);
+        return new ResilientRegionRepository(delegate, guard("leituras", 10, 1000), guard("gravações", 10, 1000));
+    }
+
+    @Override
+    protected void destroyRepository(RegionRepository repository) {
+        ((InMemoryRegionRepository) ((ResilientRegionRepository) repository).getDelegate()).shutdown();
+        scheduler.shutdownNow();
+    }
+
+    private DependencyGuard guard(String name, int attempts, int failureThreshold) {
+        return new DependencyGuard(attempts, new Backoff(1, 5, new Random(1)), new RetryBudget(0.2, 1000),
+                new CircuitBreaker(name, failureThreshold, 30000, now::get), scheduler);
+    }
+
+    // Repositório em memória cujas próximas leituras e gravações falham enquanto houver falhas roteirizadas
+    private static class ScriptedRepository extends InMemoryRegionRepository {
+        final AtomicInteger readFailures = new AtomicInteger();
+        final AtomicInteger writeFailures = new AtomicInteger();
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger writes = new AtomicInteger();
+
+        @Override
+        public void loadAll(ConsultaCallback callback) {
+            reads.incrementAndGet();
+            if (readFailures.getAndDecrement() > 0) {
+                callback.onCancelled();
+                return;
+            }
+            super.loadAll(callback);
+        }
+
+        @Override
+        public void saveAll(List<Region> regions, WriteCallback callback) {
+            writes.incrementAndGet();
+            if (writeFailures.getAndDecrement() > 0) {
+                callback.onFailure(new IOException("Falha roteirizada"));
+                return;
+            }
+            super.saveAll(regions, callback);
+        }
+    }
+
+    private static List<Region> load(RegionRepository repository) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<List<Region>> result = new AtomicReference<>();
+        repository.loadAll(new ConsultaCallback() {
+            @Override
+            public void onRegionsLoaded(List<Region> regions) {
+                result.set(regions);
+                done.countDown();
+            }
+
+            @Override
+            public void onCancelled() {
+                done.countDown();
+            }
+        });
+        assertTrue("Tempo esgotado", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    private static Exception save(RegionRepository repository, List<Region> regions) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        repository.saveAll(regions, new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                failure.set(e);
+                done.countDown();
+            }
+        });
+        assertTrue("Tempo esgotado", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return failure.get();
+    }
+
+    @Test
+    public void transientFailures_areRetriedWithoutDuplicatingWrites() throws InterruptedException {
+        ScriptedRepository delegate = new ScriptedRepository();
+        ResilientRegionRepository resilient = new ResilientRegionRepository(delegate, guard("leituras", 3, 5), guard("gravações", 3, 5));
+        delegate.writeFailures.set(2);
+        delegate.readFailures.set(2);
+
+        assertNull(save(resilient, Arrays.asList(new Region("Praça", -19.9191, -43.9386, 0L, 0),
+                new Region("Banca", -19.9200, -43.9386, 0L, 0))));
+        assertEquals(3, delegate.writes.get());
+        assertEquals(2, delegate.snapshot().size());
+
+        assertEquals(2, load(resilient).size());
+        assertEquals(3, delegate.reads.get());
+        assertEquals(CircuitBreaker.State.CLOSED, resilient.getReadState());
+        delegate.shutdown();
+    }
+
+    @Test
+    public void outage_opensCircuitAndFailsFastUntilProbeSucceeds() throws InterruptedException {
+        ScriptedRepository delegate = new ScriptedRepository();
+        ResilientRegionRepository resilient = new ResilientRegionRepository(delegate, guard("leituras", 2, 4), guard("gravações", 2, 4));
+        delegate.writeFailures.set(Integer.MAX_VALUE);
+
+        // Duas chamadas de duas tentativas abrem o disjuntor das gravações; as leituras não são afetadas
+        assertNotNull(save(resilient, Arrays.asList(new Region("Praça", -19.9191, -43.9386, 0L, 0))));
+        assertNotNull(save(resilient, Arrays.asList(new Region("Praça", -19.9191, -43.9386, 0L, 0))));
+        assertEquals(CircuitBreaker.State.OPEN, resilient.getWriteState());
+        assertNotNull(load(resilient));
+
+        int attempts = delegate.writes.get();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(save(resilient, Arrays.asList(new Region("Praça", -19.9191, -43.9386, 0L, 0))) instanceof CircuitOpenException);
+        }
+        assertEquals(attempts, delegate.writes.get()); // Nenhuma chamada chegou ao banco
+
+        // Passado o tempo de abertura, a chamada de teste vai ao banco e, com ele de volta, fecha o disjuntor
+        delegate.writeFailures.set(0);
+        now.addAndGet(30000);
+        assertNull(save(resilient, Arrays.asList(new Region("Praça", -19.9191, -43.9386, 0L, 0))));
+        assertEquals(CircuitBreaker.State.CLOSED, resilient.getWriteState());
+        assertEquals(1, delegate.snapshot().size());
+        delegate.shutdown();
+    }
+
+    @Test
+    public void maxWriteBackoff_sumsCeilingsBetweenAttempts() {
+        // 1 s, 2 s e 4 s antes da segunda, terceira e quarta tentativas
+        assertEquals(7000, ResilientRegionRepository.maxWriteBackoffMillis());
+    }
+
+    @Test
+    public void retryBudget_limitsRetriesDuringLongOutage() throws InterruptedException {
+        ScriptedRepository delegate = new ScriptedRepository();
+        DependencyGuard writes = new DependencyGuard(4, new Backoff(0, 1, new Random(1)), new RetryBudget(0.1, 5),
+                new CircuitBreaker("gravações", Integer.MAX_VALUE, 30000, now::get), scheduler);
+        ResilientRegionRepository resilient = new ResilientRegionRepository(delegate, guard("leituras", 2, 4), writes);
+        delegate.writeFailures.set(Integer.MAX_VALUE);
+
+        for (int i = 0; i < 100; i++) {
+            assertNotNull(save(resilient, Arrays.asList(new Region("Praça", -19.9191, -43.9386, 0L, 0))));
+        }
+        // 100 chamadas, a reserva de 5 fichas e 0,1 ficha por chamada, em vez de 3 novas tentativas por chamada
+        assertTrue(delegate.writes.get() <= 100 + 5 + 10);
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.avancada20.data;
+
+import com.example.calculos.Gazetteer;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ResilientReverseGeocoderTest {
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    // Geocodificador que falha enquanto houver falhas roteirizadas
+    private final ReverseGeocoder remote = (latitude, longitude) -> {
+        calls.incrementAndGet();
+        if (failures.getAndDecrement() > 0) {
+            throw new IOException("Sem rede");
+        }
+        return "Praça da Liberdade";
+    };
+
+    private ResilientReverseGeocoder geocoder(int failureThreshold) {
+        return new ResilientReverseGeocoder(remote, new DependencyGuard(2, new Backoff(1, 2, new Random(1)),
+                new RetryBudget(0.2, 5), new CircuitBreaker("geocodificador", failureThreshold, 60000, now::get), null));
+    }
+
+    @Test
+    public void transientFailure_isRetriedOnCallingThread() throws IOException {
+        ResilientReverseGeocoder geocoder = geocoder(3);
+        failures.set(1);
+        assertEquals("Praça da Liberdade", geocoder.reverseGeocode(-19.93, -43.94));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void outage_failsFastWithoutCallingGeocoder() throws IOException {
+        ResilientReverseGeocoder geocoder = geocoder(2);
+        failures.set(Integer.MAX_VALUE);
+        try {
+            geocoder.reverseGeocode(-19.93, -43.94);
+            fail("Esperava a falha do geocodificador");
+        } catch (IOException e) {
+            assertFalse(e instanceof CircuitOpenException);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, geocoder.getState());
+
+        int before = calls.get();
+        for (int i = 0; i < 10; i++) {
+            try {
+                geocoder.reverseGeocode(-19.93, -43.94);
+                fail("Esperava o disjuntor aberto");
+            } catch (CircuitOpenException expected) {
+                // Recusada sem chamar o geocodificador
+            }
+        }
+        assertEquals(before, calls.get());
+
+        // O OfflineFirstReverseGeocoder trata a recusa como qualquer falha do remoto
+        OfflineFirstReverseGeocoder offlineFirst = new OfflineFirstReverseGeocoder(Gazetteer::empty, geocoder);
+        try {
+            offlineFirst.reverseGeocode(-19.93, -43.94);
+            fail("Sem ponto no gazetteer, a falha chega a quem chamou");
+        } catch (CircuitOpenException expected) {
+            assertEquals(before, calls.get());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.avancada20.startup;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class StartupCoordinatorTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void phases_runInDependencyOrderOffTheCallingThread() throws InterruptedException {
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final Thread caller = Thread.currentThread();
+        final AtomicInteger onCaller = new AtomicInteger();
+        StartupCoordinator coordinator = new StartupCoordinator(executor);
+        coordinator.add("manutencao", record(order, "manutencao", caller, onCaller), "repositorio", "places")
+                .add("repositorio", record(order, "repositorio", caller, onCaller))
+                .add("places", record(order, "places", caller, onCaller));
+        coordinator.start();
+
+        assertTrue(coordinator.await("manutencao", 5, TimeUnit.SECONDS));
+        assertEquals(3, order.size());
+        assertEquals("manutencao", order.get(2));
+        assertEquals(0, onCaller.get());
+        assertTrue(coordinator.isDone("repositorio"));
+    }
+
+    @Test
+    public void whenDone_runsAfterPhaseOrImmediately() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        StartupCoordinator coordinator = new StartupCoordinator(executor);
+        coordinator.add("lenta", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        coordinator.start();
+
+        final AtomicInteger calls = new AtomicInteger();
+        coordinator.whenDone("lenta", Runnable::run, calls::incrementAndGet);
+        assertEquals(0, calls.get());
+        release.countDown();
+        assertTrue(coordinator.await("lenta", 5, TimeUnit.SECONDS));
+        coordinator.whenDone("lenta", Runnable::run, calls::incrementAndGet);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void failure_skipsDependents() throws InterruptedException {
+        final AtomicInteger ran = new AtomicInteger();
+        StartupCoordinator coordinator = new StartupCoordinator(executor);
+        coordinator.add("falha", () -> {
+            throw new IllegalStateException("sem rede");
+        }).add("dependente", ran::incrementAndGet, "falha")
+                .add("independente", ran::incrementAndGet);
+        coordinator.start();
+
+        assertFalse(coordinator.await("dependente", 5, TimeUnit.SECONDS));
+        assertTrue(coordinator.await("independente", 5, TimeUnit.SECONDS));
+        assertEquals(1, ran.get());
+    }
+
+    @Test
+    public void error_marksPhaseFailedAndIsRethrown() throws InterruptedException {
+        final AtomicInteger ran = new AtomicInteger();
+        final List<Throwable> thrown = Collections.synchronizedList(new ArrayList<Throwable>());
+        final CountDownLatch rethrown = new CountDownLatch(1);
+        StartupCoordinator coordinator = new StartupCoordinator(command -> executor.execute(() -> {
+            try {
+                command.run();
+            } catch (Throwable e) {
+                thrown.add(e);
+                rethrown.countDown();
+            }
+        }));
+        coordinator.add("erro", () -> {
+            throw new OutOfMemoryError("sem memória");
+        }).add("dependente", ran::incrementAndGet, "erro");
+        coordinator.start();
+
+        assertFalse(coordinator.await("erro", 5, TimeUnit.SECONDS));
+        assertFalse(coordinator.await("dependente", 5, TimeUnit.SECONDS));
+        assertEquals(0, ran.get());
+        assertTrue(rethrown.await(5, TimeUnit.SECONDS));
+        assertEquals(1, thrown.size());
+        assertTrue(thrown.get(0) instanceof OutOfMemoryError);
+    }
+
+    @Test
+    public void start_rejectsUnknownDependenciesAndCycles() {
+        StartupCoordinator unknown = new StartupCoordinator(executor).add("a", () -> { }, "b");
+        try {
+            unknown.start();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        StartupCoordinator cycle = new StartupCoordinator(executor)
+                .add("a", () -> { }, "b")
+                .add("b", () -> { }, "a");
+        try {
+            cycle.start();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void timings_useTheInjectedClock() throws InterruptedException {
+        final AtomicLong now = new AtomicLong();
+        StartupCoordinator coordinator = new StartupCoordinator(Runnable::run, now::get);
+        coordinator.add("repositorio", () -> now.addAndGet(TimeUnit.MILLISECONDS.toNanos(120)))
+                .add("places", () -> now.addAndGet(TimeUnit.MILLISECONDS.toNanos(30)), "repositorio");
+        assertEquals(-1, coordinator.getFirstFrameMillis());
+        coordinator.start();
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        coordinator.markFirstFrame();
+        coordinator.markFirstFrame(); // Ignorada
+        Map<String, Long> durations = coordinator.getDurationsMillis();
+        assertEquals(Long.valueOf(120), durations.get("repositorio"));
+        assertEquals(Long.valueOf(30), durations.get("places"));
+        assertEquals(200, coordinator.getFirstFrameMillis());
+    }
+
+    @Test
+    public void lazy_createsValueOnce() throws InterruptedException {
+        final AtomicInteger created = new AtomicInteger();
+        final Lazy<Object> lazy = new Lazy<>(() -> {
+            created.incrementAndGet();
+            return new Object();
+        });
+        assertFalse(lazy.isInitialized());
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                lazy.get();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, created.get());
+        assertTrue(lazy.isInitialized());
+    }
+
+    private static Runnable record(final List<String> order, final String name, final Thread caller, final AtomicInteger onCaller) {
+        return () -> {
+            if (Thread.currentThread() == caller) {
+                onCaller.incrementAndGet();
+            }
+            order.add(name);
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.avancada20.ui.home;
+
+import com.example.avancada20.data.InMemoryRegionRepository;
+import com.example.avancada20.data.WriteCallback;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class GeofenceMonitorTest {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private final GeofenceMonitor monitor = new GeofenceMonitor(new RegionGeofenceListener() {
+        @Override
+        public void onRegionEntered(Region region, double distanceMeters) {
+            events.add("entrou " + region.getName());
+        }
+
+        @Override
+        public void onRegionExited(Region region, double distanceMeters) {
+            events.add("saiu " + region.getName());
+        }
+    });
+
+    // Repositório que guarda o resultado de loadNear() até o teste entregá-lo
+    private static class HeldRepository extends InMemoryRegionRepository {
+        final CountDownLatch requested = new CountDownLatch(1);
+        final AtomicReference<ConsultaCallback> callback = new AtomicReference<>();
+        final AtomicReference<List<Region>> result = new AtomicReference<>();
+
+        @Override
+        public void loadNear(double latitude, double longitude, double radiusMeters, final ConsultaCallback held) {
+            super.loadNear(latitude, longitude, radiusMeters, new ConsultaCallback() {
+                @Override
+                public void onRegionsLoaded(List<Region> regions) {
+                    callback.set(held);
+                    result.set(regions);
+                    requested.countDown();
+                }
+
+                @Override
+                public void onCancelled() {
+                }
+            });
+        }
+    }
+
+    private final HeldRepository repository = new HeldRepository();
+
+    @After
+    public void tearDown() {
+        monitor.shutdown();
+        repository.shutdown();
+    }
+
+    @Test
+    public void reload_keepsOccupiedFencesAndLocalRegions() throws Exception {
+        Region praca = new Region("Praça", -19.9191, -43.9386, 1000L, 0);
+        praca.setKey("praca");
+        final CountDownLatch saved = new CountDownLatch(1);
+        repository.saveAll(Collections.singletonList(praca), new WriteCallback() {
+            @Override
+            public void onSuccess() {
+                saved.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+            }
+        });
+        assertTrue(saved.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // A Praça acabou de ser salva pelo dispositivo; a Banca, a ~100 m, ainda está na fila de envio
+        Region local = new Region("Praça", -19.9191, -43.9386, 1000L, 0);
+        local.setKey("praca");
+        Region banca = new Region("Banca", -19.9200, -43.9386, 1000L, 0);
+        banca.setKey("banca");
+        monitor.addRegion(local);
+        monitor.addRegion(banca);
+        monitor.loadRegions(repository);
+
+        // A primeira posição pede as regiões próximas e entra na Praça pelas cercas locais
+        monitor.onLocation(-19.9191, -43.9386);
+        assertEquals("entrou Praça", events.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(repository.requested.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, repository.result.get().size());
+
+        // Depois da troca, a Praça continua ocupada (sai dela, sem uma nova entrada) e a Banca continua monitorada
+        repository.callback.get().onRegionsLoaded(repository.result.get());
+        monitor.onLocation(-19.9200, -43.9386);
+        assertEquals("saiu Praça", events.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals("entrou Banca", events.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.avancada20.ui.home;
+
+import com.example.avancada20.data.RegionAdmission;
+import com.example.avancada20.data.RegionSpatialIndex;
+import com.example.avancada20.data.RegionStore;
+import com.example.calculos.GeofenceEngine;
+import com.example.calculos.TrackReplay;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bancada do caminho das posições, alimentada por um trajeto reproduzido (TrackReplay) em vez do GPS.
+ *
+ * Cada posição passa, na thread da reprodução e na ordem do trajeto, pelas mesmas etapas do aplicativo: as cercas
+ * virtuais (GeofenceEngine com os parâmetros do GeofenceMonitor, sobre as regiões existentes e as admitidas) e, a
+ * cada Config.admitEvery posições, a admissão de uma região na posição (RegionStore.tryAdd). Como não há threads
+ * concorrentes nem sorteios, o mesmo trajeto produz sempre os mesmos eventos e as mesmas admissões; só os tempos
+ * variam. Mede a vazão (posições por segundo), os percentis da latência de cada posição pelas etapas e o maior
+ * atraso de entrega em relação ao agendado pela reprodução (nas reproduções com esperas).
+ */
+public class LocationPipelineHarness {
+    public static class Config {
+        double speed = TrackReplay.AS_FAST_AS_POSSIBLE;
+        int admitEvery = 1; // Tenta admitir uma região a cada admitEvery posições (0 para nunca)
+    }
+
+    public static class Report {
+        int fixes;
+        int enters;
+        int exits;
+        int accepted;
+        int rejectedTooClose;
+        int rejectedDuplicate;
+        double seconds;
+        long p50Micros;
+        long p99Micros;
+        long maxMicros;
+        long maxLagMicros;
+
+        double fixesPerSecond() {
+            return fixes / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%d posições em %.3f s (%.0f posições/s) | entradas %d, saídas %d | aceitas %d, muito próximas %d, nome repetido %d"
+                            + " | latência p50 %.1f µs, p99 %.1f µs, máx %.1f µs | atraso máx %.2f ms",
+                    fixes, seconds, fixesPerSecond(), enters, exits, accepted, rejectedTooClose, rejectedDuplicate,
+                    p50Micros / 1.0, p99Micros / 1.0, maxMicros / 1.0, maxLagMicros / 1000.0);
+        }
+    }
+
+    public Report run(final TrackReplay track, List<Region> existing, final Config config) throws InterruptedException {
+        final Report report = new Report();
+        final long[] latencies = new long[track.size()];
+        final RegionSpatialIndex regions = RegionSpatialIndex.of(existing);
+        final GeofenceEngine engine = new GeofenceEngine(regions.getIndex(), GeofenceMonitor.RADIUS,
+                GeofenceMonitor.HYSTERESIS, GeofenceMonitor.CELL_SIZE);
+        final RegionStore store = new RegionStore();
+        final GeofenceEngine.Listener events = new GeofenceEngine.Listener() {
+            @Override
+            public void onEnter(int id, double distanceMeters) {
+                report.enters++;
+            }
+
+            @Override
+            public void onExit(int id, double distanceMeters) {
+                report.exits++;
+            }
+        };
+
+        final long start = System.nanoTime();
+        track.play(config.speed, (time, latitude, longitude) -> {
+            int index = report.fixes++;
+            long delivered = System.nanoTime();
+            if (config.speed != TrackReplay.AS_FAST_AS_POSSIBLE) { // Sem esperas, não há instante agendado
+                report.maxLagMicros = Math.max(report.maxLagMicros, (delivered - track.dueNanos(start, index, config.speed)) / 1000);
+            }
+
+            engine.update(latitude, longitude, events);
+            if (config.admitEvery > 0 && index % config.admitEvery == 0) {
+                Region region = new Region("Ponto " + index, latitude, longitude, time, 0);
+                RegionAdmission.Result result = store.tryAdd(region);
+                if (result == RegionAdmission.Result.ACCEPTED) {
+                    report.accepted++;
+                    regions.add(region); // Como o GeofenceMonitor.addRegion()
+                    engine.invalidate();
+                } else if (result == RegionAdmission.Result.TOO_CLOSE) {
+                    report.rejectedTooClose++;
+                } else {
+                    report.rejectedDuplicate++;
+                }
+            }
+            latencies[index] = (System.nanoTime() - delivered) / 1000;
+            return true;
+        });
+        report.seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = Arrays.copyOf(latencies, report.fixes);
+        Arrays.sort(sorted);
+        if (sorted.length > 0) {
+            report.p50Micros = sorted[(int) (sorted.length * 0.50)];
+            report.p99Micros = sorted[(int) (sorted.length * 0.99)];
+            report.maxMicros = sorted[sorted.length - 1];
+        }
+        return report;
+    }
+}
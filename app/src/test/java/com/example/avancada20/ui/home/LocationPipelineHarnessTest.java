@@ -0,0 +1,70 @@
+package com.example.avancada20.ui.home;
+
+import com.example.calculos.TrackReplay;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LocationPipelineHarnessTest {
+    private static final double METERS_PER_DEGREE = 111195;
+    private static final double LATITUDE = -19.9191;
+    private static final double LONGITUDE = -43.9386;
+
+    // Caminhada para o leste a 1,5 m/s, uma posição por segundo
+    private static TrackReplay walk(int fixes) {
+        long[] times = new long[fixes];
+        double[] latitudes = new double[fixes];
+        double[] longitudes = new double[fixes];
+        double cos = Math.cos(Math.toRadians(LATITUDE));
+        for (int i = 0; i < fixes; i++) {
+            times[i] = 1792411200000L + i * 1000L;
+            latitudes[i] = LATITUDE;
+            longitudes[i] = LONGITUDE + i * 1.5 / (METERS_PER_DEGREE * cos);
+        }
+        return new TrackReplay(times, latitudes, longitudes);
+    }
+
+    // Uma região a cada 200 m ao longo da caminhada
+    private static List<Region> regionsAlong(int count) {
+        double cos = Math.cos(Math.toRadians(LATITUDE));
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            regions.add(new Region("Parada " + i, LATITUDE, LONGITUDE + (100 + i * 200) / (METERS_PER_DEGREE * cos), 0L, 0));
+        }
+        return regions;
+    }
+
+    @Test
+    public void replay_asFastAsPossible_isDeterministic() throws InterruptedException {
+        TrackReplay track = walk(2000); // 3 km
+        LocationPipelineHarness.Config config = new LocationPipelineHarness.Config();
+        LocationPipelineHarness.Report first = new LocationPipelineHarness().run(track, regionsAlong(15), config);
+        LocationPipelineHarness.Report second = new LocationPipelineHarness().run(track, regionsAlong(15), config);
+
+        assertEquals(2000, first.fixes);
+        assertEquals(15 + first.accepted, first.enters); // Cada região existente e cada admitida, uma vez
+        assertTrue(first.accepted >= 2000 * 1.5 / 31 - 1); // Uma admissão a cada ~30 m percorridos
+        assertEquals(2000, first.accepted + first.rejectedTooClose);
+        assertEquals(first.enters, second.enters);
+        assertEquals(first.exits, second.exits);
+        assertEquals(first.accepted, second.accepted);
+        assertEquals(first.rejectedTooClose, second.rejectedTooClose);
+    }
+
+    @Test
+    public void replay_atScaledSpeed_followsTrackTiming() throws InterruptedException {
+        TrackReplay track = walk(101); // 100 s de trajeto
+        LocationPipelineHarness.Config config = new LocationPipelineHarness.Config();
+        config.speed = 500;
+        config.admitEvery = 10;
+        LocationPipelineHarness.Report report = new LocationPipelineHarness().run(track, regionsAlong(1), config);
+
+        assertEquals(101, report.fixes);
+        assertTrue(report.seconds >= 0.19); // 100 s a 500×
+        assertEquals(11, report.accepted + report.rejectedTooClose);
+    }
+}
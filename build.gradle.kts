@@ -3,4 +3,5 @@ plugins {
     alias(libs.plugins.androidApplication) apply false
     id("com.google.gms.google-services") version "4.4.1" apply false
     alias(libs.plugins.androidLibrary) apply false
+    alias(libs.plugins.jmh) apply false
 }
\ No newline at end of file
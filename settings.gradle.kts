@@ -22,3 +22,4 @@ dependencyResolutionManagement {
 rootProject.name = "Avancada2.0"
 include(":app")
 include(":Calculos")
+include(":Ferramentas")